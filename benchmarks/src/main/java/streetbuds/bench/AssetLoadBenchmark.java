@@ -0,0 +1,93 @@
+package streetbuds.bench;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.AssetManager;
+
+/**
+ * Decodificar un lote de fondos PNG con AssetManager en un solo hilo (como cargarlos uno tras otro)
+ * y en un hilo por procesador, y pedirlos de nuevo cuando ya están en la caché.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetLoadBenchmark {
+    private static final int IMAGES = 16;
+    private static final int SIZE = 512;
+    private static final long BUDGET = 256L << 20;
+
+    private Path directory;
+    private final List<String> paths = new ArrayList<>();
+    private AssetManager serial;
+    private AssetManager parallel;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("streetbuds-assets");
+        long seed = 7;
+        for (int i = 0; i < IMAGES; i++) {
+            BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    seed = seed * 6364136223846793005L + 1442695040888963407L;
+                    int noise = (int) (seed >>> 59); // Un poco de ruido para que el PNG no se comprima a nada
+                    image.setRGB(x, y, ((x + i) & 0xFF) << 16 | (y & 0xFF) << 8 | (x ^ y) & 0xE0 | noise);
+                }
+            }
+            Path file = directory.resolve("fondo" + i + ".png");
+            ImageIO.write(image, "png", file.toFile());
+            paths.add(file.toString());
+        }
+        serial = new AssetManager(1, BUDGET);
+        parallel = new AssetManager(0, BUDGET);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        serial.shutdown();
+        parallel.shutdown();
+        for (String path : paths) {
+            Files.deleteIfExists(Path.of(path));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Object serialLoad() {
+        serial.clear();
+        return loadAll(serial);
+    }
+
+    @Benchmark
+    public Object parallelLoad() {
+        parallel.clear();
+        return loadAll(parallel);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object cachedLoad() {
+        return loadAll(parallel); // Tras la primera llamada, todo sale de la caché
+    }
+
+    private Object loadAll(AssetManager assets) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[paths.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = assets.loadImage(paths.get(i));
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+}
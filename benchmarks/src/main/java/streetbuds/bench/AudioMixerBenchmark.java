@@ -0,0 +1,58 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.AudioMixer;
+import streetbuds.SoundEffect;
+
+/**
+ * Coste de mezclar un bloque de la línea de audio (512 frames, ~12 ms) con varias voces sonando,
+ * y de lanzar un efecto cuando todas las voces están ocupadas y hay que robar una.
+ * No necesita dispositivo de audio: AudioMixer escribe en un byte[].
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioMixerBenchmark {
+    private static final int FRAMES = 512;
+
+    @Param({ "1", "8", "32" })
+    public int voices;
+
+    private AudioMixer mixer;
+    private SoundEffect effect;
+    private byte[] out;
+
+    @Setup
+    public void setUp() {
+        mixer = new AudioMixer(voices);
+        short[] samples = new short[2 * (int) AudioMixer.SAMPLE_RATE]; // Un segundo de ruido estéreo
+        long seed = 42;
+        for (int i = 0; i < samples.length; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            samples[i] = (short) (seed >>> 48);
+        }
+        effect = new SoundEffect("ruido", samples);
+        out = new byte[FRAMES * AudioMixer.FRAME_BYTES];
+    }
+
+    @Benchmark
+    public byte[] render() {
+        while (mixer.getActiveVoices() < voices) {
+            mixer.play(effect, 0.5f, 0); // Mantiene todas las voces ocupadas
+        }
+        mixer.render(out, 0, FRAMES);
+        return out;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int playStealing() {
+        return mixer.play(effect, 0.5f, 0); // Tras las primeras llamadas, siempre roba la voz más antigua
+    }
+}
@@ -0,0 +1,39 @@
+package streetbuds.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.BatchRunner;
+import streetbuds.InputPolicy;
+import streetbuds.LevelLoader;
+
+/**
+ * Escalado de BatchRunner con el número de hilos: un lote de 32 partidas independientes de 2000 ticks
+ * con la política random sobre un nivel de 200 enemigos. Como las partidas no comparten nada,
+ * el tiempo por lote debería bajar casi en proporción a los hilos hasta llegar a los núcleos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchScalingBenchmark {
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private BatchRunner runner;
+
+    @Setup
+    public void setUp() {
+        byte[] level = LevelLoader.encode(BenchmarkLevels.withEntities(200, 200));
+        runner = new BatchRunner(List.of(level), InputPolicy::random, 2000);
+    }
+
+    @Benchmark
+    public List<BatchRunner.Result> batch() {
+        return runner.run(32, threads);
+    }
+}
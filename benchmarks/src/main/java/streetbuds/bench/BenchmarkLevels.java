@@ -0,0 +1,95 @@
+package streetbuds.bench;
+
+import java.awt.Point;
+import java.util.Random;
+
+import streetbuds.Collectible;
+import streetbuds.Enemy;
+import streetbuds.Level;
+import streetbuds.Platform;
+
+/**
+ * Niveles sintéticos para los benchmarks, generados con una semilla fija
+ * para que todas las ejecuciones midan lo mismo.
+ */
+final class BenchmarkLevels {
+    private BenchmarkLevels() {
+    }
+
+    /**
+     * Nivel con un suelo continuo y plataformas repartidas a lo largo de un mundo de 20 píxeles por plataforma.
+     */
+    static Level withPlatforms(int platformCount) {
+        Random random = new Random(42);
+        int worldWidth = worldWidth(platformCount, 20);
+        Level level = new Level("Plataformas " + platformCount, new Point(100, 390));
+        level.addPlatform(new Platform(0, 450, worldWidth, 50, true));
+        for (int i = 1; i < platformCount; i++) {
+            int x = random.nextInt(worldWidth);
+            int y = 100 + random.nextInt(330);
+            level.addPlatform(new Platform(x, y, 40 + random.nextInt(120), 20, false));
+        }
+        return level;
+    }
+
+    /**
+     * Nivel con plataformas repartidas dentro de una sola pantalla de 800x600.
+     */
+    static Level withPlatformsOnScreen(int platformCount) {
+        Random random = new Random(42);
+        Level level = new Level("Pantalla " + platformCount, new Point(100, 390));
+        level.addPlatform(new Platform(0, 450, 800, 50, true));
+        for (int i = 1; i < platformCount; i++) {
+            level.addPlatform(new Platform(random.nextInt(760), random.nextInt(560), 10 + random.nextInt(60),
+                5 + random.nextInt(20), false));
+        }
+        return level;
+    }
+
+    /**
+     * Nivel con suelo, enemigos y coleccionables repartidos a lo largo de un mundo de 50 píxeles por objeto.
+     */
+    static Level withEntities(int enemyCount, int collectibleCount) {
+        Random random = new Random(42);
+        int worldWidth = worldWidth(Math.max(enemyCount, collectibleCount), 50);
+        Level level = new Level("Entidades " + enemyCount, new Point(100, 390));
+        level.setScoreToComplete(Integer.MAX_VALUE); // Que el nivel no termine durante la medición
+        level.addPlatform(new Platform(0, 450, worldWidth, 50, true));
+        for (int i = 0; i < enemyCount; i++) {
+            level.addEnemy(new Enemy(random.nextInt(worldWidth), 420, 30, 30));
+        }
+        for (int i = 0; i < collectibleCount; i++) {
+            level.addCollectible(new Collectible(random.nextInt(worldWidth), 250 + random.nextInt(180), 20, 20,
+                Collectible.CollectibleType.COIN, 100));
+        }
+        return level;
+    }
+
+    /**
+     * Nivel de varias pantallas de ancho con la misma densidad de objetos en cada una:
+     * 100 plataformas, 5 enemigos y 5 coleccionables por pantalla.
+     */
+    static Level withScreens(int screens) {
+        Random random = new Random(42);
+        int worldWidth = screens * 800;
+        Level level = new Level("Pantallas " + screens, new Point(100, 390));
+        level.addPlatform(new Platform(0, 450, worldWidth, 50, true));
+        for (int screen = 0; screen < screens; screen++) {
+            int left = screen * 800;
+            for (int i = 1; i < 100; i++) {
+                level.addPlatform(new Platform(left + random.nextInt(760), random.nextInt(430),
+                    10 + random.nextInt(60), 5 + random.nextInt(20), false));
+            }
+            for (int i = 0; i < 5; i++) {
+                level.addEnemy(new Enemy(left + random.nextInt(770), 420, 30, 30));
+                level.addCollectible(new Collectible(left + random.nextInt(780), 250 + random.nextInt(180), 20, 20,
+                    Collectible.CollectibleType.COIN, 100));
+            }
+        }
+        return level;
+    }
+
+    private static int worldWidth(int objects, int pixelsPerObject) {
+        return (int) Math.min(Integer.MAX_VALUE / 2, Math.max(800L, (long) objects * pixelsPerObject));
+    }
+}
@@ -0,0 +1,61 @@
+package streetbuds.bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.Level;
+
+/**
+ * Dibujo de una vista de 800x600 en el centro de niveles cada vez más anchos,
+ * recortando a la vista de la cámara o recorriendo todo el nivel.
+ * Con el recorte el coste debería ser el mismo con 1 que con 100 pantallas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CameraDrawBenchmark {
+    @Param({ "1", "10", "100" })
+    public int screens;
+
+    @Param({ "true", "false" })
+    public boolean culled;
+
+    private Level level;
+    private BufferedImage target;
+    private Graphics2D g2d;
+    private int viewX;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.withScreens(screens);
+        level.setStaticLayerEnabled(false); // Medir solo el recorte de objetos
+        target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g2d = target.createGraphics();
+        viewX = (screens / 2) * 800;
+        g2d.translate(-viewX, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(viewX, 0, 800, 600);
+        if (culled) {
+            level.draw(g2d, viewX - 64, -64, 800 + 128, 600 + 128);
+        } else {
+            level.draw(g2d);
+        }
+        return target;
+    }
+}
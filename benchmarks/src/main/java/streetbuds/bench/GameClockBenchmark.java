@@ -0,0 +1,47 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.GameClock;
+
+/**
+ * Coste de avanzar un tick del reloj del juego con muchos temporizadores pendientes, cada uno
+ * de los cuales se vuelve a programar al vencer (como un aturdimiento que se repite).
+ * Con la rueda solo se recorren los que caen en la casilla del tick, no todos los pendientes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameClockBenchmark {
+    private static final long PERIOD = GameClock.ticks(2000); // Como la invulnerabilidad del jugador
+
+    @Param({ "100", "10000", "100000" })
+    public int timers;
+
+    private GameClock clock;
+
+    @Setup
+    public void setUp() {
+        clock = new GameClock();
+        GameClock.Expiry repeat = new GameClock.Expiry() {
+            @Override
+            public void expire(int target, long tick) {
+                clock.schedule(PERIOD, this, target);
+            }
+        };
+        for (int i = 0; i < timers; i++) {
+            clock.schedule(1 + i % PERIOD, repeat, i); // Repartidos por igual entre los ticks del periodo
+        }
+    }
+
+    @Benchmark
+    public long advance() {
+        clock.advance();
+        return clock.getTick();
+    }
+}
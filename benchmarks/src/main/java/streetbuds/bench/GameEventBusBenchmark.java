@@ -0,0 +1,50 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.GameEvent;
+import streetbuds.GameEventBus;
+
+/**
+ * Publicar un lote de eventos en GameEventBus y vaciarlo en cada suscripción, como hace la simulación
+ * en un tick con muchos choques. Con -prof gc se comprueba que no se crean objetos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEventBusBenchmark {
+    private static final int BATCH = 64;
+
+    @Param({ "1", "4" })
+    public int subscriptions;
+
+    private GameEventBus bus;
+    private GameEventBus.Subscription[] consumers;
+    private long sum;
+    private final GameEvent.Handler handler = event -> sum += event.getValue();
+
+    @Setup
+    public void setUp() {
+        bus = new GameEventBus(1024);
+        consumers = new GameEventBus.Subscription[subscriptions];
+        for (int i = 0; i < subscriptions; i++) {
+            consumers[i] = bus.subscribe();
+        }
+    }
+
+    @Benchmark
+    public long publishAndDrain() {
+        for (int i = 0; i < BATCH; i++) {
+            bus.publish(GameEvent.Type.ITEM_COLLECTED, i, i, i, i, 10);
+        }
+        for (GameEventBus.Subscription consumer : consumers) {
+            consumer.drain(handler);
+        }
+        return sum;
+    }
+}
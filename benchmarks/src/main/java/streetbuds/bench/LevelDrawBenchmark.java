@@ -0,0 +1,52 @@
+package streetbuds.bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.Level;
+
+/**
+ * Level.draw sobre una imagen de 800x600 en memoria, con y sin la capa estática precalculada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LevelDrawBenchmark {
+    @Param({ "10", "100", "1000", "10000" })
+    public int platforms;
+
+    @Param({ "true", "false" })
+    public boolean staticLayer;
+
+    private Level level;
+    private BufferedImage target;
+    private Graphics2D g2d;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.withPlatformsOnScreen(platforms);
+        level.setStaticLayerEnabled(staticLayer);
+        target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g2d = target.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, 800, 600);
+        level.draw(g2d);
+        return target;
+    }
+}
@@ -0,0 +1,46 @@
+package streetbuds.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.Level;
+import streetbuds.LevelConverter;
+import streetbuds.LevelLoader;
+
+/**
+ * Carga de un nivel ya leído en memoria: el formato binario de LevelLoader frente al de texto de LevelConverter.
+ * Cada pantalla tiene 110 objetos, así que 1000 pantallas son unos 110.000.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+    @Param({ "10", "1000" })
+    public int screens;
+
+    private byte[] binary;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Level level = BenchmarkLevels.withScreens(screens);
+        binary = LevelLoader.encode(level);
+        text = LevelConverter.format(level);
+    }
+
+    @Benchmark
+    public Level binary() {
+        return LevelLoader.decode(binary);
+    }
+
+    @Benchmark
+    public Level text() throws IOException {
+        return LevelConverter.parse(new StringReader(text));
+    }
+}
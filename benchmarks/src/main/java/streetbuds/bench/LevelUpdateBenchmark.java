@@ -0,0 +1,34 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.Level;
+
+/**
+ * Un tick de Level.update: movimiento de todos los enemigos y su actualización en el índice espacial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelUpdateBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    public int enemies;
+
+    private Level level;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.withEntities(enemies, 0);
+    }
+
+    @Benchmark
+    public Level update() {
+        level.update();
+        return level;
+    }
+}
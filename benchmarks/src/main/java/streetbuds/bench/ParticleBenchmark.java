@@ -0,0 +1,46 @@
+package streetbuds.bench;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.ParticleSystem;
+import streetbuds.Simulation;
+
+/**
+ * Emisión (createExplosion) y actualización de partículas en un sistema lleno hasta la mitad.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleBenchmark {
+    @Param({ "1000", "10000", "50000" })
+    public int particles;
+
+    private ParticleSystem system;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        system = new ParticleSystem(particles * 2, ParticleSystem.OverflowPolicy.OVERWRITE);
+        system.createExplosion(400, 300, particles, Color.YELLOW);
+    }
+
+    @Benchmark
+    public ParticleSystem createExplosion() {
+        system.createExplosion(400, 300, particles, Color.YELLOW);
+        return system;
+    }
+
+    @Benchmark
+    public ParticleSystem update() {
+        system.update(Simulation.TICK_SECONDS);
+        if (system.getCount() == 0) {
+            system.createExplosion(400, 300, particles, Color.YELLOW); // Mantener partículas vivas
+        }
+        return system;
+    }
+}
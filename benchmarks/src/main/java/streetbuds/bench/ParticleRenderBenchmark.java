@@ -0,0 +1,68 @@
+package streetbuds.bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.ParticleRasterRenderer;
+import streetbuds.ParticleSystem;
+import streetbuds.Simulation;
+
+/**
+ * Dibujo de un frame de partículas sobre una imagen de 800x600 en memoria,
+ * con fillOval por partícula o con el renderizado directo a píxeles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParticleRenderBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int particles;
+
+    @Param({ "shapes", "raster" })
+    public String renderer;
+
+    private ParticleSystem system;
+    private ParticleRasterRenderer raster;
+    private BufferedImage target;
+    private Graphics2D g2d;
+
+    @Setup
+    public void setUp() {
+        system = new ParticleSystem(particles, ParticleSystem.OverflowPolicy.DROP_NEW);
+        // Varias explosiones repartidas por la pantalla, ya en movimiento
+        for (int e = 0; e < 10; e++) {
+            Color color = e % 2 == 0 ? Color.YELLOW : Color.ORANGE;
+            system.createExplosion(80 + e * 70, 200 + (e % 3) * 100, particles / 10, color);
+        }
+        for (int t = 0; t < 10; t++) {
+            system.update(Simulation.TICK_SECONDS);
+        }
+        raster = new ParticleRasterRenderer(800, 600);
+        target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g2d = target.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, 800, 600);
+        if (renderer.equals("raster")) {
+            raster.draw(system, g2d);
+        } else {
+            system.draw(g2d);
+        }
+        return target;
+    }
+}
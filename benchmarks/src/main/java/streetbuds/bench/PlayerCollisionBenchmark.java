@@ -0,0 +1,51 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.Level;
+import streetbuds.Player;
+import streetbuds.SpatialGrid;
+
+/**
+ * Un tick de Player.update (movimiento y resolución de colisiones con plataformas),
+ * recorriendo todas las plataformas o consultando el índice espacial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerCollisionBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    public int platforms;
+
+    @Param({ "true", "false" })
+    public boolean useGrid;
+
+    private Level level;
+    private Player player;
+    private SpatialGrid grid;
+    private final boolean[] keys = new boolean[256];
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.withPlatforms(platforms);
+        player = new Player(100, 390);
+        grid = useGrid ? level.getPlatformGrid() : null;
+        keys['D'] = true;
+    }
+
+    @Benchmark
+    public Player update() {
+        if (++tick % 2_000 == 0) {
+            player.respawn(); // Volver al inicio para no salir del mundo
+        }
+        keys['W'] = (tick % 40) < 20; // Saltar de forma intermitente
+        player.update(keys, level.getPlatforms(), grid);
+        return player;
+    }
+}
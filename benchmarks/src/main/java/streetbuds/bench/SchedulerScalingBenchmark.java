@@ -0,0 +1,54 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.GameState;
+import streetbuds.Simulation;
+
+/**
+ * Escalado de la fase de actualización con el número de hilos de SystemScheduler:
+ * un tick de Simulation.step con 100k enemigos, de 1 hilo (sin pool) a 8.
+ * El movimiento se reparte por trozos del arquetipo; la actualización del índice espacial
+ * y las colisiones siguen en un hilo, así que marcan el límite de la mejora.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerScalingBenchmark {
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    @Param({ "100000" })
+    public int enemies;
+
+    private Simulation simulation;
+    private final boolean[] keys = new boolean[256];
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        simulation = new Simulation(threads);
+        simulation.setLevel(BenchmarkLevels.withEntities(enemies, 0));
+        keys['D'] = true;
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    @Benchmark
+    public Simulation step() {
+        if (simulation.getGameState() != GameState.PLAYING) {
+            simulation.restart();
+        }
+        keys['W'] = (++tick % 40) < 20;
+        simulation.step(keys);
+        return simulation;
+    }
+}
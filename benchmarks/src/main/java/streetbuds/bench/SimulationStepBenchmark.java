@@ -0,0 +1,44 @@
+package streetbuds.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.GameState;
+import streetbuds.Simulation;
+
+/**
+ * Un tick completo de Simulation.step: nivel, jugador y los bucles de colisión con enemigos
+ * y coleccionables que antes vivían en GamePanel.update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationStepBenchmark {
+    @Param({ "100", "1000", "10000", "100000" })
+    public int entities;
+
+    private Simulation simulation;
+    private final boolean[] keys = new boolean[256];
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        simulation = new Simulation();
+        simulation.setLevel(BenchmarkLevels.withEntities(entities, entities));
+        keys['D'] = true;
+    }
+
+    @Benchmark
+    public Simulation step() {
+        if (simulation.getGameState() != GameState.PLAYING) {
+            simulation.restart();
+        }
+        keys['W'] = (++tick % 40) < 20;
+        simulation.step(keys);
+        return simulation;
+    }
+}
@@ -0,0 +1,139 @@
+package streetbuds.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import streetbuds.EntityTable;
+import streetbuds.Player;
+import streetbuds.Simulation;
+import streetbuds.SimulationSnapshot;
+
+/**
+ * Capturar y restaurar el estado de la simulación con SimulationSnapshot frente a la serialización
+ * de Java. Level, Enemy y Collectible no son serializables, así que ObjectOutputStream recibe
+ * lo equivalente: el jugador y las columnas de los arquetipos copiadas a arrays, que es su mejor caso.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({ "100", "10000" })
+    public int entities;
+
+    /**
+     * Lo que se serializa con ObjectOutputStream: el mismo estado que guarda la instantánea.
+     */
+    static final class SerializedState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        Player player;
+        int score, lives;
+        long tick;
+        int[] enemyIds, enemyX, enemyY, enemyVelocityX, enemyHealth, enemyFlags;
+        long[] enemyTimers;
+        int[] collectibleIds;
+    }
+
+    private Simulation simulation;
+    private SimulationSnapshot snapshot;
+    private SerializedState state;
+    private ByteArrayOutputStream bytes;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        simulation = new Simulation();
+        simulation.setLevel(BenchmarkLevels.withEntities(entities, entities));
+        boolean[] keys = new boolean[256];
+        keys['D'] = true;
+        for (int i = 0; i < 120; i++) {
+            simulation.step(keys); // Estado con algo de movimiento y partículas
+        }
+        snapshot = new SimulationSnapshot();
+        snapshot.capture(simulation);
+        state = new SerializedState();
+        bytes = new ByteArrayOutputStream(snapshot.getCapacity());
+        serialized = objectStreamWrite().toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    @Benchmark
+    public SimulationSnapshot capture() {
+        snapshot.capture(simulation);
+        return snapshot;
+    }
+
+    @Benchmark
+    public Simulation restore() {
+        snapshot.restore(simulation);
+        return simulation;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream objectStreamWrite() throws IOException {
+        fill(state);
+        bytes.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public Object objectStreamRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Copia el estado actual a los arrays que serializa ObjectOutputStream.
+     */
+    private void fill(SerializedState state) {
+        state.player = simulation.getPlayer();
+        state.score = simulation.getScore();
+        state.lives = simulation.getLives();
+        state.tick = simulation.getTickCount();
+        EntityTable enemies = simulation.getLevel().getEnemyTable();
+        int n = enemies.size();
+        if (state.enemyIds == null || state.enemyIds.length != n) {
+            state.enemyIds = new int[n];
+            state.enemyX = new int[n];
+            state.enemyY = new int[n];
+            state.enemyVelocityX = new int[n];
+            state.enemyHealth = new int[n];
+            state.enemyFlags = new int[n];
+            state.enemyTimers = new long[n];
+        }
+        for (int row = 0; row < n; row++) {
+            state.enemyIds[row] = enemies.idAt(row);
+            state.enemyX[row] = enemies.getX(row);
+            state.enemyY[row] = enemies.getY(row);
+            state.enemyVelocityX[row] = enemies.getVelocityX(row);
+            state.enemyHealth[row] = enemies.getHealth(row);
+            state.enemyFlags[row] = enemies.getFlags(row);
+            state.enemyTimers[row] = enemies.getTimer(row);
+        }
+        EntityTable collectibles = simulation.getLevel().getCollectibleTable();
+        if (state.collectibleIds == null || state.collectibleIds.length != collectibles.size()) {
+            state.collectibleIds = new int[collectibles.size()];
+        }
+        for (int row = 0; row < collectibles.size(); row++) {
+            state.collectibleIds[row] = collectibles.idAt(row);
+        }
+    }
+}
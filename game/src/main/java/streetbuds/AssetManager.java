@@ -0,0 +1,337 @@
+package streetbuds;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Carga imágenes y sonidos en un pool de hilos y los guarda decodificados en una caché con límite de bytes.
+ *
+ * Las cargas devuelven un CompletableFuture enseguida; quien necesite el recurso ya puede esperarlo con join().
+ * Si se pide un recurso que ya se está decodificando, se comparte esa carga en vez de empezar otra. Los recursos
+ * decodificados se quedan en la caché hasta que, al pasar del presupuesto, se descartan los usados hace más
+ * tiempo; un recurso mayor que todo el presupuesto se devuelve pero no se guarda. Una carga que falla no se
+ * guarda, así que se puede volver a pedir.
+ *
+ * Las rutas que empiezan por "/" se buscan primero entre los recursos del juego y si no, como archivos.
+ * Todos los métodos se pueden llamar desde cualquier hilo.
+ */
+public class AssetManager {
+    private static final long DEFAULT_BUDGET = Long.getLong("streetbuds.assetCache", 64) << 20; // MB
+
+    /**
+     * Cómo se lee y decodifica un tipo de recurso.
+     */
+    private interface Decoder<T> {
+        T decode(String path) throws IOException;
+    }
+
+    /**
+     * Un recurso en la caché, con lo que ocupa.
+     */
+    private static final class Cached {
+        final Object value;
+        final long bytes;
+
+        Cached(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Resultado de una precarga: cuánto tardó con el pool y cuánto habría tardado cargando un recurso tras otro.
+     */
+    public static final class WarmUp {
+        private final int assets;
+        private final int failures;
+        private final long nanos;
+        private final long serialNanos;
+
+        WarmUp(int assets, int failures, long nanos, long serialNanos) {
+            this.assets = assets;
+            this.failures = failures;
+            this.nanos = nanos;
+            this.serialNanos = serialNanos;
+        }
+
+        public int getAssets() {
+            return assets;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * Tiempo real desde que se pidió la precarga hasta que terminó el último recurso, en nanosegundos.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Suma de lo que tardó cada recurso en leerse y decodificarse: lo que tardaría una carga en serie.
+         */
+        public long getSerialNanos() {
+            return serialNanos;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long budget; // Bytes máximos en la caché
+    private final LinkedHashMap<String, Cached> cache = new LinkedHashMap<>(16, 0.75f, true); // En orden de uso
+    private final HashMap<String, CompletableFuture<?>> loading = new HashMap<>(); // Cargas en curso
+    private final AtomicLong decodeNanos = new AtomicLong(); // Tiempo total leyendo y decodificando
+    private long cachedBytes;
+
+    // Métricas
+    private long hits, misses, shared, evictions;
+
+    /**
+     * @param threads Hilos que decodifican; 0 para uno por procesador.
+     * @param budget Bytes que pueden ocupar los recursos decodificados en la caché.
+     */
+    public AssetManager(int threads, long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("El presupuesto de la caché no puede ser negativo: " + budget);
+        }
+        this.budget = budget;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("StreetBuds-Recursos-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * La JVM crea la instancia la primera vez que se usa esta clase, una sola vez aunque la pidan varios hilos.
+     * El presupuesto se configura con -Dstreetbuds.assetCache=megabytes (64 por defecto).
+     */
+    private static final class Holder {
+        static final AssetManager INSTANCE = new AssetManager(0, DEFAULT_BUDGET);
+    }
+
+    public static AssetManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Pide una imagen en cualquier formato de ImageIO.
+     * @return La imagen cuando esté decodificada; falla con IOException si no se puede leer.
+     */
+    public CompletableFuture<BufferedImage> loadImage(String path) {
+        return load("imagen:" + path, path, AssetManager::decodeImage,
+            image -> (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8);
+    }
+
+    /**
+     * Pide un sonido en cualquier formato de Java Sound, decodificado al formato de AudioMixer.
+     * @return El sonido cuando esté decodificado; falla con IOException si no se puede leer.
+     */
+    public CompletableFuture<SoundEffect> loadSound(String path) {
+        return load("sonido:" + path, path, AssetManager::decodeSound, SoundEffect::getBytes);
+    }
+
+    /**
+     * Pide a la vez todas las imágenes y sonidos indicados.
+     * @return El resultado cuando terminen todos, hayan fallado o no.
+     */
+    public CompletableFuture<WarmUp> warmUp(Collection<String> images, Collection<String> sounds) {
+        long start = System.nanoTime();
+        long decodedBefore = decodeNanos.get();
+        List<CompletableFuture<?>> futures = new ArrayList<>(images.size() + sounds.size());
+        for (String image : images) {
+            futures.add(loadImage(image));
+        }
+        for (String sound : sounds) {
+            futures.add(loadSound(sound));
+        }
+        return CompletableFuture.allOf(futures.stream()
+                .map(future -> future.exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new))
+            .thenApply(done -> {
+                int failures = 0;
+                for (CompletableFuture<?> future : futures) {
+                    failures += future.isCompletedExceptionally() ? 1 : 0;
+                }
+                // Con otras cargas a la vez la suma incluye las suyas; al arrancar no hay otras
+                return new WarmUp(futures.size(), failures, System.nanoTime() - start,
+                    decodeNanos.get() - decodedBefore);
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> CompletableFuture<T> load(String key, String path, Decoder<T> decoder,
+            ToLongFunction<T> size) {
+        Cached cached = cache.get(key);
+        if (cached != null) {
+            hits++;
+            return CompletableFuture.completedFuture((T) cached.value);
+        }
+        CompletableFuture<T> future = (CompletableFuture<T>) loading.get(key);
+        if (future != null) {
+            shared++;
+        } else {
+            misses++;
+            CompletableFuture<T> created = new CompletableFuture<>();
+            loading.put(key, created);
+            pool.execute(() -> decode(key, path, decoder, size, created));
+            future = created;
+        }
+        return future.copy(); // Que cancelar o completar una copia no afecte a los demás que la esperan
+    }
+
+    private <T> void decode(String key, String path, Decoder<T> decoder, ToLongFunction<T> size,
+            CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = decoder.decode(path);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                loading.remove(key);
+            }
+            future.completeExceptionally(e);
+            return;
+        } finally {
+            decodeNanos.addAndGet(System.nanoTime() - start);
+        }
+        store(key, value, size.applyAsLong(value));
+        future.complete(value);
+    }
+
+    /**
+     * Guarda un recurso recién decodificado y descarta los menos usados hasta volver al presupuesto.
+     */
+    private synchronized void store(String key, Object value, long bytes) {
+        loading.remove(key);
+        if (bytes > budget) {
+            return;
+        }
+        cache.put(key, new Cached(value, bytes));
+        cachedBytes += bytes;
+        Iterator<Map.Entry<String, Cached>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > budget) {
+            cachedBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static InputStream open(String path) throws IOException {
+        if (path.startsWith("/")) {
+            InputStream resource = AssetManager.class.getResourceAsStream(path);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return Files.newInputStream(Paths.get(path));
+    }
+
+    private static BufferedImage decodeImage(String path) throws IOException {
+        try (InputStream in = open(path)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                throw new IOException("Formato de imagen no soportado: " + path);
+            }
+            return image;
+        }
+    }
+
+    /**
+     * Lee y decodifica un sonido; si JFR graba, emite un SoundLoadEvent que mide solo este trabajo.
+     */
+    private static SoundEffect decodeSound(String path) throws IOException {
+        SoundLoadEvent event = new SoundLoadEvent();
+        event.begin();
+        try (InputStream in = open(path)) {
+            // Java Sound necesita poder volver atrás para reconocer el formato
+            SoundEffect effect = SoundEffect.decode(path, AudioSystem.getAudioInputStream(new BufferedInputStream(in)));
+            event.bytes = effect.getBytes();
+            event.success = true;
+            return effect;
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IOException("Formato de sonido no soportado: " + path, e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Vacía la caché; las cargas en curso terminan y se guardan igualmente.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Termina los hilos de carga; las cargas pendientes pueden no completarse.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int getCachedAssets() {
+        return cache.size();
+    }
+
+    /**
+     * Peticiones servidas desde la caché.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Peticiones que empezaron una carga.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Peticiones que se unieron a una carga que ya estaba en curso.
+     */
+    public synchronized long getShared() {
+        return shared;
+    }
+
+    /**
+     * Recursos descartados de la caché por pasar del presupuesto.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,199 @@
+package streetbuds;
+
+import java.util.Arrays;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Mezclador por software: suma hasta un número fijo de voces en un solo flujo PCM.
+ *
+ * Cada voz reproduce un SoundEffect desde su propia posición, así que el mismo efecto puede solaparse
+ * consigo mismo (monedas seguidas) sin cortarse. Si no queda ninguna voz libre, la nueva ocupa la de menor
+ * prioridad, y entre iguales la que empezó antes, siempre que no tenga más prioridad que la nueva.
+ *
+ * render() escribe en un byte[] cualquiera, sin dispositivo de audio: SoundManager lo llama desde su hilo
+ * para alimentar la línea de salida, y las pruebas y benchmarks lo llaman directamente. Todos los buffers
+ * se reservan al crear el mezclador; ni play() ni render() reservan memoria.
+ *
+ * play() y render() se pueden llamar desde hilos distintos (el del juego y el de audio).
+ */
+public final class AudioMixer {
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int CHANNELS = 2;
+    public static final int FRAME_BYTES = 2 * CHANNELS; // 16 bits por muestra
+    public static final AudioFormat FORMAT = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, SAMPLE_RATE, 16,
+        CHANNELS, FRAME_BYTES, SAMPLE_RATE, false);
+
+    private static final int BLOCK_FRAMES = 256; // Frames que se suman de una vez en el acumulador
+    private static final int GAIN_BITS = 12;     // Ganancia en coma fija: 1 << GAIN_BITS es 1.0
+
+    // Voces, una posición por voz; effects[v] == null si está libre
+    private final SoundEffect[] effects;
+    private final int[] positions;  // Siguiente muestra (no frame) a sumar
+    private final float[] gains;
+    private final int[] priorities;
+    private final long[] started;   // Orden de inicio, para robar la más antigua entre iguales
+    private final int[] mix = new int[BLOCK_FRAMES * CHANNELS]; // Acumulador de un bloque
+
+    private int active;
+    private long sequence;
+    private float masterVolume = 1.0f;
+    private long stolen;  // Voces quitadas a otro sonido
+    private long dropped; // Sonidos que no sonaron por no tener prioridad para ninguna voz
+
+    /**
+     * @param voices Voces que pueden sonar a la vez.
+     */
+    public AudioMixer(int voices) {
+        if (voices <= 0) {
+            throw new IllegalArgumentException("El mezclador necesita al menos una voz: " + voices);
+        }
+        effects = new SoundEffect[voices];
+        positions = new int[voices];
+        gains = new float[voices];
+        priorities = new int[voices];
+        started = new long[voices];
+    }
+
+    /**
+     * Empieza a reproducir un efecto desde el principio.
+     * @param gain Volumen de esta reproducción, de 0 a 1.
+     * @param priority Cuanto mayor, más difícil que otra reproducción le quite la voz.
+     * @return La voz que lo reproduce, o -1 si todas están ocupadas por sonidos de más prioridad.
+     */
+    public synchronized int play(SoundEffect effect, float gain, int priority) {
+        int voice = -1;
+        for (int v = 0; v < effects.length; v++) {
+            if (effects[v] == null) {
+                voice = v;
+                break;
+            }
+            if (voice < 0 || priorities[v] < priorities[voice]
+                    || (priorities[v] == priorities[voice] && started[v] < started[voice])) {
+                voice = v;
+            }
+        }
+        if (effects[voice] == null) {
+            active++;
+        } else if (priorities[voice] <= priority) {
+            stolen++;
+        } else {
+            dropped++;
+            return -1;
+        }
+        effects[voice] = effect;
+        positions[voice] = 0;
+        gains[voice] = Math.max(0.0f, Math.min(1.0f, gain));
+        priorities[voice] = priority;
+        started[voice] = sequence++;
+        return voice;
+    }
+
+    /**
+     * Detiene todas las voces que reproducen el efecto.
+     */
+    public synchronized void stop(SoundEffect effect) {
+        for (int v = 0; v < effects.length; v++) {
+            if (effects[v] == effect) {
+                release(v);
+            }
+        }
+    }
+
+    public synchronized void stopAll() {
+        for (int v = 0; v < effects.length; v++) {
+            if (effects[v] != null) {
+                release(v);
+            }
+        }
+    }
+
+    /**
+     * Mezcla los siguientes frames en PCM de 16 bits little-endian, en el formato FORMAT.
+     * Las voces que terminan quedan libres; si no suena ninguna, escribe silencio.
+     * @param out Destino; se escriben frames * FRAME_BYTES bytes desde offset.
+     */
+    public synchronized void render(byte[] out, int offset, int frames) {
+        if (offset < 0 || frames < 0 || offset + (long) frames * FRAME_BYTES > out.length) {
+            throw new IllegalArgumentException("Fuera del buffer: " + frames + " frames desde " + offset
+                + " en " + out.length + " bytes");
+        }
+        while (frames > 0) {
+            int block = Math.min(frames, BLOCK_FRAMES);
+            int bytes = block * FRAME_BYTES;
+            if (active == 0) {
+                Arrays.fill(out, offset, offset + bytes, (byte) 0);
+            } else {
+                mixBlock(block * CHANNELS);
+                for (int i = 0, o = offset; i < block * CHANNELS; i++, o += 2) {
+                    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                    out[o] = (byte) sample;
+                    out[o + 1] = (byte) (sample >> 8);
+                }
+            }
+            offset += bytes;
+            frames -= block;
+        }
+    }
+
+    /**
+     * Suma en el acumulador las siguientes muestras de cada voz activa.
+     */
+    private void mixBlock(int count) {
+        Arrays.fill(mix, 0, count, 0);
+        for (int v = 0; v < effects.length; v++) {
+            SoundEffect effect = effects[v];
+            if (effect == null) {
+                continue;
+            }
+            short[] samples = effect.samples();
+            int position = positions[v];
+            int n = Math.min(count, samples.length - position);
+            int gain = (int) (gains[v] * masterVolume * (1 << GAIN_BITS));
+            for (int i = 0; i < n; i++) {
+                mix[i] += (samples[position + i] * gain) >> GAIN_BITS;
+            }
+            positions[v] = position + n;
+            if (positions[v] == samples.length) {
+                release(v);
+            }
+        }
+    }
+
+    private void release(int voice) {
+        effects[voice] = null;
+        active--;
+    }
+
+    /**
+     * Volumen general, de 0 a 1; afecta también a las voces que ya suenan.
+     */
+    public synchronized void setMasterVolume(float volume) {
+        masterVolume = Math.max(0.0f, Math.min(1.0f, volume));
+    }
+
+    public synchronized float getMasterVolume() {
+        return masterVolume;
+    }
+
+    public int getVoices() {
+        return effects.length;
+    }
+
+    public synchronized int getActiveVoices() {
+        return active;
+    }
+
+    /**
+     * Reproducciones que ocuparon la voz de otro sonido que aún no había terminado.
+     */
+    public synchronized long getStolen() {
+        return stolen;
+    }
+
+    /**
+     * Reproducciones descartadas porque todas las voces tenían más prioridad.
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
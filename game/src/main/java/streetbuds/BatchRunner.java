@@ -0,0 +1,322 @@
+package streetbuds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntFunction;
+
+/**
+ * Ejecuta muchas partidas sin pantalla a la vez, para evaluar bots y el equilibrio de los niveles.
+ *
+ * Cada partida es independiente: tiene su propia Simulation (en un hilo, sin pool propio), sus niveles
+ * decodificados para ella y su InputPolicy, y no toca LevelManager, SoundManager ni nada de Swing.
+ * Las partidas se reparten en un ForkJoinPool, que roba trabajo entre hilos cuando unas duran más que otras,
+ * así que con partidas suficientes se ocupan todos los núcleos.
+ *
+ * Una partida recorre los niveles en orden, como el juego; termina al perder todas las vidas,
+ * al completar el último nivel o al llegar al máximo de ticks. Los enemigos derrotados, los coleccionables
+ * y el daño se cuentan con una suscripción a los eventos de la simulación, vaciada tras cada tick.
+ *
+ * Uso: java -cp game/target/classes streetbuds.BatchRunner [partidas] [ticks] [hilos] [idle|right|random]
+ *      [--csv archivo]
+ * Por defecto 1000 partidas de hasta 10 minutos de juego con la política random, en todos los procesadores.
+ */
+public final class BatchRunner {
+    /**
+     * Cómo terminó una partida.
+     */
+    public enum Outcome {
+        GAME_OVER,  // Perdió todas las vidas
+        COMPLETED,  // Completó todos los niveles
+        TICK_LIMIT  // Llegó al máximo de ticks sin terminar
+    }
+
+    /**
+     * Resultado de una partida.
+     */
+    public static final class Result {
+        private final int run;
+        private final Outcome outcome;
+        private final long ticks;
+        private final int levelsCompleted;
+        private final int score;
+        private final int lives;
+        private final EventCounts events;
+        private final long nanos;
+
+        Result(int run, Outcome outcome, long ticks, int levelsCompleted, int score, int lives, EventCounts events,
+                long nanos) {
+            this.run = run;
+            this.outcome = outcome;
+            this.ticks = ticks;
+            this.levelsCompleted = levelsCompleted;
+            this.score = score;
+            this.lives = lives;
+            this.events = events;
+            this.nanos = nanos;
+        }
+
+        public int getRun() {
+            return run;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public int getLevelsCompleted() {
+            return levelsCompleted;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getLives() {
+            return lives;
+        }
+
+        public int getEnemiesKilled() {
+            return events.enemiesKilled;
+        }
+
+        public int getItemsCollected() {
+            return events.itemsCollected;
+        }
+
+        /**
+         * Daño total recibido por el jugador.
+         */
+        public int getDamageTaken() {
+            return events.damageTaken;
+        }
+
+        /**
+         * Tiempo real que tardó la partida, en nanosegundos.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Cuenta los eventos de una partida.
+     */
+    private static final class EventCounts implements GameEvent.Handler {
+        int enemiesKilled, itemsCollected, damageTaken;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            switch (event.getType()) {
+                case ENEMY_KILLED:
+                    enemiesKilled++;
+                    break;
+                case ITEM_COLLECTED:
+                    itemsCollected++;
+                    break;
+                case PLAYER_DAMAGED:
+                    damageTaken += event.getValue();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private final List<byte[]> levels;              // Niveles codificados, decodificados de nuevo en cada partida
+    private final IntFunction<InputPolicy> policies; // Política de cada partida, por su número
+    private final long maxTicks;                    // Ticks máximos por partida
+
+    /**
+     * @param levels Niveles en el formato de LevelLoader, en el orden en que se juegan.
+     * @param policies Crea la política de cada partida a partir de su número (desde 0).
+     * @param maxTicks Ticks máximos por partida.
+     */
+    public BatchRunner(List<byte[]> levels, IntFunction<InputPolicy> policies, long maxTicks) {
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException("Hace falta al menos un nivel");
+        }
+        if (maxTicks <= 0) {
+            throw new IllegalArgumentException("El máximo de ticks debe ser positivo: " + maxTicks);
+        }
+        this.levels = new ArrayList<>(levels);
+        this.policies = policies;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Ejecuta las partidas y espera a que terminen todas.
+     * @param runs Número de partidas.
+     * @param threads Hilos del pool; 0 para uno por procesador.
+     * @return Resultados, en el orden de las partidas.
+     * @throws IllegalStateException Si alguna partida falla.
+     */
+    public List<Result> run(int runs, int threads) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("StreetBuds-Lote-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        try {
+            List<ForkJoinTask<Result>> tasks = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                int run = i;
+                tasks.add(pool.submit(() -> play(run)));
+            }
+            List<Result> results = new ArrayList<>(runs);
+            for (ForkJoinTask<Result> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló una partida del lote", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lote interrumpido", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Juega una partida completa en el hilo actual.
+     * @param run Número de la partida, para su política.
+     */
+    public Result play(int run) {
+        long start = System.nanoTime();
+        InputPolicy policy = policies.apply(run);
+        Simulation simulation = new Simulation(1);
+        GameEventBus.Subscription events = simulation.getEvents().subscribe();
+        EventCounts counts = new EventCounts();
+        boolean[] keys = new boolean[256];
+        int levelIndex = 0;
+        simulation.setLevel(LevelLoader.decode(levels.get(levelIndex)));
+        long ticks = 0;
+        Outcome outcome = Outcome.TICK_LIMIT;
+        while (ticks < maxTicks) {
+            policy.next(simulation, keys);
+            simulation.step(keys);
+            events.drain(counts);
+            ticks++;
+            GameState state = simulation.getGameState();
+            if (state == GameState.GAME_OVER) {
+                outcome = Outcome.GAME_OVER;
+                break;
+            }
+            if (state == GameState.LEVEL_COMPLETE) {
+                if (++levelIndex == levels.size()) {
+                    outcome = Outcome.COMPLETED;
+                    break;
+                }
+                simulation.setLevel(LevelLoader.decode(levels.get(levelIndex)));
+            }
+        }
+        simulation.shutdown();
+        return new Result(run, outcome, ticks, levelIndex, simulation.getScore(), simulation.getLives(), counts,
+            System.nanoTime() - start);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int runs = 1000;
+        long ticks = 10L * 60 * Simulation.TICKS_PER_SECOND;
+        int threads = 0;
+        String policy = "random";
+        String csv = null;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--csv") && i + 1 < args.length) {
+                csv = args[++i];
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() > 0) {
+            runs = Integer.parseInt(positional.get(0));
+        }
+        if (positional.size() > 1) {
+            ticks = Long.parseLong(positional.get(1));
+        }
+        if (positional.size() > 2) {
+            threads = Integer.parseInt(positional.get(2));
+        }
+        if (positional.size() > 3) {
+            policy = positional.get(3);
+        }
+        IntFunction<InputPolicy> policies;
+        switch (policy) {
+            case "idle":
+                policies = run -> InputPolicy.idle();
+                break;
+            case "right":
+                policies = run -> InputPolicy.runRight();
+                break;
+            case "random":
+                policies = run -> InputPolicy.random(run);
+                break;
+            default:
+                System.err.println("Política desconocida: " + policy + " (idle, right o random)");
+                System.exit(2);
+                return;
+        }
+
+        List<byte[]> levels = new ArrayList<>();
+        for (String resource : LevelManager.DEFAULT_LEVELS) {
+            try (InputStream in = BatchRunner.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IOException("No se encontró el nivel " + resource);
+                }
+                levels.add(in.readAllBytes());
+            }
+        }
+        BatchRunner runner = new BatchRunner(levels, policies, ticks);
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<Result> results = runner.run(runs, parallelism);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long totalTicks = 0, totalScore = 0;
+        int[] outcomes = new int[Outcome.values().length];
+        for (Result result : results) {
+            totalTicks += result.getTicks();
+            totalScore += result.getScore();
+            outcomes[result.getOutcome().ordinal()]++;
+        }
+        System.out.printf("%d partidas (%s) en %d hilos: %d ticks en %.3f s (%.0f ticks/s)%n", runs, policy,
+            parallelism, totalTicks, seconds, totalTicks / seconds);
+        for (Outcome outcome : Outcome.values()) {
+            System.out.printf("  %-10s %d%n", outcome, outcomes[outcome.ordinal()]);
+        }
+        System.out.printf("  Puntuación media: %.1f%n", runs > 0 ? (double) totalScore / runs : 0);
+
+        if (csv != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csv), StandardCharsets.UTF_8))) {
+                out.println("partida,resultado,ticks,niveles,puntuacion,vidas,enemigos,coleccionables,dano,ms");
+                for (Result result : results) {
+                    out.printf(Locale.ROOT, "%d,%s,%d,%d,%d,%d,%d,%d,%d,%.3f%n", result.getRun(), result.getOutcome(),
+                        result.getTicks(), result.getLevelsCompleted(), result.getScore(), result.getLives(),
+                        result.getEnemiesKilled(), result.getItemsCollected(), result.getDamageTaken(),
+                        result.getNanos() / 1_000_000.0);
+                }
+            }
+            System.out.println("Resultados por partida en " + csv);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package streetbuds;
+
+/**
+ * Pruebas de intersección entre rectángulos alineados con los ejes usando valores primitivos.
+ * Permiten comprobar colisiones en el bucle del juego sin crear objetos Rectangle.
+ */
+public final class Bounds {
+    private Bounds() {
+    }
+
+    /**
+     * Verifica si el rectángulo entero (x, y, width, height) intersecta el rectángulo (rx, ry, rw, rh).
+     * Sigue la misma regla que Rectangle2D.intersects: los rectángulos vacíos nunca intersectan
+     * y los bordes que solo se tocan no cuentan.
+     * @return true si ambos rectángulos se solapan
+     */
+    public static boolean intersects(int x, int y, int width, int height,
+                                     double rx, double ry, double rw, double rh) {
+        if (width <= 0 || height <= 0 || rw <= 0 || rh <= 0) {
+            return false;
+        }
+        return rx + rw > x && ry + rh > y && rx < (double) x + width && ry < (double) y + height;
+    }
+}
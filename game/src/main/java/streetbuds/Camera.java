@@ -0,0 +1,108 @@
+package streetbuds;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cámara que sigue al jugador por niveles más grandes que la pantalla.
+ * Guarda la esquina superior izquierda de la vista en coordenadas del mundo.
+ * El jugador puede moverse libremente dentro de una zona muerta en el centro de la vista;
+ * la cámara solo se desplaza cuando sale de ella, y nunca muestra nada fuera del nivel.
+ * Es parte de la simulación para que el recorte de actualizaciones sea determinista.
+ */
+public class Camera {
+    public static final int DEFAULT_WIDTH = 800, DEFAULT_HEIGHT = 600; // Tamaño de la pantalla
+    private static final int DEAD_ZONE_WIDTH = 200;  // Ancho de la zona en la que la cámara no se mueve
+    private static final int DEAD_ZONE_HEIGHT = 150; // Alto de la zona en la que la cámara no se mueve
+
+    private final int width, height; // Tamaño de la vista
+    private int x, y;                // Esquina superior izquierda de la vista en el mundo
+
+    /**
+     * Crea una cámara del tamaño de la pantalla.
+     */
+    public Camera() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Crea una cámara con una vista del tamaño indicado.
+     */
+    public Camera(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("El tamaño de la vista debe ser positivo");
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Desplaza la vista lo justo para que el objetivo quede dentro de la zona muerta.
+     * @param targetX Centro X del objetivo en el mundo.
+     * @param targetY Centro Y del objetivo en el mundo.
+     * @param worldWidth Ancho del nivel.
+     * @param worldHeight Alto del nivel.
+     */
+    public void follow(double targetX, double targetY, int worldWidth, int worldHeight) {
+        int left = x + (width - DEAD_ZONE_WIDTH) / 2;
+        int top = y + (height - DEAD_ZONE_HEIGHT) / 2;
+        if (targetX < left) {
+            x -= (int) Math.ceil(left - targetX);
+        } else if (targetX > left + DEAD_ZONE_WIDTH) {
+            x += (int) Math.ceil(targetX - left - DEAD_ZONE_WIDTH);
+        }
+        if (targetY < top) {
+            y -= (int) Math.ceil(top - targetY);
+        } else if (targetY > top + DEAD_ZONE_HEIGHT) {
+            y += (int) Math.ceil(targetY - top - DEAD_ZONE_HEIGHT);
+        }
+        clamp(worldWidth, worldHeight);
+    }
+
+    /**
+     * Centra la vista en el objetivo sin transición, por ejemplo al empezar un nivel.
+     */
+    public void centerOn(double targetX, double targetY, int worldWidth, int worldHeight) {
+        x = (int) targetX - width / 2;
+        y = (int) targetY - height / 2;
+        clamp(worldWidth, worldHeight);
+    }
+
+    /**
+     * Mantiene la vista dentro del nivel; si el nivel es más pequeño que la vista, se queda en el origen.
+     */
+    private void clamp(int worldWidth, int worldHeight) {
+        x = Math.max(0, Math.min(x, worldWidth - width));
+        y = Math.max(0, Math.min(y, worldHeight - height));
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Escribe la posición de la vista en un búfer, para SimulationSnapshot.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(x).putInt(y);
+    }
+
+    /**
+     * Vuelve a la posición escrita con writeState().
+     */
+    void readState(ByteBuffer in) {
+        x = in.getInt();
+        y = in.getInt();
+    }
+}
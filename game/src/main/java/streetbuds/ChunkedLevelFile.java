@@ -0,0 +1,258 @@
+package streetbuds;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Formato de nivel dividido en trozos cuadrados del mismo tamaño, pensado para mundos que no caben
+ * en memoria. El archivo se lee con FileChannel.map, así que los datos viven fuera del heap y el
+ * sistema operativo solo trae del disco las páginas de los trozos que se leen.
+ *
+ * Estructura (enteros big-endian):
+ * <pre>
+ * cabecera:   MAGIC, VERSION, ancho, alto, tamaño de trozo, trozos en X, trozos en Y,
+ *             aparición X, aparición Y, puntuación para completar, longitud del nombre, nombre (UTF-8)
+ * directorio: por trozo (fila a fila) un long con su posición y tres int con el número
+ *             de plataformas, enemigos y coleccionables
+ * trozos:     plataformas (x, y, ancho, alto, sólida), enemigos (x, y, ancho, alto),
+ *             coleccionables (x, y, ancho, alto, tipo, valor)
+ * </pre>
+ * Cada enemigo y coleccionable pertenece al trozo de su esquina superior izquierda. Las plataformas
+ * se recortan en los bordes de los trozos, de modo que al descargar un trozo no desaparece
+ * el suelo de sus vecinos.
+ */
+public class ChunkedLevelFile {
+    public static final int MAGIC = 0x53424357; // "SBCW"
+    public static final int VERSION = 1;
+    public static final int DEFAULT_CHUNK_SIZE = 512; // Lado de un trozo en píxeles
+
+    static final int PLATFORM_INTS = 5, ENEMY_INTS = 4, COLLECTIBLE_INTS = 6; // Enteros por objeto
+    private static final int DIRECTORY_ENTRY_BYTES = 8 + 3 * 4;
+
+    private final MappedByteBuffer map; // Archivo completo, de solo lectura
+    private final int width, height, chunkSize, chunksX, chunksY;
+    private final int spawnX, spawnY, scoreToComplete;
+    private final String name;
+    private final int directoryStart;
+
+    /**
+     * Trozo leído del archivo, con sus objetos empaquetados en arrays de enteros.
+     */
+    static final class Chunk {
+        final int index;
+        final int[] platforms, enemies, collectibles;
+
+        Chunk(int index, int[] platforms, int[] enemies, int[] collectibles) {
+            this.index = index;
+            this.platforms = platforms;
+            this.enemies = enemies;
+            this.collectibles = collectibles;
+        }
+    }
+
+    private ChunkedLevelFile(MappedByteBuffer map) {
+        this.map = map;
+        if (map.capacity() < 11 * 4 || map.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("No es un nivel por trozos de StreetBuds");
+        }
+        if (map.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Versión de nivel por trozos no soportada: " + map.getInt(4));
+        }
+        width = map.getInt(8);
+        height = map.getInt(12);
+        chunkSize = map.getInt(16);
+        chunksX = map.getInt(20);
+        chunksY = map.getInt(24);
+        spawnX = map.getInt(28);
+        spawnY = map.getInt(32);
+        scoreToComplete = map.getInt(36);
+        int nameLength = map.getInt(40);
+        byte[] nameBytes = new byte[nameLength];
+        map.get(44, nameBytes);
+        name = new String(nameBytes, StandardCharsets.UTF_8);
+        directoryStart = 44 + nameLength;
+        if (chunkSize <= 0 || chunksX <= 0 || chunksY <= 0
+                || directoryStart + (long) chunksX * chunksY * DIRECTORY_ENTRY_BYTES > map.capacity()) {
+            throw new IllegalArgumentException("Cabecera de nivel por trozos corrupta");
+        }
+    }
+
+    /**
+     * Abre un archivo de nivel por trozos proyectándolo en memoria.
+     * @param file Archivo a abrir.
+     * @return El archivo, listo para leer trozos desde cualquier hilo.
+     * @throws IOException Si no se puede leer.
+     */
+    public static ChunkedLevelFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Nivel demasiado grande para proyectarlo de una vez: " + file);
+            }
+            // La proyección sigue siendo válida después de cerrar el canal
+            return new ChunkedLevelFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Lee un trozo. Solo usa lecturas absolutas sobre la proyección, así que se puede llamar
+     * desde varios hilos a la vez.
+     * @param index Trozo a leer (fila * trozos en X + columna).
+     * @return Los objetos del trozo.
+     */
+    Chunk readChunk(int index) {
+        int entry = directoryStart + index * DIRECTORY_ENTRY_BYTES;
+        int offset = (int) map.getLong(entry);
+        int[] platforms = new int[map.getInt(entry + 8) * PLATFORM_INTS];
+        int[] enemies = new int[map.getInt(entry + 12) * ENEMY_INTS];
+        int[] collectibles = new int[map.getInt(entry + 16) * COLLECTIBLE_INTS];
+        int length = (platforms.length + enemies.length + collectibles.length) * 4;
+        IntBuffer ints = map.slice(offset, length).asIntBuffer();
+        ints.get(platforms).get(enemies).get(collectibles); // Copias en bloque
+        return new Chunk(index, platforms, enemies, collectibles);
+    }
+
+    /**
+     * Crea un nivel vacío con los datos de la cabecera; los objetos llegan después por trozos.
+     */
+    Level createLevel() {
+        Level level = new Level(name, new Point(spawnX, spawnY));
+        level.setWorldSize(width, height);
+        level.setScoreToComplete(scoreToComplete);
+        return level;
+    }
+
+    /**
+     * Escribe un nivel en memoria con el formato por trozos.
+     * @param level Nivel a escribir.
+     * @param file Archivo de destino; se sobrescribe si existe.
+     * @param chunkSize Lado de cada trozo en píxeles.
+     * @throws IOException Si no se puede escribir.
+     */
+    public static void write(Level level, Path file, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de trozo debe ser positivo");
+        }
+        int chunksX = (level.getWidth() + chunkSize - 1) / chunkSize;
+        int chunksY = (level.getHeight() + chunkSize - 1) / chunkSize;
+        int chunkCount = chunksX * chunksY;
+        IntList[] platforms = new IntList[chunkCount];
+        IntList[] enemies = new IntList[chunkCount];
+        IntList[] collectibles = new IntList[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            platforms[i] = new IntList();
+            enemies[i] = new IntList();
+            collectibles[i] = new IntList();
+        }
+
+        // Repartir los objetos por trozos
+        for (Platform platform : level.getPlatforms()) {
+            if (platform == null) {
+                continue;
+            }
+            int x1 = platform.getX() + platform.getWidth(), y1 = platform.getY() + platform.getHeight();
+            for (int cy = clampChunk(platform.getY(), chunkSize, chunksY);
+                    cy <= clampChunk(y1 - 1, chunkSize, chunksY); cy++) {
+                for (int cx = clampChunk(platform.getX(), chunkSize, chunksX);
+                        cx <= clampChunk(x1 - 1, chunkSize, chunksX); cx++) {
+                    // La parte de la plataforma dentro del trozo; los trozos de los bordes se quedan lo que sobresale
+                    int left = cx == 0 ? platform.getX() : Math.max(platform.getX(), cx * chunkSize);
+                    int top = cy == 0 ? platform.getY() : Math.max(platform.getY(), cy * chunkSize);
+                    int right = cx == chunksX - 1 ? x1 : Math.min(x1, (cx + 1) * chunkSize);
+                    int bottom = cy == chunksY - 1 ? y1 : Math.min(y1, (cy + 1) * chunkSize);
+                    if (left < right && top < bottom) {
+                        platforms[cy * chunksX + cx].add(left, top, right - left, bottom - top,
+                            platform.isSolid() ? 1 : 0);
+                    }
+                }
+            }
+        }
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive()) {
+                int chunk = clampChunk(enemy.getY(), chunkSize, chunksY) * chunksX
+                    + clampChunk(enemy.getX(), chunkSize, chunksX);
+                enemies[chunk].add(enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+            }
+        }
+        for (Collectible collectible : level.getCollectibles()) {
+            if (collectible != null && !collectible.isCollected()) {
+                int chunk = clampChunk(collectible.getY(), chunkSize, chunksY) * chunksX
+                    + clampChunk(collectible.getX(), chunkSize, chunksX);
+                collectibles[chunk].add(collectible.getX(), collectible.getY(), collectible.getWidth(),
+                    collectible.getHeight(), collectible.getType().ordinal());
+                collectibles[chunk].add(collectible.getValue());
+            }
+        }
+
+        // Calcular el tamaño total y escribir de una vez
+        byte[] name = level.getName().getBytes(StandardCharsets.UTF_8);
+        long dataStart = 44L + name.length + (long) chunkCount * DIRECTORY_ENTRY_BYTES;
+        long total = dataStart;
+        for (int i = 0; i < chunkCount; i++) {
+            total += 4L * (platforms[i].size + enemies[i].size + collectibles[i].size);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El nivel no cabe en un archivo proyectable");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) total);
+        out.putInt(MAGIC).putInt(VERSION).putInt(level.getWidth()).putInt(level.getHeight())
+            .putInt(chunkSize).putInt(chunksX).putInt(chunksY)
+            .putInt(level.getPlayerSpawnPoint().x).putInt(level.getPlayerSpawnPoint().y)
+            .putInt(level.getScoreToComplete()).putInt(name.length).put(name);
+        long offset = dataStart;
+        for (int i = 0; i < chunkCount; i++) {
+            out.putLong(offset)
+                .putInt(platforms[i].size / PLATFORM_INTS)
+                .putInt(enemies[i].size / ENEMY_INTS)
+                .putInt(collectibles[i].size / COLLECTIBLE_INTS);
+            offset += 4L * (platforms[i].size + enemies[i].size + collectibles[i].size);
+        }
+        for (int i = 0; i < chunkCount; i++) {
+            platforms[i].writeTo(out);
+            enemies[i].writeTo(out);
+            collectibles[i].writeTo(out);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    private static int clampChunk(int coordinate, int chunkSize, int chunks) {
+        return Math.max(0, Math.min(chunks - 1, Math.floorDiv(coordinate, chunkSize)));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunksX() {
+        return chunksX;
+    }
+
+    public int getChunksY() {
+        return chunksY;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
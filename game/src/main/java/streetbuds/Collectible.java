@@ -0,0 +1,105 @@
+package streetbuds;
+
+import java.awt.*;
+
+/**
+ * Vista de un coleccionable. Sus datos viven en un EntityTable: el del nivel mientras está
+ * pendiente, o uno propio mientras está suelto (recién construido o ya recogido).
+ */
+public class Collectible extends EntityView {
+    public enum CollectibleType {
+        COIN,
+        POWER_UP,
+        HEALTH
+    }
+
+    // Componentes de un coleccionable: posición, tamaño, estado, valor y tipo (ordinal)
+    static final int COMPONENTS = EntityTable.POSITION | EntityTable.BOUNDS | EntityTable.FLAGS
+        | EntityTable.VALUE | EntityTable.KIND;
+    private static final CollectibleType[] TYPES = CollectibleType.values();
+    // Color según el tipo, por ordinal
+    private static final Color[] COLORS = {Color.YELLOW, Color.MAGENTA, Color.GREEN};
+
+    public Collectible(int x, int y, int width, int height, CollectibleType type, int value) {
+        super(COMPONENTS);
+        init(table, row(), x, y, width, height, type, value);
+    }
+
+    /**
+     * Vista de un coleccionable que ya está en un arquetipo.
+     */
+    Collectible(EntityTable table, int id) {
+        super(table, id);
+    }
+
+    /**
+     * Escribe los valores iniciales de un coleccionable en una fila recién agregada.
+     */
+    static void init(EntityTable table, int row, int x, int y, int width, int height,
+                     CollectibleType type, int value) {
+        table.setBounds(row, x, y, width, height);
+        table.setKind(row, type.ordinal());
+        table.setValue(row, value);
+    }
+
+    public void draw(Graphics2D g2d) {
+        int row = row();
+        if (!table.hasFlag(row, EntityTable.COLLECTED)) {
+            g2d.setColor(COLORS[table.getKind(row)]);
+            g2d.fillOval(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+        }
+    }
+
+    public Rectangle getBounds() {
+        int row = row();
+        return new Rectangle(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+    }
+
+    public boolean intersects(double rx, double ry, double rw, double rh) {
+        int row = row();
+        return Bounds.intersects(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row),
+            rx, ry, rw, rh);
+    }
+
+    public double getCenterX() {
+        int row = row();
+        return table.getX(row) + table.getWidth(row) / 2.0;
+    }
+
+    public double getCenterY() {
+        int row = row();
+        return table.getY(row) + table.getHeight(row) / 2.0;
+    }
+
+    public int getX() {
+        return table.getX(row());
+    }
+
+    public int getY() {
+        return table.getY(row());
+    }
+
+    public int getWidth() {
+        return table.getWidth(row());
+    }
+
+    public int getHeight() {
+        return table.getHeight(row());
+    }
+
+    public void collect() {
+        table.setFlag(row(), EntityTable.COLLECTED, true);
+    }
+
+    public boolean isCollected() {
+        return table.hasFlag(row(), EntityTable.COLLECTED);
+    }
+
+    public int getValue() {
+        return table.getValue(row());
+    }
+
+    public CollectibleType getType() {
+        return TYPES[table.getKind(row())];
+    }
+}
@@ -0,0 +1,28 @@
+package streetbuds;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR con el resultado de una fase de colisiones del jugador en un tick.
+ * Solo se emite cuando el índice espacial devolvió algún candidato.
+ */
+@Name("streetbuds.Collision")
+@Label("Fase de colisiones")
+@Category({"StreetBuds", "Simulación"})
+@Description("Candidatos devueltos por el índice espacial y contactos resueltos en una fase de colisiones")
+@StackTrace(false)
+public class CollisionEvent extends jdk.jfr.Event {
+    @Label("Fase")
+    String phase;
+
+    @Label("Candidatos")
+    int candidates;
+
+    @Label("Contactos")
+    @Description("Enemigos eliminados o que dañaron al jugador, o coleccionables recogidos")
+    int hits;
+}
@@ -0,0 +1,231 @@
+package streetbuds;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Acumula las zonas de la pantalla que cambiaron entre un frame y el siguiente.
+ * Cada objeto dinámico se registra con un número de ranura fijo; el tracker recuerda su caja
+ * del frame anterior y marca como sucias tanto la caja vieja como la nueva cuando cambian.
+ * Basta con registrar los objetos cercanos a la vista: una ranura visible en el frame anterior
+ * que no se registra en este (porque el objeto murió, se recogió o salió de la vista) se da por
+ * oculta y su caja vieja se marca sucia al terminar el frame.
+ * Al final del frame los rectángulos que se solapan se fusionan, y si cubren demasiada superficie
+ * se pide un redibujado completo.
+ */
+public class DirtyRegionTracker {
+    private static final int MAX_RECTS = 64;             // Más rectángulos que esto se funden en uno
+    private static final double FULL_REPAINT_RATIO = 0.6; // Fracción de pantalla a partir de la cual se redibuja todo
+
+    private final int screenWidth, screenHeight;
+
+    // Rectángulos sucios del frame actual
+    private int[] rectX = new int[MAX_RECTS * 2];
+    private int[] rectY = new int[MAX_RECTS * 2];
+    private int[] rectW = new int[MAX_RECTS * 2];
+    private int[] rectH = new int[MAX_RECTS * 2];
+    private int count;
+    private boolean fullRepaint = true;
+
+    // Caja de cada ranura en el frame anterior
+    private int[] prevX = new int[16], prevY = new int[16], prevW = new int[16], prevH = new int[16];
+    private boolean[] prevVisible = new boolean[16];
+    private int[] trackedFrame = new int[16]; // Frame en que se registró cada ranura por última vez
+    private int[] shownSlots = new int[16];   // Ranuras visibles al terminar el frame anterior
+    private int[] showingSlots = new int[16]; // Ranuras registradas visibles en este frame
+    private int shownCount, showingCount;
+    private int frame;
+
+    /**
+     * Crea un tracker para una pantalla del tamaño indicado.
+     */
+    public DirtyRegionTracker(int screenWidth, int screenHeight) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+    }
+
+    /**
+     * Empieza un frame nuevo, descartando los rectángulos del anterior.
+     */
+    public void beginFrame() {
+        count = 0;
+        fullRepaint = false;
+        frame++;
+    }
+
+    /**
+     * Pide redibujar toda la pantalla en este frame y olvida las cajas anteriores.
+     */
+    public void markFull() {
+        fullRepaint = true;
+        Arrays.fill(prevVisible, false);
+    }
+
+    /**
+     * Registra la caja actual de un objeto.
+     * @param slot Ranura fija del objeto.
+     * @param visible Si el objeto se dibuja en este frame.
+     * @param alwaysDirty Si su aspecto puede cambiar aunque no se mueva (por ejemplo, animaciones).
+     */
+    public void track(int slot, int x, int y, int width, int height, boolean visible, boolean alwaysDirty) {
+        ensureSlots(slot + 1);
+        trackedFrame[slot] = frame;
+        if (visible) {
+            if (showingCount == showingSlots.length) {
+                showingSlots = Arrays.copyOf(showingSlots, showingCount * 2);
+            }
+            showingSlots[showingCount++] = slot;
+        }
+        boolean wasVisible = prevVisible[slot];
+        boolean moved = x != prevX[slot] || y != prevY[slot] || width != prevW[slot] || height != prevH[slot];
+        if (alwaysDirty || wasVisible != visible || (visible && moved)) {
+            if (wasVisible) {
+                add(prevX[slot], prevY[slot], prevW[slot], prevH[slot]);
+            }
+            if (visible) {
+                add(x, y, width, height);
+            }
+        }
+        prevX[slot] = x;
+        prevY[slot] = y;
+        prevW[slot] = width;
+        prevH[slot] = height;
+        prevVisible[slot] = visible;
+    }
+
+    /**
+     * Marca sucio un rectángulo, recortado a la pantalla.
+     */
+    public void add(int x, int y, int width, int height) {
+        if (fullRepaint) {
+            return;
+        }
+        int x0 = Math.max(x, 0);
+        int y0 = Math.max(y, 0);
+        int x1 = Math.min(x + width, screenWidth);
+        int y1 = Math.min(y + height, screenHeight);
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        if (count == rectX.length) {
+            mergeAll(); // Demasiados rectángulos: fundirlos antes de seguir
+        }
+        rectX[count] = x0;
+        rectY[count] = y0;
+        rectW[count] = x1 - x0;
+        rectH[count] = y1 - y0;
+        count++;
+    }
+
+    /**
+     * Termina el frame: fusiona los rectángulos solapados y decide si conviene redibujar todo.
+     */
+    public void endFrame() {
+        // Las ranuras que eran visibles y no se registraron en este frame se ocultan
+        for (int i = 0; i < shownCount; i++) {
+            int slot = shownSlots[i];
+            if (trackedFrame[slot] != frame && prevVisible[slot]) {
+                add(prevX[slot], prevY[slot], prevW[slot], prevH[slot]);
+                prevVisible[slot] = false;
+            }
+        }
+        int[] swap = shownSlots;
+        shownSlots = showingSlots;
+        shownCount = showingCount;
+        showingSlots = swap;
+        showingCount = 0;
+        if (fullRepaint) {
+            return;
+        }
+        coalesce();
+        if (count > MAX_RECTS) {
+            mergeAll();
+        }
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) rectW[i] * rectH[i];
+        }
+        if (area > FULL_REPAINT_RATIO * screenWidth * screenHeight) {
+            fullRepaint = true;
+        }
+    }
+
+    public boolean isFullRepaint() {
+        return fullRepaint;
+    }
+
+    public int getCount() {
+        return fullRepaint ? 0 : count;
+    }
+
+    /**
+     * Copia el rectángulo sucio i en out, sin crear objetos.
+     */
+    public void getRect(int i, Rectangle out) {
+        out.setBounds(rectX[i], rectY[i], rectW[i], rectH[i]);
+    }
+
+    /**
+     * Fusiona los pares de rectángulos que se solapan o se tocan hasta que no quede ninguno.
+     */
+    private void coalesce() {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    if (touches(i, j)) {
+                        union(i, j);
+                        removeAt(j);
+                        merged = true;
+                        j--;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean touches(int i, int j) {
+        return rectX[i] <= rectX[j] + rectW[j] && rectX[j] <= rectX[i] + rectW[i]
+            && rectY[i] <= rectY[j] + rectH[j] && rectY[j] <= rectY[i] + rectH[i];
+    }
+
+    private void union(int i, int j) {
+        int x0 = Math.min(rectX[i], rectX[j]);
+        int y0 = Math.min(rectY[i], rectY[j]);
+        int x1 = Math.max(rectX[i] + rectW[i], rectX[j] + rectW[j]);
+        int y1 = Math.max(rectY[i] + rectH[i], rectY[j] + rectH[j]);
+        rectX[i] = x0;
+        rectY[i] = y0;
+        rectW[i] = x1 - x0;
+        rectH[i] = y1 - y0;
+    }
+
+    private void removeAt(int j) {
+        count--;
+        rectX[j] = rectX[count];
+        rectY[j] = rectY[count];
+        rectW[j] = rectW[count];
+        rectH[j] = rectH[count];
+    }
+
+    private void mergeAll() {
+        for (int i = 1; i < count; i++) {
+            union(0, i);
+        }
+        count = Math.min(count, 1);
+    }
+
+    private void ensureSlots(int slots) {
+        if (slots <= prevVisible.length) {
+            return;
+        }
+        int capacity = Math.max(slots, prevVisible.length * 2);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        prevW = Arrays.copyOf(prevW, capacity);
+        prevH = Arrays.copyOf(prevH, capacity);
+        prevVisible = Arrays.copyOf(prevVisible, capacity);
+        trackedFrame = Arrays.copyOf(trackedFrame, capacity);
+    }
+}
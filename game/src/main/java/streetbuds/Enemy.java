@@ -0,0 +1,170 @@
+package streetbuds;
+
+import java.awt.*;
+
+/**
+ * Vista de un enemigo. Sus datos viven en un EntityTable: el del nivel cuando está en uno,
+ * o uno propio mientras está suelto (recién construido o ya muerto).
+ * El aturdimiento termina con un temporizador del reloj del juego, que llama a expire().
+ */
+public class Enemy extends EntityView implements GameClock.Expiry {
+    // Componentes de un enemigo: posición, velocidad, tamaño, salud, estado, daño (VALUE)
+    // y tick en el que termina el aturdimiento (TIMER)
+    static final int COMPONENTS = EntityTable.POSITION | EntityTable.VELOCITY | EntityTable.BOUNDS
+        | EntityTable.HEALTH | EntityTable.FLAGS | EntityTable.VALUE | EntityTable.TIMER;
+    // Velocidad de movimiento inicial, hacia la derecha
+    private static final int SPEED = 2;
+    // Duración del aturdimiento en ticks
+    static final long STUN_TICKS = GameClock.ticks(1000); // 1 segundo de aturdimiento
+
+    private long stunTimer = -1; // Temporizador del aturdimiento en curso, -1 si no hay
+
+    // Constructor para inicializar las propiedades del enemigo
+    public Enemy(int x, int y, int width, int height) {
+        super(COMPONENTS);
+        init(table, row(), x, y, width, height);
+    }
+
+    /**
+     * Vista de un enemigo que ya está en un arquetipo.
+     */
+    Enemy(EntityTable table, int id) {
+        super(table, id);
+    }
+
+    /**
+     * Escribe los valores iniciales de un enemigo en una fila recién agregada.
+     */
+    static void init(EntityTable table, int row, int x, int y, int width, int height) {
+        table.setBounds(row, x, y, width, height); // Posición y tamaño
+        table.setHealth(row, 100); // Salud inicial
+        table.setValue(row, 100); // Daño base
+        table.setFlag(row, EntityTable.ALIVE, true); // El enemigo comienza vivo, sin aturdir
+        table.setVelocityX(row, SPEED); // Dirección inicial hacia la derecha
+    }
+
+    // Método para actualizar el estado del enemigo; rebota en los bordes de un mundo del ancho indicado
+    public void update(int worldWidth) {
+        int row = row();
+        update(table.chunkOf(row), table.offsetOf(row), worldWidth);
+    }
+
+    /**
+     * Actualiza el enemigo de una posición de un trozo; es el sistema de movimiento que Level
+     * aplica recorriendo los trozos de su arquetipo de enemigos.
+     */
+    static void update(EntityTable.Chunk chunk, int i, int worldWidth) {
+        // Si el enemigo está muerto o aturdido, no se actualiza
+        int flags = chunk.flags[i];
+        if ((flags & EntityTable.ALIVE) == 0 || (flags & EntityTable.STUNNED) != 0) return;
+
+        // Movimiento básico del enemigo en la dirección actual
+        int x = chunk.x[i] + chunk.velocityX[i];
+        chunk.x[i] = x;
+
+        // Cambiar de dirección si el enemigo alcanza los límites del área
+        if (x <= 0 || x >= worldWidth - chunk.width[i]) {
+            chunk.velocityX[i] = -chunk.velocityX[i]; // Invierte la dirección
+        }
+    }
+
+    // Método para dibujar al enemigo en pantalla
+    public void draw(Graphics2D g2d) {
+        int row = row();
+        // Si el enemigo está muerto, no se dibuja
+        if (!table.hasFlag(row, EntityTable.ALIVE)) return;
+
+        // Cambiar el color según el estado del enemigo (aturdido o no)
+        g2d.setColor(table.hasFlag(row, EntityTable.STUNNED) ? Color.GRAY : Color.RED);
+        // Dibujar un rectángulo que representa al enemigo
+        g2d.fillRect(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+    }
+
+    // Método para manejar el daño recibido por el enemigo; el reloj mide el aturdimiento
+    public void takeDamage(int damage, boolean fromAbove, GameClock clock) {
+        int row = row();
+        if (fromAbove) {
+            // Si el daño viene desde arriba, el enemigo muere; el nivel lo retira en su siguiente update
+            table.setFlag(row, EntityTable.ALIVE, false);
+        } else {
+            // Si el daño viene de otro lado, el enemigo es aturdido hasta que venza su temporizador
+            table.setFlag(row, EntityTable.STUNNED, true);
+            table.setTimer(row, clock.getTick() + STUN_TICKS); // Registrar el fin del aturdimiento
+            scheduleStun(clock, STUN_TICKS);
+        }
+    }
+
+    /**
+     * Programa el fin del aturdimiento, sustituyendo al temporizador anterior si lo había.
+     */
+    void scheduleStun(GameClock clock, long delay) {
+        clock.cancel(stunTimer);
+        stunTimer = clock.schedule(delay, this, 0);
+    }
+
+    /**
+     * Cancela el fin del aturdimiento pendiente; el nivel lo llama antes de soltar la vista,
+     * para que el reloj no la llame ya sin datos.
+     */
+    void cancelStun(GameClock clock) {
+        clock.cancel(stunTimer);
+        stunTimer = -1;
+    }
+
+    /**
+     * Fin del aturdimiento, llamado por el reloj. Si entretanto se aturdió de nuevo, este aviso ya no cuenta.
+     */
+    @Override
+    public void expire(int target, long tick) {
+        stunTimer = -1;
+        int row = row();
+        if (table.hasFlag(row, EntityTable.STUNNED) && table.getTimer(row) <= tick) {
+            table.setFlag(row, EntityTable.STUNNED, false); // El enemigo deja de estar aturdido
+        }
+    }
+
+    // Método para obtener los límites del enemigo como un rectángulo (crea uno nuevo en cada llamada)
+    public Rectangle getBounds() {
+        int row = row();
+        return new Rectangle(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+    }
+
+    // Método para verificar la colisión con un rectángulo sin crear objetos
+    public boolean intersects(double rx, double ry, double rw, double rh) {
+        int row = row();
+        return Bounds.intersects(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row),
+            rx, ry, rw, rh);
+    }
+
+    // Getters de posición y tamaño
+    public int getX() {
+        return table.getX(row());
+    }
+
+    public int getY() {
+        return table.getY(row());
+    }
+
+    public int getWidth() {
+        return table.getWidth(row());
+    }
+
+    public int getHeight() {
+        return table.getHeight(row());
+    }
+
+    // Método para verificar si el enemigo está vivo
+    public boolean isAlive() {
+        return table.hasFlag(row(), EntityTable.ALIVE);
+    }
+
+    // Método para obtener el daño que el enemigo puede infligir
+    public int getDamage() {
+        return table.getValue(row());
+    }
+
+    // Método para verificar si el enemigo está aturdido
+    public boolean isStunned() {
+        return table.hasFlag(row(), EntityTable.STUNNED);
+    }
+}
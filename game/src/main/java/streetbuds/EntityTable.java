@@ -0,0 +1,467 @@
+package streetbuds;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Arquetipo del almacén de entidades: guarda juntas todas las entidades con el mismo conjunto
+ * de componentes, columna a columna en arrays de tipos primitivos repartidos en trozos de tamaño fijo.
+ *
+ * Las entidades ocupan las primeras filas sin huecos: al quitar una, la última pasa a su fila.
+ * Así los sistemas recorren memoria contigua y nunca saltan entidades muertas o recogidas,
+ * y crecer solo añade un trozo en lugar de copiar todas las columnas.
+ *
+ * Cada entidad tiene además un identificador estable que no cambia al moverse de fila;
+ * en Level es su posición en la lista de vistas (getEnemies(), etc.) y en el índice espacial.
+ */
+public final class EntityTable {
+    // Componentes, combinables como máscara de bits
+    public static final int POSITION = 1;  // x, y
+    public static final int VELOCITY = 2;  // Velocidad horizontal en píxeles por tick
+    public static final int BOUNDS = 4;    // Ancho y alto
+    public static final int HEALTH = 8;    // Salud
+    public static final int FLAGS = 16;    // Banderas de estado (ALIVE, STUNNED...)
+    public static final int VALUE = 32;    // Un entero propio del tipo: daño, puntos...
+    public static final int KIND = 64;     // Subtipo, como el ordinal de un enum
+    public static final int TIMER = 128;   // Tick del GameClock en el que vence el temporizador
+
+    // Banderas
+    public static final int ALIVE = 1;
+    public static final int STUNNED = 2;
+    public static final int SOLID = 4;
+    public static final int COLLECTED = 8;
+
+    static final int DEFAULT_CHUNK_SHIFT = 9; // 512 filas por trozo
+
+    /**
+     * Un trozo de filas consecutivas. Las columnas de componentes que el arquetipo no tiene son null.
+     */
+    static final class Chunk {
+        final int[] x, y, velocityX, width, height, health, flags, value, kind;
+        final long[] timer;
+
+        Chunk(int components, int size) {
+            x = (components & POSITION) != 0 ? new int[size] : null;
+            y = (components & POSITION) != 0 ? new int[size] : null;
+            velocityX = (components & VELOCITY) != 0 ? new int[size] : null;
+            width = (components & BOUNDS) != 0 ? new int[size] : null;
+            height = (components & BOUNDS) != 0 ? new int[size] : null;
+            health = (components & HEALTH) != 0 ? new int[size] : null;
+            flags = (components & FLAGS) != 0 ? new int[size] : null;
+            value = (components & VALUE) != 0 ? new int[size] : null;
+            kind = (components & KIND) != 0 ? new int[size] : null;
+            timer = (components & TIMER) != 0 ? new long[size] : null;
+        }
+    }
+
+    private final int components;
+    private final int chunkShift, chunkMask;
+    private Chunk[] chunks = new Chunk[1];
+    private int allocatedChunks;
+    private int size;                 // Filas ocupadas
+    private int[] rowOf = new int[0]; // Fila de cada identificador, o -1
+    private int[] idAt = new int[0];  // Identificador de cada fila
+
+    /**
+     * Crea un arquetipo con trozos del tamaño por defecto.
+     * @param components Máscara con los componentes de sus entidades.
+     */
+    public EntityTable(int components) {
+        this(components, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Crea un arquetipo con trozos de 2^chunkShift filas; 0 para una entidad suelta.
+     */
+    EntityTable(int components, int chunkShift) {
+        if (chunkShift < 0 || chunkShift > 20) {
+            throw new IllegalArgumentException("Tamaño de trozo fuera de rango: 2^" + chunkShift);
+        }
+        this.components = components;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+    }
+
+    /**
+     * Agrega una entidad al final de las filas, con todos sus componentes a cero.
+     * @param id Identificador no negativo que no esté ya en el arquetipo.
+     * @return Fila de la entidad.
+     */
+    public int add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Identificador negativo: " + id);
+        }
+        ensureIds(id + 1);
+        if (rowOf[id] >= 0) {
+            throw new IllegalStateException("La entidad " + id + " ya está en el arquetipo");
+        }
+        int row = size++;
+        ensureRows(size);
+        clearRow(row); // La fila puede tener restos de una entidad quitada
+        rowOf[id] = row;
+        idAt[row] = id;
+        return row;
+    }
+
+    /**
+     * Quita una entidad; la última fila ocupa su lugar. No hace nada si no estaba.
+     * @param id Identificador de la entidad.
+     */
+    public void remove(int id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            copyRow(this, last, row);
+            int moved = idAt[last];
+            idAt[row] = moved;
+            rowOf[moved] = row;
+        }
+        rowOf[id] = -1;
+    }
+
+    /**
+     * Prepara espacio para los identificadores 0 a ids - 1 y para otras tantas filas.
+     */
+    public void reserve(int ids) {
+        ensureIds(ids);
+        ensureRows(ids);
+    }
+
+    /**
+     * Copia los componentes que tienen en común una fila de otro arquetipo (o de este) a una fila de este.
+     */
+    void copyRow(EntityTable from, int fromRow, int toRow) {
+        Chunk source = from.chunkOf(fromRow), target = chunkOf(toRow);
+        int i = from.offsetOf(fromRow), j = offsetOf(toRow);
+        int shared = components & from.components;
+        if ((shared & POSITION) != 0) {
+            target.x[j] = source.x[i];
+            target.y[j] = source.y[i];
+        }
+        if ((shared & VELOCITY) != 0) {
+            target.velocityX[j] = source.velocityX[i];
+        }
+        if ((shared & BOUNDS) != 0) {
+            target.width[j] = source.width[i];
+            target.height[j] = source.height[i];
+        }
+        if ((shared & HEALTH) != 0) {
+            target.health[j] = source.health[i];
+        }
+        if ((shared & FLAGS) != 0) {
+            target.flags[j] = source.flags[i];
+        }
+        if ((shared & VALUE) != 0) {
+            target.value[j] = source.value[i];
+        }
+        if ((shared & KIND) != 0) {
+            target.kind[j] = source.kind[i];
+        }
+        if ((shared & TIMER) != 0) {
+            target.timer[j] = source.timer[i];
+        }
+    }
+
+    /**
+     * Escribe todas las filas en un búfer: número de filas, identificadores y, trozo a trozo,
+     * cada columna de componentes copiada de una vez. Lo usa SimulationSnapshot.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(components);
+        out.putInt(size);
+        SimulationSnapshot.putInts(out, idAt, 0, size);
+        for (int c = 0; c < chunkCount(); c++) {
+            Chunk chunk = chunks[c];
+            int rows = chunkRows(c);
+            if (chunk.x != null) {
+                SimulationSnapshot.putInts(out, chunk.x, 0, rows);
+                SimulationSnapshot.putInts(out, chunk.y, 0, rows);
+            }
+            if (chunk.velocityX != null) {
+                SimulationSnapshot.putInts(out, chunk.velocityX, 0, rows);
+            }
+            if (chunk.width != null) {
+                SimulationSnapshot.putInts(out, chunk.width, 0, rows);
+                SimulationSnapshot.putInts(out, chunk.height, 0, rows);
+            }
+            if (chunk.health != null) {
+                SimulationSnapshot.putInts(out, chunk.health, 0, rows);
+            }
+            if (chunk.flags != null) {
+                SimulationSnapshot.putInts(out, chunk.flags, 0, rows);
+            }
+            if (chunk.value != null) {
+                SimulationSnapshot.putInts(out, chunk.value, 0, rows);
+            }
+            if (chunk.kind != null) {
+                SimulationSnapshot.putInts(out, chunk.kind, 0, rows);
+            }
+            if (chunk.timer != null) {
+                SimulationSnapshot.putLongs(out, chunk.timer, 0, rows);
+            }
+        }
+    }
+
+    /**
+     * Sustituye todas las filas por las escritas con writeState(), en el mismo orden.
+     * Solo reserva memoria si hay más filas o identificadores que nunca.
+     */
+    void readState(ByteBuffer in) {
+        int savedComponents = in.getInt();
+        if (savedComponents != components) {
+            throw new IllegalStateException("La instantánea es de otro arquetipo: componentes " + savedComponents
+                + " en lugar de " + components);
+        }
+        for (int row = 0; row < size; row++) {
+            rowOf[idAt[row]] = -1;
+        }
+        size = in.getInt();
+        ensureRows(size);
+        SimulationSnapshot.getInts(in, idAt, 0, size);
+        int maxId = -1;
+        for (int row = 0; row < size; row++) {
+            maxId = Math.max(maxId, idAt[row]);
+        }
+        ensureIds(maxId + 1);
+        for (int row = 0; row < size; row++) {
+            rowOf[idAt[row]] = row;
+        }
+        for (int c = 0; c < chunkCount(); c++) {
+            Chunk chunk = chunks[c];
+            int rows = chunkRows(c);
+            if (chunk.x != null) {
+                SimulationSnapshot.getInts(in, chunk.x, 0, rows);
+                SimulationSnapshot.getInts(in, chunk.y, 0, rows);
+            }
+            if (chunk.velocityX != null) {
+                SimulationSnapshot.getInts(in, chunk.velocityX, 0, rows);
+            }
+            if (chunk.width != null) {
+                SimulationSnapshot.getInts(in, chunk.width, 0, rows);
+                SimulationSnapshot.getInts(in, chunk.height, 0, rows);
+            }
+            if (chunk.health != null) {
+                SimulationSnapshot.getInts(in, chunk.health, 0, rows);
+            }
+            if (chunk.flags != null) {
+                SimulationSnapshot.getInts(in, chunk.flags, 0, rows);
+            }
+            if (chunk.value != null) {
+                SimulationSnapshot.getInts(in, chunk.value, 0, rows);
+            }
+            if (chunk.kind != null) {
+                SimulationSnapshot.getInts(in, chunk.kind, 0, rows);
+            }
+            if (chunk.timer != null) {
+                SimulationSnapshot.getLongs(in, chunk.timer, 0, rows);
+            }
+        }
+    }
+
+    private void clearRow(int row) {
+        Chunk chunk = chunkOf(row);
+        int i = offsetOf(row);
+        if (chunk.x != null) {
+            chunk.x[i] = 0;
+            chunk.y[i] = 0;
+        }
+        if (chunk.velocityX != null) {
+            chunk.velocityX[i] = 0;
+        }
+        if (chunk.width != null) {
+            chunk.width[i] = 0;
+            chunk.height[i] = 0;
+        }
+        if (chunk.health != null) {
+            chunk.health[i] = 0;
+        }
+        if (chunk.flags != null) {
+            chunk.flags[i] = 0;
+        }
+        if (chunk.value != null) {
+            chunk.value[i] = 0;
+        }
+        if (chunk.kind != null) {
+            chunk.kind[i] = 0;
+        }
+        if (chunk.timer != null) {
+            chunk.timer[i] = 0;
+        }
+    }
+
+    private void ensureIds(int ids) {
+        if (ids > rowOf.length) {
+            int oldLength = rowOf.length;
+            rowOf = Arrays.copyOf(rowOf, Math.max(ids, oldLength * 2));
+            Arrays.fill(rowOf, oldLength, rowOf.length, -1);
+        }
+    }
+
+    private void ensureRows(int rows) {
+        if (rows > idAt.length) {
+            idAt = Arrays.copyOf(idAt, Math.max(rows, idAt.length * 2));
+        }
+        int needed = (rows + chunkMask) >>> chunkShift;
+        if (needed > chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+        }
+        while (allocatedChunks < needed) {
+            chunks[allocatedChunks++] = new Chunk(components, 1 << chunkShift); // Los trozos vacíos se conservan
+        }
+    }
+
+    Chunk chunkOf(int row) {
+        return chunks[row >>> chunkShift];
+    }
+
+    int offsetOf(int row) {
+        return row & chunkMask;
+    }
+
+    /**
+     * Número de trozos con alguna fila ocupada, para recorrerlos con chunk(i) y chunkRows(i).
+     */
+    int chunkCount() {
+        return (size + chunkMask) >>> chunkShift;
+    }
+
+    Chunk chunk(int index) {
+        return chunks[index];
+    }
+
+    /**
+     * Filas ocupadas del trozo indicado; todos están llenos salvo el último.
+     */
+    int chunkRows(int index) {
+        return Math.min(1 << chunkShift, size - (index << chunkShift));
+    }
+
+    /**
+     * Primera fila del trozo indicado.
+     */
+    int chunkStart(int index) {
+        return index << chunkShift;
+    }
+
+    /**
+     * Fila de una entidad.
+     * @return La fila, o -1 si la entidad no está en el arquetipo.
+     */
+    public int rowOf(int id) {
+        return id >= 0 && id < rowOf.length ? rowOf[id] : -1;
+    }
+
+    public boolean contains(int id) {
+        return rowOf(id) >= 0;
+    }
+
+    /**
+     * Identificador de la entidad que ocupa una fila.
+     */
+    public int idAt(int row) {
+        return idAt[row];
+    }
+
+    /**
+     * Número de entidades en el arquetipo.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getComponents() {
+        return components;
+    }
+
+    // Acceso a los componentes por fila
+
+    public int getX(int row) {
+        return chunkOf(row).x[offsetOf(row)];
+    }
+
+    public void setX(int row, int x) {
+        chunkOf(row).x[offsetOf(row)] = x;
+    }
+
+    public int getY(int row) {
+        return chunkOf(row).y[offsetOf(row)];
+    }
+
+    public void setY(int row, int y) {
+        chunkOf(row).y[offsetOf(row)] = y;
+    }
+
+    public int getVelocityX(int row) {
+        return chunkOf(row).velocityX[offsetOf(row)];
+    }
+
+    public void setVelocityX(int row, int velocityX) {
+        chunkOf(row).velocityX[offsetOf(row)] = velocityX;
+    }
+
+    public int getWidth(int row) {
+        return chunkOf(row).width[offsetOf(row)];
+    }
+
+    public int getHeight(int row) {
+        return chunkOf(row).height[offsetOf(row)];
+    }
+
+    public void setBounds(int row, int x, int y, int width, int height) {
+        Chunk chunk = chunkOf(row);
+        int i = offsetOf(row);
+        chunk.x[i] = x;
+        chunk.y[i] = y;
+        chunk.width[i] = width;
+        chunk.height[i] = height;
+    }
+
+    public int getHealth(int row) {
+        return chunkOf(row).health[offsetOf(row)];
+    }
+
+    public void setHealth(int row, int health) {
+        chunkOf(row).health[offsetOf(row)] = health;
+    }
+
+    public int getFlags(int row) {
+        return chunkOf(row).flags[offsetOf(row)];
+    }
+
+    public boolean hasFlag(int row, int flag) {
+        return (chunkOf(row).flags[offsetOf(row)] & flag) != 0;
+    }
+
+    public void setFlag(int row, int flag, boolean on) {
+        int[] flags = chunkOf(row).flags;
+        int i = offsetOf(row);
+        flags[i] = on ? flags[i] | flag : flags[i] & ~flag;
+    }
+
+    public int getValue(int row) {
+        return chunkOf(row).value[offsetOf(row)];
+    }
+
+    public void setValue(int row, int value) {
+        chunkOf(row).value[offsetOf(row)] = value;
+    }
+
+    public int getKind(int row) {
+        return chunkOf(row).kind[offsetOf(row)];
+    }
+
+    public void setKind(int row, int kind) {
+        chunkOf(row).kind[offsetOf(row)] = kind;
+    }
+
+    public long getTimer(int row) {
+        return chunkOf(row).timer[offsetOf(row)];
+    }
+
+    public void setTimer(int row, long timer) {
+        chunkOf(row).timer[offsetOf(row)] = timer;
+    }
+}
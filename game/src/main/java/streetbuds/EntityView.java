@@ -0,0 +1,90 @@
+package streetbuds;
+
+/**
+ * Base de las vistas sobre una fila de un EntityTable (Enemy, Collectible, Platform).
+ * Una vista no guarda datos propios: lee y escribe los componentes de su entidad, así que
+ * sirve igual para un objeto suelto, recién construido, que para uno que ya está en un nivel.
+ *
+ * Un objeto suelto vive en un arquetipo propio de una sola fila. Al agregarlo a un nivel
+ * sus componentes se copian al arquetipo del nivel y la vista pasa a apuntar allí; al morir
+ * o recogerse pasa a un arquetipo de retirados del nivel, reservado de antemano, para que el nivel
+ * no lo recorra pero la vista siga respondiendo sin crear objetos durante el tick.
+ */
+abstract class EntityView {
+    EntityTable table; // Arquetipo donde está la entidad, o null si se quitó del nivel
+    int id;            // Identificador de la entidad en el arquetipo
+
+    /**
+     * Crea la vista de una entidad suelta nueva, con todos sus componentes a cero.
+     */
+    EntityView(int components) {
+        this.table = new EntityTable(components, 0);
+        this.id = 0;
+        table.add(0);
+    }
+
+    /**
+     * Crea la vista de una entidad que ya está en un arquetipo.
+     */
+    EntityView(EntityTable table, int id) {
+        this.table = table;
+        this.id = id;
+    }
+
+    /**
+     * Fila actual de la entidad; cambia cuando el arquetipo quita otras entidades.
+     */
+    final int row() {
+        return table.rowOf(id);
+    }
+
+    /**
+     * Si la entidad está en el arquetipo indicado.
+     */
+    final boolean isIn(EntityTable target) {
+        return table == target && target.contains(id);
+    }
+
+    /**
+     * Copia la entidad a otro arquetipo con el identificador indicado y pasa a apuntar allí.
+     * La fila de origen no se quita.
+     * @return Fila de la entidad en el nuevo arquetipo.
+     */
+    final int moveTo(EntityTable target, int targetId) {
+        int row = target.add(targetId);
+        target.copyRow(table, row(), row);
+        table = target;
+        id = targetId;
+        return row;
+    }
+
+    /**
+     * Pasa la entidad de su arquetipo a otro con el mismo identificador, conservando sus componentes.
+     * Si en el destino quedaba una entidad anterior con ese identificador, se sustituye.
+     * No reserva memoria si el destino ya tiene sitio para el identificador.
+     */
+    final void retire(EntityTable retired) {
+        EntityTable previous = table;
+        int previousId = id;
+        retired.remove(previousId);
+        moveTo(retired, previousId);
+        previous.remove(previousId);
+    }
+
+    /**
+     * Apunta la vista a una entidad que ya está en un arquetipo, sin copiar nada.
+     * Lo usa Level al restaurar una instantánea.
+     */
+    final void bind(EntityTable target, int targetId) {
+        table = target;
+        id = targetId;
+    }
+
+    /**
+     * Saca la entidad de su arquetipo sin conservarla: la vista deja de poder usarse.
+     */
+    final void unbind() {
+        table.remove(id);
+        table = null;
+    }
+}
@@ -0,0 +1,107 @@
+package streetbuds;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limitador de frames basado en System.nanoTime.
+ * Duerme mientras falta mucho para el siguiente frame y espera activamente el último tramo,
+ * porque dormir tiene una precisión de uno o dos milisegundos según el sistema operativo.
+ * Con un objetivo de 0 FPS no limita nada (modo sin límite).
+ */
+public class FramePacer {
+    private static final long SPIN_THRESHOLD_NANOS = 2_000_000L; // Último tramo que se espera activamente
+
+    private volatile int targetFps;   // Frames por segundo objetivo (0 = sin límite)
+    private long nextFrameTime;       // Momento en que debe empezar el siguiente frame
+    private boolean started;
+
+    // Medición de los frames realmente mostrados
+    private long fpsWindowStart;
+    private int fpsWindowFrames;
+    private volatile double measuredFps;
+
+    /**
+     * Crea un limitador con el objetivo indicado.
+     * @param targetFps Frames por segundo, o 0 para no limitar.
+     */
+    public FramePacer(int targetFps) {
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Espera hasta que toque empezar el siguiente frame.
+     * Se llama una vez por frame, justo después de mostrarlo.
+     */
+    public void sync() {
+        long now = System.nanoTime();
+        countFrame(now);
+        int fps = targetFps;
+        if (fps <= 0) {
+            started = false;
+            return;
+        }
+        long frameNanos = 1_000_000_000L / fps;
+        if (!started) {
+            nextFrameTime = now;
+            started = true;
+        }
+        nextFrameTime += frameNanos;
+        if (now - nextFrameTime > frameNanos) {
+            // Vamos más de un frame por detrás: no intentar recuperar frames perdidos de golpe
+            nextFrameTime = now;
+            return;
+        }
+
+        // Dormir mientras quede mucho tiempo
+        long remaining;
+        while ((remaining = nextFrameTime - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        // Esperar activamente el último tramo
+        while (nextFrameTime - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Olvida el ritmo anterior, por ejemplo tras una pausa.
+     */
+    public void reset() {
+        started = false;
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Cambia el objetivo de frames por segundo.
+     * @param targetFps Frames por segundo, o 0 para no limitar.
+     */
+    public void setTargetFps(int targetFps) {
+        if (targetFps < 0) {
+            throw new IllegalArgumentException("Los FPS objetivo no pueden ser negativos: " + targetFps);
+        }
+        this.targetFps = targetFps;
+        this.started = false;
+    }
+
+    /**
+     * Frames por segundo mostrados realmente durante el último segundo.
+     */
+    public double getMeasuredFps() {
+        return measuredFps;
+    }
+
+    private void countFrame(long now) {
+        if (fpsWindowFrames == 0) {
+            fpsWindowStart = now;
+        }
+        fpsWindowFrames++;
+        long elapsed = now - fpsWindowStart;
+        if (elapsed >= 1_000_000_000L) {
+            measuredFps = (fpsWindowFrames - 1) * 1e9 / elapsed;
+            fpsWindowFrames = 0;
+        }
+    }
+}
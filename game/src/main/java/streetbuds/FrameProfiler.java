@@ -0,0 +1,338 @@
+package streetbuds;
+
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Perfilador de frames basado en System.nanoTime.
+ * La lógica y el dibujo marcan secciones con mark() y lap(); el tiempo de cada fase se acumula
+ * durante el frame y al cerrarlo con endFrame() se guarda como una muestra, tanto en una ventana
+ * de los últimos frames (para el p50, p99 y máximo del overlay) como en un histograma acumulado
+ * que se puede volcar a CSV.
+ *
+ * Desactivado no mide nada: mark() y lap() solo leen un campo, así que se puede dejar
+ * en el bucle del juego sin coste. Todas las llamadas, salvo setEnabled() y requestDump(),
+ * deben hacerse desde el hilo que avanza y dibuja el juego.
+ */
+public class FrameProfiler {
+    // Fases medidas
+    public static final int UPDATE_LEVEL = 0;
+    public static final int UPDATE_PARTICLES = 1;
+    public static final int UPDATE_PLAYER = 2;
+    public static final int UPDATE_ENEMIES = 3;
+    public static final int UPDATE_COLLECTIBLES = 4;
+    public static final int DRAW_LEVEL = 5;
+    public static final int DRAW_PLAYER = 6;
+    public static final int DRAW_PARTICLES = 7;
+    public static final int DRAW_HUD = 8;
+    public static final int FRAME = 9; // Tiempo entre dos frames consecutivos
+    public static final int PHASE_COUNT = 10;
+
+    private static final String[] PHASE_NAMES = {
+        "update.nivel", "update.particulas", "update.jugador", "update.enemigos", "update.coleccionables",
+        "paint.nivel", "paint.jugador", "paint.particulas", "paint.hud", "frame"
+    };
+
+    private static final int WINDOW = 240;          // Frames que se conservan para percentiles y gráfica
+    private static final int SUB_BUCKETS = 4;       // Subdivisiones de cada potencia de dos del histograma
+    private static final int BUCKET_COUNT = 62 * SUB_BUCKETS;
+    private static final long GRAPH_SCALE_NANOS = 33_333_333L; // Alto completo de la gráfica (dos frames a 60 FPS)
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L; // Línea de referencia de la gráfica
+
+    private volatile boolean enabled;       // Si se está midiendo
+    private volatile boolean dumpRequested; // Si se pidió volcar el histograma en el siguiente frame
+    private volatile boolean resetRequested; // Si hay que vaciar las muestras en el siguiente frame
+
+    // Frame en curso
+    private final long[] pending = new long[PHASE_COUNT];
+    private final boolean[] touched = new boolean[PHASE_COUNT];
+    private long lastFrameTime;
+
+    // Ventana de los últimos frames por fase
+    private final long[][] window = new long[PHASE_COUNT][WINDOW];
+    private final int[] windowCount = new int[PHASE_COUNT];
+    private final int[] windowNext = new int[PHASE_COUNT];
+    private final long[] sorted = new long[WINDOW]; // Copia reutilizable para calcular percentiles
+
+    // Histograma acumulado desde que se activó
+    private final long[][] histogram = new long[PHASE_COUNT][BUCKET_COUNT];
+
+    // Recolector de basura
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long gcCountAtStart, gcTimeAtStart;
+
+    /**
+     * Activa o desactiva la medición. Al activarla se vacían las muestras anteriores
+     * en el siguiente frame. Se puede llamar desde cualquier hilo.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            resetRequested = true;
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pide volcar el histograma a CSV al cerrar el siguiente frame.
+     * Se puede llamar desde cualquier hilo.
+     */
+    public void requestDump() {
+        dumpRequested = true;
+    }
+
+    /**
+     * Marca el comienzo de una sección.
+     * @return El instante actual, o 0 si el perfilador está desactivado.
+     */
+    public long mark() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Cierra una sección y suma su duración a la fase indicada.
+     * @param phase Fase a la que pertenece la sección.
+     * @param start Valor devuelto por mark() o por el lap() anterior.
+     * @return El instante actual, para encadenar la siguiente sección, o 0 si está desactivado.
+     */
+    public long lap(int phase, long start) {
+        if (!enabled) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        if (start != 0L) { // Con start == 0 la sección empezó desactivada y no se mide
+            pending[phase] += now - start;
+            touched[phase] = true;
+        }
+        return now;
+    }
+
+    /**
+     * Cierra el frame actual: guarda como muestra cada fase que se ejecutó y el tiempo desde
+     * el frame anterior. Si se pidió, vuelca el histograma a CSV.
+     */
+    public void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (resetRequested) {
+            resetRequested = false;
+            reset(); // El frame en curso empezó desactivado: se descarta
+            lastFrameTime = now;
+            return;
+        }
+        if (lastFrameTime != 0L) {
+            pending[FRAME] = now - lastFrameTime;
+            touched[FRAME] = true;
+        }
+        lastFrameTime = now;
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            if (touched[phase]) {
+                record(phase, pending[phase]);
+                pending[phase] = 0L;
+                touched[phase] = false;
+            }
+        }
+        if (dumpRequested) {
+            dumpRequested = false;
+            try {
+                Path file = dumpCsv(Paths.get("."));
+                System.out.println("Perfil guardado en " + file);
+            } catch (IOException e) {
+                System.err.println("No se pudo guardar el perfil: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Guarda una muestra en la ventana y en el histograma de la fase.
+     */
+    private void record(int phase, long nanos) {
+        window[phase][windowNext[phase]] = nanos;
+        windowNext[phase] = (windowNext[phase] + 1) % WINDOW;
+        if (windowCount[phase] < WINDOW) {
+            windowCount[phase]++;
+        }
+        histogram[phase][bucketFor(nanos)]++;
+    }
+
+    /**
+     * Descarta todas las muestras y toma los contadores del recolector como nuevo punto de partida.
+     */
+    public void reset() {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            pending[phase] = 0L;
+            touched[phase] = false;
+            windowCount[phase] = 0;
+            windowNext[phase] = 0;
+            Arrays.fill(histogram[phase], 0L);
+        }
+        lastFrameTime = 0L;
+        gcCountAtStart = getGcCount();
+        gcTimeAtStart = getGcTime();
+    }
+
+    /**
+     * Percentil de las muestras recientes de una fase.
+     * @param phase Fase a consultar.
+     * @param percentile Percentil entre 0 y 100 (100 = máximo).
+     * @return El valor en nanosegundos, o 0 si no hay muestras.
+     */
+    public long getPercentile(int phase, double percentile) {
+        int count = windowCount[phase];
+        if (count == 0) {
+            return 0L;
+        }
+        System.arraycopy(window[phase], 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    /**
+     * Número de recolecciones desde que se activó el perfilador, sumando todos los recolectores.
+     */
+    public long getGcCountSinceStart() {
+        return getGcCount() - gcCountAtStart;
+    }
+
+    /**
+     * Milisegundos pasados en recolecciones desde que se activó el perfilador.
+     */
+    public long getGcTimeSinceStart() {
+        return getGcTime() - gcTimeAtStart;
+    }
+
+    private long getGcCount() {
+        long total = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            total += Math.max(0L, collectors.get(i).getCollectionCount()); // -1 si no está disponible
+        }
+        return total;
+    }
+
+    private long getGcTime() {
+        long total = 0;
+        for (int i = 0; i < collectors.size(); i++) {
+            total += Math.max(0L, collectors.get(i).getCollectionTime());
+        }
+        return total;
+    }
+
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Cubeta del histograma para una duración: exacta por debajo de 4 ns y, a partir de ahí,
+     * cuatro cubetas por cada potencia de dos (error máximo del 25%).
+     */
+    static int bucketFor(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0L, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKET_COUNT - 1, (exponent - 1) * SUB_BUCKETS + sub);
+    }
+
+    /**
+     * Límite inferior, en nanosegundos, de una cubeta del histograma.
+     */
+    static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 2);
+    }
+
+    /**
+     * Escribe el histograma acumulado de todas las fases en un CSV con una fila por cubeta no vacía.
+     * @param directory Carpeta donde crear el archivo.
+     * @return Ruta del archivo creado.
+     * @throws IOException Si no se puede escribir.
+     */
+    public Path dumpCsv(Path directory) throws IOException {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = directory.resolve("streetbuds-perfil-" + stamp + ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("fase,desde_ns,hasta_ns,muestras");
+            writer.newLine();
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                    long count = histogram[phase][bucket];
+                    if (count == 0) {
+                        continue;
+                    }
+                    writer.write(PHASE_NAMES[phase] + "," + bucketLowerBound(bucket) + ","
+                        + (bucket + 1 < BUCKET_COUNT ? bucketLowerBound(bucket + 1) : Long.MAX_VALUE) + "," + count);
+                    writer.newLine();
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Dibuja el overlay: tabla de p50, p99 y máximo por fase, recolecciones y la gráfica
+     * de los últimos tiempos de frame.
+     * @param g2d Contexto gráfico.
+     * @param x Esquina izquierda del overlay.
+     * @param y Esquina superior del overlay.
+     */
+    public void draw(Graphics2D g2d, int x, int y) {
+        final int width = 300, rowHeight = 14, graphHeight = 60;
+        int height = 20 + (PHASE_COUNT + 2) * rowHeight + graphHeight + 10;
+        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.fillRect(x, y, width, height);
+        g2d.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+        int row = y + 16;
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(String.format("%-22s %6s %6s %6s", "fase (ms)", "p50", "p99", "max"), x + 6, row);
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            row += rowHeight;
+            g2d.setColor(phase == FRAME ? Color.YELLOW : Color.LIGHT_GRAY);
+            g2d.drawString(String.format("%-22s %6.2f %6.2f %6.2f", PHASE_NAMES[phase],
+                getPercentile(phase, 50) / 1e6, getPercentile(phase, 99) / 1e6, getPercentile(phase, 100) / 1e6),
+                x + 6, row);
+        }
+        row += rowHeight;
+        g2d.setColor(Color.WHITE);
+        g2d.drawString("GC: " + getGcCountSinceStart() + " recolecciones, " + getGcTimeSinceStart() + " ms",
+            x + 6, row);
+
+        // Gráfica de los últimos frames, del más antiguo al más reciente
+        int graphTop = row + 8;
+        int graphLeft = x + (width - WINDOW) / 2;
+        g2d.setColor(new Color(255, 255, 255, 40));
+        g2d.fillRect(graphLeft, graphTop, WINDOW, graphHeight);
+        int count = windowCount[FRAME];
+        int first = (windowNext[FRAME] - count + WINDOW) % WINDOW;
+        for (int i = 0; i < count; i++) {
+            long nanos = window[FRAME][(first + i) % WINDOW];
+            int barHeight = (int) Math.min(graphHeight, nanos * graphHeight / GRAPH_SCALE_NANOS);
+            g2d.setColor(nanos > FRAME_BUDGET_NANOS + FRAME_BUDGET_NANOS / 10 ? Color.RED : Color.GREEN);
+            g2d.drawLine(graphLeft + WINDOW - count + i, graphTop + graphHeight,
+                graphLeft + WINDOW - count + i, graphTop + graphHeight - barHeight);
+        }
+        int budgetY = graphTop + graphHeight - (int) (FRAME_BUDGET_NANOS * graphHeight / GRAPH_SCALE_NANOS);
+        g2d.setColor(Color.YELLOW);
+        g2d.drawLine(graphLeft, budgetY, graphLeft + WINDOW - 1, budgetY);
+    }
+}
@@ -0,0 +1,112 @@
+package streetbuds;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * Reloj del juego medido en ticks de la simulación en lugar de tiempo real.
+ * La simulación lo avanza una vez por tick, así que los temporizadores que dependen de él
+ * (invulnerabilidad, aturdimiento) duran lo mismo a cualquier velocidad y se repiten
+ * exactamente al reproducir una grabación. Se detiene con la pausa porque la simulación no avanza,
+ * y la cámara lenta o el avance rápido solo cambian cuántos ticks se ejecutan por segundo (GameLoop).
+ *
+ * Las entidades programan aquí lo que vence (schedule): en vez de comparar tiempos en cada tick,
+ * el reloj las llama en el tick en que vence su temporizador, con una TimerWheel.
+ */
+public class GameClock implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Lo que se hace cuando vence un temporizador.
+     */
+    public interface Expiry {
+        /**
+         * @param target Valor que se dio al programarlo, por ejemplo el id de una entidad.
+         * @param tick Tick en el que vence.
+         */
+        void expire(int target, long tick);
+    }
+
+    private long tick; // Ticks transcurridos
+    private transient TimerWheel timers = new TimerWheel(); // Temporizadores pendientes; no se serializan
+
+    /**
+     * Avanza el reloj un tick y vence los temporizadores de ese tick.
+     */
+    public void advance() {
+        tick++;
+        timers.expire(tick);
+    }
+
+    /**
+     * Ticks transcurridos desde que se creó el reloj.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Pone el reloj en un tick ya pasado o futuro; lo usa SimulationSnapshot al restaurar.
+     * Los temporizadores pendientes se descartan: quien los tenía debe volver a programarlos.
+     */
+    void setTick(long tick) {
+        this.tick = tick;
+        timers.clear();
+    }
+
+    /**
+     * Tiempo de juego transcurrido en milisegundos, a la frecuencia fija de la simulación.
+     */
+    public long millis() {
+        return tick * 1000 / Simulation.TICKS_PER_SECOND;
+    }
+
+    /**
+     * Ticks que dura un tiempo de juego, redondeando hacia arriba.
+     */
+    public static long ticks(long millis) {
+        return (millis * Simulation.TICKS_PER_SECOND + 999) / 1000;
+    }
+
+    /**
+     * Programa un temporizador que vence al cabo de los ticks indicados, al avanzar el reloj.
+     * @param delay Ticks hasta que vence; al menos 1.
+     * @param expiry A quién llamar; conviene que sea un objeto que ya existe, para no crear uno por temporizador.
+     * @param target Valor que se le pasa al vencer.
+     * @return Manejador para cancelarlo.
+     */
+    public long schedule(long delay, Expiry expiry, int target) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("Un temporizador debe durar al menos un tick: " + delay);
+        }
+        return timers.schedule(tick + delay, expiry, target);
+    }
+
+    /**
+     * Cancela un temporizador.
+     * @return false si ya había vencido o se había cancelado.
+     */
+    public boolean cancel(long handle) {
+        return timers.cancel(handle);
+    }
+
+    /**
+     * Temporizadores programados que aún no han vencido.
+     */
+    public int getPendingTimers() {
+        return timers.getPending();
+    }
+
+    /**
+     * Temporizadores vencidos desde que se creó el reloj.
+     */
+    public long getExpiredTimers() {
+        return timers.getExpired();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        timers = new TimerWheel();
+    }
+}
@@ -0,0 +1,84 @@
+package streetbuds;
+
+/**
+ * Algo que pasó en la partida durante un tick, publicado por la simulación en su GameEventBus.
+ *
+ * Los eventos son casillas del anillo que se reutilizan: quien los recibe en un Handler debe copiar
+ * lo que necesite y no guardar el objeto, porque en cuanto termina drain() la simulación puede
+ * escribir otro evento encima.
+ */
+public final class GameEvent {
+    /**
+     * Tipo de evento y lo que significan sus campos.
+     */
+    public enum Type {
+        ENEMY_KILLED,   // id del enemigo, centro del enemigo, puntos ganados
+        ITEM_COLLECTED, // id del coleccionable, centro del coleccionable, su valor
+        PLAYER_DAMAGED, // id 0, centro del jugador, daño recibido
+        LEVEL_COMPLETED // id 0, centro del jugador, puntuación total
+    }
+
+    /**
+     * Recibe los eventos de una suscripción, en el orden en que se publicaron.
+     */
+    public interface Handler {
+        void onEvent(GameEvent event);
+    }
+
+    private Type type;
+    private long tick;
+    private int id;
+    private int x, y;
+    private int value;
+
+    GameEvent() {
+    }
+
+    void set(Type type, long tick, int id, int x, int y, int value) {
+        this.type = type;
+        this.tick = tick;
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+    }
+
+    void copyFrom(GameEvent other) {
+        set(other.type, other.tick, other.id, other.x, other.y, other.value);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Tick de la simulación en el que ocurrió, contado desde el inicio del nivel.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Puntos, valor o daño, según el tipo.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + tick + "(id=" + id + ", x=" + x + ", y=" + y + ", valor=" + value + ")";
+    }
+}
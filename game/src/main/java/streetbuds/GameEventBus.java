@@ -0,0 +1,174 @@
+package streetbuds;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Anillo de eventos de la partida con un solo productor, la simulación, y cualquier número de suscripciones.
+ *
+ * Los eventos se reservan al crear el anillo y se reutilizan, así que publicar no crea objetos ni toma
+ * cerrojos: escribe la casilla siguiente y la publica con una escritura ordenada del contador. Cada
+ * suscripción lleva su propio cursor y vacía lo pendiente por lotes con drain(), en su hilo, cuando
+ * le conviene. El productor nunca mira a las suscripciones: si una se queda más de una vuelta atrás,
+ * el anillo pisa sus eventos más viejos y, al vaciarla, salta a los que siguen en él y cuenta los perdidos
+ * en getOverrun(). Las demás suscripciones no pierden nada por ella.
+ *
+ * Como el productor puede reescribir una casilla mientras una suscripción atrasada la lee, cada evento
+ * se copia antes de entregarlo y se comprueba después, como en un seqlock, que nadie empezó a reescribirlo.
+ *
+ * Solo puede publicar un hilo a la vez. Los sistemas de la simulación que publican escriben PROGRESS,
+ * así que el planificador nunca los ejecuta a la vez y cada uno ve lo que publicó el anterior.
+ */
+public final class GameEventBus {
+    /**
+     * Cursor de un consumidor sobre el anillo. Cada suscripción debe vaciarla un solo hilo a la vez.
+     */
+    public final class Subscription {
+        private final AtomicLong consumed; // Eventos ya entregados o perdidos por este consumidor
+        private final GameEvent current = new GameEvent(); // Copia del evento que se entrega
+        private long overrun;              // Eventos que el anillo pisó antes de entregarlos
+
+        private Subscription(long start) {
+            consumed = new AtomicLong(start);
+        }
+
+        /**
+         * Entrega al handler los eventos pendientes, como mucho maxEvents. Si el productor dio la vuelta
+         * al anillo desde la última vez, primero salta a los eventos más viejos que siguen en él.
+         * El evento que recibe el handler es una copia que se reutiliza en la siguiente llamada.
+         * @return Eventos entregados.
+         */
+        public int drain(GameEvent.Handler handler, int maxEvents) {
+            long from = consumed.get();
+            long available = published.getAcquire(); // Lo escrito antes de publicar ya es visible
+            int count = 0;
+            while (count < maxEvents && from < available) {
+                long oldest = claimed.getAcquire() - ring.length; // Las anteriores se pisaron o se están pisando
+                if (from < oldest) {
+                    overrun += oldest - from;
+                    from = oldest;
+                    continue;
+                }
+                current.copyFrom(ring[(int) from & mask]);
+                VarHandle.acquireFence(); // Leer la casilla antes de volver a mirar al productor
+                if (claimed.getOpaque() - ring.length > from) {
+                    continue; // Se reescribió mientras se copiaba: se cuenta como perdida en la siguiente vuelta
+                }
+                handler.onEvent(current);
+                from++;
+                count++;
+            }
+            consumed.set(from);
+            return count;
+        }
+
+        /**
+         * Entrega al handler todos los eventos pendientes.
+         */
+        public int drain(GameEvent.Handler handler) {
+            return drain(handler, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Eventos publicados que esta suscripción aún no ha recibido y siguen en el anillo.
+         */
+        public int pending() {
+            return (int) Math.min(published.getAcquire() - consumed.get(), ring.length);
+        }
+
+        /**
+         * Eventos que esta suscripción no llegó a recibir porque el anillo los pisó antes de vaciarla.
+         * Solo es exacto en el hilo que la vacía.
+         */
+        public long getOverrun() {
+            return overrun;
+        }
+
+        /**
+         * Deja de recibir eventos.
+         */
+        public void close() {
+            unsubscribe(this);
+        }
+    }
+
+    private final GameEvent[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();   // Eventos cuya casilla se empezó a escribir
+    private final AtomicLong published = new AtomicLong(); // Eventos publicados en total
+    private volatile Subscription[] subscriptions = new Subscription[0]; // Se sustituye entero al cambiar
+
+    // Solo lo usa el productor
+    private long next;          // Secuencia del siguiente evento
+
+    /**
+     * @param capacity Eventos pendientes como máximo por suscripción; se redondea a la potencia de dos siguiente.
+     */
+    public GameEventBus(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacidad del anillo de eventos no válida: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        ring = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new GameEvent();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Crea una suscripción que recibe los eventos publicados a partir de ahora.
+     * Se puede llamar desde cualquier hilo.
+     */
+    public synchronized Subscription subscribe() {
+        Subscription subscription = new Subscription(published.get());
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+        return subscription;
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publica un evento en la casilla siguiente, aunque alguna suscripción no haya leído aún el que había.
+     * No crea objetos ni espera.
+     */
+    public void publish(GameEvent.Type type, long tick, int id, int x, int y, int value) {
+        claimed.setOpaque(next + 1);
+        VarHandle.storeStoreFence(); // Que se vea que la casilla se está pisando antes que el evento nuevo
+        ring[(int) next & mask].set(type, tick, id, x, y, value);
+        published.setRelease(++next);
+    }
+
+    /**
+     * Eventos pendientes que caben por suscripción.
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Eventos publicados en total.
+     */
+    public long getPublished() {
+        return published.get();
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.length;
+    }
+}
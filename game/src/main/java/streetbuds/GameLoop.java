@@ -0,0 +1,128 @@
+package streetbuds;
+
+/**
+ * Bucle de juego de paso fijo.
+ * Acumula el tiempo real transcurrido y lo convierte en ticks de duración constante de la simulación,
+ * de modo que la velocidad del juego no dependa de la regularidad del temporizador que lo invoca.
+ * Con una escala de tiempo distinta de 1 se simulan más o menos ticks por segundo real (avance rápido
+ * o cámara lenta); cada tick sigue siendo igual, así que la partida es la misma a cualquier escala.
+ * También puede ejecutar la simulación sin pantalla a la máxima velocidad posible.
+ */
+public class GameLoop {
+    public static final long STEP_NANOS = 1_000_000_000L / Simulation.TICKS_PER_SECOND; // Duración de un tick
+    private static final int MAX_STEPS_PER_ADVANCE = 5; // Límite de ticks por llamada para no entrar en espiral
+
+    private final Simulation simulation; // Simulación que se avanza
+    private long accumulator;            // Tiempo pendiente de simular en nanosegundos
+    private long lastTime;               // Marca de tiempo de la última llamada a advance
+    private boolean hasLastTime;         // Indica si lastTime es válido
+    private SnapshotRing rewindRing;     // Instantáneas de los últimos ticks, o null si no se guardan
+    private volatile double timeScale = 1.0; // Ticks simulados por tick de tiempo real; se cambia desde otro hilo
+
+    /**
+     * Crea un bucle para la simulación indicada.
+     * @param simulation Simulación a avanzar.
+     */
+    public GameLoop(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Avanza la simulación según el tiempo real transcurrido desde la última llamada.
+     * Se usa cuando el bucle lo impulsa la interfaz gráfica.
+     * @param nowNanos Marca de tiempo actual (System.nanoTime()).
+     * @param keys Estado de las teclas presionadas.
+     * @return Número de ticks ejecutados.
+     */
+    public int advance(long nowNanos, boolean[] keys) {
+        if (!hasLastTime) {
+            lastTime = nowNanos;
+            hasLastTime = true;
+            return 0;
+        }
+        double timeScale = this.timeScale;
+        accumulator += timeScale == 1.0 ? nowNanos - lastTime : (long) ((nowNanos - lastTime) * timeScale);
+        lastTime = nowNanos;
+
+        // El avance rápido necesita más ticks por llamada para no quedarse corto
+        int maxSteps = (int) Math.ceil(MAX_STEPS_PER_ADVANCE * Math.max(1.0, timeScale));
+        int steps = 0;
+        while (accumulator >= STEP_NANOS && steps < maxSteps) {
+            simulation.step(keys);
+            if (rewindRing != null) {
+                rewindRing.record(simulation);
+            }
+            accumulator -= STEP_NANOS;
+            steps++;
+        }
+        // Descartar el tiempo que no se pudo simular para no acumular retraso
+        if (steps == maxSteps && accumulator >= STEP_NANOS) {
+            accumulator = 0;
+        }
+        return steps;
+    }
+
+    /**
+     * Olvida el tiempo acumulado, por ejemplo al salir de una pausa,
+     * para que el tiempo detenido no se simule de golpe.
+     */
+    public void resetClock() {
+        accumulator = 0;
+        hasLastTime = false;
+    }
+
+    /**
+     * Cambia la velocidad del juego respecto al tiempo real: 2 es el doble de rápido y 0.5 la mitad.
+     * Los temporizadores del juego (GameClock) se escalan igual, porque cuentan ticks.
+     */
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale > 0) || Double.isInfinite(timeScale)) {
+            throw new IllegalArgumentException("La escala de tiempo debe ser positiva: " + timeScale);
+        }
+        this.timeScale = timeScale;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Fracción del siguiente tick ya transcurrida, útil para interpolar el renderizado.
+     * @return Valor entre 0 y 1.
+     */
+    public double getInterpolationAlpha() {
+        return (double) accumulator / STEP_NANOS;
+    }
+
+    /**
+     * Ejecuta ticks sin pantalla y sin esperar al reloj real.
+     * Se detiene antes si el juego deja de estar en curso (fin de juego o nivel completado).
+     * @param keys Estado de las teclas durante toda la ejecución.
+     * @param maxTicks Número máximo de ticks a ejecutar.
+     * @return Número de ticks ejecutados.
+     */
+    public long runHeadless(boolean[] keys, long maxTicks) {
+        long ticks = 0;
+        while (ticks < maxTicks && simulation.getGameState() == GameState.PLAYING) {
+            simulation.step(keys);
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Guarda una instantánea de la simulación tras cada tick de advance(), para poder rebobinar.
+     * @param rewindRing Anillo de instantáneas, o null para no guardarlas.
+     */
+    public void setRewindRing(SnapshotRing rewindRing) {
+        this.rewindRing = rewindRing;
+    }
+
+    public SnapshotRing getRewindRing() {
+        return rewindRing;
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+}
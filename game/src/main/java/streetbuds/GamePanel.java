@@ -0,0 +1,713 @@
+package streetbuds;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.swing.*;
+
+/**
+ * Panel principal del juego donde se maneja el renderizado y la entrada.
+ * La lógica vive en Simulation; el panel solo la avanza con un GameLoop y la dibuja.
+ *
+ * Por defecto usa renderizado activo: un hilo propio dibuja sobre un Canvas con BufferStrategy
+ * (intercambio de páginas si el sistema lo permite) y regula los frames con un FramePacer.
+ * Con -Dstreetbuds.render=passive se usa el Timer de Swing y paintComponent como antes.
+ * Los FPS objetivo se configuran con -Dstreetbuds.fps (0 = sin límite).
+ *
+ * En el modo de rectángulos sucios (F3 o -Dstreetbuds.render.dirty=true) la escena se guarda en una
+ * imagen persistente y en cada frame solo se redibujan las zonas que cambiaron; en modo pasivo
+ * además solo se piden a Swing esas zonas. F4 muestra los rectángulos redibujados.
+ * La escena se dibuja desde la cámara de la simulación y solo se dibuja lo que cae en su vista.
+ * F1 activa el perfilador de frames con su overlay y F5 vuelca sus histogramas a un CSV.
+ * Con -Dstreetbuds.record=archivo se graba la entrada de toda la partida y F6 la guarda en ese archivo,
+ * para reproducirla después con ReplayRunner.
+ * Con -Dstreetbuds.rewind=segundos se guarda una instantánea por tick y F7 rebobina un segundo.
+ * Con -Dstreetbuds.save=archivo la partida se guarda sola en ese archivo cada -Dstreetbuds.autosave segundos
+ * (5 por defecto), desde un hilo aparte, y se retoma de él al abrir el juego; sin la propiedad no se guarda.
+ * F8 alterna la velocidad del juego entre normal, cámara lenta y avance rápido; la inicial se da con
+ * -Dstreetbuds.timeScale. El tiempo del HUD cuenta ticks, así que se para con la pausa y sigue la velocidad.
+ * Implementa ActionListener para el bucle del juego y Serializable para persistencia.
+ */
+public class GamePanel extends JPanel implements ActionListener, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int DELAY = 16; // ~60 FPS (1000ms / 60 = 16.66ms)
+    private static final long AUTOSAVE_NANOS = Integer.getInteger("streetbuds.autosave", 5) * 1_000_000_000L;
+    private static final double[] TIME_SCALES = {1.0, 0.5, 2.0}; // Velocidades que recorre F8
+    private static final int REWIND_SNAPSHOT_BYTES = 16 * 1024; // Búfer inicial de cada instantánea; crece si hace falta
+    private static final boolean ACTIVE_RENDERING = !"passive".equals(System.getProperty("streetbuds.render"));
+    private Timer timer;                 // Timer que impulsa el bucle del juego (modo pasivo)
+    private transient Canvas canvas;     // Superficie del renderizado activo
+    private transient Thread renderThread; // Hilo del renderizado activo
+    private volatile boolean running;    // Si el hilo de renderizado debe seguir
+    private transient FramePacer framePacer; // Limitador de frames del renderizado activo
+    private boolean[] keys;              // Estado de las teclas presionadas
+    private Simulation simulation;       // Lógica del juego (nivel, jugador, puntuación y vidas)
+    private GameLoop gameLoop;           // Bucle de paso fijo que avanza la simulación
+    private volatile boolean isPaused;   // Estado de pausa del juego
+    private volatile boolean advanceRequested; // ESPACIO en la pantalla de nivel completado
+    private transient Path recordingFile;      // Destino de la grabación de la entrada, o null
+    private volatile boolean saveRecordingRequested; // F6 con la grabación activa
+    private volatile boolean rewindRequested;  // F7 con el rebobinado activo
+    private transient SaveGameWriter saveWriter; // Autoguardado de la partida, o null
+    private long lastAutosave = System.nanoTime(); // Marca de tiempo del último autoguardado
+    private Font gameFont;               // Fuente del juego
+    private ParticleRasterRenderer particleRenderer; // Renderizado de partículas directo a píxeles
+    private boolean rasterParticles;     // Si las partículas se dibujan con particleRenderer
+
+    // Modo de rectángulos sucios
+    private static final int SCREEN_WIDTH = 800, SCREEN_HEIGHT = 600; // Tamaño de la escena
+    private static final int SLOT_PLAYER = 0, SLOT_PARTICLES = 1, SLOT_HUD = 2, SLOT_FIRST_OBJECT = 3;
+    private static final Rectangle HUD_AREA = new Rectangle(15, 5, 320, 95); // Zona del texto del HUD
+    private static final int CULL_MARGIN = 64; // Margen alrededor de la vista para lo que sobresale al dibujarse
+    private volatile boolean dirtyRendering;   // Si se usa el modo de rectángulos sucios
+    private volatile boolean showDirtyRegions; // Si se muestran los rectángulos redibujados
+    private transient BufferedImage sceneBuffer; // Escena persistente entre frames
+    private transient DirtyRegionTracker dirtyRegions; // Zonas que cambiaron en el frame actual
+    private boolean sceneBufferStale = true;   // Si la escena guardada ya no es válida
+    private boolean sceneBufferShown;          // Si el último frame se presentó desde sceneBuffer
+    private Level trackedLevel;                // Nivel al que corresponden las ranuras del tracker
+    private int hudScore, hudLives;            // Valores del HUD dibujados en el frame anterior
+    private int trackedCameraX, trackedCameraY; // Posición de la cámara en el frame anterior
+    private long hudTime;
+    private final Rectangle scratchRect = new Rectangle(); // Rectángulo reutilizable
+    private final Path2D.Float dirtyClip = new Path2D.Float(); // Unión de los rectángulos sucios del frame
+
+    /**
+     * Constructor que inicializa todos los componentes del juego.
+     * Configura el panel, crea el jugador, las plataformas y el sistema de input.
+     */
+    public GamePanel() {
+        super();
+        // Inicialización de variables
+        this.keys = new boolean[256]; // Array para rastrear el estado de las teclas
+        this.simulation = new Simulation(); // El juego comienza en el menú principal
+        String recording = System.getProperty("streetbuds.record");
+        if (recording != null) {
+            // Grabar desde antes del primer nivel para que la partida se pueda reproducir entera
+            recordingFile = Paths.get(recording);
+            simulation.setRecorder(new InputRecorder());
+        }
+        String save = System.getProperty("streetbuds.save");
+        if (save != null && !save.isEmpty()) {
+            saveWriter = new SaveGameWriter(Paths.get(save));
+        }
+        this.gameLoop = new GameLoop(simulation); // Bucle de paso fijo sobre la simulación
+        gameLoop.setTimeScale(Double.parseDouble(System.getProperty("streetbuds.timeScale", "1")));
+        int rewindSeconds = Integer.getInteger("streetbuds.rewind", 0);
+        if (rewindSeconds > 0) {
+            gameLoop.setRewindRing(
+                new SnapshotRing(rewindSeconds * Simulation.TICKS_PER_SECOND, REWIND_SNAPSHOT_BYTES));
+        }
+        this.isPaused = false; // El juego no está pausado al inicio
+        this.gameFont = new Font("Arial", Font.BOLD, 24); // Fuente para el texto del juego
+        this.particleRenderer = new ParticleRasterRenderer(800, 600); // Capa de partículas del tamaño del panel
+        this.rasterParticles = Boolean.getBoolean("streetbuds.particles.raster"); // Modo inicial de partículas
+        this.framePacer = new FramePacer(Integer.getInteger("streetbuds.fps", 60)); // 60 FPS por defecto
+        this.dirtyRendering = Boolean.getBoolean("streetbuds.render.dirty"); // Modo de rectángulos sucios
+        this.dirtyRegions = new DirtyRegionTracker(SCREEN_WIDTH, SCREEN_HEIGHT);
+
+        // Configuración del panel
+        setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT)); // Tamaño del panel
+        setFocusable(true); // Permitir que el panel reciba eventos de teclado
+        setBackground(Color.BLACK); // Fondo negro para el panel
+        
+        // Configuración del sistema de input
+        KeyAdapter input = new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                keys[e.getKeyCode()] = true; // Marcar la tecla como presionada
+                if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    togglePause(); // Alternar el estado de pausa si se presiona ESC
+                } else if (e.getKeyCode() == KeyEvent.VK_F2) {
+                    rasterParticles = !rasterParticles; // Alternar el renderizado de partículas con F2
+                } else if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    dirtyRendering = !dirtyRendering; // Alternar el modo de rectángulos sucios con F3
+                } else if (e.getKeyCode() == KeyEvent.VK_F4) {
+                    showDirtyRegions = !showDirtyRegions; // Mostrar los rectángulos sucios con F4
+                } else if (e.getKeyCode() == KeyEvent.VK_F1) {
+                    FrameProfiler profiler = simulation.getProfiler();
+                    profiler.setEnabled(!profiler.isEnabled()); // Alternar el perfilador con F1
+                } else if (e.getKeyCode() == KeyEvent.VK_F5) {
+                    simulation.getProfiler().requestDump(); // Volcar los histogramas a CSV con F5
+                } else if (e.getKeyCode() == KeyEvent.VK_F6 && recordingFile != null) {
+                    saveRecordingRequested = true; // Guardar la grabación con F6; lo atiende el hilo que simula
+                } else if (e.getKeyCode() == KeyEvent.VK_F7 && gameLoop.getRewindRing() != null) {
+                    rewindRequested = true; // Rebobinar con F7; lo atiende el hilo que simula
+                } else if (e.getKeyCode() == KeyEvent.VK_F8) {
+                    cycleTimeScale(); // Cambiar la velocidad del juego con F8
+                } else if (e.getKeyCode() == KeyEvent.VK_SPACE
+                        && simulation.getGameState() == GameState.LEVEL_COMPLETE) {
+                    advanceRequested = true; // Lo atiende el hilo que simula
+                }
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                keys[e.getKeyCode()] = false; // Marcar la tecla como liberada
+            }
+        };
+        addKeyListener(input);
+
+        if (ACTIVE_RENDERING) {
+            // El Canvas ocupa todo el panel y recibe el teclado; el hilo de renderizado arranca en addNotify
+            setLayout(new BorderLayout());
+            setIgnoreRepaint(true);
+            canvas = new Canvas();
+            canvas.setIgnoreRepaint(true);
+            canvas.setFocusable(true);
+            canvas.addKeyListener(input);
+            add(canvas, BorderLayout.CENTER);
+        } else {
+            // Inicialización del bucle del juego
+            timer = new Timer(DELAY, this); // Crear un temporizador con el retraso especificado
+            timer.start(); // Iniciar el temporizador
+        }
+    }
+
+    /**
+     * Arranca el hilo de renderizado activo cuando el panel ya se puede mostrar.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (canvas != null && renderThread == null) {
+            running = true;
+            renderThread = new Thread(this::renderLoop, "StreetBuds-Render");
+            renderThread.start();
+        }
+    }
+
+    /**
+     * Detiene el hilo de renderizado activo antes de que se destruya la superficie.
+     */
+    @Override
+    public void removeNotify() {
+        running = false;
+        if (renderThread != null) {
+            try {
+                renderThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renderThread = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void requestFocus() {
+        if (canvas != null) {
+            canvas.requestFocus(); // En modo activo el teclado llega al Canvas
+        } else {
+            super.requestFocus();
+        }
+    }
+
+    /**
+     * Bucle del renderizado activo: avanza la simulación, dibuja en el buffer trasero,
+     * lo muestra y espera al siguiente frame.
+     */
+    private void renderLoop() {
+        canvas.createBufferStrategy(2); // Intenta intercambio de páginas y, si no, copia acelerada
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        boolean wasPaused = false;
+        while (running) {
+            boolean paused = isPaused;
+            if (wasPaused && !paused) {
+                gameLoop.resetClock(); // No simular de golpe el tiempo en pausa
+                framePacer.reset();
+            }
+            wasPaused = paused;
+            saveRecordingIfRequested();
+            rewindIfRequested();
+            advanceIfRequested();
+            if (!paused && simulation.getGameState() == GameState.PLAYING) {
+                gameLoop.advance(System.nanoTime(), keys); // Actualizar la lógica del juego
+                autosaveIfDue();
+            }
+            boolean incremental = updateSceneBuffer(); // Modo de rectángulos sucios, si está activo
+
+            do {
+                do {
+                    Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        if (incremental) {
+                            presentSceneBuffer(g2d);
+                        } else {
+                            g2d.setColor(getBackground());
+                            g2d.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                            render(g2d);
+                        }
+                        drawProfiler(g2d);
+                    } finally {
+                        g2d.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync(); // Evitar retrasos del sistema de ventanas en Linux
+            simulation.getProfiler().endFrame();
+
+            framePacer.sync();
+        }
+        strategy.dispose();
+    }
+
+    /**
+     * Cambia los FPS objetivo del renderizado activo.
+     * @param fps Frames por segundo, o 0 para no limitar.
+     */
+    public void setTargetFps(int fps) {
+        framePacer.setTargetFps(fps);
+    }
+
+    /**
+     * Método de renderizado del modo pasivo.
+     * Se llama automáticamente cuando se necesita redibujar el panel.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (sceneBufferShown) {
+            presentSceneBuffer((Graphics2D) g); // Swing ya recortó a las zonas pedidas
+        } else {
+            super.paintComponent(g);
+            render((Graphics2D) g);
+        }
+        drawProfiler((Graphics2D) g);
+        simulation.getProfiler().endFrame();
+    }
+
+    /**
+     * Dibuja la pantalla que corresponde al estado del juego.
+     */
+    private void render(Graphics2D g2d) {
+        // Dibujar diferentes pantallas según el estado del juego
+        switch (simulation.getGameState()) {
+            case MENU:
+                drawMenu(g2d); // Dibujar el menú principal
+                break;
+            case PLAYING:
+                drawGame(g2d); // Dibujar el juego en curso
+                break;
+            case PAUSED:
+                drawGame(g2d); // Dibujar el juego en curso
+                drawPauseScreen(g2d); // Superponer la pantalla de pausa
+                break;
+            case GAME_OVER:
+                drawGameOver(g2d); // Dibujar la pantalla de fin de juego
+                break;
+            case LEVEL_COMPLETE:
+                drawLevelComplete(g2d); // Dibujar la pantalla de nivel completado
+                break;
+        }
+    }
+
+    private void drawMenu(Graphics2D g2d) {
+        // Dibujar el título y las instrucciones del menú principal
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(gameFont.deriveFont(48f));
+        g2d.drawString("Street Buds", 250, 200);
+        g2d.setFont(gameFont);
+        g2d.drawString("Presiona ESPACIO para comenzar", 200, 300);
+    }
+
+    private void drawGame(Graphics2D g2d) {
+        Camera camera = simulation.getCamera();
+        drawGame(g2d, 0, 0, camera.getWidth(), camera.getHeight());
+    }
+
+    /**
+     * Dibuja el juego en curso. Del nivel solo se dibuja lo que toca una zona de la pantalla,
+     * normalmente toda la vista o la caja de los rectángulos sucios del frame.
+     */
+    private void drawGame(Graphics2D g2d, int x, int y, int width, int height) {
+        // Dibujar el nivel actual, el jugador y el sistema de partículas en coordenadas del mundo
+        FrameProfiler profiler = simulation.getProfiler();
+        long t = profiler.mark();
+        Camera camera = simulation.getCamera();
+        int cameraX = camera.getX(), cameraY = camera.getY();
+        g2d.translate(-cameraX, -cameraY);
+        Level currentLevel = simulation.getLevel();
+        if (currentLevel != null) {
+            currentLevel.draw(g2d, cameraX + x - CULL_MARGIN, cameraY + y - CULL_MARGIN,
+                width + 2 * CULL_MARGIN, height + 2 * CULL_MARGIN);
+        }
+        t = profiler.lap(FrameProfiler.DRAW_LEVEL, t);
+        simulation.getPlayer().draw(g2d);
+        t = profiler.lap(FrameProfiler.DRAW_PLAYER, t);
+        if (rasterParticles) {
+            particleRenderer.draw(simulation.getParticleSystem(), g2d, cameraX, cameraY);
+        } else {
+            simulation.getParticleSystem().draw(g2d);
+        }
+        g2d.translate(cameraX, cameraY); // El HUD va en coordenadas de pantalla
+        t = profiler.lap(FrameProfiler.DRAW_PARTICLES, t);
+
+        // Dibujar el HUD (puntuación, vidas y tiempo restante)
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(gameFont);
+        g2d.drawString("Puntuación: " + simulation.getScore(), 20, 30);
+        g2d.drawString("Vidas: " + simulation.getLives(), 20, 60);
+
+        g2d.drawString("Tiempo: " + getRemainingTime(), 20, 90);
+        profiler.lap(FrameProfiler.DRAW_HUD, t);
+    }
+
+    /**
+     * Superpone el overlay del perfilador si está activo.
+     */
+    private void drawProfiler(Graphics2D g2d) {
+        FrameProfiler profiler = simulation.getProfiler();
+        if (profiler.isEnabled()) {
+            profiler.draw(g2d, SCREEN_WIDTH - 310, 30);
+        }
+    }
+
+    /**
+     * Segundos que quedan para completar el nivel actual.
+     */
+    private long getRemainingTime() {
+        Level currentLevel = simulation.getLevel();
+        long elapsedTime = simulation.getTickCount() / Simulation.TICKS_PER_SECOND; // Segundos de juego en el nivel
+        return currentLevel != null ? currentLevel.getTimeLimit() - elapsedTime : 0;
+    }
+
+    /**
+     * Actualiza la escena persistente redibujando solo las zonas que cambiaron.
+     * Solo se usa durante el juego sin pausa; en el resto de pantallas se dibuja todo como siempre.
+     * @return true si el frame debe presentarse desde la escena persistente.
+     */
+    private boolean updateSceneBuffer() {
+        if (!dirtyRendering || isPaused || simulation.getGameState() != GameState.PLAYING) {
+            sceneBufferStale = true; // Al volver, la escena guardada ya no sirve
+            return false;
+        }
+        if (sceneBuffer == null) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            sceneBuffer = gc != null
+                ? gc.createCompatibleImage(SCREEN_WIDTH, SCREEN_HEIGHT)
+                : new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+
+        dirtyRegions.beginFrame();
+        if (sceneBufferStale || simulation.getLevel() != trackedLevel) {
+            dirtyRegions.markFull();
+            trackedLevel = simulation.getLevel();
+            sceneBufferStale = false;
+        }
+        trackDirtyRegions();
+        dirtyRegions.endFrame();
+
+        Graphics2D g2d = sceneBuffer.createGraphics();
+        try {
+            if (dirtyRegions.isFullRepaint()) {
+                redrawRegion(g2d, null, 0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+            } else if (dirtyRegions.getCount() > 0) {
+                // Un solo dibujado recortado a la unión de los rectángulos, no uno por rectángulo
+                dirtyClip.reset();
+                int x0 = SCREEN_WIDTH, y0 = SCREEN_HEIGHT, x1 = 0, y1 = 0;
+                for (int i = 0; i < dirtyRegions.getCount(); i++) {
+                    dirtyRegions.getRect(i, scratchRect);
+                    int right = scratchRect.x + scratchRect.width, bottom = scratchRect.y + scratchRect.height;
+                    dirtyClip.moveTo(scratchRect.x, scratchRect.y);
+                    dirtyClip.lineTo(right, scratchRect.y);
+                    dirtyClip.lineTo(right, bottom);
+                    dirtyClip.lineTo(scratchRect.x, bottom);
+                    dirtyClip.closePath();
+                    x0 = Math.min(x0, scratchRect.x);
+                    y0 = Math.min(y0, scratchRect.y);
+                    x1 = Math.max(x1, right);
+                    y1 = Math.max(y1, bottom);
+                }
+                redrawRegion(g2d, dirtyClip, x0, y0, x1 - x0, y1 - y0);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return true;
+    }
+
+    /**
+     * Registra en el tracker la posición actual en pantalla de todo lo que puede cambiar durante el juego.
+     * De los enemigos y coleccionables solo se registran los que deja pasar el recorte de la cámara;
+     * el tracker oculta solo los que dejan de registrarse. Si la cámara se movió cambia toda la pantalla.
+     */
+    private void trackDirtyRegions() {
+        Camera camera = simulation.getCamera();
+        int cameraX = camera.getX(), cameraY = camera.getY();
+        if (cameraX != trackedCameraX || cameraY != trackedCameraY) {
+            dirtyRegions.markFull();
+            trackedCameraX = cameraX;
+            trackedCameraY = cameraY;
+        }
+
+        simulation.getPlayer().getDrawArea(scratchRect);
+        dirtyRegions.track(SLOT_PLAYER, scratchRect.x - cameraX, scratchRect.y - cameraY,
+            scratchRect.width, scratchRect.height, true, true);
+
+        boolean hasParticles = simulation.getParticleSystem().getDrawArea(scratchRect);
+        dirtyRegions.track(SLOT_PARTICLES, scratchRect.x - cameraX, scratchRect.y - cameraY,
+            scratchRect.width, scratchRect.height, hasParticles, hasParticles);
+
+        // El HUD solo cambia cuando cambia alguno de sus valores
+        long remainingTime = getRemainingTime();
+        boolean hudChanged = simulation.getScore() != hudScore || simulation.getLives() != hudLives
+            || remainingTime != hudTime;
+        hudScore = simulation.getScore();
+        hudLives = simulation.getLives();
+        hudTime = remainingTime;
+        dirtyRegions.track(SLOT_HUD, HUD_AREA.x, HUD_AREA.y, HUD_AREA.width, HUD_AREA.height, true, hudChanged);
+
+        Level level = simulation.getLevel();
+        if (level == null) {
+            return;
+        }
+        int viewX = cameraX - CULL_MARGIN, viewY = cameraY - CULL_MARGIN;
+        int viewWidth = camera.getWidth() + 2 * CULL_MARGIN, viewHeight = camera.getHeight() + 2 * CULL_MARGIN;
+        // Los índices espaciales solo tienen enemigos vivos y coleccionables pendientes
+        EntityTable enemyTable = level.getEnemyTable();
+        SpatialGrid enemyGrid = level.getEnemyGrid();
+        int count = enemyGrid.query(viewX, viewY, viewWidth, viewHeight);
+        for (int r = 0; r < count; r++) {
+            int id = enemyGrid.getResult(r);
+            int row = enemyTable.rowOf(id);
+            dirtyRegions.track(SLOT_FIRST_OBJECT + id, enemyTable.getX(row) - cameraX, enemyTable.getY(row) - cameraY,
+                enemyTable.getWidth(row), enemyTable.getHeight(row), true, true); // El aturdimiento cambia su color
+        }
+        EntityTable collectibleTable = level.getCollectibleTable();
+        SpatialGrid collectibleGrid = level.getCollectibleGrid();
+        int firstCollectible = SLOT_FIRST_OBJECT + level.getEnemies().size();
+        count = collectibleGrid.query(viewX, viewY, viewWidth, viewHeight);
+        for (int r = 0; r < count; r++) {
+            int id = collectibleGrid.getResult(r);
+            int row = collectibleTable.rowOf(id);
+            dirtyRegions.track(firstCollectible + id, collectibleTable.getX(row) - cameraX,
+                collectibleTable.getY(row) - cameraY, collectibleTable.getWidth(row), collectibleTable.getHeight(row),
+                true, false);
+        }
+    }
+
+    /**
+     * Redibuja la escena recortada a una zona de la escena persistente, con un único recorrido del nivel.
+     * @param clip Zona a redibujar, o null para toda la caja indicada.
+     */
+    private void redrawRegion(Graphics2D g2d, Shape clip, int x, int y, int width, int height) {
+        if (clip != null) {
+            g2d.setClip(clip);
+        } else {
+            g2d.setClip(x, y, width, height);
+        }
+        g2d.setColor(getBackground());
+        g2d.fillRect(x, y, width, height);
+        drawGame(g2d, x, y, width, height);
+    }
+
+    /**
+     * Copia la escena persistente en pantalla y, si se pidió, marca los rectángulos redibujados.
+     */
+    private void presentSceneBuffer(Graphics2D g2d) {
+        g2d.drawImage(sceneBuffer, 0, 0, null);
+        if (!showDirtyRegions) {
+            return;
+        }
+        g2d.setColor(Color.MAGENTA);
+        if (dirtyRegions.isFullRepaint()) {
+            g2d.drawRect(0, 0, SCREEN_WIDTH - 1, SCREEN_HEIGHT - 1);
+        }
+        long area = 0;
+        for (int i = 0; i < dirtyRegions.getCount(); i++) {
+            dirtyRegions.getRect(i, scratchRect);
+            g2d.drawRect(scratchRect.x, scratchRect.y, scratchRect.width - 1, scratchRect.height - 1);
+            area += (long) scratchRect.width * scratchRect.height;
+        }
+        String summary = dirtyRegions.isFullRepaint()
+            ? "Redibujado completo"
+            : dirtyRegions.getCount() + " rectángulos, " + (area * 100 / (SCREEN_WIDTH * SCREEN_HEIGHT)) + "% de la pantalla";
+        g2d.setFont(gameFont.deriveFont(12f));
+        g2d.drawString(summary, 560, 20);
+    }
+
+    private void drawPauseScreen(Graphics2D g2d) {
+        // Dibujar una superposición semitransparente para la pausa
+        g2d.setColor(new Color(0, 0, 0, 150));
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(gameFont.deriveFont(36f));
+        g2d.drawString("PAUSA", 350, 250);
+        g2d.setFont(gameFont);
+        g2d.drawString("Presiona ESC para continuar", 250, 300);
+    }
+
+    private void drawGameOver(Graphics2D g2d) {
+        // Dibujar la pantalla de fin de juego
+        g2d.setColor(new Color(0, 0, 0, 200));
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(gameFont.deriveFont(36f));
+        g2d.drawString("GAME OVER", 300, 250);
+        g2d.setFont(gameFont);
+        g2d.drawString("Puntuación final: " + simulation.getScore(), 300, 300);
+        g2d.drawString("Presiona ESPACIO para reiniciar", 200, 350);
+    }
+
+    private void drawLevelComplete(Graphics2D g2d) {
+        // Dibujar la pantalla de nivel completado
+        g2d.setColor(new Color(0, 0, 0, 200));
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(gameFont.deriveFont(36f));
+        g2d.drawString("¡Nivel Completado!", 250, 250);
+        g2d.setFont(gameFont);
+        g2d.drawString("Puntuación: " + simulation.getScore(), 300, 300);
+        g2d.drawString("Presiona ESPACIO para continuar", 200, 350);
+    }
+
+    /**
+     * Método que se llama en cada tick del temporizador.
+     * Avanza la simulación tantos pasos fijos como corresponda al tiempo real transcurrido.
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        saveRecordingIfRequested();
+        rewindIfRequested();
+        advanceIfRequested();
+        if (!isPaused && simulation.getGameState() == GameState.PLAYING) {
+            gameLoop.advance(System.nanoTime(), keys); // Actualizar la lógica del juego
+            autosaveIfDue();
+        }
+        sceneBufferShown = updateSceneBuffer();
+        if (!sceneBufferShown || showDirtyRegions || dirtyRegions.isFullRepaint()
+                || simulation.getProfiler().isEnabled()) { // El overlay cambia en cada frame
+            repaint(); // Redibujar el panel
+            return;
+        }
+        for (int i = 0; i < dirtyRegions.getCount(); i++) {
+            dirtyRegions.getRect(i, scratchRect);
+            repaint(scratchRect.x, scratchRect.y, scratchRect.width, scratchRect.height); // Solo las zonas cambiadas
+        }
+    }
+
+    public void setCurrentLevel(Level level) {
+        simulation.setLevel(level); // Establecer el nivel actual y pasar a "jugando"
+        gameLoop.resetClock(); // No simular el tiempo previo al inicio del nivel
+    }
+
+    /**
+     * Pasa a la siguiente velocidad de TIME_SCALES, o a la normal si la actual no está en la lista.
+     */
+    private void cycleTimeScale() {
+        double current = gameLoop.getTimeScale();
+        double next = TIME_SCALES[0];
+        for (int i = 0; i < TIME_SCALES.length; i++) {
+            if (TIME_SCALES[i] == current) {
+                next = TIME_SCALES[(i + 1) % TIME_SCALES.length];
+            }
+        }
+        gameLoop.setTimeScale(next);
+    }
+
+    /**
+     * Retoma la partida guardada, si la hay: carga su nivel de LevelManager y le aplica los cambios guardados.
+     * @return false si no hay partida guardada o no se pudo cargar; el juego sigue entonces sin ella.
+     */
+    public boolean loadSavedGame() {
+        if (saveWriter == null || !Files.exists(saveWriter.getFile())) {
+            return false;
+        }
+        try {
+            SaveGame save = SaveGame.read(saveWriter.getFile());
+            setCurrentLevel(LevelManager.getInstance().selectLevel(save.getLevelNumber()));
+            save.applyTo(simulation);
+            System.err.println("Partida retomada en el nivel " + save.getLevelNumber() + " con " + save.getScore()
+                + " puntos");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("No se pudo cargar la partida guardada " + saveWriter.getFile() + ": "
+                + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Entrega el progreso al hilo de guardado si pasó el intervalo de autoguardado.
+     * Aquí solo se toma el estado; la escritura no retrasa el frame.
+     */
+    private void autosaveIfDue() {
+        long now = System.nanoTime();
+        if (saveWriter == null || now - lastAutosave < AUTOSAVE_NANOS || !SaveGame.canCapture(simulation)) {
+            return;
+        }
+        lastAutosave = now;
+        saveWriter.save(SaveGame.capture(simulation, LevelManager.getInstance().getCurrentLevelNumber()));
+    }
+
+    /**
+     * Pasa al siguiente nivel si se pidió desde la pantalla de nivel completado.
+     * Normalmente ya está precargado y el cambio no se nota en el frame.
+     */
+    private void advanceIfRequested() {
+        if (!advanceRequested) {
+            return;
+        }
+        advanceRequested = false;
+        LevelManager levelManager = LevelManager.getInstance();
+        levelManager.nextLevel();
+        setCurrentLevel(levelManager.getCurrentLevel());
+    }
+
+    /**
+     * Guarda la grabación de la entrada si se pidió con F6. Se hace en el hilo que simula
+     * para que no cambie mientras se escribe.
+     */
+    private void saveRecordingIfRequested() {
+        if (!saveRecordingRequested) {
+            return;
+        }
+        saveRecordingRequested = false;
+        try {
+            simulation.getRecorder().save(recordingFile, simulation);
+            System.err.println("Grabación guardada en " + recordingFile + " (" + simulation.getRecorder().getTicks()
+                + " ticks)");
+        } catch (IOException e) {
+            System.err.println("Error al guardar la grabación " + recordingFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve un segundo atrás (o lo que haya guardado) si se pidió con F7.
+     * Se hace en el hilo que simula, entre ticks.
+     */
+    private void rewindIfRequested() {
+        if (!rewindRequested) {
+            return;
+        }
+        rewindRequested = false;
+        SnapshotRing ring = gameLoop.getRewindRing();
+        if (ring.size() == 0) {
+            return;
+        }
+        ring.rewind(simulation, Math.min(Simulation.TICKS_PER_SECOND, ring.size() - 1));
+        gameLoop.resetClock();
+        sceneBufferStale = true; // La escena guardada es de antes de rebobinar
+    }
+
+    private void togglePause() {
+        isPaused = !isPaused; // Alternar el estado de pausa
+        if (timer == null) {
+            return; // En modo activo el hilo de renderizado atiende el cambio
+        }
+        if (isPaused) {
+            timer.stop(); // Detener el temporizador si está pausado
+        } else {
+            gameLoop.resetClock(); // No simular de golpe el tiempo en pausa
+            timer.start(); // Reiniciar el temporizador si no está pausado
+        }
+    }
+}
\ No newline at end of file
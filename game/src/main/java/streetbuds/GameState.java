@@ -1,3 +1,5 @@
+package streetbuds;
+
 /**
  * Enumeración que representa los diferentes estados del juego.
  * Se utiliza para controlar el flujo del juego y determinar qué lógica o pantalla mostrar.
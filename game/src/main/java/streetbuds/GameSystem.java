@@ -0,0 +1,74 @@
+package streetbuds;
+
+/**
+ * Un sistema de la fase de actualización: una parte de la lógica de un tick que declara
+ * qué partes del estado del juego lee y cuáles escribe, para que SystemScheduler sepa
+ * qué sistemas pueden ejecutarse a la vez sin cambiar el resultado.
+ *
+ * Un sistema con varias unidades de trabajo (size() mayor que 1) promete además que
+ * run() sobre rangos distintos no toca los mismos datos, así que el planificador puede
+ * repartir esos rangos entre varios hilos.
+ */
+public abstract class GameSystem {
+    // Partes del estado del juego, combinables como máscara de bits
+    public static final int ENEMIES = 1;       // Componentes de los enemigos
+    public static final int ENEMY_GRID = 2;    // Índice espacial de enemigos y retirada de los muertos
+    public static final int PARTICLES = 4;     // Sistema de partículas
+    public static final int PLAYER = 8;        // Jugador
+    public static final int PLATFORMS = 16;    // Plataformas y su índice
+    public static final int COLLECTIBLES = 32; // Coleccionables y su índice
+    public static final int PROGRESS = 64;     // Puntuación, vidas y estado de la partida
+
+    private final String name;
+    private final int phase;
+    private final int reads;
+    private final int writes;
+
+    /**
+     * @param name Nombre del sistema, para mensajes.
+     * @param phase Fase de FrameProfiler a la que se suma su tiempo.
+     * @param reads Máscara con lo que solo lee.
+     * @param writes Máscara con lo que escribe (y puede leer).
+     */
+    protected GameSystem(String name, int phase, int reads, int writes) {
+        this.name = name;
+        this.phase = phase;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    /**
+     * Número de unidades de trabajo de este tick; 1 si el sistema no se puede dividir.
+     */
+    public int size() {
+        return 1;
+    }
+
+    /**
+     * Ejecuta las unidades de trabajo de from a to - 1.
+     */
+    public abstract void run(int from, int to);
+
+    /**
+     * Si este sistema y otro no pueden ejecutarse a la vez: alguno escribe algo que el otro usa.
+     */
+    public boolean conflictsWith(GameSystem other) {
+        return (writes & (other.reads | other.writes)) != 0 || (other.writes & reads) != 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+}
@@ -0,0 +1,37 @@
+package streetbuds;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR emitido por cada tick de la simulación.
+ * Su duración es la del tick, así que en una grabación se puede ver junto a las pausas
+ * del recolector y los safepoints que lo alargaron.
+ */
+@Name("streetbuds.GameTick")
+@Label("Tick del juego")
+@Category({"StreetBuds", "Simulación"})
+@Description("Un paso fijo de la simulación con el número de entidades al terminarlo")
+@StackTrace(false)
+public class GameTickEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Enemigos vivos")
+    int enemies;
+
+    @Label("Coleccionables restantes")
+    int collectibles;
+
+    @Label("Plataformas")
+    int platforms;
+
+    @Label("Partículas")
+    int particles;
+
+    @Label("Estado")
+    String gameState;
+}
@@ -0,0 +1,198 @@
+package streetbuds;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Ejecuta la simulación sin pantalla a la máxima velocidad posible.
+ * Pensado para pruebas de resistencia en máquinas sin entorno gráfico:
+ * reinicia la partida cada vez que termina y muestra los ticks por segundo alcanzados.
+ *
+ * Con --check-alloc, en lugar de eso, juega una y otra vez el recorrido de allocationCourse() con
+ * InputPolicy.runRight(), para que cada vuelta recoja monedas, pise enemigos, reciba daño y lance
+ * partículas, y mide la memoria reservada por el hilo durante los ticks (después de un calentamiento).
+ * Termina con código 1 si el bucle del juego creó objetos o si el recorrido no pasó por esos caminos.
+ * Se toleran unos pocos bytes: la primera vez que se ejecuta un camino (por ejemplo, perder una vida)
+ * la JVM puede reservar memoria una única vez al enlazarlo, mientras que un objeto por tick
+ * supondría megabytes.
+ *
+ * Uso: java -cp game/target/classes streetbuds.HeadlessRunner [ticks] [--check-alloc]
+ */
+public class HeadlessRunner {
+    private static final long WARMUP_TICKS = 1_000_000; // Ticks previos para que el JIT compile el bucle
+    static final long ALLOCATION_TOLERANCE = 4096; // Bytes de reservas únicas que se toleran
+    private static final int COURSE_TICKS = 600; // Ticks de cada vuelta al recorrido (10 segundos)
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        long totalTicks = 1_000_000L;
+        boolean checkAllocations = false;
+        for (String arg : args) {
+            if (arg.equals("--check-alloc")) {
+                checkAllocations = true;
+            } else {
+                totalTicks = Long.parseLong(arg);
+            }
+        }
+
+        if (checkAllocations) {
+            AllocationCheck check = checkAllocations(WARMUP_TICKS, totalTicks);
+            double seconds = check.nanos / 1_000_000_000.0;
+            System.out.printf("Ticks: %d en %.3f s (%.0f ticks/s), vueltas al recorrido: %d%n",
+                totalTicks, seconds, totalTicks / seconds, check.laps);
+            System.out.printf("Enemigos pisados: %d, coleccionables: %d, daño recibido: %d%n",
+                check.enemiesKilled, check.itemsCollected, check.damageTaken);
+            System.out.printf("Memoria reservada durante los ticks: %d bytes%n", check.allocatedBytes);
+            if (!check.coversGameplay()) {
+                System.err.println("El recorrido no pisó enemigos, no recogió nada o no recibió daño");
+                System.exit(1);
+            }
+            if (check.allocatedBytes > ALLOCATION_TOLERANCE) {
+                System.err.println("El bucle del juego crea objetos en cada tick");
+                System.exit(1);
+            }
+            return;
+        }
+
+        // Cargar los niveles por defecto
+        LevelManager levelManager = LevelManager.getInstance();
+        levelManager.createDefaultLevels();
+
+        Simulation simulation = new Simulation();
+        simulation.setLevel(levelManager.getCurrentLevel());
+        GameLoop loop = new GameLoop(simulation);
+        boolean[] keys = new boolean[256]; // Sin entrada del usuario
+
+        long start = System.nanoTime();
+        int restarts = run(simulation, loop, keys, totalTicks);
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("Ticks: %d en %.3f s (%.0f ticks/s), reinicios: %d%n",
+            totalTicks, seconds, totalTicks / seconds, restarts);
+    }
+
+    /**
+     * Resultado de checkAllocations(): memoria reservada y lo que pasó en la partida durante los ticks medidos.
+     */
+    static final class AllocationCheck implements GameEvent.Handler {
+        long allocatedBytes;
+        long nanos;
+        int laps;
+        int enemiesKilled, itemsCollected, damageTaken;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            switch (event.getType()) {
+                case ENEMY_KILLED:
+                    enemiesKilled++;
+                    break;
+                case ITEM_COLLECTED:
+                    itemsCollected++;
+                    break;
+                case PLAYER_DAMAGED:
+                    damageTaken += event.getValue();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Si los ticks medidos pisaron enemigos, recogieron coleccionables y recibieron daño.
+         */
+        boolean coversGameplay() {
+            return enemiesKilled > 0 && itemsCollected > 0 && damageTaken > 0;
+        }
+    }
+
+    /**
+     * Juega el recorrido de allocationCourse() con InputPolicy.runRight(), volviendo al principio
+     * con una instantánea cada COURSE_TICKS ticks o al perder, y mide la memoria que reserva el hilo
+     * durante los ticks después del calentamiento.
+     */
+    static AllocationCheck checkAllocations(long warmupTicks, long ticks) {
+        Simulation simulation = new Simulation();
+        try {
+            simulation.setLevel(allocationCourse());
+            SimulationSnapshot start = new SimulationSnapshot();
+            start.capture(simulation);
+            GameEventBus.Subscription events = simulation.getEvents().subscribe();
+            InputPolicy policy = InputPolicy.runRight(); // Una sola: crear otra por vuelta reservaría memoria
+            boolean[] keys = new boolean[256];
+            AllocationCheck warmup = new AllocationCheck();
+            playCourse(simulation, start, events, policy, keys, warmupTicks, warmup);
+
+            AllocationCheck check = new AllocationCheck();
+            long allocatedBefore = allocatedBytes();
+            long startTime = System.nanoTime();
+            playCourse(simulation, start, events, policy, keys, ticks, check);
+            check.nanos = System.nanoTime() - startTime;
+            check.allocatedBytes = allocatedBytes() - allocatedBefore;
+            return check;
+        } finally {
+            simulation.shutdown();
+        }
+    }
+
+    private static void playCourse(Simulation simulation, SimulationSnapshot start, GameEventBus.Subscription events,
+                                   InputPolicy policy, boolean[] keys, long ticks, AllocationCheck counts) {
+        long executed = 0;
+        while (executed < ticks) {
+            start.restore(simulation);
+            Arrays.fill(keys, false);
+            counts.laps++;
+            for (int lap = 0; lap < COURSE_TICKS && executed < ticks
+                    && simulation.getGameState() == GameState.PLAYING; lap++, executed++) {
+                policy.next(simulation, keys);
+                simulation.step(keys);
+                events.drain(counts);
+            }
+        }
+    }
+
+    /**
+     * Nivel en línea recta para la comprobación de memoria: quien corre hacia la derecha saltando
+     * pasa por monedas a la altura del suelo y por enemigos que a veces pisa y a veces le dañan.
+     */
+    static Level allocationCourse() {
+        Level level = new Level("Recorrido de memoria", new Point(100, 390));
+        level.reserve(1, 11, 28);
+        level.addPlatform(0, 450, 3000, 50, true);
+        for (int x = 300; x < 3000; x += 250) {
+            level.addEnemy(x, 420, 30, 30);
+        }
+        for (int x = 200; x < 3000; x += 100) {
+            level.addCollectible(x, 410, 20, 20, Collectible.CollectibleType.COIN, 10);
+        }
+        level.setScoreToComplete(Integer.MAX_VALUE); // Que no termine el nivel a mitad de vuelta
+        return level;
+    }
+
+    /**
+     * Ejecuta ticks reiniciando la partida cada vez que termina.
+     * @return Número de reinicios.
+     */
+    private static int run(Simulation simulation, GameLoop loop, boolean[] keys, long ticks) {
+        int restarts = 0;
+        long executed = 0;
+        while (executed < ticks) {
+            executed += loop.runHeadless(keys, ticks - executed);
+            if (simulation.getGameState() != GameState.PLAYING) {
+                simulation.restart(); // Reiniciar la partida para seguir simulando
+                restarts++;
+            }
+        }
+        return restarts;
+    }
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual, según la JVM.
+     */
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
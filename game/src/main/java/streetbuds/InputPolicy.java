@@ -0,0 +1,74 @@
+package streetbuds;
+
+import java.util.Arrays;
+
+/**
+ * Quién juega una partida sin pantalla: antes de cada tick decide qué teclas están pulsadas.
+ * Lo usa BatchRunner para evaluar bots y el equilibrio de los niveles.
+ *
+ * Una política puede guardar estado entre ticks, así que cada partida debe tener la suya.
+ * Para que una partida se pueda repetir, la política no debe depender de nada más que
+ * de la simulación y de su propia semilla.
+ */
+public interface InputPolicy {
+
+    /**
+     * Decide las teclas del siguiente tick.
+     * @param simulation Partida, para consultar su estado; no debe modificarse.
+     * @param keys Teclas a pulsar, con lo que quedó del tick anterior.
+     */
+    void next(Simulation simulation, boolean[] keys);
+
+    /**
+     * No pulsa nada.
+     */
+    static InputPolicy idle() {
+        return (simulation, keys) -> Arrays.fill(keys, false);
+    }
+
+    /**
+     * Corre hacia la derecha saltando a intervalos regulares.
+     */
+    static InputPolicy runRight() {
+        return new InputPolicy() {
+            private int tick;
+
+            @Override
+            public void next(Simulation simulation, boolean[] keys) {
+                keys['D'] = true;
+                keys['W'] = (tick++ % 40) < 20;
+            }
+        };
+    }
+
+    /**
+     * Cambia cada cierto tiempo al azar entre quedarse quieto, ir a un lado o al otro, con o sin saltar.
+     * @param seed Semilla del generador; la misma semilla repite la misma partida.
+     */
+    static InputPolicy random(long seed) {
+        return new InputPolicy() {
+            private long state = seed ^ 0x9E3779B97F4A7C15L; // Estado del generador (xorshift)
+            private int remaining; // Ticks que faltan para la siguiente decisión
+
+            @Override
+            public void next(Simulation simulation, boolean[] keys) {
+                if (remaining-- > 0) {
+                    return;
+                }
+                long bits = nextLong();
+                remaining = 10 + (int) ((bits >>> 32) & 63); // Entre 10 y 73 ticks
+                int move = (int) ((bits & 0xFF) % 3);
+                keys['A'] = move == 1;
+                keys['D'] = move == 2;
+                keys['W'] = ((bits >>> 8) & 3) == 0; // Una de cada cuatro decisiones salta
+            }
+
+            private long nextLong() {
+                state ^= state << 13;
+                state ^= state >>> 7;
+                state ^= state << 17;
+                return state;
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package streetbuds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Graba la entrada de una simulación tick a tick para reproducirla después con InputRecording.
+ *
+ * Cada tick se guarda como las 256 teclas en cuatro long. Las combinaciones distintas van a una paleta
+ * y los ticks seguidos con la misma combinación se juntan en un tramo (longitud, índice en la paleta),
+ * así que mantener pulsada una tecla durante un minuto ocupa unos pocos bytes.
+ * También se guardan los niveles que empiezan (codificados con LevelLoader), los reinicios
+ * y cada CHECK_INTERVAL ticks el checksum de la simulación, para localizar dónde diverge una reproducción.
+ *
+ * Grabar un tick no crea objetos salvo al aparecer una combinación de teclas nueva.
+ */
+public class InputRecorder {
+    static final int CHECK_INTERVAL = 600; // Ticks entre comprobaciones (10 segundos de juego)
+
+    private final ByteArrayOutputStream commandBytes = new ByteArrayOutputStream();
+    private final ArrayList<long[]> palette = new ArrayList<>();
+    private final long[] runKeys = new long[InputRecording.KEY_WORDS]; // Teclas del tramo en curso
+    private final long[] scratch = new long[InputRecording.KEY_WORDS];
+    private int runIndex;   // Posición de runKeys en la paleta
+    private long runLength; // Ticks del tramo en curso; 0 si no hay tramo
+    private long ticks;     // Ticks grabados
+    private boolean enabled = true;
+
+    /**
+     * Graba las teclas de un tick.
+     */
+    public void record(boolean[] keys) {
+        if (!enabled) {
+            return;
+        }
+        InputRecording.pack(keys, scratch);
+        if (runLength > 0 && Arrays.equals(scratch, runKeys)) {
+            runLength++;
+            return;
+        }
+        flushRun();
+        System.arraycopy(scratch, 0, runKeys, 0, scratch.length);
+        runIndex = paletteIndex(scratch);
+        runLength = 1;
+    }
+
+    /**
+     * Cuenta un tick ya simulado y, cada CHECK_INTERVAL ticks, guarda el checksum de la simulación.
+     */
+    public void ticked(Simulation simulation) {
+        if (!enabled) {
+            return;
+        }
+        ticks++;
+        if (ticks % CHECK_INTERVAL == 0) {
+            flushRun();
+            writeCommand(InputRecording.CHECK);
+            writeVarLong(ticks);
+            writeLong(simulation.checksum());
+        }
+    }
+
+    /**
+     * Guarda el nivel que empieza, tal como está antes de simularlo.
+     * Los niveles por trozos no se pueden guardar enteros, así que dejan de grabarse.
+     */
+    public void levelStarted(Level level) {
+        if (!enabled) {
+            return;
+        }
+        if (level != null && level.getStreamer() != null) {
+            System.err.println("No se puede grabar un nivel que se carga por trozos: " + level.getName()
+                + "; la grabación se detiene");
+            enabled = false;
+            return;
+        }
+        flushRun();
+        byte[] data = level != null ? LevelLoader.encode(level) : new byte[0];
+        writeCommand(InputRecording.LEVEL);
+        writeVarLong(data.length);
+        commandBytes.write(data, 0, data.length);
+    }
+
+    /**
+     * Guarda que la partida se reinició sobre el nivel actual.
+     */
+    public void restarted() {
+        if (!enabled) {
+            return;
+        }
+        flushRun();
+        writeCommand(InputRecording.RESTART);
+    }
+
+    /**
+     * Deja de grabar porque la simulación cambió por algo que no es su entrada.
+     * @param reason Motivo, para el aviso.
+     */
+    void stop(String reason) {
+        if (enabled) {
+            System.err.println("La grabación se detiene: " + reason);
+            enabled = false;
+        }
+    }
+
+    /**
+     * Escribe lo grabado hasta ahora junto con el estado final de la simulación; se puede seguir
+     * grabando y volver a guardar. Debe llamarse desde el hilo que avanza la simulación.
+     * @param file Archivo de destino; se sobrescribe.
+     * @param simulation Simulación grabada, para los valores finales que comprueba la reproducción.
+     * @throws IOException Si no se puede escribir.
+     */
+    public void save(Path file, Simulation simulation) throws IOException {
+        flushRun(); // El tramo en curso sigue en runKeys y continúa en uno nuevo
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(commandBytes.size() + 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(InputRecording.MAGIC);
+        out.writeInt(InputRecording.VERSION);
+        out.writeInt(palette.size());
+        for (long[] keys : palette) {
+            for (long word : keys) {
+                out.writeLong(word);
+            }
+        }
+        out.writeInt(commandBytes.size());
+        commandBytes.writeTo(out);
+        out.writeLong(ticks);
+        out.writeLong(simulation.checksum());
+        out.writeInt(simulation.getScore());
+        out.writeInt(simulation.getLives());
+        out.writeDouble(simulation.getPlayer().getBounds().getX());
+        out.writeDouble(simulation.getPlayer().getBounds().getY());
+        out.flush();
+        Files.write(file, bytes.toByteArray());
+    }
+
+    /**
+     * Ticks grabados.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Si se sigue grabando; deja de hacerlo al empezar un nivel que no se puede guardar.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void flushRun() {
+        if (runLength > 0) {
+            writeCommand(InputRecording.RUN);
+            writeVarLong(runLength);
+            writeVarLong(runIndex);
+            runLength = 0;
+        }
+    }
+
+    private int paletteIndex(long[] keys) {
+        for (int i = 0; i < palette.size(); i++) {
+            if (Arrays.equals(palette.get(i), keys)) {
+                return i;
+            }
+        }
+        palette.add(keys.clone());
+        return palette.size() - 1;
+    }
+
+    private void writeCommand(int command) {
+        commandBytes.write(command);
+    }
+
+    private void writeVarLong(long value) {
+        // 7 bits por byte, el bit alto indica que sigue otro
+        while ((value & ~0x7FL) != 0) {
+            commandBytes.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        commandBytes.write((int) value);
+    }
+
+    private void writeLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            commandBytes.write((int) (value >>> shift)); // Big-endian, como DataInputStream.readLong
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package streetbuds;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Grabación de una partida hecha con InputRecorder, lista para reproducirse sin pantalla.
+ *
+ * Estructura del archivo (big-endian):
+ * <pre>
+ * MAGIC, VERSION (int)
+ * paleta:     número de combinaciones (int) y por cada una KEY_WORDS long con una tecla por bit
+ * órdenes:    número de bytes (int) y las órdenes, cada una con su tipo (byte):
+ *             RUN      longitud e índice en la paleta (varint): ticks seguidos con esas teclas
+ *             LEVEL    longitud (varint) y el nivel codificado con LevelLoader; longitud 0 = sin nivel
+ *             RESTART  la partida se reinició sobre el nivel actual
+ *             CHECK    tick (varint) y checksum (long) de la simulación tras ese tick
+ * final:      ticks (long), checksum (long), puntuación y vidas (int), posición del jugador (double x, y)
+ * </pre>
+ * Los varint usan 7 bits por byte, del menos al más significativo, con el bit alto si sigue otro byte.
+ */
+public final class InputRecording {
+    public static final int MAGIC = 0x53425243; // "SBRC"
+    public static final int VERSION = 1;
+
+    static final int KEY_WORDS = 4; // 256 teclas en long de 64 bits
+    static final int RUN = 1, LEVEL = 2, RESTART = 3, CHECK = 4;
+
+    private final long[][] palette;
+    private final byte[] commands;
+    private final long ticks;
+    private final long checksum;
+    private final int score;
+    private final int lives;
+    private final double playerX, playerY;
+
+    private InputRecording(long[][] palette, byte[] commands, long ticks, long checksum, int score, int lives,
+                           double playerX, double playerY) {
+        this.palette = palette;
+        this.commands = commands;
+        this.ticks = ticks;
+        this.checksum = checksum;
+        this.score = score;
+        this.lives = lives;
+        this.playerX = playerX;
+        this.playerY = playerY;
+    }
+
+    /**
+     * Lee una grabación.
+     * @throws IOException Si no se puede leer o está incompleta.
+     * @throws IllegalArgumentException Si no es una grabación o es de otra versión.
+     */
+    public static InputRecording read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("No es una grabación de StreetBuds: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de grabación no soportada: " + version);
+            }
+            int paletteSize = in.readInt();
+            if (paletteSize < 0) {
+                throw new IllegalArgumentException("Paleta de teclas no válida: " + paletteSize);
+            }
+            long[][] palette = new long[paletteSize][KEY_WORDS];
+            for (long[] keys : palette) {
+                for (int w = 0; w < KEY_WORDS; w++) {
+                    keys[w] = in.readLong();
+                }
+            }
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("Longitud de órdenes no válida: " + length);
+            }
+            byte[] commands = new byte[length];
+            in.readFully(commands);
+            return new InputRecording(palette, commands, in.readLong(), in.readLong(), in.readInt(), in.readInt(),
+                in.readDouble(), in.readDouble());
+        } catch (EOFException e) {
+            throw new IOException("Grabación incompleta: " + file, e);
+        }
+    }
+
+    /**
+     * Reproduce la grabación tan rápido como se pueda y comprueba cada checksum intermedio
+     * y el estado final.
+     * @param simulation Simulación nueva, sin nivel, sin grabación y con el jugador en su estado inicial.
+     * @return Ticks reproducidos.
+     * @throws IllegalStateException Si la simulación se separa de la grabada; el mensaje indica dónde.
+     */
+    public long replay(Simulation simulation) {
+        ByteBuffer in = ByteBuffer.wrap(commands);
+        boolean[] keys = new boolean[256];
+        long tick = 0;
+        while (in.hasRemaining()) {
+            int command = in.get();
+            switch (command) {
+                case RUN:
+                    long length = readVarLong(in);
+                    unpack(palette[(int) readVarLong(in)], keys);
+                    for (long i = 0; i < length; i++) {
+                        simulation.step(keys);
+                    }
+                    tick += length;
+                    break;
+                case LEVEL:
+                    int size = (int) readVarLong(in);
+                    Level level = null;
+                    if (size > 0) {
+                        byte[] data = new byte[size];
+                        in.get(data);
+                        level = LevelLoader.decode(data);
+                    }
+                    simulation.setLevel(level);
+                    break;
+                case RESTART:
+                    simulation.restart();
+                    break;
+                case CHECK:
+                    long checkTick = readVarLong(in);
+                    long expected = in.getLong();
+                    if (checkTick != tick) {
+                        throw new IllegalStateException("Grabación dañada: comprobación del tick " + checkTick
+                            + " tras " + tick + " ticks");
+                    }
+                    if (simulation.checksum() != expected) {
+                        throw new IllegalStateException("La reproducción se separa de la grabación antes del tick "
+                            + tick + " (comprobación anterior: tick " + Math.max(0, tick - InputRecorder.CHECK_INTERVAL)
+                            + ")");
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Orden desconocida en la grabación: " + command);
+            }
+        }
+        if (tick != ticks) {
+            throw new IllegalStateException("Grabación dañada: " + tick + " ticks de " + ticks);
+        }
+        verify("puntuación", simulation.getScore(), score);
+        verify("vidas", simulation.getLives(), lives);
+        verify("posición X del jugador", simulation.getPlayer().getBounds().getX(), playerX);
+        verify("posición Y del jugador", simulation.getPlayer().getBounds().getY(), playerY);
+        if (simulation.checksum() != checksum) {
+            throw new IllegalStateException("El estado final no coincide con el grabado (checksum)");
+        }
+        return tick;
+    }
+
+    private static void verify(String what, double actual, double expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Al terminar, " + what + " es " + actual + " y se grabó " + expected);
+        }
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Número de combinaciones de teclas distintas.
+     */
+    public int getPaletteSize() {
+        return palette.length;
+    }
+
+    /**
+     * Empaqueta el estado de las teclas en KEY_WORDS long, una tecla por bit.
+     */
+    static void pack(boolean[] keys, long[] out) {
+        Arrays.fill(out, 0);
+        int count = Math.min(keys.length, KEY_WORDS * 64);
+        for (int key = 0; key < count; key++) {
+            if (keys[key]) {
+                out[key >>> 6] |= 1L << key;
+            }
+        }
+    }
+
+    /**
+     * Desempaqueta las teclas guardadas con pack().
+     */
+    static void unpack(long[] words, boolean[] keys) {
+        for (int key = 0; key < keys.length && key < KEY_WORDS * 64; key++) {
+            keys[key] = (words[key >>> 6] & (1L << key)) != 0;
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Grabación dañada: varint demasiado largo");
+    }
+}
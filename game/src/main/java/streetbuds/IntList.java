@@ -0,0 +1,46 @@
+package streetbuds;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Lista de enteros que crece según hace falta, sin guardar cada valor en un Integer.
+ * Sirve de pila (add y pop) para las posiciones libres de las listas de un nivel y para agrupar
+ * los objetos de cada trozo al escribir un ChunkedLevelFile.
+ */
+final class IntList {
+    int[] values = new int[0];
+    int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(16, values.length * 2));
+        }
+        values[size++] = value;
+    }
+
+    void add(int... more) {
+        if (size + more.length > values.length) {
+            values = Arrays.copyOf(values, Math.max(16, Math.max(size + more.length, values.length * 2)));
+        }
+        System.arraycopy(more, 0, values, size, more.length);
+        size += more.length;
+    }
+
+    /**
+     * Quita y devuelve el último valor; la lista no debe estar vacía.
+     */
+    int pop() {
+        return values[--size];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void writeTo(ByteBuffer out) {
+        for (int i = 0; i < size; i++) {
+            out.putInt(values[i]);
+        }
+    }
+}
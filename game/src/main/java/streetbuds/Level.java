@@ -0,0 +1,890 @@
+package streetbuds;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Clase que representa un nivel del juego.
+ * Contiene información sobre plataformas, enemigos, coleccionables, y otros elementos del nivel.
+ *
+ * Los datos de plataformas, enemigos y coleccionables viven en un arquetipo (EntityTable) por tipo,
+ * en columnas contiguas sin huecos que recorren los sistemas del nivel, como el movimiento de enemigos.
+ * Las listas de getPlatforms(), getEnemies() y getCollectibles() guardan vistas sobre esas filas,
+ * y la posición de cada vista es el identificador de su entidad y de su entrada en el índice espacial.
+ * Los enemigos muertos y los coleccionables recogidos pasan a un arquetipo de retirados, con sitio reservado
+ * al agregarlos para que retirarlos durante el tick no cree objetos; su vista sigue en la lista.
+ *
+ * Los objetos se pueden quitar (por ejemplo, al descargar un trozo de un nivel por streaming):
+ * su posición en la lista queda a null y la reutiliza el siguiente objeto que se agregue,
+ * así que las listas no crecen más que el número de objetos presentes a la vez.
+ */
+public class Level {
+    private String name; // Nombre del nivel
+    private BufferedImage background; // Imagen de fondo del nivel
+    private String backgroundPath; // Ruta del fondo en el archivo del nivel, o null si no tiene
+    private ArrayList<Platform> platforms; // Lista de plataformas en el nivel
+    private ArrayList<Enemy> enemies; // Lista de enemigos en el nivel
+    private ArrayList<Collectible> collectibles; // Lista de coleccionables en el nivel
+    private Point playerSpawnPoint; // Punto de aparición del jugador
+    private int timeLimit; // Límite de tiempo para completar el nivel (en segundos)
+    private int scoreToComplete; // Puntuación necesaria para completar el nivel
+    private SpatialGrid platformGrid; // Índice espacial de plataformas
+    private SpatialGrid enemyGrid; // Índice espacial de enemigos vivos
+    private SpatialGrid collectibleGrid; // Índice espacial de coleccionables sin recoger
+    private final EntityTable platformTable = new EntityTable(Platform.COMPONENTS);       // Plataformas
+    private final EntityTable enemyTable = new EntityTable(Enemy.COMPONENTS);             // Enemigos vivos
+    private final EntityTable collectibleTable = new EntityTable(Collectible.COMPONENTS); // Coleccionables pendientes
+    private final EntityTable deadEnemyTable = new EntityTable(Enemy.COMPONENTS);         // Enemigos muertos
+    private final EntityTable collectedTable = new EntityTable(Collectible.COMPONENTS);   // Coleccionables recogidos
+    private int width, height; // Tamaño del mundo: como mínimo la pantalla, y crece con el contenido
+    private final IntList freePlatforms = new IntList();    // Posiciones libres en platforms, como pila
+    private final IntList freeEnemies = new IntList();      // Posiciones libres en enemies
+    private final IntList freeCollectibles = new IntList(); // Posiciones libres en collectibles
+    private LevelStreamer streamer; // Carga por trozos, o null si todo el nivel está en memoria
+    private GameClock clock = new GameClock(); // Reloj del aturdimiento de los enemigos; la simulación le da el suyo
+
+    // Capa estática precalculada: fondo y plataformas, que nunca se mueven
+    private static final long MAX_STATIC_LAYER_PIXELS = 16L * 1024 * 1024; // Tamaño máximo de la capa
+    private VolatileImage staticLayer; // Imagen (acelerada si es posible) con el fondo y las plataformas
+    private Rectangle staticBounds; // Zona del mundo que cubre la capa estática
+    private boolean staticLayerDirty = true; // Si hay que volver a generar la capa
+    private boolean staticLayerSkipped; // La capa no cabía o no tenía nada; no se vuelve a medir hasta que cambie el nivel
+    private boolean staticLayerEnabled = !"false".equals(System.getProperty("streetbuds.level.staticCache"));
+
+    /**
+     * Constructor que inicializa un nivel con un nombre y un punto de aparición para el jugador.
+     * @param name Nombre del nivel.
+     * @param playerSpawnPoint Punto de aparición del jugador.
+     */
+    public Level(String name, Point playerSpawnPoint) {
+        this.name = name;
+        this.playerSpawnPoint = playerSpawnPoint;
+        this.platforms = new ArrayList<>(); // Inicializar la lista de plataformas
+        this.enemies = new ArrayList<>(); // Inicializar la lista de enemigos
+        this.collectibles = new ArrayList<>(); // Inicializar la lista de coleccionables
+        this.timeLimit = 300; // Límite de tiempo por defecto (5 minutos)
+        this.scoreToComplete = 1000; // Puntuación necesaria por defecto
+        this.platformGrid = new SpatialGrid();
+        this.enemyGrid = new SpatialGrid();
+        this.collectibleGrid = new SpatialGrid();
+        this.width = Camera.DEFAULT_WIDTH;
+        this.height = Camera.DEFAULT_HEIGHT;
+    }
+
+    /**
+     * Agrega una plataforma al nivel; sus datos pasan al arquetipo de plataformas del nivel.
+     * @param platform Plataforma a agregar.
+     * @return Posición de la plataforma en getPlatforms().
+     */
+    public int addPlatform(Platform platform) {
+        int index = claim(platforms, freePlatforms);
+        platforms.set(index, platform);
+        platform.moveTo(platformTable, index);
+        placed(platform.getX(), platform.getY(), platform.getWidth(), platform.getHeight(), platformGrid, index);
+        staticLayerDirty = true; // La capa estática ya no está al día
+        return index;
+    }
+
+    /**
+     * Crea una plataforma directamente en el arquetipo del nivel, sin pasar por un objeto suelto.
+     * @return Posición de la plataforma en getPlatforms().
+     */
+    public int addPlatform(int x, int y, int width, int height, boolean isSolid) {
+        int index = claim(platforms, freePlatforms);
+        Platform.init(platformTable, platformTable.add(index), x, y, width, height, isSolid);
+        platforms.set(index, new Platform(platformTable, index));
+        placed(x, y, width, height, platformGrid, index);
+        staticLayerDirty = true;
+        return index;
+    }
+
+    /**
+     * Reserva espacio para los objetos que se van a agregar, de modo que cargar un nivel grande
+     * no tenga que ampliar las listas, los arquetipos y los índices espaciales una y otra vez.
+     * @param platformCount Plataformas que se van a agregar.
+     * @param enemyCount Enemigos que se van a agregar.
+     * @param collectibleCount Coleccionables que se van a agregar.
+     */
+    public void reserve(int platformCount, int enemyCount, int collectibleCount) {
+        platforms.ensureCapacity(platforms.size() + platformCount);
+        enemies.ensureCapacity(enemies.size() + enemyCount);
+        collectibles.ensureCapacity(collectibles.size() + collectibleCount);
+        platformTable.reserve(platforms.size() + platformCount);
+        enemyTable.reserve(enemies.size() + enemyCount);
+        collectibleTable.reserve(collectibles.size() + collectibleCount);
+        deadEnemyTable.reserve(enemies.size() + enemyCount);
+        collectedTable.reserve(collectibles.size() + collectibleCount);
+        platformGrid.reserve(platforms.size() + platformCount);
+        enemyGrid.reserve(enemies.size() + enemyCount);
+        collectibleGrid.reserve(collectibles.size() + collectibleCount);
+    }
+
+    /**
+     * Agrega un enemigo al nivel. Si está vivo, sus datos pasan al arquetipo de enemigos del nivel.
+     * @param enemy Enemigo a agregar.
+     * @return Posición del enemigo en getEnemies().
+     */
+    public int addEnemy(Enemy enemy) {
+        int index = claim(enemies, freeEnemies);
+        enemies.set(index, enemy);
+        include(enemy.getX() + enemy.getWidth(), enemy.getY() + enemy.getHeight());
+        deadEnemyTable.reserve(enemies.size()); // Sitio para cuando muera
+        if (enemy.isAlive()) {
+            enemy.moveTo(enemyTable, index);
+            enemyGrid.insert(index, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+        } else {
+            deadEnemyTable.remove(index); // Restos del anterior enemigo en esta posición
+            enemy.moveTo(deadEnemyTable, index);
+        }
+        return index;
+    }
+
+    /**
+     * Crea un enemigo directamente en el arquetipo del nivel, sin pasar por un objeto suelto.
+     * @return Posición del enemigo en getEnemies().
+     */
+    public int addEnemy(int x, int y, int width, int height) {
+        int index = claim(enemies, freeEnemies);
+        Enemy.init(enemyTable, enemyTable.add(index), x, y, width, height);
+        enemies.set(index, new Enemy(enemyTable, index));
+        deadEnemyTable.reserve(enemies.size());
+        placed(x, y, width, height, enemyGrid, index);
+        return index;
+    }
+
+    /**
+     * Agrega un coleccionable al nivel. Si está pendiente, sus datos pasan al arquetipo de coleccionables del nivel.
+     * @param collectible Coleccionable a agregar.
+     * @return Posición del coleccionable en getCollectibles().
+     */
+    public int addCollectible(Collectible collectible) {
+        int index = claim(collectibles, freeCollectibles);
+        collectibles.set(index, collectible);
+        include(collectible.getX() + collectible.getWidth(), collectible.getY() + collectible.getHeight());
+        collectedTable.reserve(collectibles.size()); // Sitio para cuando se recoja
+        if (!collectible.isCollected()) {
+            collectible.moveTo(collectibleTable, index);
+            collectibleGrid.insert(index, collectible.getX(), collectible.getY(),
+                collectible.getWidth(), collectible.getHeight());
+        } else {
+            collectedTable.remove(index);
+            collectible.moveTo(collectedTable, index);
+        }
+        return index;
+    }
+
+    /**
+     * Crea un coleccionable directamente en el arquetipo del nivel, sin pasar por un objeto suelto.
+     * @return Posición del coleccionable en getCollectibles().
+     */
+    public int addCollectible(int x, int y, int width, int height, Collectible.CollectibleType type, int value) {
+        int index = claim(collectibles, freeCollectibles);
+        Collectible.init(collectibleTable, collectibleTable.add(index), x, y, width, height, type, value);
+        collectibles.set(index, new Collectible(collectibleTable, index));
+        collectedTable.reserve(collectibles.size());
+        placed(x, y, width, height, collectibleGrid, index);
+        return index;
+    }
+
+    /**
+     * Registra en su índice un objeto recién agregado y amplía el mundo si hace falta.
+     */
+    private void placed(int x, int y, int width, int height, SpatialGrid grid, int index) {
+        grid.insert(index, x, y, width, height);
+        include(x + width, y + height);
+    }
+
+    /**
+     * Quita una plataforma del nivel; su posición queda a null hasta que se reutilice
+     * y la vista quitada deja de poder usarse.
+     * @param index Posición de la plataforma en getPlatforms().
+     */
+    public void removePlatform(int index) {
+        Platform platform = platforms.set(index, null);
+        if (platform != null) {
+            platformGrid.remove(index);
+            platform.unbind();
+            freePlatforms.add(index);
+            staticLayerDirty = true;
+        }
+    }
+
+    /**
+     * Quita un enemigo del nivel; su posición queda a null hasta que se reutilice
+     * y la vista quitada deja de poder usarse.
+     * @param index Posición del enemigo en getEnemies().
+     */
+    public void removeEnemy(int index) {
+        Enemy enemy = enemies.set(index, null);
+        if (enemy != null) {
+            enemyGrid.remove(index);
+            enemy.cancelStun(clock);
+            if (enemy.isIn(enemyTable) || enemy.isIn(deadEnemyTable)) {
+                enemy.unbind();
+            }
+            freeEnemies.add(index);
+        }
+    }
+
+    /**
+     * Quita un coleccionable del nivel; su posición queda a null hasta que se reutilice
+     * y la vista quitada deja de poder usarse.
+     * @param index Posición del coleccionable en getCollectibles().
+     */
+    public void removeCollectible(int index) {
+        Collectible collectible = collectibles.set(index, null);
+        if (collectible != null) {
+            collectibleGrid.remove(index);
+            if (collectible.isIn(collectibleTable) || collectible.isIn(collectedTable)) {
+                collectible.unbind();
+            }
+            freeCollectibles.add(index);
+        }
+    }
+
+    /**
+     * Reserva la primera posición libre de la lista, o una nueva al final si no hay ninguna.
+     */
+    private static <T> int claim(ArrayList<T> list, IntList free) {
+        if (free.isEmpty()) {
+            list.add(null);
+            return list.size() - 1;
+        }
+        return free.pop();
+    }
+
+    /**
+     * Amplía el mundo para que llegue hasta la esquina indicada.
+     */
+    private void include(int right, int bottom) {
+        width = Math.max(width, right);
+        height = Math.max(height, bottom);
+    }
+
+    /**
+     * Marca un coleccionable como recogido y lo quita del índice espacial.
+     * @param index Posición del coleccionable en la lista del nivel.
+     */
+    public void collect(int index) {
+        Collectible collectible = collectibles.get(index);
+        collectible.collect();
+        collectibleGrid.remove(index);
+        if (collectible.isIn(collectibleTable)) {
+            collectible.retire(collectedTable); // Deja de recorrerse; la vista conserva sus datos
+        }
+    }
+
+    /**
+     * Quita del nivel un enemigo vivo como si hubiera muerto; su vista sigue en la lista.
+     * Lo usa SaveGame al aplicar una partida guardada sobre el nivel recién cargado.
+     * @param index Posición del enemigo en getEnemies().
+     */
+    void kill(int index) {
+        Enemy enemy = enemies.get(index);
+        if (enemy != null && enemy.isIn(enemyTable)) {
+            enemyTable.setFlag(enemyTable.rowOf(index), EntityTable.ALIVE, false);
+            retireEnemy(index);
+        }
+    }
+
+    /**
+     * Marca las posiciones de getCollectibles() que ya se recogieron.
+     */
+    void findCollected(BitSet out) {
+        out.clear();
+        for (int id = 0; id < collectibles.size(); id++) {
+            Collectible collectible = collectibles.get(id);
+            if (collectible != null && collectible.isIn(collectedTable)) {
+                out.set(id);
+            }
+        }
+    }
+
+    /**
+     * Marca las posiciones de getEnemies() con enemigos muertos.
+     */
+    void findKilled(BitSet out) {
+        out.clear();
+        for (int id = 0; id < enemies.size(); id++) {
+            Enemy enemy = enemies.get(id);
+            if (enemy != null && enemy.isIn(deadEnemyTable)) {
+                out.set(id);
+            }
+        }
+    }
+
+    /**
+     * Establece un tamaño mínimo del mundo, aunque todavía no haya objetos que lleguen hasta él.
+     * @param width Ancho del mundo.
+     * @param height Alto del mundo.
+     */
+    public void setWorldSize(int width, int height) {
+        include(width, height);
+    }
+
+    /**
+     * Asocia el nivel a un streamer que carga y descarga sus objetos según la cámara.
+     */
+    void setStreamer(LevelStreamer streamer) {
+        this.streamer = streamer;
+        setStaticLayerEnabled(false); // El contenido cambia al moverse la cámara
+    }
+
+    /**
+     * Establece el reloj con el que se mide el aturdimiento de los enemigos.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Obtiene el streamer del nivel.
+     * @return Streamer, o null si todo el nivel está en memoria.
+     */
+    public LevelStreamer getStreamer() {
+        return streamer;
+    }
+
+    /**
+     * Carga y descarga los trozos del nivel según la cámara, si el nivel se carga por streaming.
+     * @param camera Cámara de la simulación.
+     */
+    public void stream(Camera camera) {
+        if (streamer != null) {
+            streamer.update(camera);
+        }
+    }
+
+    /**
+     * Obtiene la lista de plataformas del nivel; las posiciones quitadas están a null.
+     * @return Lista de plataformas.
+     */
+    public ArrayList<Platform> getPlatforms() {
+        return platforms;
+    }
+
+    /**
+     * Obtiene la lista de enemigos del nivel; las posiciones quitadas están a null.
+     * @return Lista de enemigos.
+     */
+    public ArrayList<Enemy> getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Obtiene la lista de coleccionables del nivel; las posiciones quitadas están a null.
+     * @return Lista de coleccionables.
+     */
+    public ArrayList<Collectible> getCollectibles() {
+        return collectibles;
+    }
+
+    /**
+     * Obtiene el arquetipo con los datos de las plataformas; los identificadores son posiciones en getPlatforms().
+     * @return Arquetipo de plataformas.
+     */
+    public EntityTable getPlatformTable() {
+        return platformTable;
+    }
+
+    /**
+     * Obtiene el arquetipo con los datos de los enemigos vivos; los identificadores son posiciones en getEnemies().
+     * @return Arquetipo de enemigos.
+     */
+    public EntityTable getEnemyTable() {
+        return enemyTable;
+    }
+
+    /**
+     * Obtiene el arquetipo con los datos de los coleccionables pendientes;
+     * los identificadores son posiciones en getCollectibles().
+     * @return Arquetipo de coleccionables.
+     */
+    public EntityTable getCollectibleTable() {
+        return collectibleTable;
+    }
+
+    /**
+     * Obtiene el índice espacial de plataformas; los identificadores son posiciones en getPlatforms().
+     * @return Índice de plataformas.
+     */
+    public SpatialGrid getPlatformGrid() {
+        return platformGrid;
+    }
+
+    /**
+     * Obtiene el índice espacial de enemigos vivos; los identificadores son posiciones en getEnemies().
+     * @return Índice de enemigos.
+     */
+    public SpatialGrid getEnemyGrid() {
+        return enemyGrid;
+    }
+
+    /**
+     * Obtiene el índice espacial de coleccionables pendientes; los identificadores son posiciones en getCollectibles().
+     * @return Índice de coleccionables.
+     */
+    public SpatialGrid getCollectibleGrid() {
+        return collectibleGrid;
+    }
+
+    /**
+     * Obtiene la imagen de fondo del nivel.
+     * @return Imagen de fondo.
+     */
+    public BufferedImage getBackground() {
+        return background;
+    }
+
+    /**
+     * Establece la imagen de fondo del nivel.
+     * @param background Imagen de fondo, o null para no dibujar fondo.
+     */
+    public void setBackground(BufferedImage background) {
+        this.background = background;
+        if (background != null) {
+            include(background.getWidth(), background.getHeight());
+        }
+        staticLayerDirty = true; // La capa estática ya no está al día
+    }
+
+    /**
+     * Obtiene la ruta del fondo tal como aparece en el archivo del nivel.
+     * @return Ruta relativa al archivo del nivel, o null si no tiene fondo.
+     */
+    public String getBackgroundPath() {
+        return backgroundPath;
+    }
+
+    /**
+     * Establece la ruta del fondo que se guarda con el nivel; la imagen se carga aparte con setBackground.
+     * @param backgroundPath Ruta relativa al archivo del nivel, o null si no tiene fondo.
+     */
+    public void setBackgroundPath(String backgroundPath) {
+        this.backgroundPath = backgroundPath;
+    }
+
+    /**
+     * Activa o desactiva la capa estática precalculada. Sin ella se dibuja todo en cada frame.
+     * @param enabled true para usar la capa estática.
+     */
+    public void setStaticLayerEnabled(boolean enabled) {
+        this.staticLayerEnabled = enabled;
+        if (!enabled && staticLayer != null) {
+            staticLayer.flush(); // Liberar la memoria de vídeo
+            staticLayer = null;
+        }
+    }
+
+    /**
+     * Obtiene el punto de aparición del jugador.
+     * @return Punto de aparición del jugador.
+     */
+    public Point getPlayerSpawnPoint() {
+        return playerSpawnPoint;
+    }
+
+    /**
+     * Establece el punto de aparición del jugador.
+     * @param playerSpawnPoint Punto de aparición del jugador.
+     */
+    public void setPlayerSpawnPoint(Point playerSpawnPoint) {
+        this.playerSpawnPoint = playerSpawnPoint;
+    }
+
+    /**
+     * Obtiene el límite de tiempo del nivel.
+     * @return Límite de tiempo en segundos.
+     */
+    public int getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Establece el límite de tiempo del nivel.
+     * @param timeLimit Límite de tiempo en segundos.
+     */
+    public void setTimeLimit(int timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Obtiene la puntuación necesaria para completar el nivel.
+     * @return Puntuación necesaria.
+     */
+    public int getScoreToComplete() {
+        return scoreToComplete;
+    }
+
+    /**
+     * Establece la puntuación necesaria para completar el nivel.
+     * @param score Puntuación necesaria.
+     */
+    public void setScoreToComplete(int score) {
+        this.scoreToComplete = score;
+    }
+
+    /**
+     * Ancho del mundo: lo que ocupan el fondo y los objetos, y como mínimo el de la pantalla.
+     * @return Ancho en píxeles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Alto del mundo: lo que ocupan el fondo y los objetos, y como mínimo el de la pantalla.
+     * @return Alto en píxeles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Obtiene el nombre del nivel.
+     * @return Nombre del nivel.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Actualiza la lógica de los enemigos en el nivel y su posición en el índice espacial.
+     * Se llama en cada tick del juego. Recorre el arquetipo de enemigos trozo a trozo,
+     * así que solo visita enemigos vivos (o muertos en este tick, que se retiran al final).
+     */
+    public void update() {
+        moveEnemies(0, getEnemyChunkCount());
+        syncEnemies();
+    }
+
+    /**
+     * Número de trozos del arquetipo de enemigos, para repartir moveEnemies() entre varios hilos.
+     */
+    int getEnemyChunkCount() {
+        return enemyTable.chunkCount();
+    }
+
+    /**
+     * Mueve los enemigos vivos de un rango de trozos del arquetipo, sin tocar el índice espacial.
+     * Cada trozo solo escribe sus propias filas, así que rangos distintos pueden moverse a la vez.
+     * @param fromChunk Primer trozo.
+     * @param toChunk Trozo siguiente al último.
+     */
+    void moveEnemies(int fromChunk, int toChunk) {
+        for (int c = fromChunk; c < toChunk; c++) {
+            EntityTable.Chunk chunk = enemyTable.chunk(c);
+            int rows = enemyTable.chunkRows(c);
+            for (int i = 0; i < rows; i++) {
+                Enemy.update(chunk, i, width); // Los muertos y aturdidos no se mueven
+            }
+        }
+    }
+
+    /**
+     * Lleva al índice espacial la posición de los enemigos vivos y retira los muertos.
+     * Toca estructuras compartidas, así que se ejecuta en un solo hilo después de moveEnemies().
+     */
+    void syncEnemies() {
+        boolean deaths = false;
+        for (int c = 0; c < enemyTable.chunkCount(); c++) {
+            EntityTable.Chunk chunk = enemyTable.chunk(c);
+            int start = enemyTable.chunkStart(c);
+            int rows = enemyTable.chunkRows(c);
+            for (int i = 0; i < rows; i++) {
+                if ((chunk.flags[i] & EntityTable.ALIVE) == 0) {
+                    deaths = true;
+                    continue;
+                }
+                enemyGrid.update(enemyTable.idAt(start + i), chunk.x[i], chunk.y[i], chunk.width[i], chunk.height[i]);
+            }
+        }
+        if (deaths) {
+            // De atrás hacia delante: al quitar una fila ocupa su lugar la última, que ya se revisó
+            for (int row = enemyTable.size() - 1; row >= 0; row--) {
+                if (!enemyTable.hasFlag(row, EntityTable.ALIVE)) {
+                    retireEnemy(enemyTable.idAt(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe en un búfer el estado que cambia durante la partida: los arquetipos de enemigos
+     * y de coleccionables. Las plataformas no cambian y los índices espaciales se reconstruyen al leer.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(enemies.size());
+        out.putInt(collectibles.size());
+        enemyTable.writeState(out);
+        collectibleTable.writeState(out);
+    }
+
+    /**
+     * Vuelve al estado escrito con writeState() en este mismo nivel. Las vistas de getEnemies()
+     * y getCollectibles() siguen siendo los mismos objetos: las que estaban en el arquetipo vuelven
+     * a apuntar a su fila, y las que no, quedan muertas o recogidas en el arquetipo de retirados.
+     * @throws IllegalStateException Si desde entonces se agregaron o quitaron objetos.
+     */
+    void readState(ByteBuffer in) {
+        int enemyCount = in.getInt();
+        int collectibleCount = in.getInt();
+        if (enemyCount != enemies.size() || collectibleCount != collectibles.size()) {
+            throw new IllegalStateException("El nivel " + name + " cambió desde la instantánea");
+        }
+        enemyTable.readState(in);
+        collectibleTable.readState(in);
+        for (int id = 0; id < enemyCount; id++) {
+            restoreView(enemies.get(id), id, enemyTable, deadEnemyTable, enemyGrid, 0);
+        }
+        for (int id = 0; id < collectibleCount; id++) {
+            restoreView(collectibles.get(id), id, collectibleTable, collectedTable, collectibleGrid,
+                EntityTable.COLLECTED);
+        }
+        syncGrid(enemyTable, enemyGrid);
+        syncGrid(collectibleTable, collectibleGrid);
+        rescheduleStuns();
+    }
+
+    /**
+     * Vuelve a programar en el reloj el fin de los aturdimientos en curso: al restaurar el tick
+     * del reloj se descartaron sus temporizadores.
+     */
+    private void rescheduleStuns() {
+        long tick = clock.getTick();
+        for (int row = 0; row < enemyTable.size(); row++) {
+            Enemy enemy = enemies.get(enemyTable.idAt(row));
+            if (enemy != null && enemyTable.hasFlag(row, EntityTable.STUNNED)) {
+                enemy.scheduleStun(clock, Math.max(1, enemyTable.getTimer(row) - tick));
+            }
+        }
+    }
+
+    /**
+     * Hace que la vista de una entidad apunte a su arquetipo recién restaurado si está en él,
+     * o la pasa al de retirados, muerta o recogida, si no está; en ese caso también la quita del índice espacial.
+     * @param outFlags Banderas de una entidad que no está en el arquetipo.
+     */
+    private static void restoreView(EntityView view, int id, EntityTable table, EntityTable retired,
+                                    SpatialGrid grid, int outFlags) {
+        if (view == null) {
+            return;
+        }
+        if (table.contains(id)) {
+            if (view.table != table) {
+                retired.remove(id);
+                view.bind(table, id); // Estaba muerta o recogida y en la instantánea no
+            }
+            return;
+        }
+        if (view.table == table) {
+            // Su fila ya no existe y sus datos se perdieron con ella
+            retired.remove(id);
+            int row = retired.add(id);
+            if (outFlags != 0) {
+                retired.setFlag(row, outFlags, true);
+            }
+            view.bind(retired, id);
+        }
+        grid.remove(id);
+    }
+
+    /**
+     * Lleva al índice espacial la posición de todas las filas de un arquetipo, trozo a trozo.
+     */
+    private static void syncGrid(EntityTable table, SpatialGrid grid) {
+        for (int c = 0; c < table.chunkCount(); c++) {
+            EntityTable.Chunk chunk = table.chunk(c);
+            int start = table.chunkStart(c);
+            int rows = table.chunkRows(c);
+            for (int i = 0; i < rows; i++) {
+                grid.update(table.idAt(start + i), chunk.x[i], chunk.y[i], chunk.width[i], chunk.height[i]);
+            }
+        }
+    }
+
+    /**
+     * Actualiza solo los enemigos vivos que están dentro de una zona del mundo;
+     * los demás se quedan congelados hasta que la zona los alcance.
+     * @param x Esquina izquierda de la zona activa.
+     * @param y Esquina superior de la zona activa.
+     * @param width Ancho de la zona activa.
+     * @param height Alto de la zona activa.
+     */
+    public void update(double x, double y, double width, double height) {
+        int count = enemyGrid.query(x, y, width, height);
+        for (int r = 0; r < count; r++) {
+            int id = enemyGrid.getResult(r); // Mover o quitar del índice no altera los resultados
+            int row = enemyTable.rowOf(id);
+            EntityTable.Chunk chunk = enemyTable.chunkOf(row);
+            int i = enemyTable.offsetOf(row);
+            if ((chunk.flags[i] & EntityTable.ALIVE) == 0) {
+                retireEnemy(id);
+                continue;
+            }
+            Enemy.update(chunk, i, this.width);
+            enemyGrid.update(id, chunk.x[i], chunk.y[i], chunk.width[i], chunk.height[i]);
+        }
+    }
+
+    /**
+     * Pasa un enemigo muerto al arquetipo de retirados y lo saca del índice; su vista sigue en la lista con sus datos.
+     */
+    private void retireEnemy(int id) {
+        enemyGrid.remove(id); // Los enemigos muertos dejan de consultarse
+        enemies.get(id).retire(deadEnemyTable);
+    }
+
+    /**
+     * Dibuja todos los elementos del nivel en la pantalla.
+     * @param g2d Objeto Graphics2D para dibujar.
+     */
+    public void draw(Graphics2D g2d) {
+        draw(g2d, 0, 0, width, height);
+    }
+
+    /**
+     * Dibuja solo los elementos del nivel que tocan una zona del mundo, normalmente la vista
+     * de la cámara más un margen. El coste depende de lo que hay en la zona, no del tamaño del nivel.
+     * @param g2d Objeto Graphics2D para dibujar, ya trasladado a coordenadas del mundo.
+     * @param viewX Esquina izquierda de la zona visible.
+     * @param viewY Esquina superior de la zona visible.
+     * @param viewWidth Ancho de la zona visible.
+     * @param viewHeight Alto de la zona visible.
+     */
+    public void draw(Graphics2D g2d, int viewX, int viewY, int viewWidth, int viewHeight) {
+        // Dibujar el fondo y las plataformas, de una sola vez si la capa estática está disponible
+        if (!staticLayerEnabled || !drawStaticLayer(g2d, viewX, viewY, viewWidth, viewHeight)) {
+            drawStatic(g2d, viewX, viewY, viewWidth, viewHeight);
+        }
+
+        // Dibujar los enemigos vivos de la zona, en el mismo orden que la lista
+        int count = enemyGrid.query(viewX, viewY, viewWidth, viewHeight);
+        for (int r = 0; r < count; r++) {
+            enemies.get(enemyGrid.getResult(r)).draw(g2d);
+        }
+
+        // Dibujar los coleccionables pendientes de la zona
+        count = collectibleGrid.query(viewX, viewY, viewWidth, viewHeight);
+        for (int r = 0; r < count; r++) {
+            collectibles.get(collectibleGrid.getResult(r)).draw(g2d);
+        }
+    }
+
+    /**
+     * Dibuja directamente el fondo y las plataformas de una zona del mundo.
+     */
+    private void drawStatic(Graphics2D g2d, int viewX, int viewY, int viewWidth, int viewHeight) {
+        // Dibujar el fondo si está disponible
+        if (background != null) {
+            g2d.drawImage(background, 0, 0, null);
+        }
+
+        // Dibujar las plataformas de la zona
+        int count = platformGrid.query(viewX, viewY, viewWidth, viewHeight);
+        for (int r = 0; r < count; r++) {
+            int row = platformTable.rowOf(platformGrid.getResult(r));
+            Platform.draw(g2d, platformTable.getX(row), platformTable.getY(row),
+                platformTable.getWidth(row), platformTable.getHeight(row));
+        }
+    }
+
+    /**
+     * Copia la capa estática en pantalla, generándola de nuevo si cambió el nivel
+     * o si el sistema descartó su contenido en memoria de vídeo.
+     * Solo se copia la parte de la capa que cae dentro de la zona visible.
+     * @return false si la capa sería demasiado grande y hay que dibujar directamente.
+     */
+    private boolean drawStaticLayer(Graphics2D g2d, int viewX, int viewY, int viewWidth, int viewHeight) {
+        if (staticLayerSkipped && !staticLayerDirty) {
+            return false;
+        }
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+        do {
+            int status = staticLayer == null ? VolatileImage.IMAGE_INCOMPATIBLE : staticLayer.validate(gc);
+            if (staticLayerDirty || status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (!createStaticLayer(gc)) {
+                    return false;
+                }
+                status = VolatileImage.IMAGE_RESTORED;
+            }
+            if (status == VolatileImage.IMAGE_RESTORED) {
+                renderStaticLayer();
+            }
+            int x0 = Math.max(viewX, staticBounds.x);
+            int y0 = Math.max(viewY, staticBounds.y);
+            int x1 = Math.min(viewX + viewWidth, staticBounds.x + staticBounds.width);
+            int y1 = Math.min(viewY + viewHeight, staticBounds.y + staticBounds.height);
+            if (x0 < x1 && y0 < y1) {
+                g2d.drawImage(staticLayer, x0, y0, x1, y1, x0 - staticBounds.x, y0 - staticBounds.y,
+                    x1 - staticBounds.x, y1 - staticBounds.y, null);
+            }
+        } while (staticLayer.contentsLost());
+        return true;
+    }
+
+    /**
+     * Crea la imagen de la capa estática con el tamaño de la zona que ocupan el fondo y las plataformas.
+     * Si sería demasiado grande o no hay nada que dibujar lo recuerda, para no volver a medirla
+     * en cada frame mientras el nivel no cambie.
+     */
+    private boolean createStaticLayer(GraphicsConfiguration gc) {
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        if (background != null) {
+            x0 = 0;
+            y0 = 0;
+            x1 = background.getWidth();
+            y1 = background.getHeight();
+        }
+        for (int c = 0; c < platformTable.chunkCount(); c++) {
+            EntityTable.Chunk chunk = platformTable.chunk(c);
+            for (int i = 0; i < platformTable.chunkRows(c); i++) {
+                x0 = Math.min(x0, chunk.x[i]);
+                y0 = Math.min(y0, chunk.y[i]);
+                x1 = Math.max(x1, chunk.x[i] + chunk.width[i]);
+                y1 = Math.max(y1, chunk.y[i] + chunk.height[i]);
+            }
+        }
+        staticLayerDirty = false;
+        if (x0 >= x1 || y0 >= y1 || (long) (x1 - x0) * (y1 - y0) > MAX_STATIC_LAYER_PIXELS) {
+            staticLayerSkipped = true;
+            if (staticLayer != null) {
+                staticLayer.flush(); // La capa anterior ya no sirve
+                staticLayer = null;
+            }
+            return false;
+        }
+        staticLayerSkipped = false;
+        if (staticLayer != null) {
+            staticLayer.flush();
+        }
+        staticLayer = gc.createCompatibleVolatileImage(x1 - x0, y1 - y0, Transparency.TRANSLUCENT);
+        staticBounds = new Rectangle(x0, y0, x1 - x0, y1 - y0);
+        return true;
+    }
+
+    /**
+     * Dibuja el fondo y las plataformas dentro de la capa estática.
+     */
+    private void renderStaticLayer() {
+        Graphics2D layer = staticLayer.createGraphics();
+        try {
+            layer.setComposite(AlphaComposite.Clear); // Empezar con la capa transparente
+            layer.fillRect(0, 0, staticBounds.width, staticBounds.height);
+            layer.setComposite(AlphaComposite.SrcOver);
+            layer.translate(-staticBounds.x, -staticBounds.y);
+            drawStatic(layer, staticBounds.x, staticBounds.y, staticBounds.width, staticBounds.height);
+        } finally {
+            layer.dispose();
+        }
+    }
+}
\ No newline at end of file
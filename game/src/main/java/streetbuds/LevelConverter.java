@@ -0,0 +1,230 @@
+package streetbuds;
+
+import java.awt.Point;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Convierte niveles escritos a mano en texto al formato binario de LevelLoader, o con --trozos
+ * al de ChunkedLevelFile para jugarlo con LevelStreamer (por ejemplo con StreamingRunner).
+ *
+ * Una instrucción por línea; lo que sigue a '#' es un comentario:
+ * <pre>
+ * nivel Nivel 1
+ * aparicion 100 390
+ * tamano 800 600
+ * tiempo 300
+ * puntuacion 1000
+ * fondo fondo1.png
+ * plataforma 0 450 800 50 solida
+ * enemigo 200 400 30 30
+ * coleccionable 150 300 20 20 COIN 100
+ * </pre>
+ * "nivel" va antes que las demás. Si no se indica el tamaño, el mundo crece hasta abarcar los objetos.
+ *
+ * Uso: java streetbuds.LevelConverter entrada.txt salida.sbl
+ *      java streetbuds.LevelConverter --trozos [lado] entrada.txt salida.sbc
+ */
+public final class LevelConverter {
+
+    private LevelConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int chunkSize = 0; // 0 para el formato de LevelLoader
+        int first = 0;
+        if (args.length > 0 && args[0].equals("--trozos")) {
+            chunkSize = ChunkedLevelFile.DEFAULT_CHUNK_SIZE;
+            first = 1;
+            if (args.length == 4) {
+                chunkSize = Integer.parseInt(args[1]);
+                first = 2;
+            }
+        }
+        if (args.length - first != 2) {
+            System.err.println("Uso: java streetbuds.LevelConverter entrada.txt salida.sbl");
+            System.err.println("     java streetbuds.LevelConverter --trozos [lado] entrada.txt salida.sbc");
+            System.exit(2);
+        }
+        Level level = parse(Paths.get(args[first]));
+        Path output = Paths.get(args[first + 1]);
+        if (chunkSize > 0) {
+            ChunkedLevelFile.write(level, output, chunkSize);
+        } else {
+            LevelLoader.write(level, output);
+        }
+        System.out.println("Nivel \"" + level.getName() + "\" escrito en " + output + " ("
+            + level.getPlatforms().size() + " plataformas, " + level.getEnemies().size() + " enemigos, "
+            + level.getCollectibles().size() + " coleccionables"
+            + (chunkSize > 0 ? ", en trozos de " + chunkSize + " píxeles)" : ")"));
+    }
+
+    /**
+     * Lee un nivel en formato de texto desde un archivo UTF-8.
+     */
+    public static Level parse(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Lee un nivel en formato de texto.
+     * @param in Texto del nivel.
+     * @return El nivel, sin la imagen de fondo (solo su ruta).
+     * @throws IOException Si falla la lectura.
+     * @throws IllegalArgumentException Si una línea no es válida; el mensaje indica cuál.
+     */
+    public static Level parse(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        Level level = null;
+        int width = -1, height = -1;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] words = line.split("\\s+");
+            String keyword = words[0];
+            try {
+                if (keyword.equals("nivel")) {
+                    if (level != null) {
+                        throw new IllegalArgumentException("el nivel ya tiene nombre");
+                    }
+                    level = new Level(line.substring(keyword.length()).trim(), new Point(0, 0));
+                    continue;
+                }
+                if (level == null) {
+                    throw new IllegalArgumentException("falta la línea \"nivel <nombre>\" al principio");
+                }
+                switch (keyword) {
+                    case "aparicion":
+                        arguments(words, 2);
+                        level.setPlayerSpawnPoint(new Point(number(words[1]), number(words[2])));
+                        break;
+                    case "tamano":
+                        arguments(words, 2);
+                        width = number(words[1]);
+                        height = number(words[2]);
+                        break;
+                    case "tiempo":
+                        arguments(words, 1);
+                        level.setTimeLimit(number(words[1]));
+                        break;
+                    case "puntuacion":
+                        arguments(words, 1);
+                        level.setScoreToComplete(number(words[1]));
+                        break;
+                    case "fondo":
+                        arguments(words, 1);
+                        level.setBackgroundPath(words[1]);
+                        break;
+                    case "plataforma":
+                        if (words.length == 6 && !words[5].equals("solida")) {
+                            throw new IllegalArgumentException("se esperaba \"solida\" y no \"" + words[5] + "\"");
+                        }
+                        if (words.length != 5 && words.length != 6) {
+                            throw new IllegalArgumentException("se esperaban 4 o 5 valores");
+                        }
+                        level.addPlatform(number(words[1]), number(words[2]), number(words[3]),
+                            number(words[4]), words.length == 6);
+                        break;
+                    case "enemigo":
+                        arguments(words, 4);
+                        level.addEnemy(number(words[1]), number(words[2]), number(words[3]), number(words[4]));
+                        break;
+                    case "coleccionable":
+                        arguments(words, 6);
+                        level.addCollectible(number(words[1]), number(words[2]), number(words[3]),
+                            number(words[4]), type(words[5]), number(words[6]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("instrucción desconocida \"" + keyword + "\"");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (level == null) {
+            throw new IllegalArgumentException("El archivo no contiene ningún nivel");
+        }
+        if (width >= 0) {
+            level.setWorldSize(width, height);
+        }
+        return level;
+    }
+
+    /**
+     * Escribe un nivel en formato de texto, con los mismos objetos que guardaría LevelLoader.encode.
+     * @param level Nivel a escribir.
+     * @return Texto que parse() vuelve a convertir en el mismo nivel.
+     */
+    public static String format(Level level) {
+        StringBuilder out = new StringBuilder();
+        Point spawn = level.getPlayerSpawnPoint();
+        out.append("nivel ").append(level.getName()).append('\n')
+            .append("aparicion ").append(spawn.x).append(' ').append(spawn.y).append('\n')
+            .append("tamano ").append(level.getWidth()).append(' ').append(level.getHeight()).append('\n')
+            .append("tiempo ").append(level.getTimeLimit()).append('\n')
+            .append("puntuacion ").append(level.getScoreToComplete()).append('\n');
+        if (level.getBackgroundPath() != null) {
+            out.append("fondo ").append(level.getBackgroundPath()).append('\n');
+        }
+        for (Platform platform : level.getPlatforms()) {
+            if (platform != null) {
+                out.append("plataforma ").append(platform.getX()).append(' ').append(platform.getY()).append(' ')
+                    .append(platform.getWidth()).append(' ').append(platform.getHeight())
+                    .append(platform.isSolid() ? " solida\n" : "\n");
+            }
+        }
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive()) {
+                out.append("enemigo ").append(enemy.getX()).append(' ').append(enemy.getY()).append(' ')
+                    .append(enemy.getWidth()).append(' ').append(enemy.getHeight()).append('\n');
+            }
+        }
+        for (Collectible collectible : level.getCollectibles()) {
+            if (collectible != null && !collectible.isCollected()) {
+                out.append("coleccionable ").append(collectible.getX()).append(' ').append(collectible.getY())
+                    .append(' ').append(collectible.getWidth()).append(' ').append(collectible.getHeight())
+                    .append(' ').append(collectible.getType().name()).append(' ').append(collectible.getValue())
+                    .append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static void arguments(String[] words, int count) {
+        if (words.length != count + 1) {
+            throw new IllegalArgumentException("se esperaban " + count + " valores");
+        }
+    }
+
+    private static int number(String word) {
+        try {
+            return Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("\"" + word + "\" no es un número entero");
+        }
+    }
+
+    private static Collectible.CollectibleType type(String word) {
+        try {
+            return Collectible.CollectibleType.valueOf(word);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("tipo de coleccionable desconocido \"" + word + "\"");
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package streetbuds;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Formato binario de niveles y su cargador.
+ * El archivo se lee entero de una vez y los objetos se copian en bloque desde arrays de enteros
+ * empaquetados, sin analizar texto, así que un nivel de 100.000 objetos se carga en milisegundos.
+ * Los niveles se escriben a mano en el formato de texto de LevelConverter y se convierten a este.
+ *
+ * Estructura (enteros big-endian):
+ * <pre>
+ * cabecera (16 int):  MAGIC, VERSION, nombre, fondo, aparición X, aparición Y, ancho, alto,
+ *                     límite de tiempo, puntuación para completar, número de cadenas, bytes de cadenas,
+ *                     plataformas, enemigos, coleccionables, reservado
+ * cadenas:            por cadena su longitud (int) y sus bytes UTF-8; el bloque se rellena hasta múltiplo de 4
+ * plataformas:        x, y, ancho, alto, banderas (bit 0 = sólida)
+ * enemigos:           x, y, ancho, alto
+ * coleccionables:     x, y, ancho, alto, tipo, valor
+ * </pre>
+ * El nombre, el fondo y el tipo de cada coleccionable son posiciones en la tabla de cadenas (-1 = ninguna),
+ * de modo que reordenar el enum CollectibleType no invalida los archivos.
+ */
+public final class LevelLoader {
+    public static final int MAGIC = 0x53424C56; // "SBLV"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 16;
+    private static final int PLATFORM_INTS = 5, ENEMY_INTS = 4, COLLECTIBLE_INTS = 6; // Enteros por objeto
+    private static final int SOLID_FLAG = 1;
+    private static final int NO_STRING = -1;
+
+    private LevelLoader() {
+    }
+
+    /**
+     * Carga un nivel binario y, si tiene fondo, la imagen que indica (relativa al archivo).
+     * @param file Archivo del nivel.
+     * @return El nivel cargado.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static Level load(Path file) throws IOException {
+        Level level = decode(Files.readAllBytes(file));
+        if (level.getBackgroundPath() != null) {
+            level.setBackground(loadBackground(file.resolveSibling(level.getBackgroundPath()).toString()));
+        }
+        return level;
+    }
+
+    /**
+     * Carga un nivel binario incluido entre los recursos del juego.
+     * @param resource Ruta absoluta del recurso, por ejemplo "/levels/nivel1.sbl".
+     * @return El nivel cargado.
+     * @throws IOException Si el recurso no existe o no se puede leer.
+     */
+    public static Level loadResource(String resource) throws IOException {
+        Level level = decode(readResource(resource));
+        if (level.getBackgroundPath() != null) {
+            level.setBackground(loadBackground(sibling(resource, level.getBackgroundPath())));
+        }
+        return level;
+    }
+
+    /**
+     * Ruta del fondo de un nivel de los recursos del juego, para pedirlo a AssetManager antes de cargar el nivel.
+     * @param resource Ruta absoluta del recurso del nivel.
+     * @return Ruta absoluta del recurso del fondo, o null si el nivel no tiene fondo.
+     * @throws IOException Si el recurso no existe o no se puede leer.
+     */
+    public static String backgroundResource(String resource) throws IOException {
+        String background;
+        try (InputStream in = openResource(resource)) {
+            background = backgroundPath(in);
+        }
+        return background == null ? null : sibling(resource, background);
+    }
+
+    /**
+     * Lee la ruta del fondo sin decodificar el nivel: solo la cabecera y la tabla de cadenas hasta la del fondo,
+     * saltando las anteriores. Los objetos ni se leen.
+     * @return La ruta tal como está en el archivo, o null si el nivel no tiene fondo.
+     * @throws IllegalArgumentException Si no es un nivel válido o termina antes de la cadena.
+     */
+    static String backgroundPath(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        try {
+            int[] header = new int[HEADER_INTS];
+            for (int i = 0; i < HEADER_INTS; i++) {
+                header[i] = in.readInt();
+            }
+            checkHeader(header);
+            int background = header[3], stringCount = header[10], stringBytes = header[11];
+            if (background == NO_STRING) {
+                return null;
+            }
+            if (background < 0 || background >= stringCount) {
+                throw new IllegalArgumentException("Nivel corrupto: cadena " + background + " fuera de la tabla");
+            }
+            long remaining = stringBytes;
+            for (int i = 0; ; i++) {
+                int length = in.readInt();
+                remaining -= 4L + length;
+                if (length < 0 || remaining < 0) {
+                    throw new IllegalArgumentException("Nivel corrupto: tabla de cadenas inválida");
+                }
+                if (i == background) {
+                    byte[] path = in.readNBytes(length); // No reserva de golpe una longitud dañada
+                    if (path.length < length) {
+                        throw new EOFException();
+                    }
+                    return new String(path, StandardCharsets.UTF_8);
+                }
+                in.skipNBytes(length);
+            }
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Nivel truncado antes de la ruta del fondo", e);
+        }
+    }
+
+    private static InputStream openResource(String resource) throws IOException {
+        InputStream in = LevelLoader.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("No se encontró el nivel " + resource);
+        }
+        return in;
+    }
+
+    private static byte[] readResource(String resource) throws IOException {
+        try (InputStream in = openResource(resource)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String sibling(String resource, String path) {
+        return resource.substring(0, resource.lastIndexOf('/') + 1) + path;
+    }
+
+    /**
+     * Decodifica un nivel binario ya leído en memoria.
+     * @param data Contenido completo del archivo.
+     * @return El nivel, sin la imagen de fondo (solo su ruta).
+     * @throws IllegalArgumentException Si los datos no son un nivel válido.
+     */
+    public static Level decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_INTS * 4) {
+            throw new IllegalArgumentException("Nivel truncado: " + data.length + " bytes");
+        }
+        int[] header = new int[HEADER_INTS];
+        buffer.asIntBuffer().get(header);
+        checkHeader(header);
+        int stringCount = header[10], stringBytes = header[11];
+        int platformCount = header[12], enemyCount = header[13], collectibleCount = header[14];
+        long objectBytes = 4L * ((long) platformCount * PLATFORM_INTS + (long) enemyCount * ENEMY_INTS
+            + (long) collectibleCount * COLLECTIBLE_INTS);
+        if (stringCount < 0 || stringBytes < 0 || platformCount < 0 || enemyCount < 0 || collectibleCount < 0
+                || stringBytes % 4 != 0 || stringCount > stringBytes / 4 // Cada cadena ocupa al menos su longitud
+                || HEADER_INTS * 4L + stringBytes + objectBytes != data.length) {
+            throw new IllegalArgumentException("Nivel corrupto: las secciones no cuadran con el tamaño del archivo");
+        }
+
+        // Tabla de cadenas
+        String[] strings = new String[stringCount];
+        int position = HEADER_INTS * 4;
+        int stringsEnd = position + stringBytes;
+        for (int i = 0; i < stringCount; i++) {
+            int length = position + 4 <= stringsEnd ? buffer.getInt(position) : -1;
+            if (length < 0 || position + 4 + length > stringsEnd) {
+                throw new IllegalArgumentException("Nivel corrupto: tabla de cadenas inválida");
+            }
+            strings[i] = new String(data, position + 4, length, StandardCharsets.UTF_8);
+            position += 4 + length;
+        }
+
+        // Objetos, copiados en bloque
+        IntBuffer ints = buffer.position(stringsEnd).slice().asIntBuffer();
+        int[] platforms = new int[platformCount * PLATFORM_INTS];
+        int[] enemies = new int[enemyCount * ENEMY_INTS];
+        int[] collectibles = new int[collectibleCount * COLLECTIBLE_INTS];
+        ints.get(platforms).get(enemies).get(collectibles);
+
+        Level level = new Level(string(strings, header[2]), new Point(header[4], header[5]));
+        level.setBackgroundPath(header[3] == NO_STRING ? null : string(strings, header[3]));
+        level.setWorldSize(header[6], header[7]);
+        level.setTimeLimit(header[8]);
+        level.setScoreToComplete(header[9]);
+        level.reserve(platformCount, enemyCount, collectibleCount);
+        for (int o = 0; o < platforms.length; o += PLATFORM_INTS) {
+            level.addPlatform(platforms[o], platforms[o + 1], platforms[o + 2], platforms[o + 3],
+                (platforms[o + 4] & SOLID_FLAG) != 0);
+        }
+        for (int o = 0; o < enemies.length; o += ENEMY_INTS) {
+            level.addEnemy(enemies[o], enemies[o + 1], enemies[o + 2], enemies[o + 3]);
+        }
+        Collectible.CollectibleType[] types = new Collectible.CollectibleType[stringCount]; // Por cadena
+        for (int o = 0; o < collectibles.length; o += COLLECTIBLE_INTS) {
+            int typeIndex = collectibles[o + 4];
+            string(strings, typeIndex); // Valida la posición
+            if (types[typeIndex] == null) {
+                try {
+                    types[typeIndex] = Collectible.CollectibleType.valueOf(strings[typeIndex]);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Tipo de coleccionable desconocido: " + strings[typeIndex]);
+                }
+            }
+            level.addCollectible(collectibles[o], collectibles[o + 1], collectibles[o + 2],
+                collectibles[o + 3], types[typeIndex], collectibles[o + 5]);
+        }
+        return level;
+    }
+
+    /**
+     * Codifica un nivel en el formato binario. Solo se guardan los enemigos vivos
+     * y los coleccionables sin recoger.
+     * @param level Nivel a codificar.
+     * @return Contenido del archivo.
+     */
+    public static byte[] encode(Level level) {
+        LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+        int nameIndex = intern(strings, level.getName());
+        int backgroundIndex = level.getBackgroundPath() == null ? NO_STRING : intern(strings, level.getBackgroundPath());
+
+        ArrayList<Platform> platforms = new ArrayList<>();
+        for (Platform platform : level.getPlatforms()) {
+            if (platform != null) {
+                platforms.add(platform);
+            }
+        }
+        ArrayList<Enemy> enemies = new ArrayList<>();
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive()) {
+                enemies.add(enemy);
+            }
+        }
+        ArrayList<Collectible> collectibles = new ArrayList<>();
+        for (Collectible collectible : level.getCollectibles()) {
+            if (collectible != null && !collectible.isCollected()) {
+                collectibles.add(collectible);
+                intern(strings, collectible.getType().name());
+            }
+        }
+
+        int stringBytes = 0;
+        for (String string : strings.keySet()) {
+            stringBytes += 4 + string.getBytes(StandardCharsets.UTF_8).length;
+        }
+        stringBytes = (stringBytes + 3) & ~3; // Rellenar hasta múltiplo de 4
+        ByteBuffer out = ByteBuffer.allocate(HEADER_INTS * 4 + stringBytes
+            + 4 * (platforms.size() * PLATFORM_INTS + enemies.size() * ENEMY_INTS
+                + collectibles.size() * COLLECTIBLE_INTS));
+        Point spawn = level.getPlayerSpawnPoint();
+        out.putInt(MAGIC).putInt(VERSION).putInt(nameIndex).putInt(backgroundIndex)
+            .putInt(spawn.x).putInt(spawn.y).putInt(level.getWidth()).putInt(level.getHeight())
+            .putInt(level.getTimeLimit()).putInt(level.getScoreToComplete())
+            .putInt(strings.size()).putInt(stringBytes)
+            .putInt(platforms.size()).putInt(enemies.size()).putInt(collectibles.size()).putInt(0);
+        int stringsStart = out.position();
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.putInt(bytes.length).put(bytes);
+        }
+        out.position(stringsStart + stringBytes);
+
+        for (Platform platform : platforms) {
+            out.putInt(platform.getX()).putInt(platform.getY()).putInt(platform.getWidth())
+                .putInt(platform.getHeight()).putInt(platform.isSolid() ? SOLID_FLAG : 0);
+        }
+        for (Enemy enemy : enemies) {
+            out.putInt(enemy.getX()).putInt(enemy.getY()).putInt(enemy.getWidth()).putInt(enemy.getHeight());
+        }
+        for (Collectible collectible : collectibles) {
+            out.putInt(collectible.getX()).putInt(collectible.getY()).putInt(collectible.getWidth())
+                .putInt(collectible.getHeight()).putInt(strings.get(collectible.getType().name()))
+                .putInt(collectible.getValue());
+        }
+        return out.array();
+    }
+
+    /**
+     * Escribe un nivel en un archivo binario.
+     * @param level Nivel a escribir.
+     * @param file Archivo de destino; se sobrescribe si existe.
+     * @throws IOException Si no se puede escribir.
+     */
+    public static void write(Level level, Path file) throws IOException {
+        Files.write(file, encode(level));
+    }
+
+    private static int intern(LinkedHashMap<String, Integer> strings, String string) {
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    private static void checkHeader(int[] header) {
+        if (header[0] != MAGIC) {
+            throw new IllegalArgumentException("No es un nivel de StreetBuds");
+        }
+        if (header[1] != VERSION) {
+            throw new IllegalArgumentException("Versión de nivel no soportada: " + header[1]);
+        }
+    }
+
+    private static String string(String[] strings, int index) {
+        if (index < 0 || index >= strings.length) {
+            throw new IllegalArgumentException("Nivel corrupto: cadena " + index + " fuera de la tabla");
+        }
+        return strings[index];
+    }
+
+    /**
+     * Obtiene la imagen de fondo de AssetManager, que la decodifica una sola vez aunque se vuelva al nivel;
+     * si falla, el nivel se queda sin fondo como cuando no lo tiene.
+     */
+    private static BufferedImage loadBackground(String path) {
+        try {
+            return AssetManager.getInstance().loadImage(path).join();
+        } catch (CompletionException e) {
+            System.err.println("Error al cargar el fondo del nivel " + path + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package streetbuds;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lleva la lista de niveles del juego y cuál se está jugando.
+ *
+ * Los niveles de recursos se cargan al llegar a ellos. Mientras se juega uno, un hilo aparte prepara
+ * el siguiente (lo decodifica, construye sus índices espaciales y carga su fondo), así que nextLevel()
+ * normalmente solo cambia una referencia. Si la precarga no ha terminado, nextLevel() la espera, y si
+ * falló, carga el nivel en el momento. Como cada visita vuelve a cargar el recurso, al volver al primer
+ * nivel está como al principio. Todos los métodos se pueden llamar desde cualquier hilo.
+ */
+public class LevelManager {
+    static final String[] DEFAULT_LEVELS = {"/levels/nivel1.sbl", "/levels/nivel2.sbl"};
+
+    private final ArrayList<Callable<Level>> levels; // Cómo obtener cada nivel
+    private final ExecutorService preloader;         // Hilo que prepara el siguiente nivel
+    private int currentLevelIndex;
+    private Level currentLevel;          // null hasta que se pide el nivel actual
+    private Future<Level> preload;       // Precarga en curso o terminada, o null
+    private int preloadIndex = -1;       // Nivel que se está precargando
+
+    // Métricas
+    private long preloadHits, preloadMisses, totalWaitNanos, maxWaitNanos;
+    private boolean lastPreloaded; // Si el último nivel obtenido ya estaba precargado
+    private long lastWaitNanos;    // Espera del último nivel obtenido
+
+    private LevelManager() {
+        levels = new ArrayList<>();
+        currentLevelIndex = 0;
+        preloader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "StreetBuds-Niveles");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * La JVM crea la instancia la primera vez que se usa esta clase, una sola vez aunque la pidan varios hilos.
+     */
+    private static final class Holder {
+        static final LevelManager INSTANCE = new LevelManager();
+    }
+
+    public static LevelManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Agrega un nivel ya construido; se devuelve siempre la misma instancia.
+     */
+    public synchronized void addLevel(Level level) {
+        register(() -> level);
+    }
+
+    /**
+     * Agrega un nivel que se carga de los recursos del juego cada vez que se llega a él.
+     * @param resource Ruta absoluta del recurso, por ejemplo "/levels/nivel1.sbl".
+     */
+    public synchronized void addLevel(String resource) {
+        register(() -> LevelLoader.loadResource(resource));
+    }
+
+    private void register(Callable<Level> level) {
+        levels.add(level);
+        schedulePreload(); // Puede que el siguiente nivel haya cambiado
+    }
+
+    /**
+     * Obtiene el nivel actual, cargándolo si todavía no se había pedido.
+     * @return El nivel actual, o null si no hay niveles.
+     */
+    public synchronized Level getCurrentLevel() {
+        if (currentLevel == null && currentLevelIndex < levels.size()) {
+            currentLevel = obtain(currentLevelIndex);
+            schedulePreload();
+        }
+        return currentLevel;
+    }
+
+    /**
+     * Pasa al siguiente nivel, o al primero después del último, y empieza a precargar el que le sigue.
+     */
+    public synchronized void nextLevel() {
+        LevelSwitchEvent event = new LevelSwitchEvent();
+        event.begin();
+        int previousLevel = getCurrentLevelNumber();
+        int next = currentLevelIndex + 1;
+        if (next >= levels.size()) {
+            next = 0; // Volver al primer nivel
+            event.wrapped = true;
+        }
+        Level level = next < levels.size() ? obtain(next) : null;
+        currentLevelIndex = next;
+        currentLevel = level;
+        schedulePreload();
+        if (event.shouldCommit()) {
+            event.fromLevel = previousLevel;
+            event.toLevel = getCurrentLevelNumber();
+            event.levelName = level != null ? level.getName() : null;
+            event.preloaded = lastPreloaded;
+            event.waited = lastWaitNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Pasa al nivel indicado, cargado de nuevo (o de la precarga), por ejemplo al cargar una partida guardada.
+     * @param number Número del nivel, desde 1.
+     * @return El nivel.
+     * @throws IllegalArgumentException Si no hay ese nivel.
+     */
+    public synchronized Level selectLevel(int number) {
+        if (number < 1 || number > levels.size()) {
+            throw new IllegalArgumentException("No existe el nivel " + number + " de " + levels.size());
+        }
+        currentLevelIndex = number - 1;
+        currentLevel = obtain(currentLevelIndex);
+        schedulePreload();
+        return currentLevel;
+    }
+
+    /**
+     * Vuelve al primer nivel, cargado de nuevo.
+     */
+    public synchronized void resetLevels() {
+        currentLevelIndex = 0;
+        currentLevel = levels.isEmpty() ? null : obtain(0);
+        schedulePreload();
+    }
+
+    /**
+     * Registra los niveles incluidos con el juego, escritos en game/src/main/resources/levels
+     * y convertidos al formato binario con LevelConverter. El primero empieza a cargarse enseguida.
+     */
+    public synchronized void createDefaultLevels() {
+        for (String resource : DEFAULT_LEVELS) {
+            addLevel(resource);
+        }
+    }
+
+    /**
+     * Obtiene un nivel de la precarga si es el que se estaba preparando, o lo carga en el momento.
+     */
+    private Level obtain(int index) {
+        long start = System.nanoTime();
+        Future<Level> pending = preloadIndex == index ? preload : null;
+        preload = null;
+        preloadIndex = -1;
+        boolean ready = pending != null && pending.isDone();
+        Level level = null;
+        if (pending != null) {
+            try {
+                level = pending.get(); // Si aún no terminó, esperarla es más rápido que empezar de cero
+            } catch (ExecutionException e) {
+                System.err.println("Error al precargar el nivel " + (index + 1) + ": " + e.getCause().getMessage());
+                ready = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.cancel(true);
+                ready = false;
+            }
+        }
+        if (level == null) {
+            level = load(index);
+        }
+        lastPreloaded = ready;
+        lastWaitNanos = ready ? 0 : System.nanoTime() - start;
+        if (ready) {
+            preloadHits++;
+        } else {
+            preloadMisses++;
+            totalWaitNanos += lastWaitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, lastWaitNanos);
+        }
+        return level;
+    }
+
+    private Level load(int index) {
+        try {
+            return levels.get(index).call();
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo cargar el nivel " + (index + 1), e);
+        }
+    }
+
+    /**
+     * Empieza a preparar el nivel que se va a necesitar a continuación: el actual si aún no se ha pedido,
+     * o el siguiente.
+     */
+    private void schedulePreload() {
+        if (levels.isEmpty()) {
+            return;
+        }
+        int index = currentLevel == null ? currentLevelIndex : (currentLevelIndex + 1) % levels.size();
+        if (preload != null && preloadIndex == index) {
+            return;
+        }
+        cancelPreload();
+        preloadIndex = index;
+        preload = preloader.submit(levels.get(index));
+    }
+
+    private void cancelPreload() {
+        if (preload != null) {
+            preload.cancel(true);
+            preload = null;
+            preloadIndex = -1;
+        }
+    }
+
+    public synchronized int getCurrentLevelNumber() {
+        return currentLevelIndex + 1;
+    }
+
+    public synchronized int getTotalLevels() {
+        return levels.size();
+    }
+
+    /**
+     * Niveles que ya estaban precargados cuando se pidieron.
+     */
+    public synchronized long getPreloadHits() {
+        return preloadHits;
+    }
+
+    /**
+     * Niveles que hubo que esperar: la precarga no había terminado, falló o no se había pedido.
+     */
+    public synchronized long getPreloadMisses() {
+        return preloadMisses;
+    }
+
+    /**
+     * Tiempo total esperado por niveles que no estaban precargados, en nanosegundos.
+     */
+    public synchronized long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * Mayor espera por un nivel que no estaba precargado, en nanosegundos.
+     */
+    public synchronized long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+}
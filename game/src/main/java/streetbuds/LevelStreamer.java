@@ -0,0 +1,364 @@
+package streetbuds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Carga y descarga los trozos de un ChunkedLevelFile alrededor de la cámara.
+ *
+ * Los trozos que tocan la vista tienen que estar en el nivel; los de un anillo de precarga alrededor
+ * se leen en un hilo aparte y se agregan al nivel en los ticks siguientes, como mucho unos pocos
+ * por tick para no alargar ningún frame. Solo si la cámara salta a una zona sin cargar (al reaparecer,
+ * por ejemplo) se lee un trozo en el propio tick, y se cuenta como carga bloqueante.
+ * Cuando los objetos cargados superan el presupuesto de memoria se descargan los trozos más lejanos.
+ *
+ * Al descargar un trozo se recuerda qué coleccionables se recogieron y qué enemigos murieron. Los enemigos
+ * vivos pertenecen al trozo en el que están ahora, no al de su aparición: si ese trozo sigue cargado pasan
+ * a él, y si no, se guardan su posición y su dirección para agregarlos cuando se cargue (sin el aturdimiento).
+ * Todos los métodos, salvo el hilo de carga interno, se llaman desde el hilo de la simulación.
+ *
+ * Lo que se sabe de cada trozo va en arrays indexados por su número (fila * trozos por fila + columna),
+ * así que consultarlo en cada tick no crea objetos.
+ */
+public class LevelStreamer implements Closeable {
+    public static final long DEFAULT_BUDGET_BYTES = 8L * 1024 * 1024; // Presupuesto por defecto
+    static final int ESTIMATED_OBJECT_BYTES = 160; // Objeto, su entrada en la lista y en el índice espacial
+    private static final int PREFETCH_CHUNKS = 1;     // Anillo de trozos que se precargan alrededor de la vista
+    private static final int MAX_CHUNKS_PER_TICK = 2; // Trozos precargados que se agregan al nivel por tick
+
+    private final ChunkedLevelFile file;
+    private final Level level;
+    private final long budgetBytes;
+    private final ExecutorService loader; // Hilo que lee los trozos de la proyección
+    private final ConcurrentLinkedQueue<ChunkedLevelFile.Chunk> ready = new ConcurrentLinkedQueue<>();
+    private final boolean[] requested;     // Trozos pedidos al hilo de carga
+    private final Resident[] resident;     // Trozos presentes en el nivel, o null
+    private final IntList residentChunks = new IntList(); // Números de los trozos presentes, sin orden
+    private final BitSet[] removedEnemies; // Enemigos del archivo que ya no salen de él, por trozo
+    private final IntList[] parkedEnemies; // Enemigos guardados por trozo
+    private final BitSet[] collectedItems; // Coleccionables recogidos por trozo
+    private boolean synchronous; // Si la precarga se hace en el propio tick (reproducible)
+    private long residentBytes;
+
+    // Métricas
+    private long chunkLoads, blockingLoads, evictions;
+
+    static final int PARKED_ENEMY_INTS = 5; // x, y, ancho, alto y velocidad de un enemigo guardado
+
+    /**
+     * Posiciones en el nivel de los objetos de un trozo cargado (-1 si no se agregó o ya no es suyo).
+     * Los enemigos llegados de otros trozos van aparte, en visitors.
+     */
+    private static final class Resident {
+        final int[] platforms, enemies, collectibles;
+        final IntList visitors = new IntList();
+        long bytes;
+
+        Resident(int platforms, int enemies, int collectibles) {
+            this.platforms = new int[platforms];
+            this.enemies = new int[enemies];
+            this.collectibles = new int[collectibles];
+            this.bytes = (long) (platforms + enemies + collectibles) * ESTIMATED_OBJECT_BYTES;
+        }
+
+        void addVisitor(int slot) {
+            visitors.add(slot);
+            bytes += ESTIMATED_OBJECT_BYTES;
+        }
+    }
+
+    private LevelStreamer(ChunkedLevelFile file, long budgetBytes) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("El presupuesto de memoria debe ser positivo");
+        }
+        this.file = file;
+        this.budgetBytes = budgetBytes;
+        this.level = file.createLevel();
+        this.level.setStreamer(this);
+        int chunks = file.getChunksX() * file.getChunksY();
+        this.requested = new boolean[chunks];
+        this.resident = new Resident[chunks];
+        this.removedEnemies = new BitSet[chunks];
+        this.parkedEnemies = new IntList[chunks];
+        this.collectedItems = new BitSet[chunks];
+        this.loader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "StreetBuds-Chunks");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Abre un nivel por trozos. El nivel devuelto por getLevel() empieza vacío y se llena
+     * a medida que la simulación llama a Level.stream().
+     * @param path Archivo escrito con ChunkedLevelFile.write.
+     * @param budgetBytes Memoria aproximada que pueden ocupar los objetos cargados.
+     * @return El streamer del nivel.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static LevelStreamer open(Path path, long budgetBytes) throws IOException {
+        return new LevelStreamer(ChunkedLevelFile.open(path), budgetBytes);
+    }
+
+    /**
+     * Carga los trozos que hacen falta para la vista de la cámara, agrega los precargados
+     * y descarga los lejanos si se superó el presupuesto.
+     * @param camera Cámara de la simulación.
+     */
+    public void update(Camera camera) {
+        int chunkSize = file.getChunkSize();
+        int viewX0 = clampX(Math.floorDiv(camera.getX(), chunkSize));
+        int viewY0 = clampY(Math.floorDiv(camera.getY(), chunkSize));
+        int viewX1 = clampX(Math.floorDiv(camera.getX() + camera.getWidth() - 1, chunkSize));
+        int viewY1 = clampY(Math.floorDiv(camera.getY() + camera.getHeight() - 1, chunkSize));
+        int keepX0 = clampX(viewX0 - PREFETCH_CHUNKS), keepY0 = clampY(viewY0 - PREFETCH_CHUNKS);
+        int keepX1 = clampX(viewX1 + PREFETCH_CHUNKS), keepY1 = clampY(viewY1 + PREFETCH_CHUNKS);
+
+        // Agregar los trozos que ya leyó el hilo de carga
+        int added = 0;
+        ChunkedLevelFile.Chunk chunk;
+        while (added < MAX_CHUNKS_PER_TICK && (chunk = ready.poll()) != null) {
+            requested[chunk.index] = false;
+            if (resident[chunk.index] == null && inRange(chunk.index, keepX0, keepY0, keepX1, keepY1)) {
+                materialize(chunk);
+                added++;
+            }
+        }
+
+        // La vista no puede esperar: leer en el momento lo que falte
+        for (int cy = viewY0; cy <= viewY1; cy++) {
+            for (int cx = viewX0; cx <= viewX1; cx++) {
+                int index = cy * file.getChunksX() + cx;
+                if (resident[index] == null) {
+                    materialize(file.readChunk(index));
+                    blockingLoads++;
+                }
+            }
+        }
+
+        // Pedir el anillo de precarga
+        for (int cy = keepY0; cy <= keepY1; cy++) {
+            for (int cx = keepX0; cx <= keepX1; cx++) {
+                int index = cy * file.getChunksX() + cx;
+                if (resident[index] != null || requested[index]) {
+                    continue;
+                }
+                if (synchronous) {
+                    materialize(file.readChunk(index));
+                } else {
+                    requested[index] = true;
+                    loader.execute(() -> ready.add(file.readChunk(index)));
+                }
+            }
+        }
+
+        evictOverBudget(camera, viewX0, viewY0, viewX1, viewY1);
+    }
+
+    /**
+     * Agrega al nivel los objetos de un trozo, salvo los enemigos que ya no son suyos y los coleccionables
+     * recogidos, y los enemigos que se guardaron en él.
+     */
+    private void materialize(ChunkedLevelFile.Chunk chunk) {
+        int[] p = chunk.platforms, e = chunk.enemies, c = chunk.collectibles;
+        Resident slots = new Resident(p.length / ChunkedLevelFile.PLATFORM_INTS,
+            e.length / ChunkedLevelFile.ENEMY_INTS, c.length / ChunkedLevelFile.COLLECTIBLE_INTS);
+        for (int i = 0; i < slots.platforms.length; i++) {
+            int o = i * ChunkedLevelFile.PLATFORM_INTS;
+            slots.platforms[i] = level.addPlatform(p[o], p[o + 1], p[o + 2], p[o + 3], p[o + 4] != 0);
+        }
+        BitSet dead = removedEnemies[chunk.index];
+        for (int i = 0; i < slots.enemies.length; i++) {
+            int o = i * ChunkedLevelFile.ENEMY_INTS;
+            slots.enemies[i] = dead != null && dead.get(i) ? -1
+                : level.addEnemy(e[o], e[o + 1], e[o + 2], e[o + 3]);
+        }
+        BitSet collected = collectedItems[chunk.index];
+        Collectible.CollectibleType[] types = Collectible.CollectibleType.values();
+        for (int i = 0; i < slots.collectibles.length; i++) {
+            int o = i * ChunkedLevelFile.COLLECTIBLE_INTS;
+            slots.collectibles[i] = collected != null && collected.get(i) ? -1
+                : level.addCollectible(c[o], c[o + 1], c[o + 2], c[o + 3], types[c[o + 4]], c[o + 5]);
+        }
+        IntList parked = parkedEnemies[chunk.index];
+        if (parked != null) {
+            parkedEnemies[chunk.index] = null;
+            EntityTable table = level.getEnemyTable();
+            for (int o = 0; o < parked.size; o += PARKED_ENEMY_INTS) {
+                int[] v = parked.values;
+                int slot = level.addEnemy(v[o], v[o + 1], v[o + 2], v[o + 3]);
+                table.setVelocityX(table.rowOf(slot), v[o + 4]);
+                slots.addVisitor(slot);
+            }
+        }
+        resident[chunk.index] = slots;
+        residentChunks.add(chunk.index);
+        residentBytes += slots.bytes;
+        chunkLoads++;
+    }
+
+    /**
+     * Descarga los trozos más lejanos a la cámara, sin tocar los de la vista, hasta volver al presupuesto.
+     */
+    private void evictOverBudget(Camera camera, int viewX0, int viewY0, int viewX1, int viewY1) {
+        int chunkSize = file.getChunkSize();
+        double centerX = camera.getX() + camera.getWidth() / 2.0;
+        double centerY = camera.getY() + camera.getHeight() / 2.0;
+        while (residentBytes > budgetBytes) {
+            int farthest = -1;
+            double farthestDistance = -1;
+            for (int i = 0; i < residentChunks.size; i++) {
+                int index = residentChunks.values[i];
+                if (inRange(index, viewX0, viewY0, viewX1, viewY1)) {
+                    continue;
+                }
+                double dx = (index % file.getChunksX() + 0.5) * chunkSize - centerX;
+                double dy = (index / file.getChunksX() + 0.5) * chunkSize - centerY;
+                double distance = dx * dx + dy * dy;
+                if (distance > farthestDistance) {
+                    farthest = index;
+                    farthestDistance = distance;
+                }
+            }
+            if (farthest < 0) {
+                return; // Solo queda la vista: el presupuesto es menor que una pantalla
+            }
+            evict(farthest);
+        }
+    }
+
+    /**
+     * Quita del nivel los objetos de un trozo y recuerda qué coleccionables ya no están.
+     * Los enemigos vivos pasan al trozo en el que están ahora.
+     */
+    private void evict(int index) {
+        Resident slots = resident[index];
+        resident[index] = null;
+        for (int i = 0; i < residentChunks.size; i++) {
+            if (residentChunks.values[i] == index) {
+                residentChunks.values[i] = residentChunks.values[--residentChunks.size]; // Cambiar por el último
+                break;
+            }
+        }
+        residentBytes -= slots.bytes;
+        for (int slot : slots.platforms) {
+            level.removePlatform(slot);
+        }
+        for (int i = 0; i < slots.enemies.length; i++) {
+            int slot = slots.enemies[i];
+            if (slot >= 0) {
+                // Muerto o no, el enemigo del archivo ya no vuelve a salir de él
+                if (removedEnemies[index] == null) {
+                    removedEnemies[index] = new BitSet(slots.enemies.length);
+                }
+                removedEnemies[index].set(i);
+                rehome(slot);
+            }
+        }
+        for (int i = 0; i < slots.visitors.size; i++) {
+            rehome(slots.visitors.values[i]);
+        }
+        for (int i = 0; i < slots.collectibles.length; i++) {
+            int slot = slots.collectibles[i];
+            if (slot >= 0) {
+                if (level.getCollectibles().get(slot).isCollected()) {
+                    if (collectedItems[index] == null) {
+                        collectedItems[index] = new BitSet(slots.collectibles.length);
+                    }
+                    collectedItems[index].set(i);
+                }
+                level.removeCollectible(slot);
+            }
+        }
+        evictions++;
+    }
+
+    /**
+     * Pasa un enemigo de un trozo que se descarga al trozo en el que está ahora: si está cargado sigue
+     * en el nivel, y si no, se quita y se guarda para ese trozo. Los enemigos muertos se quitan sin más.
+     */
+    private void rehome(int slot) {
+        Enemy enemy = level.getEnemies().get(slot);
+        if (enemy.isAlive()) {
+            int x = enemy.getX(), y = enemy.getY();
+            int chunkSize = file.getChunkSize();
+            int home = clampY(Math.floorDiv(y, chunkSize)) * file.getChunksX() + clampX(Math.floorDiv(x, chunkSize));
+            Resident target = resident[home];
+            if (target != null) {
+                target.addVisitor(slot);
+                residentBytes += ESTIMATED_OBJECT_BYTES;
+                return;
+            }
+            EntityTable table = level.getEnemyTable();
+            if (parkedEnemies[home] == null) {
+                parkedEnemies[home] = new IntList();
+            }
+            parkedEnemies[home].add(x, y, enemy.getWidth(), enemy.getHeight(), table.getVelocityX(table.rowOf(slot)));
+        }
+        level.removeEnemy(slot);
+    }
+
+    private boolean inRange(int index, int x0, int y0, int x1, int y1) {
+        int cx = index % file.getChunksX(), cy = index / file.getChunksX();
+        return cx >= x0 && cx <= x1 && cy >= y0 && cy <= y1;
+    }
+
+    private int clampX(int chunkX) {
+        return Math.max(0, Math.min(file.getChunksX() - 1, chunkX));
+    }
+
+    private int clampY(int chunkY) {
+        return Math.max(0, Math.min(file.getChunksY() - 1, chunkY));
+    }
+
+    /**
+     * Hace que la precarga se lea en el propio tick en lugar de en el hilo de carga, para que
+     * el contenido del nivel dependa solo de la cámara (por ejemplo, al reproducir una partida).
+     */
+    public void setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Detiene el hilo de carga. Los trozos ya cargados siguen en el nivel.
+     */
+    @Override
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public int getResidentChunks() {
+        return residentChunks.size;
+    }
+
+    /**
+     * Memoria estimada que ocupan los objetos cargados.
+     */
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getChunkLoads() {
+        return chunkLoads;
+    }
+
+    /**
+     * Trozos que hubo que leer en el propio tick porque la vista llegó antes que la precarga.
+     */
+    public long getBlockingLoads() {
+        return blockingLoads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,37 @@
+package streetbuds;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de JFR emitido cada vez que LevelManager pasa al siguiente nivel.
+ */
+@Name("streetbuds.LevelSwitch")
+@Label("Cambio de nivel")
+@Category({"StreetBuds", "Niveles"})
+@Description("Paso de un nivel al siguiente en LevelManager.nextLevel")
+public class LevelSwitchEvent extends jdk.jfr.Event {
+    @Label("Nivel anterior")
+    int fromLevel;
+
+    @Label("Nivel nuevo")
+    int toLevel;
+
+    @Label("Nombre del nivel nuevo")
+    String levelName;
+
+    @Label("Vuelta al primero")
+    boolean wrapped;
+
+    @Label("Precargado")
+    @Description("Si el nivel ya estaba listo cuando se pidió")
+    boolean preloaded;
+
+    @Label("Espera")
+    @Description("Tiempo esperado por un nivel que no estaba precargado")
+    @Timespan(Timespan.NANOSECONDS)
+    long waited;
+}
@@ -0,0 +1,35 @@
+package streetbuds;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR emitido por cada explosión de partículas.
+ */
+@Name("streetbuds.ParticleBurst")
+@Label("Explosión de partículas")
+@Category({"StreetBuds", "Partículas"})
+@Description("Partículas pedidas, creadas y descartadas por una llamada a createExplosion")
+@StackTrace(false)
+public class ParticleBurstEvent extends jdk.jfr.Event {
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Pedidas")
+    int requested;
+
+    @Label("Creadas")
+    int spawned;
+
+    @Label("Partículas vivas")
+    int live;
+
+    @Label("Capacidad")
+    int capacity;
+}
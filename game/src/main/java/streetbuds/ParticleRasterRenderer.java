@@ -0,0 +1,133 @@
+package streetbuds;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Renderizador alternativo de partículas que escribe directamente en los píxeles de una imagen.
+ * Cada partícula se mezcla (alfa premultiplicado, "source over") sobre el array int[] de una imagen
+ * TYPE_INT_ARGB_PRE, y la capa resultante se compone en pantalla con un único drawImage,
+ * en lugar de una llamada a setColor y fillOval por partícula.
+ * Solo se limpia y se copia el rectángulo que ocuparon las partículas.
+ */
+public class ParticleRasterRenderer {
+    private final BufferedImage layer; // Capa de partículas con alfa premultiplicado
+    private final int[] pixels;        // Píxeles de la capa
+    private final int width, height;
+
+    // Rectángulo ocupado por las partículas en el último frame (vacío si minX > maxX)
+    private int minX, minY, maxX, maxY;
+
+    /**
+     * Crea un renderizador para una superficie del tamaño indicado.
+     */
+    public ParticleRasterRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.pixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+        resetDirty();
+    }
+
+    /**
+     * Dibuja todas las partículas del sistema sobre el contexto gráfico.
+     */
+    public void draw(ParticleSystem particles, Graphics2D g2d) {
+        draw(particles, g2d, 0, 0);
+    }
+
+    /**
+     * Dibuja las partículas que caen en la zona del mundo que empieza en (originX, originY)
+     * y tiene el tamaño de la capa, normalmente la vista de la cámara.
+     * El contexto gráfico debe estar en coordenadas del mundo.
+     */
+    public void draw(ParticleSystem particles, Graphics2D g2d, int originX, int originY) {
+        clearDirty();
+        int count = particles.getCount();
+        for (int i = 0; i < count; i++) {
+            int s = (int) particles.getSize(i);
+            splat((int) particles.getX(i) - originX, (int) particles.getY(i) - originY, s, particles.argbFor(i));
+        }
+        if (minX <= maxX) {
+            g2d.drawImage(layer, originX + minX, originY + minY, originX + maxX + 1, originY + maxY + 1,
+                minX, minY, maxX + 1, maxY + 1, null);
+        }
+    }
+
+    /**
+     * Rellena un círculo inscrito en el cuadrado (x, y, s, s), igual que fillOval.
+     */
+    private void splat(int x, int y, int s, int argb) {
+        if (s <= 0 || x >= width || y >= height || x + s <= 0 || y + s <= 0) {
+            return;
+        }
+        int a = argb >>> 24;
+        if (a == 0) {
+            return;
+        }
+        // Premultiplicar el color de origen
+        int r = (((argb >> 16) & 0xFF) * a + 127) / 255;
+        int g = (((argb >> 8) & 0xFF) * a + 127) / 255;
+        int b = ((argb & 0xFF) * a + 127) / 255;
+        int src = (a << 24) | (r << 16) | (g << 8) | b;
+        int inverse = 255 - a;
+
+        float radius = s / 2f;
+        float centerX = x + radius;
+        float centerY = y + radius;
+        int rowStart = Math.max(y, 0);
+        int rowEnd = Math.min(y + s, height);
+        for (int py = rowStart; py < rowEnd; py++) {
+            float dy = py + 0.5f - centerY;
+            float half = (float) Math.sqrt(Math.max(0f, radius * radius - dy * dy));
+            int x0 = Math.max((int) (centerX - half + 0.5f), 0);
+            int x1 = Math.min((int) (centerX + half + 0.5f), width);
+            if (x0 >= x1) {
+                continue;
+            }
+            int offset = py * width;
+            for (int px = x0; px < x1; px++) {
+                pixels[offset + px] = inverse == 0 ? src : blend(src, pixels[offset + px], inverse);
+            }
+            if (x0 < minX) minX = x0;
+            if (x1 - 1 > maxX) maxX = x1 - 1;
+            if (py < minY) minY = py;
+            if (py > maxY) maxY = py;
+        }
+    }
+
+    /**
+     * Mezcla "source over" con alfa premultiplicado: resultado = origen + destino * (1 - alfa origen).
+     */
+    private static int blend(int src, int dst, int inverse) {
+        int a = (src >>> 24) + scale(dst >>> 24, inverse);
+        int r = ((src >> 16) & 0xFF) + scale((dst >> 16) & 0xFF, inverse);
+        int g = ((src >> 8) & 0xFF) + scale((dst >> 8) & 0xFF, inverse);
+        int b = (src & 0xFF) + scale(dst & 0xFF, inverse);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int scale(int channel, int factor) {
+        int t = channel * factor + 128;
+        return (t + (t >> 8)) >> 8; // channel * factor / 255 redondeado
+    }
+
+    private void clearDirty() {
+        if (minX <= maxX) {
+            for (int py = minY; py <= maxY; py++) {
+                int offset = py * width;
+                Arrays.fill(pixels, offset + minX, offset + maxX + 1, 0);
+            }
+        }
+        resetDirty();
+    }
+
+    private void resetDirty() {
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,353 @@
+package streetbuds;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Sistema de partículas con capacidad fija.
+ * El estado de cada partícula vive en arrays paralelos de floats (estructura de arrays):
+ * crear una partícula solo escribe en los arrays y eliminarla mueve la última a su hueco,
+ * así que ni las explosiones ni la actualización crean objetos.
+ * Los colores con transparencia se toman de una tabla precalculada por niveles de alfa.
+ */
+public class ParticleSystem {
+    /**
+     * Qué hacer cuando se pide crear partículas con el sistema lleno.
+     */
+    public enum OverflowPolicy {
+        DROP_NEW,   // Descartar las partículas nuevas
+        OVERWRITE   // Reutilizar huecos existentes de forma circular
+    }
+
+    public static final int DEFAULT_CAPACITY = 65_536; // Partículas vivas como máximo por defecto
+    private static final int ALPHA_LEVELS = 64;        // Niveles de transparencia de la tabla de colores
+    private static final int MAX_COLORS = 256;         // Colores distintos que admite la paleta
+    private static final float FRAME_RATE = 60f;       // Las velocidades se diseñaron en píxeles por frame a 60 FPS
+    private static final float GRAVITY = 0.1f * FRAME_RATE * FRAME_RATE; // Gravedad en píxeles/s²
+
+    private final int capacity;
+    private OverflowPolicy overflowPolicy;
+
+    // Estado de las partículas; solo son válidas las posiciones [0, count)
+    private final float[] x, y;
+    private final float[] vx, vy;
+    private final float[] life;
+    private final float[] size;
+    private final byte[] colorIndex;
+    private int count;
+    private int overwriteCursor; // Siguiente hueco a reutilizar con OVERWRITE
+    private long dropped;        // Partículas descartadas por falta de espacio
+
+    // Paleta de colores base y su tabla de colores por nivel de alfa
+    private final int[] paletteRgb = new int[MAX_COLORS];
+    private final Color[][] alphaTable = new Color[MAX_COLORS][];
+    private int paletteSize;
+    private long paletteMisses; // Colores pedidos con la paleta llena, dibujados con el más parecido
+
+    private int seed = 0x2545F491; // Estado del generador aleatorio (xorshift)
+
+    /**
+     * Crea un sistema con la capacidad por defecto que descarta las partículas sobrantes.
+     */
+    public ParticleSystem() {
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP_NEW);
+    }
+
+    /**
+     * Crea un sistema con capacidad y política de desbordamiento propias.
+     * @param capacity Número máximo de partículas vivas.
+     * @param overflowPolicy Qué hacer al llenarse.
+     */
+    public ParticleSystem(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.life = new float[capacity];
+        this.size = new float[capacity];
+        this.colorIndex = new byte[capacity];
+    }
+
+    /**
+     * Crea una explosión de partículas que salen en todas direcciones desde un punto.
+     * Si JFR está grabando emite un ParticleBurstEvent.
+     */
+    public void createExplosion(int x, int y, int count, Color color) {
+        ParticleBurstEvent event = new ParticleBurstEvent(); // Sin grabación el JIT elimina el objeto
+        event.begin();
+        int paletteIndex = paletteIndexOf(color);
+        int spawned = 0;
+        for (; spawned < count; spawned++) {
+            int slot = allocateSlot();
+            if (slot < 0) {
+                dropped += count - spawned;
+                break;
+            }
+            float angle = nextFloat() * 2 * (float) Math.PI;
+            float speed = (nextFloat() * 5 + 2) * FRAME_RATE;
+            this.x[slot] = x;
+            this.y[slot] = y;
+            this.vx[slot] = (float) Math.cos(angle) * speed;
+            this.vy[slot] = (float) Math.sin(angle) * speed;
+            this.life[slot] = nextFloat() * 1.0f + 0.5f;
+            this.size[slot] = nextFloat() * 5 + 2;
+            this.colorIndex[slot] = (byte) paletteIndex;
+        }
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.requested = count;
+            event.spawned = spawned;
+            event.live = this.count;
+            event.capacity = getCapacity();
+            event.commit();
+        }
+    }
+
+    /**
+     * Avanza todas las partículas y elimina las que se han apagado.
+     * @param deltaTime Tiempo transcurrido en segundos.
+     */
+    public void update(float deltaTime) {
+        float shrink = (float) Math.pow(0.99, deltaTime * FRAME_RATE); // Antes se reducían un 1% por frame
+        float gravityStep = GRAVITY * deltaTime;
+        int i = 0;
+        while (i < count) {
+            float remaining = life[i] - deltaTime;
+            if (remaining <= 0) {
+                removeAt(i); // La última partícula ocupa este hueco; se procesa en la misma posición
+                continue;
+            }
+            life[i] = remaining;
+            x[i] += vx[i] * deltaTime;
+            y[i] += vy[i] * deltaTime;
+            vy[i] += gravityStep;
+            size[i] *= shrink;
+            i++;
+        }
+    }
+
+    /**
+     * Dibuja las partículas como círculos, con la transparencia según la vida restante.
+     */
+    public void draw(Graphics2D g2d) {
+        Color current = null;
+        for (int i = 0; i < count; i++) {
+            Color color = colorFor(i);
+            if (color != current) { // Evitar cambios de color innecesarios
+                g2d.setColor(color);
+                current = color;
+            }
+            int s = (int) size[i];
+            g2d.fillOval((int) x[i], (int) y[i], s, s);
+        }
+    }
+
+    /**
+     * Copia en out la zona de pantalla que ocupan todas las partículas, sin crear objetos.
+     * @return false si no hay partículas.
+     */
+    public boolean getDrawArea(Rectangle out) {
+        if (count == 0) {
+            return false;
+        }
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i] + size[i]);
+            maxY = Math.max(maxY, y[i] + size[i]);
+        }
+        out.setBounds((int) Math.floor(minX) - 1, (int) Math.floor(minY) - 1,
+            (int) Math.ceil(maxX - minX) + 2, (int) Math.ceil(maxY - minY) + 2);
+        return true;
+    }
+
+    /**
+     * Elimina todas las partículas.
+     */
+    public void clear() {
+        count = 0;
+        overwriteCursor = 0;
+    }
+
+    /**
+     * Escribe en un búfer las partículas vivas, el generador aleatorio y los contadores, para SimulationSnapshot.
+     * La paleta no se guarda: solo crece, así que los índices de color siguen valiendo al restaurar.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(count).putInt(overwriteCursor).putLong(dropped).putInt(seed);
+        SimulationSnapshot.putFloats(out, x, 0, count);
+        SimulationSnapshot.putFloats(out, y, 0, count);
+        SimulationSnapshot.putFloats(out, vx, 0, count);
+        SimulationSnapshot.putFloats(out, vy, 0, count);
+        SimulationSnapshot.putFloats(out, life, 0, count);
+        SimulationSnapshot.putFloats(out, size, 0, count);
+        out.put(colorIndex, 0, count);
+    }
+
+    /**
+     * Vuelve al estado escrito con writeState().
+     * @throws IllegalStateException Si la instantánea tiene más partículas de las que caben.
+     */
+    void readState(ByteBuffer in) {
+        int saved = in.getInt();
+        if (saved < 0 || saved > capacity) {
+            throw new IllegalStateException("La instantánea tiene " + saved + " partículas y caben " + capacity);
+        }
+        count = saved;
+        overwriteCursor = in.getInt();
+        dropped = in.getLong();
+        seed = in.getInt();
+        SimulationSnapshot.getFloats(in, x, 0, count);
+        SimulationSnapshot.getFloats(in, y, 0, count);
+        SimulationSnapshot.getFloats(in, vx, 0, count);
+        SimulationSnapshot.getFloats(in, vy, 0, count);
+        SimulationSnapshot.getFloats(in, life, 0, count);
+        SimulationSnapshot.getFloats(in, size, 0, count);
+        in.get(colorIndex, 0, count);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Veces que se pidió un color nuevo con la paleta llena y se usó el más parecido de la paleta.
+     */
+    public long getPaletteMisses() {
+        return paletteMisses;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    // Acceso de solo lectura al estado de la partícula i, para renderizadores alternativos
+    float getX(int i) {
+        return x[i];
+    }
+
+    float getY(int i) {
+        return y[i];
+    }
+
+    float getSize(int i) {
+        return size[i];
+    }
+
+    /**
+     * Color con transparencia de la partícula i, tomado de la tabla precalculada.
+     */
+    Color colorFor(int i) {
+        return alphaTable[colorIndex[i] & 0xFF][alphaLevel(i)];
+    }
+
+    /**
+     * Color de la partícula i como ARGB sin premultiplicar, con el mismo alfa cuantizado que colorFor.
+     */
+    int argbFor(int i) {
+        int alpha = alphaLevel(i) * 255 / (ALPHA_LEVELS - 1);
+        return (alpha << 24) | paletteRgb[colorIndex[i] & 0xFF];
+    }
+
+    private int alphaLevel(int i) {
+        float alpha = Math.max(0f, Math.min(1f, life[i])); // La vida puede superar 1 al nacer
+        return (int) (alpha * (ALPHA_LEVELS - 1) + 0.5f);
+    }
+
+    private int allocateSlot() {
+        if (count < capacity) {
+            return count++;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_NEW) {
+            return -1;
+        }
+        int slot = overwriteCursor;
+        overwriteCursor = (overwriteCursor + 1) % capacity;
+        return slot;
+    }
+
+    private void removeAt(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+        size[i] = size[last];
+        colorIndex[i] = colorIndex[last];
+        if (overwriteCursor > count) {
+            overwriteCursor = 0;
+        }
+    }
+
+    /**
+     * Busca el color en la paleta o lo añade, precalculando sus versiones con transparencia.
+     * Con la paleta llena devuelve el color más parecido: no se sustituye ninguno, porque las partículas
+     * vivas y las instantáneas guardan índices de la paleta.
+     */
+    private int paletteIndexOf(Color color) {
+        int rgb = color.getRGB() & 0xFFFFFF;
+        for (int i = 0; i < paletteSize; i++) {
+            if (paletteRgb[i] == rgb) {
+                return i;
+            }
+        }
+        if (paletteSize == MAX_COLORS) {
+            paletteMisses++;
+            return nearestPaletteIndex(rgb);
+        }
+        Color[] levels = new Color[ALPHA_LEVELS];
+        for (int a = 0; a < ALPHA_LEVELS; a++) {
+            levels[a] = new Color(color.getRed(), color.getGreen(), color.getBlue(), a * 255 / (ALPHA_LEVELS - 1));
+        }
+        paletteRgb[paletteSize] = rgb;
+        alphaTable[paletteSize] = levels;
+        return paletteSize++;
+    }
+
+    /**
+     * Color de la paleta a menor distancia del indicado en el espacio RGB.
+     */
+    private int nearestPaletteIndex(int rgb) {
+        int best = 0;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < paletteSize; i++) {
+            int dr = ((paletteRgb[i] >> 16) & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = ((paletteRgb[i] >> 8) & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (paletteRgb[i] & 0xFF) - (rgb & 0xFF);
+            int distance = dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * 0x1.0p-24f;
+    }
+}
@@ -0,0 +1,102 @@
+package streetbuds;
+
+import java.awt.*;
+
+/**
+ * Clase que representa una plataforma en el juego.
+ * Las plataformas son objetos sólidos sobre los que el jugador puede pararse y colisionar.
+ * Es una vista sobre una fila de un EntityTable, como Enemy y Collectible.
+ */
+public class Platform extends EntityView {
+    // Componentes de una plataforma: posición, tamaño y si es sólida (FLAGS)
+    // Las plataformas son estáticas: sus límites no cambian tras la construcción
+    static final int COMPONENTS = EntityTable.POSITION | EntityTable.BOUNDS | EntityTable.FLAGS;
+    private static final Color COLOR = new Color(139, 69, 19); // Color marrón para las plataformas
+
+    /**
+     * Constructor que crea una plataforma con posición y dimensiones específicas.
+     * @param x Posición X de la plataforma
+     * @param y Posición Y de la plataforma
+     * @param width Ancho de la plataforma
+     * @param height Alto de la plataforma
+     * @param isSolid Indica si es una plataforma sólida
+     */
+    public Platform(int x, int y, int width, int height, boolean isSolid) {
+        super(COMPONENTS);
+        init(table, row(), x, y, width, height, isSolid);
+    }
+
+    /**
+     * Vista de una plataforma que ya está en un arquetipo.
+     */
+    Platform(EntityTable table, int id) {
+        super(table, id);
+    }
+
+    /**
+     * Escribe los valores de una plataforma en una fila recién agregada.
+     */
+    static void init(EntityTable table, int row, int x, int y, int width, int height, boolean isSolid) {
+        table.setBounds(row, x, y, width, height);
+        table.setFlag(row, EntityTable.SOLID, isSolid);
+    }
+
+    /**
+     * Retorna el rectángulo de colisión de la plataforma.
+     * Crea un Rectangle nuevo en cada llamada; en el bucle del juego se usa intersects().
+     * @return Rectangle que representa el área de colisión
+     */
+    public Rectangle getBounds() {
+        int row = row();
+        return new Rectangle(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+    }
+
+    /**
+     * Verifica si la plataforma intersecta un rectángulo sin crear objetos.
+     * Sigue la misma regla que Rectangle2D.intersects: los bordes que solo se tocan no cuentan.
+     * @return true si ambos rectángulos se solapan
+     */
+    public boolean intersects(double rx, double ry, double rw, double rh) {
+        int row = row();
+        return Bounds.intersects(table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row),
+            rx, ry, rw, rh);
+    }
+
+    /**
+     * Dibuja la plataforma con su color.
+     * @param g2d Contexto gráfico para dibujar
+     */
+    public void draw(Graphics2D g2d) {
+        int row = row();
+        draw(g2d, table.getX(row), table.getY(row), table.getWidth(row), table.getHeight(row));
+    }
+
+    /**
+     * Dibuja una plataforma a partir de sus componentes, sin pasar por la vista.
+     */
+    static void draw(Graphics2D g2d, int x, int y, int width, int height) {
+        g2d.setColor(COLOR);
+        g2d.fillRect(x, y, width, height);
+    }
+
+    // Getters para acceder a las propiedades de la plataforma
+    public int getX() {
+        return table.getX(row());
+    }
+
+    public int getY() {
+        return table.getY(row());
+    }
+
+    public int getWidth() {
+        return table.getWidth(row());
+    }
+
+    public int getHeight() {
+        return table.getHeight(row());
+    }
+
+    public boolean isSolid() {
+        return table.hasFlag(row(), EntityTable.SOLID);
+    }
+}
@@ -0,0 +1,427 @@
+package streetbuds;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Clase que representa al personaje jugable.
+ * Maneja la física, movimiento y colisiones del personaje.
+ */
+public class Player implements Serializable, GameClock.Expiry {
+	private static final long serialVersionUID = 1L;
+
+	// Constantes de dimensiones y física
+	private static final int WIDTH = 40; // Ancho del jugador
+	private static final int HEIGHT = 60; // Alto del jugador
+	private static final int JUMP_SPEED = -15;// Velocidad inicial del salto (negativa para ir hacia arriba)
+	private static final int MOVE_SPEED = 5; // Velocidad de movimiento horizontal
+	private static final int GRAVITY = 1; // Fuerza de gravedad aplicada por frame
+
+	// Variables de posición y movimiento
+	private double x, y; // Posición actual
+	private double velX, velY; // Velocidades en cada eje
+	private boolean isJumping; // Estado de salto
+	private boolean facingRight; // Dirección a la que mira el personaje
+	private transient Rectangle2D bounds; // Hitbox para colisiones
+
+	private int health;
+	private int maxHealth;
+	private Point spawnPoint;
+	private boolean isInvulnerable;
+	private long invulnerableUntil; // Tick en el que termina la invulnerabilidad
+	// Algo más de 2 segundos: termina en el primer tick que los pasa, como cuando se comparaban milisegundos,
+	// para que las grabaciones anteriores se sigan reproduciendo igual
+	private static final long INVULNERABILITY_TICKS = GameClock.ticks(2000) + 1;
+
+	private int worldWidth = Camera.DEFAULT_WIDTH;   // Ancho del nivel en el que se mueve
+	private int worldHeight = Camera.DEFAULT_HEIGHT; // Alto del nivel en el que se mueve
+
+	private GameClock clock = new GameClock(); // Reloj de los temporizadores; la simulación le da el suyo
+
+	private boolean isAttacking;
+	private long lastAttackTime;
+	private static final long ATTACK_COOLDOWN = 500; // 0.5 segundos entre ataques
+
+	/**
+	 * Constructor que inicializa al jugador en una posición específica.
+	 */
+	public Player(int x, int y) {
+		this.x = x;
+		this.y = y;
+		this.velX = 0;
+		this.velY = 0;
+		this.isJumping = false;
+		this.facingRight = true;
+		this.bounds = new Rectangle2D.Double(x, y, WIDTH, HEIGHT);
+		this.health = 100;
+		this.maxHealth = 100;
+		this.spawnPoint = new Point(x, y);
+		this.isInvulnerable = false;
+		this.isAttacking = false;
+		this.lastAttackTime = 0;
+	}
+
+	/**
+	 * Actualiza la lógica del jugador cada frame.
+	 * 
+	 * @param keys      Array que indica qué teclas están presionadas
+	 * @param platforms Lista de plataformas para verificar colisiones
+	 */
+	public void update(boolean[] keys, ArrayList<Platform> platforms) {
+		update(keys, platforms, null);
+	}
+
+	/**
+	 * Actualiza la lógica del jugador usando un índice espacial para las colisiones.
+	 * El resultado es idéntico al de la búsqueda lineal sobre todas las plataformas.
+	 * 
+	 * @param keys         Array que indica qué teclas están presionadas
+	 * @param platforms    Lista de plataformas para verificar colisiones
+	 * @param platformGrid Índice de las plataformas, o null para revisarlas todas
+	 */
+	public void update(boolean[] keys, ArrayList<Platform> platforms, SpatialGrid platformGrid) {
+		// Control de movimiento horizontal
+		if (keys['A'] || keys[KeyEvent.VK_LEFT]) {
+			velX = -MOVE_SPEED;
+			facingRight = false;
+		} else if (keys['D'] || keys[KeyEvent.VK_RIGHT]) {
+			velX = MOVE_SPEED;
+			facingRight = true;
+		} else {
+			velX = 0;
+		}
+
+		// Control de salto
+		if ((keys['W'] || keys[KeyEvent.VK_UP] || keys[KeyEvent.VK_SPACE]) && !isJumping) {
+			velY = JUMP_SPEED;
+			isJumping = true;
+		}
+
+		// Aplicar gravedad
+		velY += GRAVITY;
+
+		// Actualizar posición X y verificar colisiones horizontales
+		x += velX;
+		bounds.setRect(x, y, WIDTH, HEIGHT);
+		handleHorizontalCollisions(platforms, platformGrid);
+
+		// Actualizar posición Y y verificar colisiones verticales
+		y += velY;
+		bounds.setRect(x, y, WIDTH, HEIGHT);
+		handleVerticalCollisions(platforms, platformGrid);
+
+		// Mantener al jugador dentro del nivel; el borde inferior hace de suelo
+		if (x < 0) {
+			x = 0;
+		} else if (x > worldWidth - WIDTH) {
+			x = worldWidth - WIDTH;
+		}
+		if (y > worldHeight - HEIGHT) {
+			y = worldHeight - HEIGHT;
+			velY = 0;
+			isJumping = false;
+		}
+		bounds.setRect(x, y, WIDTH, HEIGHT);
+
+		// Verificar si el jugador está atacando (saltando sobre un enemigo)
+		if (isJumping && velY > 0) {
+			isAttacking = true;
+		} else {
+			isAttacking = false;
+		}
+	}
+
+	/**
+	 * Maneja las colisiones horizontales con las plataformas.
+	 */
+	private void handleHorizontalCollisions(ArrayList<Platform> platforms, SpatialGrid platformGrid) {
+		for (int i = nextCollision(platforms, platformGrid, 0); i >= 0; i = nextCollision(platforms, platformGrid, i + 1)) {
+			Platform platform = platforms.get(i);
+			if (velX > 0) { // Colisión moviéndose a la derecha
+				x = platform.getX() - WIDTH;
+			} else if (velX < 0) { // Colisión moviéndose a la izquierda
+				x = platform.getX() + platform.getWidth();
+			}
+			bounds.setRect(x, y, WIDTH, HEIGHT);
+		}
+	}
+
+	/**
+	 * Maneja las colisiones verticales con las plataformas.
+	 */
+	private void handleVerticalCollisions(ArrayList<Platform> platforms, SpatialGrid platformGrid) {
+		boolean onPlatform = false;
+		for (int i = nextCollision(platforms, platformGrid, 0); i >= 0; i = nextCollision(platforms, platformGrid, i + 1)) {
+			Platform platform = platforms.get(i);
+			if (velY > 0) { // Colisión cayendo
+				y = platform.getY() - HEIGHT;
+				velY = 0;
+				isJumping = false;
+				onPlatform = true;
+			} else if (velY < 0) { // Colisión saltando
+				y = platform.getY() + platform.getHeight();
+				velY = 0;
+			}
+			bounds.setRect(x, y, WIDTH, HEIGHT);
+		}
+
+		// Activar estado de salto si no está en una plataforma
+		if (!onPlatform && velY == 0) {
+			isJumping = true;
+		}
+	}
+
+	/**
+	 * Busca la primera plataforma con índice mayor o igual a "from" que intersecta la hitbox actual.
+	 * Como cada corrección mueve la hitbox, se vuelve a consultar tras cada choque; así el orden
+	 * y el resultado coinciden con recorrer la lista completa de plataformas.
+	 * 
+	 * @return Índice de la plataforma, o -1 si no hay más colisiones
+	 */
+	private int nextCollision(ArrayList<Platform> platforms, SpatialGrid platformGrid, int from) {
+		if (platformGrid == null) {
+			return nextCollisionLinear(platforms, from);
+		}
+		int count = platformGrid.query(bounds.getX(), bounds.getY(), WIDTH, HEIGHT);
+		int found = -1;
+		for (int r = 0; r < count; r++) {
+			int index = platformGrid.getResult(r);
+			if (index >= from) {
+				found = index;
+				break;
+			}
+		}
+		if (SpatialGrid.VERIFY) {
+			int expected = nextCollisionLinear(platforms, from);
+			if (expected != found) {
+				throw new IllegalStateException("Índice espacial inconsistente: plataforma " + found
+						+ ", búsqueda lineal " + expected);
+			}
+		}
+		return found;
+	}
+
+	private int nextCollisionLinear(ArrayList<Platform> platforms, int from) {
+		for (int i = from; i < platforms.size(); i++) {
+			Platform platform = platforms.get(i);
+			if (platform != null && platform.intersects(x, y, WIDTH, HEIGHT)) { // null = plataforma quitada
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Dibuja el personaje y sus detalles.
+	 */
+	public void draw(Graphics2D g2d) {
+		// Dibujar forma del jugador
+		g2d.setColor(Color.BLUE);
+		g2d.fillRect((int) x, (int) y, WIDTH, HEIGHT);
+
+		// Dibujar detalles del jugador
+		g2d.setColor(Color.WHITE);
+		g2d.fillOval((int) x + 5, (int) y + 10, 10, 10); // Ojo izquierdo
+		g2d.fillOval((int) x + 25, (int) y + 10, 10, 10); // Ojo derecho
+		g2d.drawLine((int) x + 10, (int) y + 30, (int) x + 30, (int) y + 30); // Boca
+
+		// Dibujar barra de salud
+		drawHealthBar(g2d);
+
+		// Dibujar indicador de ataque si está atacando
+		if (isAttacking) {
+			g2d.setColor(new Color(255, 255, 0, 128));
+			g2d.fillOval((int) x - 5, (int) y - 5, WIDTH + 10, HEIGHT + 10);
+		}
+	}
+
+	private void drawHealthBar(Graphics2D g2d) {
+		int barWidth = 50;
+		int barHeight = 5;
+		int healthBarX = (int) x + (WIDTH - barWidth) / 2;
+		int healthBarY = (int) y - 10;
+
+		// Fondo de la barra
+		g2d.setColor(Color.RED);
+		g2d.fillRect(healthBarX, healthBarY, barWidth, barHeight);
+
+		// Barra de salud actual
+		float healthPercentage = (float) health / maxHealth;
+		g2d.setColor(Color.GREEN);
+		g2d.fillRect(healthBarX, healthBarY, (int) (barWidth * healthPercentage), barHeight);
+	}
+
+	/**
+	 * Copia en out la zona de pantalla que ocupa el dibujo del jugador
+	 * (cuerpo, barra de salud e indicador de ataque), sin crear objetos.
+	 */
+	public void getDrawArea(Rectangle out) {
+		out.setBounds((int) x - 5, (int) y - 10, WIDTH + 11, HEIGHT + 16);
+	}
+
+	/**
+	 * Retorna el rectángulo de colisión del jugador.
+	 */
+	public Rectangle2D getBounds() {
+		return bounds;
+	}
+
+	public void takeDamage(int damage) {
+		if (!isInvulnerable) {
+			health -= damage;
+			becomeInvulnerable();
+		}
+	}
+
+	public int getHealth() {
+		return health;
+	}
+
+	public void respawn() {
+		x = spawnPoint.x;
+		y = spawnPoint.y;
+		velX = 0;
+		velY = 0;
+		health = maxHealth;
+		becomeInvulnerable();
+	}
+
+	/**
+	 * Empieza un periodo de invulnerabilidad; el reloj avisa cuando termina (expire).
+	 */
+	private void becomeInvulnerable() {
+		isInvulnerable = true;
+		invulnerableUntil = clock.getTick() + INVULNERABILITY_TICKS;
+		clock.schedule(INVULNERABILITY_TICKS, this, 0);
+	}
+
+	/**
+	 * Fin de la invulnerabilidad, llamado por el reloj. Si entretanto empezó otro periodo
+	 * (al reaparecer justo después de recibir daño), este aviso ya no cuenta.
+	 */
+	@Override
+	public void expire(int target, long tick) {
+		if (isInvulnerable && tick >= invulnerableUntil) {
+			isInvulnerable = false;
+		}
+	}
+
+	/**
+	 * Establece el reloj con el que se miden la invulnerabilidad y el ataque.
+	 */
+	public void setClock(GameClock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Vuelve a programar en el reloj el fin de la invulnerabilidad en curso, tras restaurar un estado.
+	 */
+	private void rescheduleTimers() {
+		if (isInvulnerable) {
+			clock.schedule(Math.max(1, invulnerableUntil - clock.getTick()), this, 0);
+		}
+	}
+
+	/**
+	 * Coloca al jugador en una posición sin velocidad, por ejemplo al empezar un nivel.
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+		velX = 0;
+		velY = 0;
+		bounds.setRect(x, y, WIDTH, HEIGHT);
+	}
+
+	/**
+	 * Establece la salud, por ejemplo al cargar una partida guardada.
+	 */
+	void setHealth(int health) {
+		this.health = Math.min(health, maxHealth);
+	}
+
+	public void jump() {
+		if (!isJumping) {
+			velY = JUMP_SPEED;
+			isJumping = true;
+		}
+	}
+
+	/**
+	 * Establece el tamaño del nivel, que limita el movimiento del jugador.
+	 */
+	public void setWorldBounds(int width, int height) {
+		this.worldWidth = width;
+		this.worldHeight = height;
+	}
+
+	public double getCenterX() {
+		return x + WIDTH / 2.0;
+	}
+
+	public double getCenterY() {
+		return y + HEIGHT / 2.0;
+	}
+
+	public void setSpawnPoint(Point spawnPoint) {
+		this.spawnPoint = spawnPoint;
+	}
+
+	/**
+	 * Escribe en un búfer todo el estado del jugador, para SimulationSnapshot.
+	 */
+	void writeState(ByteBuffer out) {
+		out.putDouble(x).putDouble(y).putDouble(velX).putDouble(velY);
+		out.put((byte) ((isJumping ? 1 : 0) | (facingRight ? 2 : 0) | (isInvulnerable ? 4 : 0) | (isAttacking ? 8 : 0)));
+		out.putInt(health).putInt(maxHealth);
+		out.putInt(spawnPoint.x).putInt(spawnPoint.y);
+		out.putLong(invulnerableUntil).putLong(lastAttackTime);
+		out.putInt(worldWidth).putInt(worldHeight);
+	}
+
+	/**
+	 * Vuelve al estado escrito con writeState(). El punto de aparición solo se sustituye si es otro.
+	 * El reloj ya debe estar en el tick restaurado, para programar de nuevo la invulnerabilidad.
+	 */
+	void readState(ByteBuffer in) {
+		x = in.getDouble();
+		y = in.getDouble();
+		velX = in.getDouble();
+		velY = in.getDouble();
+		int flags = in.get();
+		isJumping = (flags & 1) != 0;
+		facingRight = (flags & 2) != 0;
+		isInvulnerable = (flags & 4) != 0;
+		isAttacking = (flags & 8) != 0;
+		health = in.getInt();
+		maxHealth = in.getInt();
+		int spawnX = in.getInt(), spawnY = in.getInt();
+		if (spawnPoint.x != spawnX || spawnPoint.y != spawnY) {
+			spawnPoint = new Point(spawnX, spawnY);
+		}
+		invulnerableUntil = in.getLong();
+		lastAttackTime = in.getLong();
+		worldWidth = in.getInt();
+		worldHeight = in.getInt();
+		bounds.setRect(x, y, WIDTH, HEIGHT);
+		rescheduleTimers();
+	}
+
+	/**
+	 * La hitbox no se serializa: se reconstruye a partir de la posición.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		bounds = new Rectangle2D.Double(x, y, WIDTH, HEIGHT);
+	}
+
+	public boolean isAttacking() {
+		return isAttacking;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package streetbuds;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Reproduce una grabación de InputRecorder sin pantalla y a la máxima velocidad,
+ * comprobando que la puntuación, las vidas, la posición del jugador y los checksums
+ * coinciden con los grabados. Sirve para reproducir fallos y como carga fija para medir el rendimiento.
+ *
+ * Uso: java -cp game/target/classes streetbuds.ReplayRunner partida.sbr [repeticiones]
+ * Las grabaciones se hacen jugando con -Dstreetbuds.record=partida.sbr y se guardan con F6.
+ */
+public final class ReplayRunner {
+
+    private ReplayRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Uso: java streetbuds.ReplayRunner partida.sbr [repeticiones]");
+            System.exit(2);
+        }
+        InputRecording recording = InputRecording.read(Paths.get(args[0]));
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        System.out.printf("Grabación: %d ticks, %d combinaciones de teclas, puntuación %d, vidas %d%n",
+            recording.getTicks(), recording.getPaletteSize(), recording.getScore(), recording.getLives());
+
+        double best = 0;
+        for (int i = 0; i < repeats; i++) {
+            Simulation simulation = new Simulation();
+            long start = System.nanoTime();
+            long ticks;
+            try {
+                ticks = recording.replay(simulation);
+            } catch (IllegalStateException e) {
+                System.err.println("Reproducción " + (i + 1) + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            } finally {
+                simulation.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            best = Math.max(best, ticks / seconds);
+            System.out.printf("Reproducción %d: %d ticks en %.3f s (%.0f ticks/s)%n", i + 1, ticks, seconds,
+                ticks / seconds);
+        }
+        System.out.printf("Coincide con la grabación; mejor velocidad %.0f ticks/s%n", best);
+    }
+}
@@ -0,0 +1,351 @@
+package streetbuds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Progreso guardado de una partida: en qué nivel se está, qué cambió en él respecto al nivel recién
+ * cargado (coleccionables recogidos y enemigos muertos, como conjuntos de bits por posición en las
+ * listas del nivel) y el estado del jugador, la puntuación y las vidas.
+ *
+ * El archivo lo escribe SaveGameWriter como un diario de registros. El primero es la base, con todo
+ * el estado; los siguientes solo llevan lo que cambió desde el anterior. Cada registro (big-endian):
+ * <pre>
+ * máscara de campos (byte): LEVEL, SCORE, START_SCORE, LIVES, POSITION, HEALTH
+ * LEVEL        número (varint) y nombre (varint con la longitud y UTF-8); empieza una base nueva
+ * SCORE...     cada campo presente, como varint (POSITION: x e y en zigzag)
+ * recogidos    número de bits que cambian (varint) y la distancia de cada uno al anterior (varint)
+ * muertos      igual que los recogidos
+ * </pre>
+ * El archivo empieza con MAGIC, VERSION, el número de registros y su longitud en bytes (int).
+ * Para cargar se parte del nivel que da LevelManager y se aplican los cambios encima.
+ */
+public final class SaveGame {
+    public static final int MAGIC = 0x53425356; // "SBSV"
+    public static final int VERSION = 1;
+
+    // Campos de un registro
+    static final int LEVEL = 1, SCORE = 2, START_SCORE = 4, LIVES = 8, POSITION = 16, HEALTH = 32;
+    // Mayor posición en las listas de un nivel que se acepta al leer; un BitSet hasta ahí ocupa 2 MB
+    static final int MAX_OBJECT = (1 << 24) - 1;
+
+    private final int levelNumber;
+    private final String levelName;
+    private final int score, levelStartScore, lives;
+    private final int playerX, playerY, health;
+    private final BitSet collected; // Posiciones de getCollectibles() ya recogidas
+    private final BitSet killed;    // Posiciones de getEnemies() con enemigos muertos
+
+    SaveGame(int levelNumber, String levelName, int score, int levelStartScore, int lives,
+             int playerX, int playerY, int health, BitSet collected, BitSet killed) {
+        this.levelNumber = levelNumber;
+        this.levelName = levelName;
+        this.score = score;
+        this.levelStartScore = levelStartScore;
+        this.lives = lives;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.health = health;
+        this.collected = collected;
+        this.killed = killed;
+    }
+
+    /**
+     * Si el estado de la simulación se puede guardar: hay una partida en curso en un nivel completo en memoria.
+     * Los niveles por trozos no, porque las posiciones de sus listas dependen de lo que se cargó.
+     */
+    public static boolean canCapture(Simulation simulation) {
+        Level level = simulation.getLevel();
+        return level != null && level.getStreamer() == null && simulation.getGameState() == GameState.PLAYING;
+    }
+
+    /**
+     * Toma el progreso de la simulación. Recorre las listas del nivel, así que se hace cada pocos segundos
+     * y no en cada tick. Debe llamarse desde el hilo que avanza la simulación.
+     * @param levelNumber Número del nivel actual en LevelManager, desde 1.
+     * @throws IllegalStateException Si no se puede guardar (ver canCapture).
+     */
+    public static SaveGame capture(Simulation simulation, int levelNumber) {
+        if (!canCapture(simulation)) {
+            throw new IllegalStateException("No hay una partida que se pueda guardar");
+        }
+        Level level = simulation.getLevel();
+        BitSet collected = new BitSet(level.getCollectibles().size());
+        BitSet killed = new BitSet(level.getEnemies().size());
+        level.findCollected(collected);
+        level.findKilled(killed);
+        Player player = simulation.getPlayer();
+        return new SaveGame(levelNumber, level.getName(), simulation.getScore(), simulation.getLevelStartScore(),
+            simulation.getLives(), (int) player.getBounds().getX(), (int) player.getBounds().getY(),
+            player.getHealth(), collected, killed);
+    }
+
+    /**
+     * Lee una partida guardada aplicando todos sus registros.
+     * @throws IOException Si no se puede leer.
+     * @throws IllegalArgumentException Si no es una partida guardada, es de otra versión o está dañada.
+     */
+    public static SaveGame read(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("No es una partida guardada de StreetBuds: " + file);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión de partida guardada no soportada: " + version);
+            }
+            int records = in.getInt();
+            int length = in.getInt();
+            if (records <= 0 || length != in.remaining()) {
+                throw new IllegalArgumentException("Partida guardada dañada: " + file);
+            }
+            SaveGame state = null;
+            for (int i = 0; i < records; i++) {
+                state = applyRecord(state, in);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Partida guardada dañada: sobran bytes tras el último registro");
+            }
+            return state;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Partida guardada dañada o incompleta: " + file, e);
+        }
+    }
+
+    /**
+     * Lee un registro y devuelve el estado resultante de aplicarlo sobre el anterior.
+     */
+    private static SaveGame applyRecord(SaveGame previous, ByteBuffer in) {
+        int fields = in.get();
+        if (previous == null && (fields & LEVEL) == 0) {
+            throw new IllegalArgumentException("Partida guardada dañada: el primer registro no es una base");
+        }
+        int levelNumber, score, levelStartScore, lives, playerX, playerY, health;
+        String levelName;
+        BitSet collected, killed;
+        if ((fields & LEVEL) != 0) {
+            levelNumber = (int) readVarLong(in);
+            long nameLength = readVarLong(in);
+            if (nameLength > in.remaining()) { // Antes de reservar: una longitud dañada pediría gigas
+                throw new IllegalArgumentException("Partida guardada dañada: nombre de nivel de " + nameLength
+                    + " bytes");
+            }
+            byte[] name = new byte[(int) nameLength];
+            in.get(name);
+            levelName = new String(name, StandardCharsets.UTF_8);
+            collected = new BitSet();
+            killed = new BitSet();
+        } else {
+            levelNumber = previous.levelNumber;
+            levelName = previous.levelName;
+            collected = (BitSet) previous.collected.clone();
+            killed = (BitSet) previous.killed.clone();
+        }
+        score = (fields & SCORE) != 0 ? (int) readVarLong(in) : previous.score;
+        levelStartScore = (fields & START_SCORE) != 0 ? (int) readVarLong(in) : previous.levelStartScore;
+        lives = (fields & LIVES) != 0 ? (int) readVarLong(in) : previous.lives;
+        if ((fields & POSITION) != 0) {
+            playerX = unzigzag(readVarLong(in));
+            playerY = unzigzag(readVarLong(in));
+        } else {
+            playerX = previous.playerX;
+            playerY = previous.playerY;
+        }
+        health = (fields & HEALTH) != 0 ? (int) readVarLong(in) : previous.health;
+        readFlips(in, collected);
+        readFlips(in, killed);
+        return new SaveGame(levelNumber, levelName, score, levelStartScore, lives, playerX, playerY, health,
+            collected, killed);
+    }
+
+    /**
+     * Aplica la partida a una simulación que acaba de empezar el nivel guardado con setLevel,
+     * con el nivel recién cargado de LevelManager.
+     * @throws IllegalArgumentException Si el nivel no es el guardado o no tiene los objetos guardados.
+     */
+    public void applyTo(Simulation simulation) {
+        Level level = simulation.getLevel();
+        if (level == null || !levelName.equals(level.getName())) {
+            throw new IllegalArgumentException("La partida guardada es del nivel " + levelName);
+        }
+        if (collected.length() > level.getCollectibles().size() || killed.length() > level.getEnemies().size()) {
+            throw new IllegalArgumentException("La partida guardada no corresponde al nivel " + levelName);
+        }
+        for (int id = collected.nextSetBit(0); id >= 0; id = collected.nextSetBit(id + 1)) {
+            if (level.getCollectibles().get(id) != null) {
+                level.collect(id);
+            }
+        }
+        for (int id = killed.nextSetBit(0); id >= 0; id = killed.nextSetBit(id + 1)) {
+            level.kill(id);
+        }
+        Player player = simulation.getPlayer();
+        player.setPosition(playerX, playerY);
+        player.setHealth(health);
+        simulation.restoreProgress(score, levelStartScore, lives);
+    }
+
+    /**
+     * Escribe este estado como un registro: completo (una base) si previous es null o es de otro nivel,
+     * o solo con lo que cambió desde previous.
+     * @return Si se escribió algo; nada si no cambió nada.
+     */
+    boolean writeRecord(SaveGame previous, ByteArrayOutputStream out) {
+        boolean base = previous == null || previous.levelNumber != levelNumber
+            || !previous.levelName.equals(levelName);
+        int fields = base ? LEVEL | SCORE | START_SCORE | LIVES | POSITION | HEALTH : 0;
+        if (!base) {
+            fields |= score != previous.score ? SCORE : 0;
+            fields |= levelStartScore != previous.levelStartScore ? START_SCORE : 0;
+            fields |= lives != previous.lives ? LIVES : 0;
+            fields |= playerX != previous.playerX || playerY != previous.playerY ? POSITION : 0;
+            fields |= health != previous.health ? HEALTH : 0;
+        }
+        BitSet collectedFlips = (BitSet) collected.clone();
+        BitSet killedFlips = (BitSet) killed.clone();
+        if (!base) {
+            collectedFlips.xor(previous.collected);
+            killedFlips.xor(previous.killed);
+            if (fields == 0 && collectedFlips.isEmpty() && killedFlips.isEmpty()) {
+                return false;
+            }
+        }
+        out.write(fields);
+        if (base) {
+            byte[] name = levelName.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, levelNumber);
+            writeVarLong(out, name.length);
+            out.write(name, 0, name.length);
+        }
+        if ((fields & SCORE) != 0) {
+            writeVarLong(out, score);
+        }
+        if ((fields & START_SCORE) != 0) {
+            writeVarLong(out, levelStartScore);
+        }
+        if ((fields & LIVES) != 0) {
+            writeVarLong(out, lives);
+        }
+        if ((fields & POSITION) != 0) {
+            writeVarLong(out, zigzag(playerX));
+            writeVarLong(out, zigzag(playerY));
+        }
+        if ((fields & HEALTH) != 0) {
+            writeVarLong(out, health);
+        }
+        writeFlips(out, collectedFlips);
+        writeFlips(out, killedFlips);
+        return true;
+    }
+
+    private static void writeFlips(ByteArrayOutputStream out, BitSet flips) {
+        writeVarLong(out, flips.cardinality());
+        int last = -1;
+        for (int id = flips.nextSetBit(0); id >= 0; id = flips.nextSetBit(id + 1)) {
+            writeVarLong(out, id - last - 1); // Distancia al anterior: los bits cercanos ocupan un byte
+            last = id;
+        }
+    }
+
+    private static void readFlips(ByteBuffer in, BitSet bits) {
+        long count = readVarLong(in);
+        if (count > in.remaining()) { // Cada bit ocupa al menos un byte
+            throw new IllegalArgumentException("Partida guardada dañada: " + count + " cambios de objetos");
+        }
+        long id = -1;
+        for (long i = 0; i < count; i++) {
+            id += readVarLong(in) + 1;
+            if (id < 0 || id > MAX_OBJECT) {
+                throw new IllegalArgumentException("Partida guardada dañada: objeto " + id);
+            }
+            bits.flip((int) id);
+        }
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL; // Los negativos pequeños también ocupan poco
+    }
+
+    private static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        // 7 bits por byte, el bit alto indica que sigue otro
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Partida guardada dañada: varint demasiado largo");
+    }
+
+    /**
+     * Número del nivel en LevelManager, desde 1.
+     */
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Número de coleccionables recogidos en el nivel.
+     */
+    public int getCollectedCount() {
+        return collected.cardinality();
+    }
+
+    /**
+     * Número de enemigos muertos en el nivel.
+     */
+    public int getKilledCount() {
+        return killed.cardinality();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SaveGame)) {
+            return false;
+        }
+        SaveGame that = (SaveGame) other;
+        return levelNumber == that.levelNumber && levelName.equals(that.levelName) && score == that.score
+            && levelStartScore == that.levelStartScore && lives == that.lives && playerX == that.playerX
+            && playerY == that.playerY && health == that.health && collected.equals(that.collected)
+            && killed.equals(that.killed);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(levelNumber, levelName, score, lives, playerX, playerY, health, collected, killed);
+    }
+}
@@ -0,0 +1,137 @@
+package streetbuds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Guarda partidas en un hilo aparte, para que el autoguardado nunca retrase un frame.
+ *
+ * El hilo del juego solo toma el estado con SaveGame.capture y lo entrega con save(). El hilo de guardado
+ * añade al diario un registro con lo que cambió desde el último guardado (o nada, si no cambió nada)
+ * y reescribe el archivo entero en un temporal, que al terminar sustituye al anterior con un renombrado
+ * atómico: si el juego se cierra a medias, queda la partida anterior completa y no un archivo roto.
+ *
+ * El diario empieza de nuevo desde una base al cambiar de nivel o al acumular MAX_DELTA_RECORDS
+ * registros de cambios, para que el archivo y la carga no crezcan sin límite.
+ * Si se piden varios guardados mientras se escribe uno, solo se escribe el último.
+ */
+public class SaveGameWriter {
+    static final int MAX_DELTA_RECORDS = 64; // Registros de cambios antes de volver a escribir una base
+
+    private final Path file;
+    private final Path temporary;
+    private final ExecutorService writer;
+    private final AtomicReference<SaveGame> pending = new AtomicReference<>(); // Último estado sin escribir
+
+    // Solo los usa el hilo de guardado
+    private final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+    private int records;      // Registros en el diario, contando la base
+    private SaveGame written; // Último estado añadido al diario
+    private volatile long writes;         // Archivos escritos
+    private volatile long lastWriteNanos; // Duración de la última escritura
+
+    /**
+     * Crea un guardado sobre el archivo indicado; el temporal va junto a él, con la extensión .tmp.
+     */
+    public SaveGameWriter(Path file) {
+        this.file = file.toAbsolutePath();
+        this.temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "StreetBuds-Guardado");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Pide guardar un estado y vuelve enseguida. Se puede llamar desde cualquier hilo, pero no después de close().
+     */
+    public void save(SaveGame state) {
+        if (pending.getAndSet(state) == null) {
+            writer.execute(this::writePending); // Si ya había uno pendiente, esa tarea escribirá este
+        }
+    }
+
+    /**
+     * Espera a que se escriba lo pendiente y termina el hilo de guardado; después no se puede guardar más.
+     * @return false si no terminó en el tiempo indicado.
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        writer.shutdown();
+        return writer.awaitTermination(timeout, unit);
+    }
+
+    private void writePending() {
+        SaveGame state = pending.getAndSet(null);
+        if (state == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean rebase = written == null || records > MAX_DELTA_RECORDS
+            || written.getLevelNumber() != state.getLevelNumber();
+        if (rebase) {
+            journal.reset();
+            records = 0;
+        }
+        if (!state.writeRecord(rebase ? null : written, journal)) {
+            return; // No cambió nada desde el último guardado
+        }
+        records++;
+        written = state;
+        try {
+            writeFile();
+            writes++;
+            lastWriteNanos = System.nanoTime() - start;
+        } catch (IOException e) {
+            System.err.println("Error al guardar la partida en " + file + ": " + e.getMessage());
+            written = null; // El diario ya no corresponde al archivo: la próxima vez se empieza desde una base
+        }
+    }
+
+    private void writeFile() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.putInt(SaveGame.MAGIC).putInt(SaveGame.VERSION).putInt(records).putInt(journal.size()).flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer body = ByteBuffer.wrap(journal.toByteArray());
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[] { header, body });
+            }
+            channel.force(true); // Que el contenido esté en disco antes de que el nombre apunte a él
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Archivos escritos hasta ahora.
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Duración de la última escritura en el hilo de guardado, en nanosegundos.
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+}
@@ -0,0 +1,542 @@
+package streetbuds;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Núcleo de la simulación del juego, independiente de Swing.
+ * Contiene el nivel, el jugador, la puntuación y las vidas, y avanza la lógica
+ * un tick fijo cada vez que se llama a step(). No dibuja nada ni depende de una pantalla.
+ * La cámara que sigue al jugador también se mueve aquí, para que lo que se actualiza sea determinista:
+ * con -Dstreetbuds.sim.updateMargin=N solo se actualizan los enemigos a menos de N píxeles de la vista.
+ *
+ * La fase de actualización se reparte en sistemas (GameSystem) que ejecuta un SystemScheduler;
+ * con -Dstreetbuds.sim.threads=N (0 = todos los procesadores) los independientes y los trozos
+ * del arquetipo de enemigos van en paralelo, con el mismo resultado que con un hilo.
+ *
+ * Lo que pasa en cada tick (enemigos derrotados, coleccionables, daño, nivel completado) se publica en un
+ * GameEventBus sin crear objetos; los efectos que no deciden la partida lo leen de ahí en vez de ejecutarse
+ * dentro de las colisiones. Las partículas se crean al final del tick en este hilo; el sonido, las estadísticas
+ * o la telemetría pueden suscribirse con getEvents() y vaciarlo desde sus propios hilos.
+ */
+public class Simulation {
+    public static final int TICKS_PER_SECOND = 60;             // Frecuencia fija de la simulación
+    public static final float TICK_SECONDS = 1.0f / TICKS_PER_SECOND; // Duración de un tick en segundos
+    private static final int INITIAL_LIVES = 3;                // Vidas al comenzar una partida
+    // Margen alrededor de la vista dentro del cual se actualizan los enemigos (-1 = todo el nivel)
+    private static final int UPDATE_MARGIN = Integer.getInteger("streetbuds.sim.updateMargin", -1);
+    // Hilos de la fase de actualización (1 = todo en el hilo del juego, 0 = todos los procesadores)
+    private static final int THREADS = Integer.getInteger("streetbuds.sim.threads", 1);
+    private static final GameState[] STATES = GameState.values(); // Para leer el estado sin copiar values()
+    // Eventos pendientes por suscripción antes de que el anillo pise los más viejos
+    private static final int EVENT_CAPACITY = Integer.getInteger("streetbuds.events", 1024);
+
+    private Player player;                   // Jugador principal
+    private Level level;                     // Nivel actual
+    private GameState gameState;             // Estado actual del juego
+    private int score;                       // Puntuación acumulada
+    private int levelStartScore;             // Puntuación al empezar el nivel actual
+    private int lives;                       // Vidas restantes
+    private long tickCount;                  // Número de ticks simulados desde el inicio del nivel
+    private ParticleSystem particleSystem;   // Sistema de partículas generado por la lógica
+    private final Camera camera = new Camera(); // Vista que sigue al jugador
+    private final FrameProfiler profiler = new FrameProfiler(); // Tiempos por fase (desactivado por defecto)
+    private final SystemScheduler scheduler;  // Sistemas de la fase de actualización
+    private final boolean[] keys = new boolean[256]; // Copia de las teclas tomada al empezar cada tick
+    private final GameClock clock = new GameClock(); // Tiempo de juego para los temporizadores
+    private InputRecorder recorder;           // Grabación de la entrada en curso, o null
+    private final GameEventBus events = new GameEventBus(EVENT_CAPACITY); // Lo que pasa en cada tick
+    private final GameEventBus.Subscription particleEvents = events.subscribe(); // Se vacía al final de cada tick
+    private final GameEvent.Handler spawnParticles = this::spawnParticles;
+
+    /**
+     * Crea una simulación vacía en el menú principal, con los hilos de streetbuds.sim.threads.
+     */
+    public Simulation() {
+        this(THREADS);
+    }
+
+    /**
+     * Crea una simulación vacía en el menú principal.
+     * @param threads Hilos de la fase de actualización; 1 para no crear ninguno, 0 para usar todos los procesadores.
+     */
+    public Simulation(int threads) {
+        this.player = new Player(100, 400); // Crear el jugador en una posición inicial
+        this.gameState = GameState.MENU;
+        this.score = 0;
+        this.lives = INITIAL_LIVES;
+        this.particleSystem = new ParticleSystem();
+        this.player.setClock(clock);
+        this.scheduler = new SystemScheduler(threads, profiler);
+        addSystems();
+    }
+
+    /**
+     * Registra los sistemas de un tick en el orden de la lógica original.
+     * Lo que declaran que leen y escriben decide qué puede ir en paralelo.
+     */
+    private void addSystems() {
+        if (UPDATE_MARGIN < 0) {
+            // Movimiento de todos los enemigos, trozo a trozo del arquetipo
+            scheduler.add(new GameSystem("enemigos.movimiento", FrameProfiler.UPDATE_LEVEL,
+                    0, GameSystem.ENEMIES) {
+                @Override
+                public int size() {
+                    return level.getEnemyChunkCount();
+                }
+
+                @Override
+                public void run(int from, int to) {
+                    level.moveEnemies(from, to);
+                }
+            });
+            scheduler.add(new GameSystem("enemigos.indice", FrameProfiler.UPDATE_LEVEL,
+                    0, GameSystem.ENEMIES | GameSystem.ENEMY_GRID) {
+                @Override
+                public void run(int from, int to) {
+                    level.syncEnemies();
+                }
+            });
+        } else {
+            // Solo los enemigos cerca de la vista; los lejanos esperan congelados
+            scheduler.add(new GameSystem("enemigos.zona", FrameProfiler.UPDATE_LEVEL,
+                    0, GameSystem.ENEMIES | GameSystem.ENEMY_GRID) {
+                @Override
+                public void run(int from, int to) {
+                    level.update(camera.getX() - UPDATE_MARGIN, camera.getY() - UPDATE_MARGIN,
+                        camera.getWidth() + 2 * UPDATE_MARGIN, camera.getHeight() + 2 * UPDATE_MARGIN);
+                }
+            });
+        }
+        scheduler.add(new GameSystem("particulas", FrameProfiler.UPDATE_PARTICLES, 0, GameSystem.PARTICLES) {
+            @Override
+            public void run(int from, int to) {
+                particleSystem.update(TICK_SECONDS); // Mover y apagar las partículas
+            }
+        });
+        // El jugador incluye su invulnerabilidad tras recibir daño
+        scheduler.add(new GameSystem("jugador", FrameProfiler.UPDATE_PLAYER, GameSystem.PLATFORMS, GameSystem.PLAYER) {
+            @Override
+            public void run(int from, int to) {
+                player.update(keys, level.getPlatforms(), level.getPlatformGrid()); // Actualizar el jugador
+            }
+        });
+        scheduler.add(new GameSystem("colisiones.enemigos", FrameProfiler.UPDATE_ENEMIES, GameSystem.ENEMY_GRID,
+                GameSystem.ENEMIES | GameSystem.PLAYER | GameSystem.PROGRESS) {
+            @Override
+            public void run(int from, int to) {
+                collideEnemies(player.getBounds());
+            }
+        });
+        scheduler.add(new GameSystem("colisiones.coleccionables", FrameProfiler.UPDATE_COLLECTIBLES, GameSystem.PLAYER,
+                GameSystem.COLLECTIBLES | GameSystem.PARTICLES | GameSystem.PROGRESS) {
+            @Override
+            public void run(int from, int to) {
+                if (gameState != GameState.GAME_OVER) {
+                    collectItems(player.getBounds());
+                }
+            }
+        });
+    }
+
+    /**
+     * Establece el nivel a simular y pasa al estado de juego.
+     * @param level Nivel a simular.
+     */
+    public void setLevel(Level level) {
+        if (recorder != null) {
+            recorder.levelStarted(level); // Antes de que el nivel cambie
+        }
+        startLevel(level);
+    }
+
+    /**
+     * Empieza a simular un nivel sin avisar a la grabación.
+     */
+    private void startLevel(Level level) {
+        this.level = level;
+        if (level != null) {
+            level.setClock(clock);
+            // Empezar en el punto de aparición del nivel; también es donde se reaparece
+            Point spawn = level.getPlayerSpawnPoint();
+            player.setSpawnPoint(spawn);
+            player.setPosition(spawn.x, spawn.y);
+            player.setWorldBounds(level.getWidth(), level.getHeight());
+            camera.centerOn(player.getCenterX(), player.getCenterY(), level.getWidth(), level.getHeight());
+            level.stream(camera); // Cargar lo que rodea al jugador en los niveles por trozos
+        }
+        this.levelStartScore = score; // Cada nivel pide su puntuación desde que empieza
+        this.gameState = GameState.PLAYING;
+        this.tickCount = 0;
+        this.particleSystem.clear();
+    }
+
+    /**
+     * Reinicia la partida sobre el nivel actual: puntuación, vidas y posición del jugador.
+     */
+    public void restart() {
+        score = 0;
+        lives = INITIAL_LIVES;
+        player.respawn();
+        if (recorder != null) {
+            recorder.restarted();
+        }
+        startLevel(level);
+    }
+
+    /**
+     * Pone la puntuación y las vidas de una partida guardada; el nivel ya debe estar puesto con setLevel.
+     * Una grabación en curso se detiene, porque la entrada ya no explica el estado.
+     * @param levelStartScore Puntuación que se tenía al empezar el nivel.
+     */
+    void restoreProgress(int score, int levelStartScore, int lives) {
+        if (recorder != null) {
+            recorder.stop("se cargó una partida guardada");
+        }
+        this.score = score;
+        this.levelStartScore = levelStartScore;
+        this.lives = lives;
+    }
+
+    /**
+     * Puntuación que se tenía al empezar el nivel actual.
+     */
+    public int getLevelStartScore() {
+        return levelStartScore;
+    }
+
+    /**
+     * Empieza o termina de grabar la entrada de cada tick. Para poder reproducirla,
+     * la grabación debe empezar antes del primer setLevel de una simulación nueva.
+     * @param recorder Grabación que recibe cada tick, o null para dejar de grabar.
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public InputRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Avanza la simulación exactamente un tick.
+     * Solo tiene efecto mientras el juego está en curso.
+     * Si JFR está grabando emite un GameTickEvent con la duración del tick.
+     * @param keys Estado de las teclas presionadas; se copia al empezar, así que el tick entero
+     *             ve la misma entrada aunque otro hilo la cambie mientras tanto.
+     */
+    public void step(boolean[] keys) {
+        if (gameState != GameState.PLAYING || level == null) {
+            return;
+        }
+        GameTickEvent event = new GameTickEvent(); // Sin grabación el JIT elimina el objeto
+        event.begin();
+        System.arraycopy(keys, 0, this.keys, 0, this.keys.length);
+        if (recorder != null) {
+            recorder.record(this.keys);
+        }
+        tick();
+        if (recorder != null) {
+            recorder.ticked(this);
+        }
+        if (event.shouldCommit()) {
+            event.tick = tickCount;
+            event.enemies = level.getEnemyGrid().size();
+            event.collectibles = level.getCollectibleGrid().size();
+            event.platforms = level.getPlatformGrid().size();
+            event.particles = particleSystem.getCount();
+            event.gameState = gameState.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Lógica de un tick de juego: los sistemas de actualización y después la cámara.
+     */
+    private void tick() {
+        tickCount++;
+        clock.advance();
+        scheduler.run();
+        particleEvents.drain(spawnParticles); // En este hilo y en cada tick, para que sigan siendo deterministas
+        if (gameState == GameState.GAME_OVER) {
+            return;
+        }
+
+        // Mover la cámara cuando el jugador ya está en su posición final del tick (también tras reaparecer)
+        // y cargar los trozos que rodean la vista antes del siguiente tick
+        long t = profiler.mark();
+        camera.follow(player.getCenterX(), player.getCenterY(), level.getWidth(), level.getHeight());
+        level.stream(camera);
+        profiler.lap(FrameProfiler.UPDATE_LEVEL, t);
+
+        // Verificar si se completó el nivel
+        if (score - levelStartScore >= level.getScoreToComplete()) {
+            gameState = GameState.LEVEL_COMPLETE;
+            events.publish(GameEvent.Type.LEVEL_COMPLETED, tickCount, 0, (int) player.getCenterX(),
+                (int) player.getCenterY(), score);
+        }
+    }
+
+    /**
+     * Efectos visuales de los eventos del tick: una explosión de partículas por coleccionable recogido.
+     */
+    private void spawnParticles(GameEvent event) {
+        if (event.getType() == GameEvent.Type.ITEM_COLLECTED) {
+            particleSystem.createExplosion(event.getX(), event.getY(), 20, Color.YELLOW);
+        }
+    }
+
+    /**
+     * Resuelve los choques del jugador con los enemigos cercanos; si pierde su última vida
+     * la partida pasa a GAME_OVER.
+     * Cada fase de colisiones va en su propio método para que el JIT pueda compilarla entera
+     * y eliminar su CollisionEvent cuando JFR no graba.
+     */
+    private void collideEnemies(Rectangle2D playerBounds) {
+        ArrayList<Enemy> enemies = level.getEnemies();
+        SpatialGrid enemyGrid = level.getEnemyGrid();
+        CollisionEvent enemyEvent = new CollisionEvent();
+        enemyEvent.begin();
+        int enemyHits = 0;
+        int nearbyEnemies = enemyGrid.query(playerBounds.getX(), playerBounds.getY(),
+            playerBounds.getWidth(), playerBounds.getHeight());
+        if (SpatialGrid.VERIFY) {
+            for (int i = 0; i < enemies.size(); i++) {
+                Enemy enemy = enemies.get(i);
+                verifyHit(enemyGrid, i, enemy != null && enemy.isAlive()
+                    && intersectsPlayer(enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight()));
+            }
+        }
+        // Los componentes se leen del arquetipo del nivel; los muertos ya no tienen fila
+        EntityTable enemyTable = level.getEnemyTable();
+        for (int r = 0; r < nearbyEnemies; r++) {
+            int id = enemyGrid.getResult(r);
+            int row = enemyTable.rowOf(id);
+            if (row >= 0 && enemyTable.hasFlag(row, EntityTable.ALIVE)) {
+                // Si el jugador está atacando (saltando sobre el enemigo)
+                if (player.isAttacking() && playerBounds.getY() < enemyTable.getY(row)) {
+                    enemyHits++;
+                    enemies.get(id).takeDamage(1, true, clock); // El enemigo recibe daño y muere
+                    player.jump(); // El jugador rebota
+                    score += 100; // Incrementar la puntuación
+                    events.publish(GameEvent.Type.ENEMY_KILLED, tickCount, id,
+                        enemyTable.getX(row) + enemyTable.getWidth(row) / 2,
+                        enemyTable.getY(row) + enemyTable.getHeight(row) / 2, 100);
+                } else if (!enemyTable.hasFlag(row, EntityTable.STUNNED)) {
+                    int health = player.getHealth();
+                    player.takeDamage(enemyTable.getValue(row)); // El jugador recibe daño
+                    if (player.getHealth() != health) { // Durante la invulnerabilidad el choque no cuenta
+                        enemyHits++;
+                        events.publish(GameEvent.Type.PLAYER_DAMAGED, tickCount, 0, (int) player.getCenterX(),
+                            (int) player.getCenterY(), health - player.getHealth());
+                    }
+                    if (player.getHealth() <= 0) {
+                        lives--; // Reducir vidas
+                        if (lives <= 0) {
+                            gameState = GameState.GAME_OVER; // Fin del juego
+                            break;
+                        }
+                        player.respawn(); // Reaparecer al jugador
+                    }
+                }
+            }
+        }
+        // Un único punto de emisión: una llamada sin compilar en línea haría escapar el evento
+        commitCollision(enemyEvent, "enemigos", nearbyEnemies, enemyHits);
+    }
+
+    /**
+     * Recoge los coleccionables que toca el jugador.
+     */
+    private void collectItems(Rectangle2D playerBounds) {
+        ArrayList<Collectible> collectibles = level.getCollectibles();
+        SpatialGrid collectibleGrid = level.getCollectibleGrid();
+        CollisionEvent collectibleEvent = new CollisionEvent();
+        collectibleEvent.begin();
+        int collected = 0;
+        int nearbyCollectibles = collectibleGrid.query(playerBounds.getX(), playerBounds.getY(),
+            playerBounds.getWidth(), playerBounds.getHeight());
+        if (SpatialGrid.VERIFY) {
+            for (int i = 0; i < collectibles.size(); i++) {
+                Collectible collectible = collectibles.get(i);
+                verifyHit(collectibleGrid, i, collectible != null && !collectible.isCollected()
+                    && intersectsPlayer(collectible.getX(), collectible.getY(),
+                        collectible.getWidth(), collectible.getHeight()));
+            }
+        }
+        for (int r = 0; r < nearbyCollectibles; r++) {
+            int index = collectibleGrid.getResult(r);
+            Collectible collectible = collectibles.get(index);
+            if (!collectible.isCollected()) {
+                level.collect(index); // Marcar el coleccionable como recogido
+                collected++;
+                score += collectible.getValue(); // Incrementar la puntuación
+                // Las partículas las crea spawnParticles() al final del tick
+                events.publish(GameEvent.Type.ITEM_COLLECTED, tickCount, index, (int) collectible.getCenterX(),
+                    (int) collectible.getCenterY(), collectible.getValue());
+            }
+        }
+        commitCollision(collectibleEvent, "coleccionables", nearbyCollectibles, collected);
+    }
+
+    /**
+     * Emite el evento de una fase de colisiones si JFR lo pide y hubo algún candidato.
+     */
+    private static void commitCollision(CollisionEvent event, String phase, int candidates, int hits) {
+        if (candidates > 0 && event.shouldCommit()) {
+            event.phase = phase;
+            event.candidates = candidates;
+            event.hits = hits;
+            event.commit();
+        }
+    }
+
+    /**
+     * Verifica si un rectángulo entero intersecta la hitbox del jugador sin crear objetos.
+     */
+    private boolean intersectsPlayer(int x, int y, int width, int height) {
+        Rectangle2D playerBounds = player.getBounds();
+        return Bounds.intersects(x, y, width, height,
+            playerBounds.getX(), playerBounds.getY(), playerBounds.getWidth(), playerBounds.getHeight());
+    }
+
+    /**
+     * Comprueba, en modo de verificación, que el índice espacial coincide con la búsqueda lineal.
+     */
+    private static void verifyHit(SpatialGrid grid, int index, boolean expected) {
+        if (grid.resultContains(index) != expected) {
+            throw new IllegalStateException("Índice espacial inconsistente para el objeto " + index
+                + ": esperado " + expected);
+        }
+    }
+
+    /**
+     * Resumen del estado que decide la partida: puntuación, vidas, estado, reloj, jugador
+     * y los componentes de los enemigos y coleccionables del nivel. Dos simulaciones con la misma
+     * entrada dan el mismo valor en cada tick; las partículas no cuentan porque son solo visuales.
+     * No crea objetos.
+     */
+    public long checksum() {
+        long hash = 0xCBF29CE484222325L;
+        hash = mix(hash, score);
+        hash = mix(hash, lives);
+        hash = mix(hash, gameState.ordinal());
+        hash = mix(hash, clock.getTick());
+        Rectangle2D bounds = player.getBounds();
+        hash = mix(hash, Double.doubleToLongBits(bounds.getX()));
+        hash = mix(hash, Double.doubleToLongBits(bounds.getY()));
+        hash = mix(hash, player.getHealth());
+        if (level != null) {
+            EntityTable enemies = level.getEnemyTable();
+            hash = mix(hash, enemies.size());
+            for (int row = 0; row < enemies.size(); row++) {
+                hash = mix(hash, enemies.idAt(row));
+                hash = mix(hash, enemies.getX(row));
+                hash = mix(hash, enemies.getY(row));
+                hash = mix(hash, enemies.getVelocityX(row));
+                hash = mix(hash, enemies.getHealth(row));
+                hash = mix(hash, enemies.getFlags(row));
+            }
+            EntityTable collectibles = level.getCollectibleTable();
+            hash = mix(hash, collectibles.size());
+            for (int row = 0; row < collectibles.size(); row++) {
+                hash = mix(hash, collectibles.idAt(row));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Escribe en un búfer todo el estado de la simulación en el nivel actual, para SimulationSnapshot.
+     */
+    void writeState(ByteBuffer out) {
+        out.putInt(gameState.ordinal());
+        out.putInt(score).putInt(levelStartScore).putInt(lives);
+        out.putLong(tickCount).putLong(clock.getTick());
+        player.writeState(out);
+        camera.writeState(out);
+        particleSystem.writeState(out);
+        level.writeState(out);
+    }
+
+    /**
+     * Vuelve al estado escrito con writeState() sobre el mismo nivel.
+     * Una grabación en curso se detiene, porque la entrada ya no explica el estado.
+     */
+    void readState(ByteBuffer in) {
+        if (recorder != null) {
+            recorder.stop("la simulación volvió a una instantánea");
+        }
+        gameState = STATES[in.getInt()];
+        score = in.getInt();
+        levelStartScore = in.getInt();
+        lives = in.getInt();
+        tickCount = in.getLong();
+        clock.setTick(in.getLong());
+        player.readState(in);
+        camera.readState(in);
+        particleSystem.readState(in);
+        level.readState(in);
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L; // FNV-1a sobre valores de 64 bits
+    }
+
+    /**
+     * Cierra los hilos de la fase de actualización, si los hay. La simulación no debe avanzarse después.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    public SystemScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Eventos de la partida, para suscribirse a ellos. Una suscripción que no se vacía a tiempo pierde
+     * sus eventos más viejos (ver Subscription.getOverrun()), sin afectar a las demás.
+     */
+    public GameEventBus getEvents() {
+        return events;
+    }
+
+    public ParticleSystem getParticleSystem() {
+        return particleSystem;
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+}
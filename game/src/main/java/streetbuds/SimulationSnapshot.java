@@ -0,0 +1,209 @@
+package streetbuds;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Instantánea binaria de todo el estado de una simulación en su nivel actual, para volver atrás
+ * (rebobinar, rollback) sin la lentitud ni la basura de la serialización de Java.
+ *
+ * Cada clase escribe sus campos en un ByteBuffer propio de la instantánea, que se reutiliza
+ * en cada captura y solo crece (al doble) si el estado ya no cabe. Las columnas de los arquetipos
+ * y de las partículas se copian de una vez, así que capturar o restaurar un nivel normal
+ * cuesta microsegundos. Los únicos objetos que se crean son las vistas del búfer con las que se copian
+ * las columnas largas (de BULK_COPY_MIN valores o más), pequeñas y de vida cortísima.
+ *
+ * El contenido del nivel que no cambia durante la partida (plataformas, fondo, tamaño) no se copia:
+ * la instantánea recuerda el nivel y solo se puede restaurar sobre ese mismo nivel.
+ * Los niveles por trozos no se pueden capturar, porque su contenido depende de lo que se cargó.
+ */
+public final class SimulationSnapshot {
+    private static final int DEFAULT_CAPACITY = 64 * 1024; // Bytes iniciales del búfer
+    private static final int BULK_COPY_MIN = 32;           // Valores a partir de los que una columna se copia de una vez
+
+    private ByteBuffer buffer; // Estado capturado, de 0 a limit()
+    private Level level;       // Nivel capturado, o null si la instantánea está vacía
+    private long tick;         // Tick del reloj de la simulación al capturar
+
+    /**
+     * Crea una instantánea vacía con el búfer por defecto.
+     */
+    public SimulationSnapshot() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea una instantánea vacía con un búfer del tamaño indicado, para no tener que ampliarlo luego.
+     * @param capacity Bytes iniciales del búfer.
+     */
+    public SimulationSnapshot(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        buffer = allocate(capacity);
+    }
+
+    /**
+     * Si la simulación está en un nivel que se puede capturar.
+     */
+    public static boolean canCapture(Simulation simulation) {
+        Level current = simulation.getLevel();
+        return current != null && current.getStreamer() == null;
+    }
+
+    /**
+     * Copia el estado de la simulación, sustituyendo lo capturado antes.
+     * Debe llamarse entre ticks, desde el hilo que avanza la simulación.
+     * @throws IllegalStateException Si no hay nivel o el nivel se carga por trozos.
+     */
+    public void capture(Simulation simulation) {
+        if (!canCapture(simulation)) {
+            throw new IllegalStateException(simulation.getLevel() == null ? "No hay nivel que capturar"
+                : "No se puede capturar un nivel que se carga por trozos: " + simulation.getLevel().getName());
+        }
+        while (true) {
+            buffer.clear();
+            try {
+                simulation.writeState(buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = allocate(buffer.capacity() * 2); // El estado creció; se vuelve a escribir entero
+            }
+        }
+        buffer.flip();
+        level = simulation.getLevel();
+        tick = level.getClock().getTick();
+    }
+
+    /**
+     * Devuelve la simulación al estado capturado. La instantánea no cambia y se puede restaurar otra vez.
+     * @throws IllegalStateException Si está vacía o la simulación está en otro nivel.
+     */
+    public void restore(Simulation simulation) {
+        if (level == null) {
+            throw new IllegalStateException("La instantánea está vacía");
+        }
+        if (simulation.getLevel() != level) {
+            throw new IllegalStateException("La instantánea es del nivel " + level.getName()
+                + " y no del nivel actual");
+        }
+        buffer.rewind();
+        simulation.readState(buffer);
+    }
+
+    /**
+     * Vacía la instantánea y suelta la referencia al nivel; el búfer se conserva.
+     */
+    public void clear() {
+        level = null;
+        buffer.clear().limit(0);
+    }
+
+    public boolean isEmpty() {
+        return level == null;
+    }
+
+    /**
+     * Nivel capturado, o null si está vacía.
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Tick del reloj de la simulación en el momento de la captura.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Bytes que ocupa el estado capturado.
+     */
+    public int getSize() {
+        return level != null ? buffer.limit() : 0;
+    }
+
+    /**
+     * Bytes reservados para el búfer.
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        // Fuera del heap y en el orden nativo: las copias de columnas son copias de memoria directas
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    // Copias de columnas completas; avanzan la posición del búfer como los put/get de un valor.
+    // Las columnas cortas se copian valor a valor; las largas de una vez a través de una vista del búfer,
+    // que es mucho más rápido aunque cada vista sea un objeto pequeño.
+
+    static void putInts(ByteBuffer out, int[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                out.putInt(values[i]);
+            }
+            return;
+        }
+        out.asIntBuffer().put(values, from, length);
+        out.position(out.position() + length * Integer.BYTES);
+    }
+
+    static void getInts(ByteBuffer in, int[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                values[i] = in.getInt();
+            }
+            return;
+        }
+        in.asIntBuffer().get(values, from, length);
+        in.position(in.position() + length * Integer.BYTES);
+    }
+
+    static void putLongs(ByteBuffer out, long[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                out.putLong(values[i]);
+            }
+            return;
+        }
+        out.asLongBuffer().put(values, from, length);
+        out.position(out.position() + length * Long.BYTES);
+    }
+
+    static void getLongs(ByteBuffer in, long[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                values[i] = in.getLong();
+            }
+            return;
+        }
+        in.asLongBuffer().get(values, from, length);
+        in.position(in.position() + length * Long.BYTES);
+    }
+
+    static void putFloats(ByteBuffer out, float[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                out.putFloat(values[i]);
+            }
+            return;
+        }
+        out.asFloatBuffer().put(values, from, length);
+        out.position(out.position() + length * Float.BYTES);
+    }
+
+    static void getFloats(ByteBuffer in, float[] values, int from, int length) {
+        if (length < BULK_COPY_MIN) {
+            for (int i = from; i < from + length; i++) {
+                values[i] = in.getFloat();
+            }
+            return;
+        }
+        in.asFloatBuffer().get(values, from, length);
+        in.position(in.position() + length * Float.BYTES);
+    }
+}
@@ -0,0 +1,98 @@
+package streetbuds;
+
+/**
+ * Anillo con las instantáneas de los últimos ticks de una simulación, para rebobinar o hacer rollback.
+ * Las instantáneas y sus búferes se crean una vez y se reutilizan en cada vuelta,
+ * así que guardar un tick no crea objetos una vez que los búferes alcanzan el tamaño del estado.
+ *
+ * Al cambiar de nivel las instantáneas anteriores dejan de servir y se descartan;
+ * en los niveles por trozos no se guarda nada.
+ */
+public final class SnapshotRing {
+    private final SimulationSnapshot[] slots;
+    private int next;  // Ranura de la próxima captura
+    private int count; // Instantáneas guardadas, de la más nueva hacia atrás
+
+    /**
+     * Crea un anillo para los últimos ticks indicados.
+     * @param capacity Número de instantáneas.
+     * @param bytesPerSnapshot Tamaño inicial del búfer de cada una.
+     */
+    public SnapshotRing(int capacity, int bytesPerSnapshot) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        slots = new SimulationSnapshot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new SimulationSnapshot(bytesPerSnapshot);
+        }
+    }
+
+    /**
+     * Guarda el estado actual de la simulación como la instantánea más nueva.
+     * @return false si el nivel no se puede capturar y no se guardó nada.
+     */
+    public boolean record(Simulation simulation) {
+        if (!SimulationSnapshot.canCapture(simulation)) {
+            clear();
+            return false;
+        }
+        if (count > 0 && newest().getLevel() != simulation.getLevel()) {
+            clear(); // Las anteriores son de otro nivel
+        }
+        slots[next].capture(simulation);
+        next = (next + 1) % slots.length;
+        count = Math.min(count + 1, slots.length);
+        return true;
+    }
+
+    /**
+     * Vuelve a la instantánea guardada hace ticksBack capturas (0 = la más nueva)
+     * y descarta las posteriores, de modo que las siguientes capturas continúan desde ahí.
+     * @throws IllegalArgumentException Si no hay tantas instantáneas.
+     */
+    public void rewind(Simulation simulation, int ticksBack) {
+        if (ticksBack < 0 || ticksBack >= count) {
+            throw new IllegalArgumentException("Solo hay " + count + " instantáneas; no se puede volver " + ticksBack);
+        }
+        int slot = Math.floorMod(next - 1 - ticksBack, slots.length);
+        slots[slot].restore(simulation);
+        next = (slot + 1) % slots.length;
+        count -= ticksBack;
+    }
+
+    /**
+     * Descarta todas las instantáneas; los búferes se conservan.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            slots[Math.floorMod(next - 1 - i, slots.length)].clear();
+        }
+        count = 0;
+    }
+
+    /**
+     * Número de instantáneas guardadas, como máximo getCapacity().
+     */
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Tick del reloj de la simulación de la instantánea guardada hace ticksBack capturas.
+     */
+    public long getTick(int ticksBack) {
+        if (ticksBack < 0 || ticksBack >= count) {
+            throw new IllegalArgumentException("Solo hay " + count + " instantáneas: " + ticksBack);
+        }
+        return slots[Math.floorMod(next - 1 - ticksBack, slots.length)].getTick();
+    }
+
+    private SimulationSnapshot newest() {
+        return slots[Math.floorMod(next - 1, slots.length)];
+    }
+}
@@ -0,0 +1,98 @@
+package streetbuds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * Un efecto de sonido decodificado una sola vez a PCM en el formato de AudioMixer.
+ *
+ * Las muestras se comparten entre todas las voces que lo reproducen: cada voz solo guarda
+ * su posición, así que el mismo efecto puede sonar varias veces a la vez sin copiarse ni cortarse.
+ */
+public final class SoundEffect {
+    private final String name;
+    private final short[] samples; // Estéreo intercalado: izquierda, derecha, izquierda...
+
+    /**
+     * @param name Nombre, para los mensajes.
+     * @param samples Muestras estéreo intercaladas a AudioMixer.SAMPLE_RATE; no se copian ni deben modificarse.
+     */
+    public SoundEffect(String name, short[] samples) {
+        if ((samples.length & 1) != 0) {
+            throw new IllegalArgumentException("Las muestras deben ser estéreo intercaladas: " + samples.length);
+        }
+        this.name = name;
+        this.samples = samples;
+    }
+
+    /**
+     * Decodifica un audio completo, convirtiéndolo al formato del mezclador si hace falta.
+     * Los sonidos mono se duplican en los dos canales.
+     * @throws IllegalArgumentException Si Java Sound no sabe convertir el formato de origen.
+     */
+    public static SoundEffect decode(String name, AudioInputStream source) throws IOException {
+        AudioFormat from = source.getFormat();
+        int channels = from.getChannels();
+        if (channels != 1 && channels != 2) {
+            throw new IllegalArgumentException("Sonido con " + channels + " canales: " + name);
+        }
+        AudioFormat to = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, AudioMixer.SAMPLE_RATE, 16, channels,
+            2 * channels, AudioMixer.SAMPLE_RATE, false);
+        byte[] bytes;
+        try (InputStream in = from.matches(to) ? source : AudioSystem.getAudioInputStream(to, source)) {
+            bytes = in.readAllBytes();
+        }
+        int count = bytes.length / 2;
+        short[] samples = new short[channels == 1 ? count * 2 : count & ~1];
+        for (int i = 0; i < count; i++) {
+            short sample = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+            if (channels == 1) {
+                samples[2 * i] = sample;
+                samples[2 * i + 1] = sample;
+            } else if (i < samples.length) {
+                samples[i] = sample;
+            }
+        }
+        return new SoundEffect(name, samples);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Muestras intercaladas, compartidas: no deben modificarse.
+     */
+    short[] samples() {
+        return samples;
+    }
+
+    /**
+     * Copia las muestras en bytes en el formato AudioMixer.FORMAT, por ejemplo para abrir un Clip.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            bytes[2 * i] = (byte) samples[i];
+            bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Duración en frames (una muestra por canal).
+     */
+    public int getFrames() {
+        return samples.length / 2;
+    }
+
+    /**
+     * Bytes que ocupan las muestras en memoria.
+     */
+    public long getBytes() {
+        return samples.length * 2L;
+    }
+}
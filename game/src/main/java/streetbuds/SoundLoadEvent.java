@@ -0,0 +1,28 @@
+package streetbuds;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de JFR emitido por cada sonido que AssetManager lee y decodifica, con éxito o sin él.
+ * La duración es la de abrir el archivo y decodificarlo en el hilo de carga, sin la espera en la cola.
+ * Los sonidos que salen de la caché o que esperan a otra carga del mismo archivo no emiten nada.
+ */
+@Name("streetbuds.SoundLoad")
+@Label("Carga de sonido")
+@Category({"StreetBuds", "Sonido"})
+@Description("Lectura y decodificación de un sonido en AssetManager")
+public class SoundLoadEvent extends jdk.jfr.Event {
+    @Label("Archivo")
+    String path;
+
+    @Label("Tamaño")
+    @DataAmount
+    long bytes;
+
+    @Label("Correcto")
+    boolean success;
+}
@@ -0,0 +1,187 @@
+package streetbuds;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sound.sampled.*;
+
+/**
+ * Efectos y música del juego.
+ *
+ * Los efectos se decodifican una vez a PCM (SoundEffect) y suenan a través de un AudioMixer, que los suma
+ * en una sola SourceDataLine desde el hilo "StreetBuds-Audio": el mismo efecto puede solaparse consigo mismo
+ * y no se abre una línea nativa por sonido. Si no hay dispositivo de audio, los efectos se mezclan igual
+ * pero no suenan.
+ *
+ * La música sigue en un Clip propio, porque se repite entera y no compensa mezclarla con los efectos.
+ *
+ * Efectos y música se decodifican en AssetManager, sin bloquear a quien los pide: un efecto que aún no ha
+ * terminado de cargarse no suena, y la música empieza cuando está lista. Volver a pedir un archivo ya
+ * decodificado lo saca de la caché.
+ */
+public class SoundManager {
+    private static final int VOICES = Integer.getInteger("streetbuds.voices", 16); // Efectos a la vez
+    private static final int WRITE_FRAMES = 512;     // Frames que mezcla el hilo de audio en cada escritura (~12 ms)
+    private static final int LINE_FRAMES = 4 * WRITE_FRAMES; // Buffer de la línea: la latencia de los efectos
+
+    private final Map<String, SoundEffect> soundEffects; // Los rellenan los hilos de AssetManager
+    private final AudioMixer mixer = new AudioMixer(VOICES);
+    private SourceDataLine line;
+    private Thread audioThread;
+    private volatile boolean running;
+    private Clip backgroundMusic;
+    private String musicPath; // Última música pedida, para descartar las que terminen de cargarse después
+    private float volume = 0.5f; // Volumen por defecto (0.0 a 1.0)
+
+    private SoundManager() {
+        soundEffects = new ConcurrentHashMap<>();
+        mixer.setMasterVolume(volume);
+        openLine();
+    }
+
+    /**
+     * Una sola instancia aunque la pidan a la vez varios hilos (el de Swing y los de AssetManager): cada una
+     * abriría su propia línea y su hilo de audio.
+     */
+    private static final class Holder {
+        static final SoundManager INSTANCE = new SoundManager();
+    }
+
+    public static SoundManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Abre la línea de salida y arranca el hilo que la alimenta con el mezclador.
+     */
+    private void openLine() {
+        try {
+            line = AudioSystem.getSourceDataLine(AudioMixer.FORMAT);
+            line.open(AudioMixer.FORMAT, LINE_FRAMES * AudioMixer.FRAME_BYTES);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("Sin salida de audio: " + e.getMessage());
+            line = null;
+            return;
+        }
+        line.start();
+        running = true;
+        audioThread = new Thread(this::feedLine, "StreetBuds-Audio");
+        audioThread.setDaemon(true);
+        audioThread.setPriority(Thread.MAX_PRIORITY); // Un hueco en la línea se oye
+        audioThread.start();
+    }
+
+    /**
+     * Bucle del hilo de audio: write() bloquea mientras la línea está llena, y eso marca el ritmo.
+     */
+    private void feedLine() {
+        byte[] buffer = new byte[WRITE_FRAMES * AudioMixer.FRAME_BYTES];
+        while (running) {
+            mixer.render(buffer, 0, WRITE_FRAMES);
+            line.write(buffer, 0, buffer.length);
+        }
+        line.drain();
+        line.close();
+    }
+
+    /**
+     * Pide decodificar un efecto; vuelve enseguida y el efecto suena en cuanto esté cargado.
+     */
+    public void loadSound(String name, String filePath) {
+        AssetManager.getInstance().loadSound(filePath).whenComplete((effect, error) -> {
+            if (error == null) {
+                soundEffects.put(name, effect);
+            } else {
+                System.err.println("Error al cargar el sonido: " + cause(error).getMessage());
+            }
+        });
+    }
+
+    public void playSound(String name) {
+        playSound(name, 0);
+    }
+
+    /**
+     * Reproduce un efecto; si no quedan voces libres, quita la suya a uno de prioridad menor o igual.
+     */
+    public void playSound(String name, int priority) {
+        SoundEffect effect = soundEffects.get(name);
+        if (effect != null) {
+            mixer.play(effect, 1.0f, priority);
+        }
+    }
+
+    /**
+     * Cambia la música de fondo; la anterior se detiene ya y la nueva empieza al terminar de cargarse.
+     */
+    public synchronized void playBackgroundMusic(String filePath) {
+        stopBackgroundMusic();
+        musicPath = filePath;
+        AssetManager.getInstance().loadSound(filePath).whenComplete((music, error) -> {
+            if (error != null) {
+                System.err.println("Error al cargar la música: " + cause(error).getMessage());
+            } else {
+                startMusic(filePath, music);
+            }
+        });
+    }
+
+    /**
+     * Los futuros derivados envuelven el error de la carga en una CompletionException.
+     */
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private synchronized void startMusic(String filePath, SoundEffect music) {
+        if (!filePath.equals(musicPath)) {
+            return; // Mientras se cargaba se pidió otra música o se detuvo
+        }
+        try {
+            byte[] bytes = music.toBytes();
+            backgroundMusic = AudioSystem.getClip();
+            backgroundMusic.open(AudioMixer.FORMAT, bytes, 0, bytes.length);
+            setVolume(backgroundMusic, volume);
+            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("Error al cargar la música: " + e.getMessage());
+        }
+    }
+
+    public synchronized void setVolume(float volume) {
+        this.volume = Math.max(0.0f, Math.min(1.0f, volume));
+        if (backgroundMusic != null) {
+            setVolume(backgroundMusic, this.volume);
+        }
+        mixer.setMasterVolume(this.volume);
+    }
+
+    private void setVolume(Clip clip, float volume) {
+        if (clip != null) {
+            FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
+            float dB = (float) (Math.log(volume) / Math.log(10.0) * 20.0);
+            gainControl.setValue(dB);
+        }
+    }
+
+    public synchronized void stopBackgroundMusic() {
+        musicPath = null;
+        if (backgroundMusic != null) {
+            backgroundMusic.stop();
+            backgroundMusic.close();
+            backgroundMusic = null;
+        }
+    }
+
+    /**
+     * Calla los efectos y detiene el hilo de audio, que cierra la línea al terminar.
+     */
+    public void shutdown() {
+        mixer.stopAll();
+        running = false;
+    }
+
+    public AudioMixer getMixer() {
+        return mixer;
+    }
+}
@@ -0,0 +1,351 @@
+package streetbuds;
+
+import java.util.Arrays;
+
+/**
+ * Índice espacial de rejilla uniforme con celdas dispersas en una tabla hash.
+ * Cada objeto se identifica con un entero (normalmente su posición en la lista del nivel)
+ * y se registra en todas las celdas que cubre su rectángulo. Las consultas solo revisan
+ * las celdas que toca el área consultada, por lo que su coste depende de los objetos cercanos
+ * y no del total del nivel.
+ *
+ * Las consultas no crean objetos: los resultados quedan en un array interno reutilizable,
+ * ordenados de menor a mayor identificador para conservar el orden de la búsqueda lineal.
+ */
+public class SpatialGrid {
+    /** Si está activo, quien use el índice compara sus resultados con la búsqueda lineal. */
+    public static final boolean VERIFY = Boolean.getBoolean("streetbuds.grid.verify");
+
+    private static final int DEFAULT_CELL_SIZE = 128;  // Tamaño de celda en píxeles
+    private static final int INITIAL_BUCKETS = 256;    // Cubetas iniciales de la tabla (potencia de 2)
+    private static final int MAX_CELLS_PER_OBJECT = 1024; // Más celdas que esto: objeto "gigante"
+
+    private final int cellSize;
+
+    // Tabla hash de celdas: cada cubeta guarda los identificadores de los objetos que la tocan
+    private int[][] buckets;
+    private int[] bucketSizes;
+    private int bucketMask;
+    private int entryCount; // Total de entradas repartidas entre las cubetas
+
+    // Datos por identificador
+    private int[] boxX, boxY, boxW, boxH;             // Rectángulo registrado
+    private int[] cellX0, cellY0, cellX1, cellY1;     // Rango de celdas cubierto
+    private boolean[] present;                        // Si el identificador está en el índice
+    private boolean[] oversized;                      // Si se guarda fuera de la rejilla
+    private int[] stamps;                             // Marca de la última consulta que lo visitó
+    private int size;
+
+    // Objetos demasiado grandes para repartirlos por celdas; se revisan en cada consulta
+    private int[] oversizedIds = new int[4];
+    private int oversizedCount;
+
+    // Resultados de la última consulta
+    private int[] results = new int[64];
+    private int resultCount;
+    private int queryStamp;
+
+    /**
+     * Crea un índice con el tamaño de celda por defecto.
+     */
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Crea un índice con el tamaño de celda indicado.
+     * @param cellSize Lado de cada celda en píxeles.
+     */
+    public SpatialGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        allocateBuckets(INITIAL_BUCKETS);
+        int capacity = 16;
+        boxX = new int[capacity];
+        boxY = new int[capacity];
+        boxW = new int[capacity];
+        boxH = new int[capacity];
+        cellX0 = new int[capacity];
+        cellY0 = new int[capacity];
+        cellX1 = new int[capacity];
+        cellY1 = new int[capacity];
+        present = new boolean[capacity];
+        oversized = new boolean[capacity];
+        stamps = new int[capacity];
+    }
+
+    /**
+     * Prepara el índice para recibir muchos objetos de golpe sin ir creciendo ni redistribuir
+     * las cubetas por el camino, por ejemplo al cargar un nivel.
+     * @param objects Número de identificadores (0 a objects - 1) que se van a registrar.
+     */
+    public void reserve(int objects) {
+        ensureCapacity(objects);
+        int bucketCount = Integer.highestOneBit(Math.max(INITIAL_BUCKETS, objects - 1)) << 1;
+        if (bucketCount > buckets.length) {
+            rehash(bucketCount);
+        }
+    }
+
+    /**
+     * Registra un objeto en el índice.
+     * @param id Identificador no negativo del objeto.
+     */
+    public void insert(int id, int x, int y, int width, int height) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Identificador negativo: " + id);
+        }
+        ensureCapacity(id + 1);
+        if (present[id]) {
+            update(id, x, y, width, height);
+            return;
+        }
+        present[id] = true;
+        size++;
+        setBox(id, x, y, width, height);
+        link(id);
+        if (entryCount > buckets.length * 2) {
+            rehash(buckets.length * 2);
+        }
+    }
+
+    /**
+     * Elimina un objeto del índice. No hace nada si no estaba registrado.
+     */
+    public void remove(int id) {
+        if (id < 0 || id >= present.length || !present[id]) {
+            return;
+        }
+        unlink(id);
+        present[id] = false;
+        size--;
+    }
+
+    /**
+     * Actualiza el rectángulo de un objeto. Solo toca las cubetas si cambia el rango de celdas,
+     * así que los objetos que se mueven poco a poco casi nunca cuestan más que la copia de coordenadas,
+     * y los que no se movieron, solo la comparación.
+     */
+    public void update(int id, int x, int y, int width, int height) {
+        if (id < 0 || id >= present.length || !present[id]) {
+            insert(id, x, y, width, height);
+            return;
+        }
+        if (boxX[id] == x && boxY[id] == y && boxW[id] == width && boxH[id] == height) {
+            return; // Sin cambios: ni siquiera hace falta calcular las celdas
+        }
+        int cx0 = cellOf(x);
+        int cy0 = cellOf(y);
+        int cx1 = cellOf(x + width);
+        int cy1 = cellOf(y + height);
+        if (!oversized[id] && cx0 == cellX0[id] && cy0 == cellY0[id] && cx1 == cellX1[id] && cy1 == cellY1[id]) {
+            boxX[id] = x;
+            boxY[id] = y;
+            boxW[id] = width;
+            boxH[id] = height;
+            return;
+        }
+        unlink(id);
+        setBox(id, x, y, width, height);
+        link(id);
+    }
+
+    /**
+     * Busca los objetos cuyo rectángulo intersecta el área indicada.
+     * Usa la misma regla que Rectangle2D.intersects: los bordes que solo se tocan no cuentan.
+     * @return Número de resultados, accesibles con getResult(i) en orden creciente de identificador.
+     */
+    public int query(double x, double y, double width, double height) {
+        resultCount = 0;
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        if (++queryStamp == 0) { // Al dar la vuelta el contador, limpiar las marcas
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+        int cx0 = cellOf(x);
+        int cy0 = cellOf(y);
+        int cx1 = cellOf(x + width);
+        int cy1 = cellOf(y + height);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int b = bucketOf(cx, cy);
+                int[] bucket = buckets[b];
+                int n = bucketSizes[b];
+                for (int k = 0; k < n; k++) {
+                    collect(bucket[k], x, y, width, height);
+                }
+            }
+        }
+        for (int k = 0; k < oversizedCount; k++) {
+            collect(oversizedIds[k], x, y, width, height);
+        }
+        if (resultCount > 1) {
+            Arrays.sort(results, 0, resultCount);
+        }
+        return resultCount;
+    }
+
+    /**
+     * Devuelve el i-ésimo resultado de la última consulta.
+     */
+    public int getResult(int i) {
+        return results[i];
+    }
+
+    /**
+     * Indica si un identificador aparece entre los resultados de la última consulta.
+     */
+    public boolean resultContains(int id) {
+        return Arrays.binarySearch(results, 0, resultCount, id) >= 0;
+    }
+
+    /**
+     * Indica si un identificador está registrado en el índice.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < present.length && present[id];
+    }
+
+    /**
+     * Número de objetos registrados.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vacía el índice conservando la memoria reservada.
+     */
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+        Arrays.fill(present, false);
+        Arrays.fill(oversized, false);
+        oversizedCount = 0;
+        entryCount = 0;
+        size = 0;
+        resultCount = 0;
+    }
+
+    private void collect(int id, double x, double y, double width, double height) {
+        if (stamps[id] == queryStamp) {
+            return; // Ya visitado desde otra celda
+        }
+        stamps[id] = queryStamp;
+        if (Bounds.intersects(boxX[id], boxY[id], boxW[id], boxH[id], x, y, width, height)) {
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = id;
+        }
+    }
+
+    private void setBox(int id, int x, int y, int width, int height) {
+        boxX[id] = x;
+        boxY[id] = y;
+        boxW[id] = width;
+        boxH[id] = height;
+        cellX0[id] = cellOf(x);
+        cellY0[id] = cellOf(y);
+        cellX1[id] = cellOf(x + width);
+        cellY1[id] = cellOf(y + height);
+        long cells = (long) (cellX1[id] - cellX0[id] + 1) * (cellY1[id] - cellY0[id] + 1);
+        oversized[id] = cells > MAX_CELLS_PER_OBJECT;
+    }
+
+    private void link(int id) {
+        if (oversized[id]) {
+            if (oversizedCount == oversizedIds.length) {
+                oversizedIds = Arrays.copyOf(oversizedIds, oversizedCount * 2);
+            }
+            oversizedIds[oversizedCount++] = id;
+            return;
+        }
+        for (int cy = cellY0[id]; cy <= cellY1[id]; cy++) {
+            for (int cx = cellX0[id]; cx <= cellX1[id]; cx++) {
+                int b = bucketOf(cx, cy);
+                if (bucketSizes[b] == buckets[b].length) {
+                    buckets[b] = Arrays.copyOf(buckets[b], Math.max(4, bucketSizes[b] * 2));
+                }
+                buckets[b][bucketSizes[b]++] = id;
+                entryCount++;
+            }
+        }
+    }
+
+    private void unlink(int id) {
+        if (oversized[id]) {
+            for (int k = 0; k < oversizedCount; k++) {
+                if (oversizedIds[k] == id) {
+                    oversizedIds[k] = oversizedIds[--oversizedCount];
+                    break;
+                }
+            }
+            return;
+        }
+        for (int cy = cellY0[id]; cy <= cellY1[id]; cy++) {
+            for (int cx = cellX0[id]; cx <= cellX1[id]; cx++) {
+                int b = bucketOf(cx, cy);
+                int[] bucket = buckets[b];
+                int n = bucketSizes[b];
+                for (int k = 0; k < n; k++) {
+                    if (bucket[k] == id) {
+                        bucket[k] = bucket[--bucketSizes[b]]; // Quitar intercambiando con el último
+                        entryCount--;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void rehash(int bucketCount) {
+        allocateBuckets(bucketCount);
+        entryCount = 0;
+        for (int id = 0; id < present.length; id++) {
+            if (present[id] && !oversized[id]) {
+                link(id);
+            }
+        }
+    }
+
+    private void allocateBuckets(int bucketCount) {
+        buckets = new int[bucketCount][];
+        for (int b = 0; b < bucketCount; b++) {
+            buckets[b] = new int[4];
+        }
+        bucketSizes = new int[bucketCount];
+        bucketMask = bucketCount - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= present.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, present.length * 2);
+        boxX = Arrays.copyOf(boxX, newCapacity);
+        boxY = Arrays.copyOf(boxY, newCapacity);
+        boxW = Arrays.copyOf(boxW, newCapacity);
+        boxH = Arrays.copyOf(boxH, newCapacity);
+        cellX0 = Arrays.copyOf(cellX0, newCapacity);
+        cellY0 = Arrays.copyOf(cellY0, newCapacity);
+        cellX1 = Arrays.copyOf(cellX1, newCapacity);
+        cellY1 = Arrays.copyOf(cellY1, newCapacity);
+        present = Arrays.copyOf(present, newCapacity);
+        oversized = Arrays.copyOf(oversized, newCapacity);
+        stamps = Arrays.copyOf(stamps, newCapacity);
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucketOf(int cx, int cy) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        h ^= h >>> 15;
+        return h & bucketMask;
+    }
+}
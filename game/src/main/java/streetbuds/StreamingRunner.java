@@ -0,0 +1,178 @@
+package streetbuds;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Prueba de resistencia de los niveles por trozos: juega sin pantalla un archivo de ChunkedLevelFile
+ * abierto con LevelStreamer.open, con InputPolicy.runRight(), y muestra cuánto llegó a estar cargado.
+ *
+ * Sin archivo, genera con soakLevel() un nivel de 200 pantallas, lo escribe por trozos en un archivo
+ * temporal y lo juega hasta el final. Para jugar un nivel propio, conviértelo antes con
+ * LevelConverter --trozos.
+ *
+ * La simulación va aquí mucho más rápido que el juego, así que el hilo de carga se queda atrás y hay
+ * cargas bloqueantes que a 60 ticks por segundo no habría; con --sincrono la precarga se lee en el tick.
+ *
+ * Uso: java -cp game/target/classes streetbuds.StreamingRunner [nivel.sbc] [--pantallas n]
+ *      [--presupuesto bytes] [--ticks n] [--sincrono]
+ */
+public final class StreamingRunner {
+    static final int DEFAULT_SCREENS = 200;
+    static final long SOAK_BUDGET_BYTES = 2L * 1024 * 1024; // Mucho menos de lo que ocupa el nivel entero
+    private static final int PLATFORMS_PER_SCREEN = 100;    // Suelo y plataformas decorativas
+    private static final int ENEMIES_PER_SCREEN = 2;
+    private static final int COLLECTIBLES_PER_SCREEN = 4;
+
+    /**
+     * Lo que llegó a estar cargado durante una partida por trozos.
+     */
+    static final class Result {
+        long ticks;
+        long nanos;
+        boolean reachedEnd;         // Si el jugador llegó a la última pantalla
+        int maxResidentChunks;
+        long maxResidentBytes;
+        int maxPlatformSlots, maxEnemySlots, maxCollectibleSlots; // Tamaño máximo de las listas del nivel
+        long chunkLoads, evictions;
+        long startupBlockingLoads;  // Cargas bloqueantes al empezar, antes del primer tick
+        long blockingLoads;         // Cargas bloqueantes en total
+    }
+
+    private StreamingRunner() {
+    }
+
+    /**
+     * Nivel de prueba con el suelo continuo y, por pantalla, plataformas decorativas fuera del alcance
+     * del salto, enemigos que van y vienen por encima y monedas sobre el suelo.
+     * @param screens Pantallas de ancho.
+     */
+    static Level soakLevel(int screens) {
+        int screenWidth = Camera.DEFAULT_WIDTH;
+        Level level = new Level("Resistencia " + screens, new Point(100, 390));
+        level.reserve(screens * PLATFORMS_PER_SCREEN, screens * ENEMIES_PER_SCREEN,
+            screens * COLLECTIBLES_PER_SCREEN);
+        long seed = 0x5EED;
+        for (int screen = 0; screen < screens; screen++) {
+            int left = screen * screenWidth;
+            level.addPlatform(left, 450, screenWidth, 50, true);
+            for (int i = 1; i < PLATFORMS_PER_SCREEN; i++) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L; // LCG: el mismo nivel siempre
+                int x = left + (int) ((seed >>> 33) % (screenWidth - 40));
+                int y = 20 + (int) ((seed >>> 17) % 180);
+                level.addPlatform(x, y, 40, 10, true);
+            }
+            for (int i = 0; i < ENEMIES_PER_SCREEN; i++) {
+                level.addEnemy(left + 200 + i * 400, 60, 30, 30);
+            }
+            for (int i = 0; i < COLLECTIBLES_PER_SCREEN; i++) {
+                level.addCollectible(left + 150 + i * 200, 410, 20, 20, Collectible.CollectibleType.COIN, 10);
+            }
+        }
+        level.setWorldSize(screens * screenWidth, Camera.DEFAULT_HEIGHT);
+        level.setScoreToComplete(Integer.MAX_VALUE); // Se juega hasta llegar al final
+        return level;
+    }
+
+    /**
+     * Juega un nivel por trozos con InputPolicy.runRight() hasta llegar a la última pantalla
+     * o al máximo de ticks.
+     * @param file Archivo escrito con ChunkedLevelFile.write.
+     * @param budgetBytes Presupuesto de memoria del streamer.
+     * @param maxTicks Ticks máximos.
+     * @param synchronous Si la precarga se lee en el propio tick (ver LevelStreamer.setSynchronous).
+     */
+    static Result soak(Path file, long budgetBytes, long maxTicks, boolean synchronous) throws IOException {
+        Result result = new Result();
+        Simulation simulation = new Simulation(1);
+        try (LevelStreamer streamer = LevelStreamer.open(file, budgetBytes)) {
+            streamer.setSynchronous(synchronous);
+            Level level = streamer.getLevel();
+            simulation.setLevel(level);
+            result.startupBlockingLoads = streamer.getBlockingLoads();
+            InputPolicy policy = InputPolicy.runRight();
+            boolean[] keys = new boolean[256];
+            int end = level.getWidth() - Camera.DEFAULT_WIDTH;
+            long start = System.nanoTime();
+            while (result.ticks < maxTicks && simulation.getGameState() == GameState.PLAYING) {
+                policy.next(simulation, keys);
+                simulation.step(keys);
+                result.ticks++;
+                result.maxResidentChunks = Math.max(result.maxResidentChunks, streamer.getResidentChunks());
+                result.maxResidentBytes = Math.max(result.maxResidentBytes, streamer.getResidentBytes());
+                result.maxPlatformSlots = Math.max(result.maxPlatformSlots, level.getPlatforms().size());
+                result.maxEnemySlots = Math.max(result.maxEnemySlots, level.getEnemies().size());
+                result.maxCollectibleSlots = Math.max(result.maxCollectibleSlots, level.getCollectibles().size());
+                if (simulation.getPlayer().getCenterX() >= end) {
+                    result.reachedEnd = true;
+                    break;
+                }
+            }
+            result.nanos = System.nanoTime() - start;
+            result.chunkLoads = streamer.getChunkLoads();
+            result.evictions = streamer.getEvictions();
+            result.blockingLoads = streamer.getBlockingLoads();
+        } finally {
+            simulation.shutdown();
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Path file = null;
+        int screens = DEFAULT_SCREENS;
+        long budget = SOAK_BUDGET_BYTES;
+        long ticks = Long.MAX_VALUE;
+        boolean synchronous = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pantallas":
+                    screens = Integer.parseInt(args[++i]);
+                    break;
+                case "--presupuesto":
+                    budget = Long.parseLong(args[++i]);
+                    break;
+                case "--ticks":
+                    ticks = Long.parseLong(args[++i]);
+                    break;
+                case "--sincrono":
+                    synchronous = true;
+                    break;
+                default:
+                    file = Paths.get(args[i]);
+                    break;
+            }
+        }
+
+        boolean generated = file == null;
+        if (generated) {
+            file = Files.createTempFile("streetbuds-resistencia", ".sbc");
+            Level level = soakLevel(screens);
+            ChunkedLevelFile.write(level, file, ChunkedLevelFile.DEFAULT_CHUNK_SIZE);
+            System.out.printf("Nivel generado: %d pantallas, %d plataformas, %d enemigos, %d coleccionables (%d bytes)%n",
+                screens, level.getPlatforms().size(), level.getEnemies().size(), level.getCollectibles().size(),
+                Files.size(file));
+        }
+        try {
+            Result result = soak(file, budget, ticks, synchronous);
+            double seconds = result.nanos / 1_000_000_000.0;
+            System.out.printf("Ticks: %d en %.3f s (%.0f ticks/s), %s%n", result.ticks, seconds,
+                result.ticks / seconds, result.reachedEnd ? "llegó al final" : "no llegó al final");
+            System.out.printf("Trozos cargados como máximo: %d (%d bytes de %d de presupuesto)%n",
+                result.maxResidentChunks, result.maxResidentBytes, budget);
+            System.out.printf("Posiciones en las listas: %d plataformas, %d enemigos, %d coleccionables%n",
+                result.maxPlatformSlots, result.maxEnemySlots, result.maxCollectibleSlots);
+            System.out.printf("Cargas: %d, descargas: %d, bloqueantes: %d al empezar y %d después%n",
+                result.chunkLoads, result.evictions, result.startupBlockingLoads,
+                result.blockingLoads - result.startupBlockingLoads);
+        } finally {
+            if (generated) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
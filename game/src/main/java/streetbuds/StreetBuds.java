@@ -0,0 +1,78 @@
+package streetbuds;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.*;
+
+/**
+ * Clase principal del juego que crea la ventana y maneja la inicialización básica.
+ * Extiende de JFrame para crear una ventana del sistema.
+ *
+ * Para investigar tirones se puede grabar con JDK Flight Recorder, por ejemplo
+ * java -XX:StartFlightRecording=filename=streetbuds.jfr,settings=profile -cp ... streetbuds.StreetBuds.
+ * Los eventos del juego aparecen en la categoría StreetBuds junto a las pausas del recolector
+ * y los safepoints de la misma grabación.
+ */
+public class StreetBuds {
+    // Si se muestra al arrancar cuánto tardó la precarga de recursos (-Dstreetbuds.assets.report=true)
+    private static final boolean REPORT_WARM_UP = Boolean.getBoolean("streetbuds.assets.report");
+
+    public static void main(String[] args) {
+        // Crear la ventana principal
+        JFrame frame = new JFrame("Street Buds");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setResizable(false);
+
+        // Crear el panel del juego
+        GamePanel gamePanel = new GamePanel();
+        frame.add(gamePanel);
+
+        // Precargar en paralelo los fondos de los niveles, antes de que los pidan los propios niveles
+        warmUpAssets();
+
+        // Inicializar el gestor de niveles
+        LevelManager levelManager = LevelManager.getInstance();
+        levelManager.createDefaultLevels();
+        if (!gamePanel.loadSavedGame()) {
+            gamePanel.setCurrentLevel(levelManager.getCurrentLevel()); // Sin partida guardada, desde el principio
+        }
+
+        // Configurar la ventana
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+
+        // Iniciar el juego
+        gamePanel.requestFocus();
+    }
+
+    /**
+     * Pide a AssetManager los fondos de los niveles incluidos. Con streetbuds.assets.report, al terminar
+     * muestra en stderr cuánto tardó la precarga en paralelo frente a la suma de cargarlos uno tras otro.
+     * Si ningún nivel tiene fondo no hay nada que precargar ni que medir.
+     */
+    private static void warmUpAssets() {
+        List<String> images = new ArrayList<>();
+        for (String resource : LevelManager.DEFAULT_LEVELS) {
+            try {
+                String background = LevelLoader.backgroundResource(resource);
+                if (background != null) {
+                    images.add(background);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error al leer el nivel " + resource + ": " + e.getMessage()); // Se verá al cargarlo
+            }
+        }
+        if (images.isEmpty()) {
+            return;
+        }
+        CompletableFuture<AssetManager.WarmUp> warmUp = AssetManager.getInstance().warmUp(images, List.of());
+        if (REPORT_WARM_UP) {
+            warmUp.thenAccept(done -> System.err.printf(
+                "Recursos precargados: %d (%d con error) en %.1f ms; en serie serían %.1f ms%n", done.getAssets(),
+                done.getFailures(), done.getNanos() / 1e6, done.getSerialNanos() / 1e6));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package streetbuds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ejecuta los sistemas de la fase de actualización de un tick, en varios hilos si se pide.
+ *
+ * Al agregar un sistema se le asigna una etapa: la siguiente a la última etapa con un sistema
+ * anterior con el que choca (GameSystem.conflictsWith). Los sistemas de una misma etapa no
+ * comparten nada que alguno escriba, así que se ejecutan a la vez en un ForkJoinPool, y los que
+ * tienen varias unidades de trabajo se reparten además en rangos. Las etapas van una tras otra
+ * y, dentro de cada una, los sistemas que chocan respetan el orden en que se agregaron, así que
+ * el resultado es el mismo con un hilo que con varios.
+ *
+ * Con un hilo no hay pool: los sistemas se llaman directamente, en el orden de las etapas,
+ * sin crear objetos. Con varios, las tareas se reutilizan de un tick a otro.
+ */
+public class SystemScheduler {
+    private static final int PIECES_PER_THREAD = 4; // Rangos por hilo, para equilibrar la carga
+
+    private final int parallelism;
+    private final ForkJoinPool pool; // null con un solo hilo
+    private final FrameProfiler profiler;
+
+    private final ArrayList<GameSystem> systems = new ArrayList<>(); // En orden de ejecución
+    private int[] stageOf = new int[0];                            // Etapa de cada sistema
+    private int stageCount;
+
+    private Piece[] pieces = new Piece[0]; // Rangos de la etapa en curso, reutilizados
+    private final StageTask stageTask = new StageTask();
+
+    /**
+     * @param threads Hilos a usar; 0 o menos para usar todos los procesadores.
+     * @param profiler Perfilador al que se suma el tiempo de cada sistema (o de cada etapa con varios hilos).
+     */
+    public SystemScheduler(int threads, FrameProfiler profiler) {
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.profiler = profiler;
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("StreetBuds-Sistemas-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        } else {
+            pool = null;
+        }
+    }
+
+    /**
+     * Agrega un sistema después de los ya agregados.
+     */
+    public void add(GameSystem system) {
+        int stage = 0;
+        for (int i = 0; i < systems.size(); i++) {
+            if (systems.get(i).conflictsWith(system)) {
+                stage = Math.max(stage, stageOf[i] + 1);
+            }
+        }
+        // Insertar al final de su etapa para recorrer las etapas en orden
+        int position = systems.size();
+        while (position > 0 && stageOf[position - 1] > stage) {
+            position--;
+        }
+        systems.add(position, system);
+        stageOf = Arrays.copyOf(stageOf, systems.size());
+        System.arraycopy(stageOf, position, stageOf, position + 1, systems.size() - position - 1);
+        stageOf[position] = stage;
+        stageCount = Math.max(stageCount, stage + 1);
+    }
+
+    /**
+     * Ejecuta todos los sistemas una vez. Debe llamarse desde el hilo que avanza el juego.
+     */
+    public void run() {
+        long t = profiler.mark();
+        if (pool == null) {
+            for (int i = 0; i < systems.size(); i++) {
+                GameSystem system = systems.get(i);
+                system.run(0, system.size());
+                t = profiler.lap(system.getPhase(), t);
+            }
+            return;
+        }
+        int first = 0;
+        while (first < systems.size()) {
+            int end = first + 1;
+            while (end < systems.size() && stageOf[end] == stageOf[first]) {
+                end++;
+            }
+            runStage(first, end);
+            t = profiler.lap(systems.get(first).getPhase(), t);
+            first = end;
+        }
+    }
+
+    /**
+     * Reparte los sistemas de first a end - 1 (una etapa) en rangos y los ejecuta en el pool.
+     */
+    private void runStage(int first, int end) {
+        int count = 0;
+        for (int s = first; s < end; s++) {
+            GameSystem system = systems.get(s);
+            int size = system.size();
+            int split = Math.min(size, parallelism * PIECES_PER_THREAD);
+            for (int p = 0; p < split; p++) {
+                // Rangos contiguos de tamaño casi igual
+                piece(count++).set(system, (int) ((long) size * p / split), (int) ((long) size * (p + 1) / split));
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        if (count == 1) {
+            pieces[0].system.run(pieces[0].from, pieces[0].to); // Nada que repartir
+            return;
+        }
+        stageTask.count = count;
+        stageTask.reinitialize();
+        pool.invoke(stageTask);
+    }
+
+    private Piece piece(int index) {
+        if (index >= pieces.length) {
+            int oldLength = pieces.length;
+            pieces = Arrays.copyOf(pieces, Math.max(index + 1, oldLength * 2));
+            for (int i = oldLength; i < pieces.length; i++) {
+                pieces[i] = new Piece();
+            }
+        }
+        return pieces[index];
+    }
+
+    /**
+     * Cierra los hilos del pool. El planificador no debe usarse después.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getStageCount() {
+        return stageCount;
+    }
+
+    /**
+     * Un rango de unidades de trabajo de un sistema.
+     */
+    private static final class Piece extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        GameSystem system;
+        int from, to;
+
+        void set(GameSystem system, int from, int to) {
+            this.system = system;
+            this.from = from;
+            this.to = to;
+            reinitialize();
+        }
+
+        @Override
+        protected void compute() {
+            system.run(from, to);
+        }
+    }
+
+    /**
+     * Ejecuta los rangos de una etapa: reparte todos menos el primero y espera a que terminen.
+     */
+    private final class StageTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        int count;
+
+        @Override
+        protected void compute() {
+            for (int i = count - 1; i > 0; i--) {
+                pieces[i].fork();
+            }
+            pieces[0].compute();
+            for (int i = 1; i < count; i++) {
+                pieces[i].join(); // En orden inverso al apilado: los no robados se ejecutan aquí
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package streetbuds;
+
+import java.util.Arrays;
+
+/**
+ * Rueda de temporizadores con hash (hashed timing wheel) medida en ticks, para GameClock.
+ *
+ * Cada temporizador va a la casilla de su tick de vencimiento módulo SLOTS, en una lista doblemente enlazada
+ * guardada en arrays de enteros. Al avanzar un tick solo se recorre su casilla, así que el trabajo por tick
+ * depende de los temporizadores de esa casilla y no de cuántas entidades hay; los que vencen en una vuelta
+ * posterior de la rueda se quedan donde están. Vencen en el orden en que se programaron.
+ *
+ * Los nodos se reutilizan: programar y vencer no crean objetos salvo cuando hay que ampliar los arrays.
+ * No es seguro para varios hilos; lo usa solo el hilo que avanza el reloj.
+ */
+final class TimerWheel {
+    private static final int SLOTS = 256; // Potencia de dos: más que la duración de casi todos los temporizadores
+    private static final int MASK = SLOTS - 1;
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[SLOTS];
+    private final int[] tails = new int[SLOTS];
+
+    // Nodos, uno por posición; los libres se enlazan con next
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private long[] deadlines = new long[64];
+    private int[] targets = new int[64];
+    private int[] generations = new int[64]; // Distingue un nodo reutilizado de un manejador antiguo
+    private boolean[] due = new boolean[64]; // Ya sacado de su casilla, esperando a vencer en este tick
+    private GameClock.Expiry[] callbacks = new GameClock.Expiry[64];
+    private int free;     // Primer nodo libre, o NONE
+    private int used;     // Nodos que se han usado alguna vez
+    private int pending;  // Temporizadores programados sin vencer ni cancelar
+    private long expired; // Temporizadores vencidos en total
+
+    TimerWheel() {
+        clear();
+    }
+
+    /**
+     * Programa un temporizador.
+     * @return Manejador para cancelarlo.
+     */
+    long schedule(long deadline, GameClock.Expiry callback, int target) {
+        int node = allocate();
+        deadlines[node] = deadline;
+        targets[node] = target;
+        callbacks[node] = callback;
+        due[node] = false;
+        int slot = (int) deadline & MASK;
+        next[node] = NONE;
+        prev[node] = tails[slot];
+        if (tails[slot] == NONE) {
+            heads[slot] = node;
+        } else {
+            next[tails[slot]] = node;
+        }
+        tails[slot] = node;
+        pending++;
+        return (long) generations[node] << 32 | node;
+    }
+
+    /**
+     * Cancela un temporizador que aún no ha vencido.
+     * @return false si ya había vencido o se había cancelado.
+     */
+    boolean cancel(long handle) {
+        int node = (int) handle;
+        if (node < 0 || node >= used || generations[node] != (int) (handle >>> 32) || callbacks[node] == null) {
+            return false;
+        }
+        pending--;
+        if (due[node]) {
+            callbacks[node] = null; // expire() lo libera al llegar a él
+            return true;
+        }
+        unlink(node);
+        release(node);
+        return true;
+    }
+
+    /**
+     * Vence los temporizadores de un tick. Primero los saca todos de la casilla y después los llama,
+     * para que las llamadas puedan programar o cancelar otros sin desordenar el recorrido.
+     */
+    void expire(long tick) {
+        int slot = (int) tick & MASK;
+        int first = NONE, last = NONE;
+        for (int node = heads[slot]; node != NONE; ) {
+            int following = next[node];
+            if (deadlines[node] <= tick) {
+                unlink(node);
+                due[node] = true;
+                next[node] = NONE;
+                if (last == NONE) {
+                    first = node;
+                } else {
+                    next[last] = node;
+                }
+                last = node;
+            }
+            node = following;
+        }
+        while (first != NONE) {
+            int node = first;
+            first = next[node];
+            GameClock.Expiry callback = callbacks[node];
+            int target = targets[node];
+            release(node);
+            if (callback != null) {
+                pending--;
+                expired++;
+                callback.expire(target, tick);
+            }
+        }
+    }
+
+    /**
+     * Descarta todos los temporizadores; los manejadores anteriores dejan de ser válidos.
+     * No debe llamarse desde un temporizador que está venciendo.
+     */
+    void clear() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            heads[slot] = NONE;
+            tails[slot] = NONE;
+        }
+        for (int node = 0; node < used; node++) {
+            callbacks[node] = null;
+            generations[node]++;
+            next[node] = node + 1 < used ? node + 1 : NONE;
+        }
+        free = used > 0 ? 0 : NONE;
+        pending = 0;
+    }
+
+    int getPending() {
+        return pending;
+    }
+
+    long getExpired() {
+        return expired;
+    }
+
+    private void unlink(int node) {
+        int slot = (int) deadlines[node] & MASK;
+        if (prev[node] == NONE) {
+            heads[slot] = next[node];
+        } else {
+            next[prev[node]] = next[node];
+        }
+        if (next[node] == NONE) {
+            tails[slot] = prev[node];
+        } else {
+            prev[next[node]] = prev[node];
+        }
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int node = free;
+            free = next[node];
+            return node;
+        }
+        if (used == next.length) {
+            int capacity = used * 2;
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            due = Arrays.copyOf(due, capacity);
+            callbacks = Arrays.copyOf(callbacks, capacity);
+        }
+        return used++;
+    }
+
+    private void release(int node) {
+        callbacks[node] = null;
+        generations[node]++;
+        next[node] = free;
+        free = node;
+    }
+}
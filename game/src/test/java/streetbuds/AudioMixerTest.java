@@ -0,0 +1,137 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Mezclador por software: reparto y robo de voces, suma de las voces y saturación de las muestras.
+ */
+class AudioMixerTest {
+    /**
+     * Efecto estéreo de frames frames con todas las muestras a value.
+     */
+    private static SoundEffect constant(String name, int frames, int value) {
+        short[] samples = new short[frames * AudioMixer.CHANNELS];
+        Arrays.fill(samples, (short) value);
+        return new SoundEffect(name, samples);
+    }
+
+    private static byte[] render(AudioMixer mixer, int frames) {
+        byte[] out = new byte[frames * AudioMixer.FRAME_BYTES];
+        mixer.render(out, 0, frames);
+        return out;
+    }
+
+    /**
+     * Muestra i (no frame) de un buffer PCM de 16 bits little-endian.
+     */
+    private static int sample(byte[] out, int i) {
+        return (short) ((out[2 * i] & 0xFF) | (out[2 * i + 1] << 8));
+    }
+
+    @Test
+    void rejectsMixerWithoutVoices() {
+        assertThrows(IllegalArgumentException.class, () -> new AudioMixer(0));
+    }
+
+    @Test
+    void sameEffectOverlapsWithItself() {
+        AudioMixer mixer = new AudioMixer(4);
+        SoundEffect coin = constant("moneda", 100, 1000);
+        assertEquals(0, mixer.play(coin, 1.0f, 0));
+        assertEquals(1, mixer.play(coin, 1.0f, 0));
+        byte[] out = render(mixer, 10);
+        assertEquals(2000, sample(out, 0));
+        assertEquals(2000, sample(out, 19));
+        assertEquals(0, mixer.getStolen());
+    }
+
+    @Test
+    void finishedVoicesAreFreedAndLeaveSilence() {
+        AudioMixer mixer = new AudioMixer(2);
+        mixer.play(constant("corto", 300, 500), 1.0f, 0); // Más de un bloque de mezcla
+        byte[] out = render(mixer, 400);
+        assertEquals(500, sample(out, 2 * 299));
+        assertEquals(0, sample(out, 2 * 300));
+        assertEquals(0, mixer.getActiveVoices());
+        assertEquals(0, sample(render(mixer, 10), 0));
+    }
+
+    @Test
+    void stealsOldestVoiceAmongEqualPriorities() {
+        AudioMixer mixer = new AudioMixer(2);
+        SoundEffect effect = constant("golpe", 1000, 100);
+        assertEquals(0, mixer.play(effect, 1.0f, 1));
+        assertEquals(1, mixer.play(effect, 1.0f, 1));
+        assertEquals(0, mixer.play(effect, 1.0f, 1));
+        assertEquals(1, mixer.play(effect, 1.0f, 1)); // Ahora la más antigua es la 1
+        assertEquals(2, mixer.getStolen());
+        assertEquals(2, mixer.getActiveVoices());
+    }
+
+    @Test
+    void stealsLowestPriorityVoiceEvenIfNewer() {
+        AudioMixer mixer = new AudioMixer(2);
+        SoundEffect effect = constant("golpe", 1000, 100);
+        assertEquals(0, mixer.play(effect, 1.0f, 1));
+        assertEquals(1, mixer.play(effect, 1.0f, 0));
+        assertEquals(1, mixer.play(effect, 1.0f, 1));
+        assertEquals(1, mixer.getStolen());
+    }
+
+    @Test
+    void dropsSoundWithLowerPriorityThanEveryVoice() {
+        AudioMixer mixer = new AudioMixer(1);
+        SoundEffect music = constant("nivel", 1000, 100);
+        assertEquals(0, mixer.play(music, 1.0f, 5));
+        assertEquals(-1, mixer.play(constant("moneda", 10, 100), 1.0f, 1));
+        assertEquals(1, mixer.getDropped());
+        assertEquals(0, mixer.getStolen());
+        assertEquals(100, sample(render(mixer, 1), 0)); // Sigue sonando el primero
+    }
+
+    @Test
+    void clipsSumsToSixteenBits() {
+        AudioMixer mixer = new AudioMixer(4);
+        mixer.play(constant("alto", 10, 30000), 1.0f, 0);
+        mixer.play(constant("alto", 10, 30000), 1.0f, 0);
+        assertEquals(Short.MAX_VALUE, sample(render(mixer, 1), 0));
+
+        mixer.stopAll();
+        mixer.play(constant("bajo", 10, -30000), 1.0f, 0);
+        mixer.play(constant("bajo", 10, -30000), 1.0f, 0);
+        assertEquals(Short.MIN_VALUE, sample(render(mixer, 1), 0));
+    }
+
+    @Test
+    void appliesVoiceAndMasterGain() {
+        AudioMixer mixer = new AudioMixer(2);
+        mixer.play(constant("medio", 10, 8000), 0.5f, 0);
+        assertEquals(4000, sample(render(mixer, 1), 0));
+        mixer.setMasterVolume(0.5f);
+        assertEquals(2000, sample(render(mixer, 1), 0));
+    }
+
+    @Test
+    void stopFreesEveryVoiceOfTheEffect() {
+        AudioMixer mixer = new AudioMixer(3);
+        SoundEffect effect = constant("golpe", 1000, 100);
+        SoundEffect other = constant("otro", 1000, 7);
+        mixer.play(effect, 1.0f, 0);
+        mixer.play(effect, 1.0f, 0);
+        mixer.play(other, 1.0f, 0);
+        mixer.stop(effect);
+        assertEquals(1, mixer.getActiveVoices());
+        assertEquals(7, sample(render(mixer, 1), 0));
+    }
+
+    @Test
+    void rejectsRenderOutsideBuffer() {
+        AudioMixer mixer = new AudioMixer(1);
+        assertThrows(IllegalArgumentException.class, () -> mixer.render(new byte[8], 4, 2));
+    }
+}
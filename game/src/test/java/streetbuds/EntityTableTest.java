@@ -0,0 +1,197 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Arquetipo de entidades: quitar con intercambio por la última fila, también entre trozos,
+ * sin perder la correspondencia entre identificadores y filas ni los componentes.
+ */
+class EntityTableTest {
+    private static final int ALL = EntityTable.POSITION | EntityTable.VELOCITY | EntityTable.BOUNDS
+        | EntityTable.HEALTH | EntityTable.FLAGS | EntityTable.VALUE | EntityTable.KIND | EntityTable.TIMER;
+
+    /**
+     * Agrega una entidad con todos sus componentes derivados del identificador.
+     */
+    private static void addTagged(EntityTable table, int id) {
+        int row = table.add(id);
+        table.setBounds(row, id, id + 1, id + 2, id + 3);
+        table.setVelocityX(row, -id);
+        table.setHealth(row, id * 2);
+        table.setFlag(row, EntityTable.ALIVE, id % 2 == 0);
+        table.setValue(row, id * 3);
+        table.setKind(row, id % 5);
+        table.setTimer(row, id * 1_000_000_007L);
+    }
+
+    private static void assertTagged(EntityTable table, int id) {
+        int row = table.rowOf(id);
+        assertTrue(row >= 0 && row < table.size(), "Entidad " + id + " fuera de las filas: " + row);
+        assertEquals(id, table.idAt(row));
+        assertEquals(id, table.getX(row));
+        assertEquals(id + 1, table.getY(row));
+        assertEquals(id + 2, table.getWidth(row));
+        assertEquals(id + 3, table.getHeight(row));
+        assertEquals(-id, table.getVelocityX(row));
+        assertEquals(id * 2, table.getHealth(row));
+        assertEquals(id % 2 == 0, table.hasFlag(row, EntityTable.ALIVE));
+        assertEquals(id * 3, table.getValue(row));
+        assertEquals(id % 5, table.getKind(row));
+        assertEquals(id * 1_000_000_007L, table.getTimer(row));
+    }
+
+    @Test
+    void removeMovesLastRowIntoTheGap() {
+        EntityTable table = new EntityTable(ALL);
+        for (int id = 0; id < 5; id++) {
+            addTagged(table, id);
+        }
+        table.remove(1);
+        assertEquals(4, table.size());
+        assertFalse(table.contains(1));
+        assertEquals(-1, table.rowOf(1));
+        assertEquals(4, table.idAt(1));
+        assertEquals(1, table.rowOf(4));
+        for (int id : new int[] { 0, 2, 3, 4 }) {
+            assertTagged(table, id);
+        }
+    }
+
+    @Test
+    void removeLastRowMovesNothing() {
+        EntityTable table = new EntityTable(ALL);
+        for (int id = 0; id < 3; id++) {
+            addTagged(table, id);
+        }
+        table.remove(2);
+        assertEquals(2, table.size());
+        assertEquals(0, table.rowOf(0));
+        assertEquals(1, table.rowOf(1));
+    }
+
+    @Test
+    void removeOfMissingEntityDoesNothing() {
+        EntityTable table = new EntityTable(ALL);
+        addTagged(table, 3);
+        table.remove(7);
+        table.remove(-1);
+        table.remove(3);
+        table.remove(3);
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void swapAcrossChunksKeepsComponents() {
+        EntityTable table = new EntityTable(ALL, 2); // Trozos de 4 filas
+        for (int id = 0; id < 10; id++) {
+            addTagged(table, id);
+        }
+        assertEquals(3, table.chunkCount());
+        table.remove(0); // La fila 9, en el tercer trozo, pasa al primero
+        assertEquals(0, table.rowOf(9));
+        assertEquals(3, table.chunkCount());
+        assertEquals(1, table.chunkRows(2));
+        table.remove(8);
+        table.remove(1);
+        assertEquals(2, table.chunkCount());
+        for (int id = 2; id < 10; id++) {
+            if (id != 8) {
+                assertTagged(table, id);
+            }
+        }
+        assertEquals(7, table.size());
+    }
+
+    @Test
+    void reAddedRowStartsCleared() {
+        EntityTable table = new EntityTable(ALL);
+        addTagged(table, 5);
+        table.remove(5);
+        int row = table.add(6);
+        assertEquals(0, table.getX(row));
+        assertEquals(0, table.getFlags(row));
+        assertEquals(0L, table.getTimer(row));
+    }
+
+    @Test
+    void rejectsDuplicateAndNegativeIds() {
+        EntityTable table = new EntityTable(ALL);
+        table.add(2);
+        assertThrows(IllegalStateException.class, () -> table.add(2));
+        assertThrows(IllegalArgumentException.class, () -> table.add(-1));
+    }
+
+    @Test
+    void randomAddsAndRemovesMatchAMap() {
+        EntityTable table = new EntityTable(ALL, 3);
+        Map<Integer, Boolean> present = new HashMap<>();
+        Random random = new Random(16);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(200);
+            if (present.containsKey(id)) {
+                table.remove(id);
+                present.remove(id);
+            } else {
+                addTagged(table, id);
+                present.put(id, true);
+            }
+            if (step % 500 == 0) {
+                assertEquals(present.size(), table.size());
+                for (int i = 0; i < 200; i++) {
+                    assertEquals(present.containsKey(i), table.contains(i));
+                }
+                for (int row = 0; row < table.size(); row++) {
+                    assertTagged(table, table.idAt(row));
+                }
+            }
+        }
+    }
+
+    @Test
+    void stateRoundTripRestoresRowsAndIds() {
+        EntityTable table = new EntityTable(ALL, 2);
+        for (int id = 0; id < 9; id++) {
+            addTagged(table, id);
+        }
+        table.remove(3);
+        ByteBuffer state = ByteBuffer.allocate(4096);
+        table.writeState(state);
+
+        table.remove(0);
+        table.remove(5);
+        addTagged(table, 20);
+
+        state.flip();
+        table.readState(state);
+        assertEquals(8, table.size());
+        assertFalse(table.contains(3));
+        assertFalse(table.contains(20));
+        for (int id = 0; id < 9; id++) {
+            if (id != 3) {
+                assertTagged(table, id);
+            }
+        }
+    }
+
+    @Test
+    void copyRowOnlyCopiesSharedComponents() {
+        EntityTable full = new EntityTable(ALL);
+        EntityTable small = new EntityTable(EntityTable.POSITION | EntityTable.FLAGS);
+        addTagged(full, 4);
+        int row = small.add(4);
+        small.copyRow(full, full.rowOf(4), row);
+        assertEquals(4, small.getX(row));
+        assertEquals(5, small.getY(row));
+        assertTrue(small.hasFlag(row, EntityTable.ALIVE));
+    }
+}
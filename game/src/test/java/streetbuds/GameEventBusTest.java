@@ -0,0 +1,156 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Anillo de eventos: vueltas completas al anillo, suscripciones que se quedan atrás y lectura
+ * desde otro hilo mientras se publica.
+ */
+class GameEventBusTest {
+    /**
+     * Guarda los valores de los eventos recibidos.
+     */
+    private static final class Values implements GameEvent.Handler {
+        final List<Integer> values = new ArrayList<>();
+
+        @Override
+        public void onEvent(GameEvent event) {
+            values.add(event.getValue());
+        }
+    }
+
+    private static void publish(GameEventBus bus, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bus.publish(GameEvent.Type.ITEM_COLLECTED, i, i, i, i, i);
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new GameEventBus(1).getCapacity());
+        assertEquals(8, new GameEventBus(5).getCapacity());
+        assertEquals(8, new GameEventBus(8).getCapacity());
+    }
+
+    @Test
+    void deliversInOrderAcrossManyWraparounds() {
+        GameEventBus bus = new GameEventBus(8);
+        GameEventBus.Subscription subscription = bus.subscribe();
+        Values received = new Values();
+        for (int batch = 0; batch < 20; batch++) {
+            publish(bus, batch * 5, batch * 5 + 5); // 5 no divide a 8: las casillas cambian en cada vuelta
+            assertEquals(5, subscription.pending());
+            assertEquals(5, subscription.drain(received));
+        }
+        assertEquals(range(0, 100), received.values);
+        assertEquals(0, subscription.getOverrun());
+        assertEquals(0, subscription.pending());
+    }
+
+    @Test
+    void fullRingIsDeliveredWhole() {
+        GameEventBus bus = new GameEventBus(8);
+        GameEventBus.Subscription subscription = bus.subscribe();
+        Values received = new Values();
+        publish(bus, 0, 8);
+        assertEquals(8, subscription.drain(received));
+        assertEquals(range(0, 8), received.values);
+        assertEquals(0, subscription.getOverrun());
+    }
+
+    @Test
+    void drainStopsAtMaxEvents() {
+        GameEventBus bus = new GameEventBus(8);
+        GameEventBus.Subscription subscription = bus.subscribe();
+        Values received = new Values();
+        publish(bus, 0, 6);
+        assertEquals(4, subscription.drain(received, 4));
+        assertEquals(2, subscription.pending());
+        assertEquals(2, subscription.drain(received, 4));
+        assertEquals(range(0, 6), received.values);
+    }
+
+    @Test
+    void lappedSubscriptionSkipsAheadWithoutHoldingBackOthers() {
+        GameEventBus bus = new GameEventBus(8);
+        GameEventBus.Subscription fast = bus.subscribe();
+        GameEventBus.Subscription slow = bus.subscribe();
+        Values fastReceived = new Values(), slowReceived = new Values();
+        for (int i = 0; i < 20; i++) {
+            publish(bus, i, i + 1);
+            fast.drain(fastReceived);
+        }
+        assertEquals(range(0, 20), fastReceived.values);
+        assertEquals(0, fast.getOverrun());
+
+        assertEquals(8, slow.pending());
+        assertEquals(8, slow.drain(slowReceived));
+        assertEquals(range(12, 20), slowReceived.values); // Los ocho que siguen en el anillo
+        assertEquals(12, slow.getOverrun());
+
+        publish(bus, 20, 23); // Y sigue normalmente después del salto
+        assertEquals(3, slow.drain(slowReceived));
+        assertEquals(range(12, 23), slowReceived.values);
+        assertEquals(12, slow.getOverrun());
+    }
+
+    @Test
+    void subscriptionStartsAtCurrentEvent() {
+        GameEventBus bus = new GameEventBus(8);
+        publish(bus, 0, 3);
+        GameEventBus.Subscription subscription = bus.subscribe();
+        Values received = new Values();
+        publish(bus, 3, 5);
+        subscription.drain(received);
+        assertEquals(range(3, 5), received.values);
+        assertEquals(1, bus.getSubscriptionCount());
+        subscription.close();
+        assertEquals(0, bus.getSubscriptionCount());
+    }
+
+    @Test
+    void concurrentReaderNeverSeesTornOrReorderedEvents() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(16); // Pequeño para que el lector se quede atrás a menudo
+        GameEventBus.Subscription subscription = bus.subscribe();
+        int total = 2_000_000;
+        Thread producer = new Thread(() -> publish(bus, 0, total), "StreetBuds-Prueba-Eventos");
+        long[] delivered = new long[1];
+        int[] last = { -1 };
+        String[] error = new String[1];
+        GameEvent.Handler check = event -> {
+            int value = event.getValue();
+            if (event.getTick() != value || event.getId() != value || event.getX() != value || event.getY() != value) {
+                error[0] = "Evento mezclado: " + event;
+            } else if (value <= last[0]) {
+                error[0] = "Evento " + value + " después de " + last[0];
+            }
+            last[0] = value;
+            delivered[0]++;
+        };
+        producer.start();
+        while (producer.isAlive() || subscription.pending() > 0) {
+            subscription.drain(check);
+        }
+        producer.join();
+        subscription.drain(check);
+
+        assertEquals(null, error[0]);
+        assertEquals(total, delivered[0] + subscription.getOverrun());
+        assertEquals(total - 1, last[0]);
+        assertTrue(delivered[0] > 0);
+    }
+}
@@ -0,0 +1,149 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Grabar una partida, guardarla, leerla y reproducirla: la reproducción pasa por los mismos niveles
+ * y reinicios, coincide en cada comprobación y detecta cuándo el estado no lo explica la entrada.
+ */
+class InputRecordingTest {
+    private static final int SCORE_TO_COMPLETE = 300; // El recorrido se completa y, a la cuarta vez, se pierde
+    private static final long TICKS = 3 * InputRecorder.CHECK_INTERVAL + 200;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Lo que pasó en una sesión grabada.
+     */
+    private static final class Session {
+        Simulation simulation;
+        int levels;   // Niveles empezados, incluido el primero
+        int restarts; // Reinicios tras perder
+    }
+
+    private static Level course() {
+        Level level = HeadlessRunner.allocationCourse();
+        level.setScoreToComplete(SCORE_TO_COMPLETE);
+        return level;
+    }
+
+    /**
+     * Juega TICKS ticks como lo haría la pantalla: al completar un nivel pasa a otro
+     * y al perder reinicia la partida.
+     * @param tamperAt Tick en el que se mata a un enemigo sin que lo explique la entrada, o -1.
+     */
+    private static Session play(InputRecorder recorder, long tamperAt) {
+        Session session = new Session();
+        Simulation simulation = new Simulation(1);
+        simulation.setRecorder(recorder);
+        simulation.setLevel(course());
+        session.simulation = simulation;
+        session.levels = 1;
+        InputPolicy policy = InputPolicy.runRight();
+        boolean[] keys = new boolean[256];
+        for (long tick = 0; tick < TICKS; tick++) {
+            if (tick == tamperAt) {
+                Level level = simulation.getLevel();
+                EntityTable enemies = level.getEnemyTable();
+                level.getEnemies().get(enemies.idAt(enemies.size() - 1)).takeDamage(1, true, level.getClock());
+            }
+            policy.next(simulation, keys);
+            simulation.step(keys);
+            if (simulation.getGameState() == GameState.GAME_OVER) {
+                simulation.restart();
+                session.restarts++;
+            } else if (simulation.getGameState() == GameState.LEVEL_COMPLETE) {
+                simulation.setLevel(course());
+                session.levels++;
+            }
+        }
+        return session;
+    }
+
+    @Test
+    void savedRecordingReplaysLevelsRestartsAndChecks() throws IOException {
+        InputRecorder recorder = new InputRecorder();
+        Session session = play(recorder, -1);
+        assertTrue(session.levels > 1, "La sesión no cambió de nivel");
+        assertTrue(session.restarts > 0, "La sesión no perdió ninguna partida");
+        assertEquals(TICKS, recorder.getTicks());
+        Path file = dir.resolve("partida.sbr");
+        recorder.save(file, session.simulation);
+
+        InputRecording recording = InputRecording.read(file);
+        assertEquals(TICKS, recording.getTicks());
+        assertEquals(session.simulation.getScore(), recording.getScore());
+        assertEquals(session.simulation.getLives(), recording.getLives());
+        assertTrue(recording.getPaletteSize() <= 2, "Combinaciones: " + recording.getPaletteSize());
+
+        Simulation replay = new Simulation(1);
+        assertEquals(TICKS, recording.replay(replay));
+        assertEquals(session.simulation.checksum(), replay.checksum());
+        assertEquals(session.simulation.getScore(), replay.getScore());
+    }
+
+    @Test
+    void checksDetectStateTheInputDoesNotExplain() throws IOException {
+        InputRecorder recorder = new InputRecorder();
+        Session session = play(recorder, InputRecorder.CHECK_INTERVAL - 10);
+        Path file = dir.resolve("alterada.sbr");
+        recorder.save(file, session.simulation);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> InputRecording.read(file).replay(new Simulation(1)));
+        assertTrue(error.getMessage().contains("antes del tick " + InputRecorder.CHECK_INTERVAL),
+            error.getMessage());
+    }
+
+    @Test
+    void savingAgainContinuesTheRecording() throws IOException {
+        InputRecorder recorder = new InputRecorder();
+        Session session = play(recorder, -1);
+        Path first = dir.resolve("primera.sbr");
+        recorder.save(first, session.simulation);
+        boolean[] keys = new boolean[256];
+        for (int i = 0; i < 50; i++) {
+            session.simulation.step(keys);
+        }
+        Path second = dir.resolve("segunda.sbr");
+        recorder.save(second, session.simulation);
+
+        assertEquals(TICKS, InputRecording.read(first).replay(new Simulation(1)));
+        assertEquals(TICKS + 50, InputRecording.read(second).replay(new Simulation(1)));
+    }
+
+    @Test
+    void rejectsOtherFilesAndTruncatedRecordings() throws IOException {
+        InputRecorder recorder = new InputRecorder();
+        Session session = play(recorder, -1);
+        Path file = dir.resolve("partida.sbr");
+        recorder.save(file, session.simulation);
+        byte[] data = Files.readAllBytes(file);
+
+        Path other = dir.resolve("otra.sbr");
+        byte[] magic = data.clone();
+        ByteBuffer.wrap(magic).putInt(0, LevelLoader.MAGIC);
+        Files.write(other, magic);
+        assertThrows(IllegalArgumentException.class, () -> InputRecording.read(other));
+
+        byte[] version = data.clone();
+        ByteBuffer.wrap(version).putInt(4, InputRecording.VERSION + 1);
+        Files.write(other, version);
+        assertThrows(IllegalArgumentException.class, () -> InputRecording.read(other));
+
+        Files.write(other, Arrays.copyOf(data, data.length - 1));
+        assertThrows(IOException.class, () -> InputRecording.read(other));
+    }
+}
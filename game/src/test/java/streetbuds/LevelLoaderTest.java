@@ -0,0 +1,193 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Formato binario de niveles: ida y vuelta sin perder nada y rechazo de archivos corruptos
+ * con IllegalArgumentException, nunca con otra excepción.
+ */
+class LevelLoaderTest {
+    private static final String TEXT = String.join("\n",
+        "nivel Nivel de prueba ñ",
+        "aparicion 100 390",
+        "tamano 2400 600",
+        "tiempo 120",
+        "puntuacion 500",
+        "fondo fondo1.png",
+        "plataforma 0 450 2400 50 solida",
+        "plataforma 300 320 100 20",
+        "enemigo 200 420 30 30",
+        "enemigo -40 420 30 30",
+        "coleccionable 150 300 20 20 COIN 100",
+        "coleccionable 900 300 20 20 POWER_UP 250",
+        "coleccionable 950 300 20 20 COIN 100",
+        "");
+
+    private static Level sample() throws IOException {
+        return LevelConverter.parse(new StringReader(TEXT));
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = LevelLoaderTest.class.getResourceAsStream(name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void assertCorrupt(byte[] data) {
+        assertThrows(IllegalArgumentException.class, () -> LevelLoader.decode(data));
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        Level level = sample();
+        Level decoded = LevelLoader.decode(LevelLoader.encode(level));
+        assertEquals(LevelConverter.format(level), LevelConverter.format(decoded));
+        assertEquals("Nivel de prueba ñ", decoded.getName());
+        assertEquals(new Point(100, 390), decoded.getPlayerSpawnPoint());
+        assertEquals("fondo1.png", decoded.getBackgroundPath());
+        assertEquals(3, decoded.getCollectibles().size());
+        assertEquals(Collectible.CollectibleType.POWER_UP, decoded.getCollectibles().get(1).getType());
+    }
+
+    @Test
+    void encodingIsStable() throws IOException {
+        for (String name : LevelManager.DEFAULT_LEVELS) {
+            byte[] data = resource(name);
+            assertArrayEquals(data, LevelLoader.encode(LevelLoader.decode(data)), name);
+        }
+    }
+
+    @Test
+    void skipsDeadEnemiesAndCollectedItems() throws IOException {
+        Level level = sample();
+        level.getEnemies().get(0).takeDamage(1, true, level.getClock());
+        level.getCollectibles().get(0).collect();
+        Level decoded = LevelLoader.decode(LevelLoader.encode(level));
+        assertEquals(1, decoded.getEnemies().size());
+        assertEquals(2, decoded.getCollectibles().size());
+    }
+
+    @Test
+    void levelWithoutBackgroundOrObjects() {
+        Level level = new Level("Vacío", new Point(0, 0));
+        Level decoded = LevelLoader.decode(LevelLoader.encode(level));
+        assertEquals(null, decoded.getBackgroundPath());
+        assertEquals(0, decoded.getPlatforms().size());
+    }
+
+    @Test
+    void backgroundPathReadsOnlyTheStringTable() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        assertEquals("fondo1.png", LevelLoader.backgroundPath(new ByteArrayInputStream(data)));
+        int objects = 64 + ByteBuffer.wrap(data).getInt(11 * 4); // Cabecera y cadenas; lo demás no hace falta
+        assertEquals("fondo1.png", LevelLoader.backgroundPath(new ByteArrayInputStream(Arrays.copyOf(data, objects))));
+        byte[] empty = LevelLoader.encode(new Level("Vacío", new Point(0, 0)));
+        assertEquals(null, LevelLoader.backgroundPath(new ByteArrayInputStream(empty)));
+        for (String name : LevelManager.DEFAULT_LEVELS) {
+            byte[] level = resource(name);
+            assertEquals(LevelLoader.decode(level).getBackgroundPath(),
+                LevelLoader.backgroundPath(new ByteArrayInputStream(level)), name);
+        }
+    }
+
+    @Test
+    void backgroundPathRejectsCorruptHeaders() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        // El nombre y luego el fondo: lo que venga detrás de la ruta no se llega a leer
+        int pathEnd = 64 + 4 + "Nivel de prueba ñ".getBytes(StandardCharsets.UTF_8).length + 4 + "fondo1.png".length();
+        for (int length = 0; length < pathEnd; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class,
+                () -> LevelLoader.backgroundPath(new ByteArrayInputStream(truncated)), "Truncado a " + length);
+        }
+        assertEquals("fondo1.png", LevelLoader.backgroundPath(new ByteArrayInputStream(Arrays.copyOf(data, pathEnd))));
+        for (int[] change : new int[][] { { 0, ChunkedLevelFile.MAGIC }, { 1, LevelLoader.VERSION + 1 }, { 3, 99 },
+                { 3, -2 }, { 11, 4 }, { 16, -1 }, { 16, 1 << 30 } }) {
+            byte[] corrupt = data.clone();
+            ByteBuffer.wrap(corrupt).putInt(change[0] * 4, change[1]);
+            assertThrows(IllegalArgumentException.class,
+                () -> LevelLoader.backgroundPath(new ByteArrayInputStream(corrupt)), "Entero " + change[0]);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedData() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        assertCorrupt(new byte[0]);
+        assertCorrupt(Arrays.copyOf(data, 63));
+        assertCorrupt(Arrays.copyOf(data, data.length - 4));
+        assertCorrupt(Arrays.copyOf(data, data.length + 4));
+    }
+
+    @Test
+    void rejectsWrongMagicOrVersion() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        byte[] magic = data.clone();
+        ByteBuffer.wrap(magic).putInt(0, ChunkedLevelFile.MAGIC);
+        assertCorrupt(magic);
+        byte[] version = data.clone();
+        ByteBuffer.wrap(version).putInt(4, LevelLoader.VERSION + 1);
+        assertCorrupt(version);
+    }
+
+    @Test
+    void rejectsInconsistentHeaderCounts() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        for (int field = 10; field <= 14; field++) { // Cadenas, bytes de cadenas y objetos
+            for (int value : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 29 }) {
+                byte[] corrupt = data.clone();
+                ByteBuffer.wrap(corrupt).putInt(field * 4, value);
+                assertCorrupt(corrupt);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadStringReferences() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        byte[] name = data.clone();
+        ByteBuffer.wrap(name).putInt(2 * 4, 99);
+        assertCorrupt(name);
+        byte[] length = data.clone();
+        ByteBuffer.wrap(length).putInt(16 * 4, 1 << 20); // Longitud de la primera cadena
+        assertCorrupt(length);
+        byte[] type = data.clone();
+        ByteBuffer.wrap(type).putInt(data.length - 2 * 4, 0); // Tipo del último coleccionable: el nombre del nivel
+        assertCorrupt(type);
+    }
+
+    @Test
+    void randomCorruptionNeverEscapesAsAnotherException() throws IOException {
+        byte[] data = LevelLoader.encode(sample());
+        Random random = new Random(14);
+        int decoded = 0;
+        for (int round = 0; round < 5000; round++) {
+            byte[] corrupt = data.clone();
+            for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                corrupt[random.nextInt(corrupt.length)] ^= (byte) (1 + random.nextInt(255));
+            }
+            try {
+                LevelLoader.decode(corrupt);
+                decoded++; // Cambió una coordenada o un valor: sigue siendo un nivel válido
+            } catch (IllegalArgumentException e) {
+                // Rechazado como se espera
+            }
+        }
+        assertTrue(decoded > 0 && decoded < 5000, "Decodificados " + decoded + " de 5000");
+    }
+}
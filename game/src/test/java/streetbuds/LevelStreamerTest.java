@@ -0,0 +1,157 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Carga y descarga de trozos: los enemigos vivos siguen al trozo en el que están, al descargarlos
+ * no queda ningún temporizador apuntando a ellos, y un nivel de 200 pantallas se recorre entero
+ * sin salirse del presupuesto.
+ */
+class LevelStreamerTest {
+    private static final int CHUNK = 512;
+    private static final int WIDTH = 10 * CHUNK;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Un pasillo de diez trozos con un enemigo al principio, abierto con un presupuesto que solo deja la vista.
+     */
+    private LevelStreamer openCorridor() throws IOException {
+        Level level = new Level("Pasillo", new Point(100, 390));
+        level.addPlatform(0, 450, WIDTH, 50, true);
+        level.addEnemy(100, 420, 30, 30);
+        level.setWorldSize(WIDTH, 600);
+        Path file = dir.resolve("pasillo.sbc");
+        ChunkedLevelFile.write(level, file, CHUNK);
+        LevelStreamer streamer = LevelStreamer.open(file, 1);
+        streamer.setSynchronous(true);
+        return streamer;
+    }
+
+    private static void look(LevelStreamer streamer, Camera camera, int x) {
+        Level level = streamer.getLevel();
+        camera.centerOn(x, 300, level.getWidth(), level.getHeight());
+        streamer.update(camera);
+    }
+
+    private static int liveEnemies(Level level) {
+        int count = 0;
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Enemy firstLiveEnemy(Level level) {
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive()) {
+                return enemy;
+            }
+        }
+        throw new AssertionError("No queda ningún enemigo vivo");
+    }
+
+    @Test
+    void liveEnemiesFollowTheChunkTheyAreIn() throws IOException {
+        try (LevelStreamer streamer = openCorridor()) {
+            Level level = streamer.getLevel();
+            Camera camera = new Camera();
+            look(streamer, camera, 400);
+            Enemy enemy = firstLiveEnemy(level);
+            EntityTable table = level.getEnemyTable();
+            table.setX(enemy.row(), 1300); // Se fue andando al tercer trozo
+
+            look(streamer, camera, 1300); // Se descarga el trozo donde apareció
+            assertEquals(1, liveEnemies(level));
+            assertEquals(1300, firstLiveEnemy(level).getX());
+
+            look(streamer, camera, WIDTH - 400); // Se descarga también el trozo donde está
+            assertEquals(0, liveEnemies(level));
+
+            // Con una vista que abarca los dos trozos vuelve donde estaba y no reaparece en su posición original
+            Camera wide = new Camera(1600, 600);
+            look(streamer, wide, 800);
+            assertEquals(1, liveEnemies(level));
+            assertEquals(1300, firstLiveEnemy(level).getX());
+        }
+    }
+
+    @Test
+    void evictingAStunnedEnemyCancelsItsTimer() throws IOException {
+        try (LevelStreamer streamer = openCorridor()) {
+            Level level = streamer.getLevel();
+            GameClock clock = level.getClock();
+            Camera camera = new Camera();
+            look(streamer, camera, 400);
+            firstLiveEnemy(level).takeDamage(1, false, clock);
+            assertEquals(1, clock.getPendingTimers());
+
+            look(streamer, camera, WIDTH - 400);
+            assertEquals(0, clock.getPendingTimers());
+            for (long i = 0; i <= Enemy.STUN_TICKS; i++) {
+                clock.advance();
+            }
+
+            look(streamer, camera, 400); // Vuelve sin aturdir
+            assertEquals(1, liveEnemies(level));
+            assertEquals(false, firstLiveEnemy(level).isStunned());
+        }
+    }
+
+    @Test
+    void updatesWithEverythingLoadedDoNotAllocate() throws IOException {
+        int chunk = 64; // Muchos trozos pequeños: los números pasan de los Integer que la JVM tiene en caché
+        Level source = new Level("Trozos pequeños", new Point(100, 390));
+        source.addPlatform(0, 450, 300 * chunk, 50, true);
+        source.setWorldSize(300 * chunk, 600);
+        Path file = dir.resolve("pequenos.sbc");
+        ChunkedLevelFile.write(source, file, chunk);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (LevelStreamer streamer = LevelStreamer.open(file, LevelStreamer.DEFAULT_BUDGET_BYTES)) {
+            streamer.setSynchronous(true);
+            Camera camera = new Camera();
+            look(streamer, camera, 250 * chunk);
+            long loads = streamer.getChunkLoads();
+            for (int i = 0; i < 20_000; i++) { // Para que el JIT compile update()
+                streamer.update(camera);
+            }
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                streamer.update(camera);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            assertEquals(loads, streamer.getChunkLoads());
+            assertTrue(allocated <= HeadlessRunner.ALLOCATION_TOLERANCE, allocated + " bytes en 100000 ticks");
+        }
+    }
+
+    @Test
+    void soakRunStaysWithinBudget() throws IOException {
+        Level source = StreamingRunner.soakLevel(StreamingRunner.DEFAULT_SCREENS);
+        Path file = dir.resolve("resistencia.sbc");
+        ChunkedLevelFile.write(source, file, ChunkedLevelFile.DEFAULT_CHUNK_SIZE);
+
+        StreamingRunner.Result result = StreamingRunner.soak(file, StreamingRunner.SOAK_BUDGET_BYTES,
+            100_000, true);
+
+        assertTrue(result.reachedEnd, () -> "Se quedó en el tick " + result.ticks);
+        assertTrue(result.maxResidentBytes <= StreamingRunner.SOAK_BUDGET_BYTES,
+            () -> result.maxResidentBytes + " bytes cargados");
+        assertTrue(result.evictions > 0, "No se descargó ningún trozo");
+        assertEquals(result.startupBlockingLoads, result.blockingLoads, "La vista llegó antes que la precarga");
+        assertTrue(result.maxPlatformSlots < source.getPlatforms().size(),
+            () -> result.maxPlatformSlots + " posiciones de plataformas");
+    }
+}
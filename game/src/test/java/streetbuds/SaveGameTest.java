@@ -0,0 +1,256 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Diario de partidas guardadas: la base y los registros de cambios se leen como el último estado guardado,
+ * lo que no cambia no se escribe, se vuelve a una base al cambiar de nivel o tras MAX_DELTA_RECORDS cambios
+ * y los archivos incompletos o dañados se rechazan con IllegalArgumentException.
+ */
+class SaveGameTest {
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private SaveGameWriter writer;
+
+    private SaveGameWriter open() {
+        file = dir.resolve("partida.sav");
+        writer = new SaveGameWriter(file);
+        return writer;
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        if (writer != null) {
+            assertTrue(writer.close(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static SaveGame state(int level, int score, int x, int y, BitSet collected, BitSet killed) {
+        return new SaveGame(level, "Nivel " + level, score, 0, 3, x, y, 100,
+            (BitSet) collected.clone(), (BitSet) killed.clone());
+    }
+
+    /**
+     * Guarda un estado y espera a que el hilo de guardado haya escrito el archivo writes veces.
+     */
+    private static void saveAndWait(SaveGameWriter writer, SaveGame state, long writes) throws InterruptedException {
+        writer.save(state);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.getWrites() < writes) {
+            if (System.nanoTime() > deadline) {
+                fail("El archivo no se escribió " + writes + " veces");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Registros del diario según la cabecera del archivo.
+     */
+    private int records() throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getInt(8);
+    }
+
+    /**
+     * Archivo con la cabecera correcta para el diario dado.
+     */
+    private Path journal(int records, byte[] journal) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(16 + journal.length);
+        data.putInt(SaveGame.MAGIC).putInt(SaveGame.VERSION).putInt(records).putInt(journal.length).put(journal);
+        Path corrupt = dir.resolve("diario.sav");
+        Files.write(corrupt, data.array());
+        return corrupt;
+    }
+
+    private static void assertCorrupt(Path file) {
+        assertThrows(IllegalArgumentException.class, () -> SaveGame.read(file));
+    }
+
+    @Test
+    void baseAndDeltasReadBackAsTheLastState() throws Exception {
+        SaveGameWriter writer = open();
+        Random random = new Random(20);
+        BitSet collected = new BitSet(), killed = new BitSet();
+        int score = 0;
+        for (int i = 1; i <= 40; i++) {
+            score += random.nextInt(3) * 100;
+            for (int flips = random.nextInt(4); flips > 0; flips--) {
+                collected.flip(random.nextInt(i % 5 == 0 ? 5000 : 64)); // Distancias de uno y de varios bytes
+            }
+            if (random.nextBoolean()) {
+                killed.set(random.nextInt(200));
+            }
+            SaveGame state = state(1, score, random.nextInt(4000) - 200, random.nextInt(700) - 100, collected, killed);
+            saveAndWait(writer, state, i);
+            assertEquals(i, records());
+            assertEquals(state, SaveGame.read(file), "Tras " + i + " guardados");
+        }
+    }
+
+    @Test
+    void unchangedStatesWriteNothing() throws Exception {
+        SaveGameWriter writer = open();
+        BitSet collected = new BitSet();
+        collected.set(3);
+        saveAndWait(writer, state(1, 100, 10, 20, collected, new BitSet()), 1);
+        byte[] written = Files.readAllBytes(file);
+        for (int i = 0; i < 5; i++) {
+            writer.save(state(1, 100, 10, 20, collected, new BitSet())); // Igual, pero otro objeto
+        }
+        assertTrue(writer.close(10, TimeUnit.SECONDS));
+        assertEquals(1, writer.getWrites());
+        assertTrue(Arrays.equals(written, Files.readAllBytes(file)));
+    }
+
+    @Test
+    void rebasesAfterTooManyDeltas() throws Exception {
+        SaveGameWriter writer = open();
+        BitSet collected = new BitSet();
+        int writes = 0;
+        SaveGame state = null;
+        for (int score = 0; score <= SaveGameWriter.MAX_DELTA_RECORDS; score++) {
+            collected.set(score);
+            state = state(1, score, 0, 0, collected, new BitSet());
+            saveAndWait(writer, state, ++writes);
+        }
+        assertEquals(1 + SaveGameWriter.MAX_DELTA_RECORDS, records());
+        assertEquals(state, SaveGame.read(file));
+
+        collected.set(500);
+        state = state(1, 1000, 0, 0, collected, new BitSet());
+        saveAndWait(writer, state, ++writes);
+        assertEquals(1, records());
+        assertEquals(state, SaveGame.read(file));
+        assertEquals(SaveGameWriter.MAX_DELTA_RECORDS + 2, SaveGame.read(file).getCollectedCount());
+    }
+
+    @Test
+    void rebasesOnLevelChange() throws Exception {
+        SaveGameWriter writer = open();
+        BitSet collected = new BitSet(), killed = new BitSet();
+        collected.set(1);
+        killed.set(2);
+        saveAndWait(writer, state(1, 100, 0, 0, collected, killed), 1);
+        collected.set(7);
+        saveAndWait(writer, state(1, 200, 5, 0, collected, killed), 2);
+        assertEquals(2, records());
+
+        BitSet next = new BitSet();
+        next.set(4);
+        SaveGame second = state(2, 200, 0, 0, next, new BitSet());
+        saveAndWait(writer, second, 3);
+        assertEquals(1, records());
+        SaveGame read = SaveGame.read(file);
+        assertEquals(second, read); // Sin los bits del nivel anterior
+        assertEquals(1, read.getCollectedCount());
+        assertEquals(0, read.getKilledCount());
+    }
+
+    @Test
+    void capturedGameReadsBackAndApplies() throws Exception {
+        Simulation simulation = new Simulation(1);
+        simulation.setLevel(HeadlessRunner.allocationCourse());
+        InputPolicy policy = InputPolicy.runRight();
+        boolean[] keys = new boolean[256];
+        for (int i = 0; i < 400; i++) {
+            policy.next(simulation, keys);
+            simulation.step(keys);
+        }
+        SaveGame saved = SaveGame.capture(simulation, 1);
+        assertTrue(saved.getCollectedCount() > 0 && saved.getKilledCount() > 0);
+        saveAndWait(open(), saved, 1);
+        SaveGame read = SaveGame.read(file);
+        assertEquals(saved, read);
+
+        Simulation resumed = new Simulation(1);
+        resumed.setLevel(HeadlessRunner.allocationCourse());
+        read.applyTo(resumed);
+        assertEquals(saved, SaveGame.capture(resumed, 1));
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws Exception {
+        SaveGameWriter writer = open();
+        BitSet collected = new BitSet();
+        for (int i = 1; i <= 5; i++) {
+            collected.set(i * 300);
+            saveAndWait(writer, state(1, i * 100, -i, i, collected, new BitSet()), i);
+        }
+        byte[] data = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncada.sav");
+        for (int length = 0; length < data.length; length++) {
+            Files.write(truncated, Arrays.copyOf(data, length));
+            assertCorrupt(truncated);
+        }
+        // Con la longitud de la cabecera corregida, lo que falta son registros enteros o a medias
+        for (int length = 17; length < data.length; length++) {
+            assertCorrupt(journal(5, Arrays.copyOfRange(data, 16, length)));
+        }
+    }
+
+    @Test
+    void rejectsCorruptHeaders() throws Exception {
+        saveAndWait(open(), state(1, 100, 0, 0, new BitSet(), new BitSet()), 1);
+        byte[] data = Files.readAllBytes(file);
+        Path corrupt = dir.resolve("cabecera.sav");
+        for (int[] change : new int[][] { { 0, LevelLoader.MAGIC }, { 4, SaveGame.VERSION + 1 }, { 8, 0 },
+                { 8, -1 }, { 8, 2 }, { 12, data.length } }) {
+            byte[] copy = data.clone();
+            ByteBuffer.wrap(copy).putInt(change[0], change[1]);
+            Files.write(corrupt, copy);
+            assertCorrupt(corrupt);
+        }
+        byte[] trailing = Arrays.copyOf(Arrays.copyOfRange(data, 16, data.length), data.length - 16 + 1);
+        assertCorrupt(journal(1, trailing)); // Un byte de más tras el último registro
+    }
+
+    @Test
+    void rejectsCorruptRecords() throws IOException {
+        // El primer registro no es una base
+        assertCorrupt(journal(1, new byte[] { SaveGame.SCORE, 1, 0, 0 }));
+        // Nombre de nivel más largo que el archivo: no debe intentar reservarlo
+        assertCorrupt(journal(1, new byte[] { SaveGame.LEVEL, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, 0x07, 0, 0 }));
+        // Varint sin final
+        byte[] endless = new byte[12];
+        Arrays.fill(endless, (byte) 0x80);
+        endless[0] = SaveGame.LEVEL;
+        assertCorrupt(journal(1, endless));
+
+        ByteArrayOutputStream base = new ByteArrayOutputStream();
+        state(1, 0, 0, 0, new BitSet(), new BitSet()).writeRecord(null, base);
+        // Más cambios de objetos que bytes quedan
+        assertCorrupt(journal(2, concat(base.toByteArray(), new byte[] { 0, 100, 0 })));
+        // Una distancia que saca la posición del objeto de lo que puede tener un nivel
+        assertCorrupt(journal(2, concat(base.toByteArray(), new byte[] { 0, 2, 0, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, (byte) 0xFF, 0x0F, 0 })));
+        // Y el mismo diario sin dañar se lee
+        assertEquals(2, SaveGame.read(journal(2, concat(base.toByteArray(), new byte[] { 0, 2, 0, 4, 0 })))
+            .getCollectedCount());
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+}
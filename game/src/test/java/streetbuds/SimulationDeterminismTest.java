@@ -0,0 +1,79 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Con varios hilos en la fase de actualización, la partida debe ser la misma que en un solo hilo:
+ * la misma entrada da el mismo checksum en cada tick.
+ */
+class SimulationDeterminismTest {
+    private static final int SCREENS = 20;
+    private static final int ENEMIES = 2000;  // Cuatro trozos del arquetipo, para que el movimiento se reparta
+    private static final long TICKS = 6000;
+    private static final int CHECK_INTERVAL = 30;
+
+    /**
+     * Suelo continuo con enemigos muy juntos, monedas y algunas plataformas a la altura del salto.
+     */
+    private static Level crowdedLevel() {
+        int width = SCREENS * Camera.DEFAULT_WIDTH;
+        Level level = new Level("Multitud", new Point(100, 390));
+        level.reserve(1 + SCREENS, ENEMIES, 4 * SCREENS);
+        level.addPlatform(0, 450, width, 50, true);
+        for (int screen = 0; screen < SCREENS; screen++) {
+            level.addPlatform(screen * Camera.DEFAULT_WIDTH + 300, 340, 120, 20, false);
+        }
+        for (int i = 0; i < ENEMIES; i++) {
+            level.addEnemy(200 + (int) ((long) i * (width - 400) / ENEMIES), 420, 30, 30);
+        }
+        for (int x = 150; x < width; x += Camera.DEFAULT_WIDTH / 4) {
+            level.addCollectible(x, 410, 20, 20, Collectible.CollectibleType.COIN, 10);
+        }
+        level.setWorldSize(width, Camera.DEFAULT_HEIGHT);
+        level.setScoreToComplete(Integer.MAX_VALUE);
+        return level;
+    }
+
+    @Test
+    void parallelUpdateMatchesSingleThread() {
+        for (long seed : new long[] { 1, 17, 2024 }) {
+            assertSameGame(seed);
+        }
+    }
+
+    private static void assertSameGame(long seed) {
+        Simulation serial = new Simulation(1);
+        Simulation parallel = new Simulation(4);
+        try {
+            serial.setLevel(crowdedLevel());
+            parallel.setLevel(crowdedLevel());
+            assertTrue(parallel.getLevel().getEnemyChunkCount() > 1, "El movimiento no se reparte entre hilos");
+
+            InputPolicy policy = InputPolicy.random(seed);
+            boolean[] keys = new boolean[256];
+            for (long tick = 1; tick <= TICKS; tick++) {
+                policy.next(serial, keys); // Las mismas teclas para las dos
+                serial.step(keys);
+                parallel.step(keys);
+                if (tick % CHECK_INTERVAL == 0) {
+                    assertEquals(serial.checksum(), parallel.checksum(), "Semilla " + seed + ", tick " + tick);
+                }
+                assertEquals(serial.getGameState(), parallel.getGameState(), "Semilla " + seed + ", tick " + tick);
+                if (serial.getGameState() != GameState.PLAYING) {
+                    serial.restart();
+                    parallel.restart();
+                }
+            }
+            assertEquals(serial.checksum(), parallel.checksum(), "Semilla " + seed + " al final");
+            assertTrue(serial.getScore() > 0, "Semilla " + seed + ": la partida no recogió nada");
+        } finally {
+            serial.shutdown();
+            parallel.shutdown();
+        }
+    }
+}
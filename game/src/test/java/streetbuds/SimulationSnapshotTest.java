@@ -0,0 +1,185 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Instantáneas de la simulación: restaurar vuelve al checksum de la captura y, con la misma entrada,
+ * la partida sigue igual que la primera vez, también con temporizadores pendientes al capturar.
+ */
+class SimulationSnapshotTest {
+    private static final int AFTER_CAPTURE = 400; // Más que la invulnerabilidad y el aturdimiento
+
+    /**
+     * Teclas de una partida con semilla, guardadas para poder repetirlas.
+     */
+    private static boolean[][] inputs(long seed, int ticks) {
+        InputPolicy policy = InputPolicy.random(seed);
+        boolean[] keys = new boolean[256];
+        boolean[][] inputs = new boolean[ticks][];
+        for (int i = 0; i < ticks; i++) {
+            policy.next(null, keys);
+            inputs[i] = keys.clone();
+        }
+        return inputs;
+    }
+
+    private static Simulation start(Level level) {
+        Simulation simulation = new Simulation(1);
+        simulation.setLevel(level);
+        return simulation;
+    }
+
+    /**
+     * Avanza la simulación con inputs[from..to) y devuelve el checksum tras cada tick.
+     */
+    private static long[] run(Simulation simulation, boolean[][] inputs, int from, int to) {
+        long[] checksums = new long[to - from];
+        for (int i = from; i < to; i++) {
+            simulation.step(inputs[i]);
+            checksums[i - from] = simulation.checksum();
+        }
+        return checksums;
+    }
+
+    @Test
+    void restoreReturnsToTheCaptureAndReplaysTheSameTicks() {
+        Simulation simulation = start(HeadlessRunner.allocationCourse());
+        boolean[][] inputs = inputs(19, 200 + AFTER_CAPTURE);
+        run(simulation, inputs, 0, 200);
+
+        SimulationSnapshot snapshot = new SimulationSnapshot();
+        snapshot.capture(simulation);
+        long captured = simulation.checksum();
+        assertEquals(simulation.getLevel().getClock().getTick(), snapshot.getTick());
+        long[] first = run(simulation, inputs, 200, inputs.length);
+
+        for (int round = 0; round < 2; round++) { // La instantánea se puede restaurar más de una vez
+            snapshot.restore(simulation);
+            assertEquals(captured, simulation.checksum());
+            assertEquals(snapshot.getTick(), simulation.getLevel().getClock().getTick());
+            assertArrayEquals(first, run(simulation, inputs, 200, inputs.length));
+        }
+    }
+
+    @Test
+    void pendingStunAndInvulnerabilityExpireOnTheSameTickAfterRestore() {
+        Level level = HeadlessRunner.allocationCourse();
+        Simulation simulation = start(level);
+        boolean[][] inputs = inputs(23, 100 + AFTER_CAPTURE);
+        run(simulation, inputs, 0, 100);
+
+        // Aturdir a los enemigos que tiene delante y dañar al jugador, con los temporizadores a medias
+        GameClock clock = level.getClock();
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive() && enemy.getX() < 1200) {
+                enemy.takeDamage(1, false, clock);
+            }
+        }
+        simulation.getPlayer().takeDamage(1);
+        run(simulation, inputs, 100, 130);
+        int pending = clock.getPendingTimers();
+        assertTrue(pending >= 2, "Solo hay " + pending + " temporizadores pendientes");
+        assertTrue(countStunned(level) > 0);
+
+        SimulationSnapshot snapshot = new SimulationSnapshot();
+        snapshot.capture(simulation);
+        long captured = simulation.checksum();
+        int[] firstPending = new int[AFTER_CAPTURE];
+        long[] first = new long[AFTER_CAPTURE];
+        for (int i = 0; i < AFTER_CAPTURE; i++) {
+            simulation.step(inputs[100 + i]);
+            first[i] = simulation.checksum();
+            firstPending[i] = clock.getPendingTimers();
+        }
+        assertEquals(0, countStunned(level), "Quedan enemigos aturdidos");
+
+        snapshot.restore(simulation);
+        assertEquals(captured, simulation.checksum());
+        assertEquals(pending, clock.getPendingTimers()); // Reprogramados, sin duplicados de antes de restaurar
+        for (int i = 0; i < AFTER_CAPTURE; i++) {
+            simulation.step(inputs[100 + i]);
+            assertEquals(first[i], simulation.checksum(), "Tick " + i + " tras restaurar");
+            assertEquals(firstPending[i], clock.getPendingTimers(), "Temporizadores en el tick " + i + " tras restaurar");
+        }
+    }
+
+    private static int countStunned(Level level) {
+        int stunned = 0;
+        for (Enemy enemy : level.getEnemies()) {
+            if (enemy != null && enemy.isAlive() && enemy.isStunned()) {
+                stunned++;
+            }
+        }
+        return stunned;
+    }
+
+    @Test
+    void snapshotGrowsWhenTheStateDoesNotFit() {
+        Simulation simulation = start(HeadlessRunner.allocationCourse());
+        SimulationSnapshot snapshot = new SimulationSnapshot(16);
+        snapshot.capture(simulation);
+        assertTrue(snapshot.getCapacity() >= snapshot.getSize() && snapshot.getSize() > 16);
+        long captured = simulation.checksum();
+        run(simulation, inputs(5, 60), 0, 60);
+        snapshot.restore(simulation);
+        assertEquals(captured, simulation.checksum());
+    }
+
+    @Test
+    void restoreRejectsEmptySnapshotOrAnotherLevel() {
+        Simulation simulation = start(HeadlessRunner.allocationCourse());
+        SimulationSnapshot snapshot = new SimulationSnapshot();
+        assertThrows(IllegalStateException.class, () -> snapshot.restore(simulation));
+        snapshot.capture(simulation);
+        simulation.setLevel(new Level("Otro", new Point(0, 0)));
+        assertThrows(IllegalStateException.class, () -> snapshot.restore(simulation));
+        snapshot.clear();
+        assertTrue(snapshot.isEmpty());
+        assertThrows(IllegalStateException.class, () -> new SimulationSnapshot().capture(new Simulation(1)));
+    }
+
+    @Test
+    void ringRewindsAndContinuesFromTheOlderSnapshot() {
+        Simulation simulation = start(HeadlessRunner.allocationCourse());
+        SnapshotRing ring = new SnapshotRing(8, 1024);
+        boolean[][] inputs = inputs(31, 300);
+        long[] checksums = new long[inputs.length];
+        for (int i = 0; i < 20; i++) { // Más capturas que ranuras: el anillo da la vuelta
+            simulation.step(inputs[i]);
+            checksums[i] = simulation.checksum();
+            assertTrue(ring.record(simulation));
+        }
+        assertEquals(8, ring.size());
+        assertThrows(IllegalArgumentException.class, () -> ring.rewind(simulation, 8));
+        long tick = ring.getTick(3);
+
+        ring.rewind(simulation, 3); // Vuelve al estado tras inputs[16]
+        assertEquals(checksums[16], simulation.checksum());
+        assertEquals(tick, simulation.getLevel().getClock().getTick());
+        assertEquals(5, ring.size());
+        for (int i = 17; i < inputs.length; i++) {
+            simulation.step(inputs[i]);
+            if (i < 20) {
+                assertEquals(checksums[i], simulation.checksum(), "Tick " + i + " tras rebobinar");
+            }
+            checksums[i] = simulation.checksum();
+            ring.record(simulation);
+        }
+        assertEquals(8, ring.size());
+
+        ring.rewind(simulation, 7);
+        assertEquals(checksums[inputs.length - 8], simulation.checksum());
+        assertEquals(1, ring.size());
+
+        simulation.setLevel(HeadlessRunner.allocationCourse()); // Las instantáneas del nivel anterior ya no sirven
+        assertTrue(ring.record(simulation));
+        assertEquals(1, ring.size());
+    }
+}
@@ -0,0 +1,25 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * El bucle del juego no debe crear objetos en cada tick, tampoco al recoger, pisar enemigos,
+ * recibir daño o lanzar partículas. Es la misma comprobación que HeadlessRunner --check-alloc.
+ */
+class TickAllocationTest {
+    private static final long WARMUP_TICKS = 1_000_000; // Para que el JIT compile el tick y elimine los eventos de JFR
+    private static final long TICKS = 300_000;
+
+    @Test
+    void gameplayTicksDoNotAllocate() {
+        HeadlessRunner.AllocationCheck check = HeadlessRunner.checkAllocations(WARMUP_TICKS, TICKS);
+
+        assertTrue(check.coversGameplay(), () -> "El recorrido no pasó por todos los caminos: "
+            + check.enemiesKilled + " enemigos, " + check.itemsCollected + " coleccionables, "
+            + check.damageTaken + " de daño");
+        assertTrue(check.allocatedBytes <= HeadlessRunner.ALLOCATION_TOLERANCE,
+            () -> check.allocatedBytes + " bytes reservados en " + TICKS + " ticks");
+    }
+}
@@ -0,0 +1,176 @@
+package streetbuds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Temporizadores del reloj del juego: vencimiento en su tick, vueltas de la rueda, cancelación
+ * y temporizadores que se cancelan o se vuelven a programar mientras otros vencen.
+ */
+class TimerWheelTest {
+    /**
+     * Apunta "objetivo@tick" por cada temporizador que vence.
+     */
+    private static final class Log implements GameClock.Expiry {
+        final List<String> fired = new ArrayList<>();
+
+        @Override
+        public void expire(int target, long tick) {
+            fired.add(target + "@" + tick);
+        }
+    }
+
+    private static void advance(GameClock clock, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            clock.advance();
+        }
+    }
+
+    @Test
+    void firesOnItsTickInSchedulingOrder() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        clock.schedule(3, log, 1);
+        clock.schedule(2, log, 2);
+        clock.schedule(3, log, 3);
+        advance(clock, 2);
+        assertEquals(List.of("2@2"), log.fired);
+        advance(clock, 1);
+        assertEquals(List.of("2@2", "1@3", "3@3"), log.fired);
+        assertEquals(0, clock.getPendingTimers());
+        assertEquals(3, clock.getExpiredTimers());
+    }
+
+    @Test
+    void waitsForLaterTurnsOfTheWheel() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        clock.schedule(300, log, 7); // Misma casilla que el tick 44, una vuelta después
+        advance(clock, 299);
+        assertTrue(log.fired.isEmpty());
+        advance(clock, 1);
+        assertEquals(List.of("7@300"), log.fired);
+    }
+
+    @Test
+    void rejectsTimersShorterThanATick() {
+        GameClock clock = new GameClock();
+        assertThrows(IllegalArgumentException.class, () -> clock.schedule(0, new Log(), 0));
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        long handle = clock.schedule(5, log, 1);
+        clock.schedule(5, log, 2);
+        assertTrue(clock.cancel(handle));
+        assertFalse(clock.cancel(handle));
+        advance(clock, 5);
+        assertEquals(List.of("2@5"), log.fired);
+        assertEquals(0, clock.getPendingTimers());
+    }
+
+    @Test
+    void staleHandleDoesNotCancelTheTimerReusingItsNode() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        long old = clock.schedule(1, log, 1);
+        advance(clock, 1);
+        clock.schedule(1, log, 2); // Reutiliza el nodo del anterior
+        assertFalse(clock.cancel(old));
+        advance(clock, 1);
+        assertEquals(List.of("1@1", "2@2"), log.fired);
+    }
+
+    @Test
+    void cancelDuringExpiryStopsATimerDueTheSameTick() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        long[] victim = new long[1];
+        clock.schedule(4, (target, tick) -> {
+            log.expire(target, tick);
+            assertTrue(clock.cancel(victim[0]));
+        }, 1);
+        victim[0] = clock.schedule(4, log, 2);
+        clock.schedule(4, log, 3);
+        advance(clock, 4);
+        assertEquals(List.of("1@4", "3@4"), log.fired);
+        assertEquals(0, clock.getPendingTimers());
+        assertEquals(2, clock.getExpiredTimers());
+
+        advance(clock, 300); // El nodo cancelado se liberó y no vuelve a vencer
+        assertEquals(List.of("1@4", "3@4"), log.fired);
+    }
+
+    @Test
+    void cancelDuringExpiryOfALaterTimerStillWorks() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        long later = clock.schedule(10, log, 2);
+        clock.schedule(4, (target, tick) -> assertTrue(clock.cancel(later)), 1);
+        advance(clock, 20);
+        assertTrue(log.fired.isEmpty());
+        assertEquals(0, clock.getPendingTimers());
+    }
+
+    @Test
+    void rescheduleDuringExpiryWaitsForItsOwnTick() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        GameClock.Expiry repeating = new GameClock.Expiry() {
+            int remaining = 3;
+
+            @Override
+            public void expire(int target, long tick) {
+                log.expire(target, tick);
+                if (--remaining > 0) {
+                    clock.schedule(1, this, target);
+                }
+            }
+        };
+        clock.schedule(2, repeating, 1);
+        // Una vuelta entera de la rueda cae en la misma casilla que se está recorriendo
+        clock.schedule(2, (target, tick) -> clock.schedule(256, log, 9), 0);
+        advance(clock, 2);
+        assertEquals(List.of("1@2"), log.fired);
+        advance(clock, 2);
+        assertEquals(List.of("1@2", "1@3", "1@4"), log.fired);
+        advance(clock, 254);
+        assertEquals(List.of("1@2", "1@3", "1@4", "9@258"), log.fired);
+        assertEquals(0, clock.getPendingTimers());
+    }
+
+    @Test
+    void growsPastItsInitialNodes() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        for (int i = 0; i < 1000; i++) {
+            clock.schedule(1 + i % 7, log, i);
+        }
+        assertEquals(1000, clock.getPendingTimers());
+        advance(clock, 7);
+        assertEquals(1000, log.fired.size());
+        assertEquals(0, clock.getPendingTimers());
+    }
+
+    @Test
+    void settingTheTickDiscardsPendingTimers() {
+        GameClock clock = new GameClock();
+        Log log = new Log();
+        long handle = clock.schedule(5, log, 1);
+        clock.setTick(100);
+        assertEquals(0, clock.getPendingTimers());
+        assertFalse(clock.cancel(handle));
+        clock.schedule(5, log, 2);
+        advance(clock, 5);
+        assertEquals(List.of("2@105"), log.fired);
+    }
+}
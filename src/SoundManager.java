@@ -1,81 +0,0 @@
-import java.io.File;
-import java.io.IOException;
-import java.util.HashMap;
-import javax.sound.sampled.*;
-
-public class SoundManager {
-    private static SoundManager instance;
-    private HashMap<String, Clip> soundEffects;
-    private Clip backgroundMusic;
-    private float volume = 0.5f; // Volumen por defecto (0.0 a 1.0)
-
-    private SoundManager() {
-        soundEffects = new HashMap<>();
-    }
-
-    public static SoundManager getInstance() {
-        if (instance == null) {
-            instance = new SoundManager();
-        }
-        return instance;
-    }
-
-    public void loadSound(String name, String filePath) {
-        try {
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(filePath));
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioIn);
-            soundEffects.put(name, clip);
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.err.println("Error al cargar el sonido: " + e.getMessage());
-        }
-    }
-
-    public void playSound(String name) {
-        Clip clip = soundEffects.get(name);
-        if (clip != null) {
-            clip.setFramePosition(0);
-            setVolume(clip, volume);
-            clip.start();
-        }
-    }
-
-    public void playBackgroundMusic(String filePath) {
-        try {
-            if (backgroundMusic != null) {
-                backgroundMusic.stop();
-            }
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(filePath));
-            backgroundMusic = AudioSystem.getClip();
-            backgroundMusic.open(audioIn);
-            setVolume(backgroundMusic, volume);
-            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY);
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.err.println("Error al cargar la música: " + e.getMessage());
-        }
-    }
-
-    public void setVolume(float volume) {
-        this.volume = Math.max(0.0f, Math.min(1.0f, volume));
-        if (backgroundMusic != null) {
-            setVolume(backgroundMusic, this.volume);
-        }
-        for (Clip clip : soundEffects.values()) {
-            setVolume(clip, this.volume);
-        }
-    }
-
-    private void setVolume(Clip clip, float volume) {
-        if (clip != null) {
-            FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            float dB = (float) (Math.log(volume) / Math.log(10.0) * 20.0);
-            gainControl.setValue(dB);
-        }
-    }
-
-    public void stopBackgroundMusic() {
-        if (backgroundMusic != null) {
-            backgroundMusic.stop();
-        }
-    }
-} 
\ No newline at end of file
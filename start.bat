@@ -1,6 +1,6 @@
 @echo off
 echo Compilando el juego...
-javac -d bin src/*.java
+javac -encoding UTF-8 -d bin game/src/main/java/streetbuds/*.java
 
 if %errorlevel% neq 0 (
     echo Error al compilar el juego
@@ -9,6 +9,6 @@ if %errorlevel% neq 0 (
 )
 
 echo Ejecutando el juego...
-java -cp bin StreetBuds
+java -cp bin;game/src/main/resources streetbuds.StreetBuds
 
 pause 
\ No newline at end of file